@@ -34,6 +34,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.Vector;
+import java.util.function.Consumer;
 import java.util.function.Predicate;
 import java.util.stream.Stream;
 
@@ -41,7 +42,11 @@ import org.apache.tools.ant.taskdefs.condition.Os;
 import org.apache.tools.ant.types.Resource;
 import org.apache.tools.ant.types.ResourceFactory;
 import org.apache.tools.ant.types.resources.FileResource;
+import org.apache.tools.ant.types.selectors.BaseSelectorContainer;
+import org.apache.tools.ant.types.selectors.FileAttributeContext;
 import org.apache.tools.ant.types.selectors.FileSelector;
+import org.apache.tools.ant.types.selectors.PendingFilesSelector;
+import org.apache.tools.ant.types.selectors.SelectorCost;
 import org.apache.tools.ant.types.selectors.SelectorScanner;
 import org.apache.tools.ant.types.selectors.SelectorUtils;
 import org.apache.tools.ant.types.selectors.TokenizedPath;
@@ -226,6 +231,14 @@ public class DirectoryScanner
      */
     public static final String DOES_NOT_EXIST_POSTFIX = " does not exist.";
 
+    /**
+     * Part of the name a directory gets while it is deleted in the
+     * background by &lt;delete&gt;.  Hidden entries containing it are
+     * skipped by all scanners.
+     * @since Ant 1.10.9
+     */
+    public static final String DELETING_INFIX = ".ant-deleting-";
+
     /** Helper. */
     private static final FileUtils FILE_UTILS = FileUtils.getFileUtils();
 
@@ -253,6 +266,10 @@ public class DirectoryScanner
     /** Selectors that will filter which files are in our candidate list. */
     protected FileSelector[] selectors = null;
 
+    /** Selectors, possibly nested, that are told about pending files. */
+    private List<PendingFilesSelector> pendingFilesSelectors =
+        Collections.emptyList();
+
     /**
      * The files which matched at least one include and no excludes
      * and were selected.
@@ -442,6 +459,23 @@ public class DirectoryScanner
      */
     private final Set<String> notFollowedSymlinks = new HashSet<>();
 
+    /**
+     * Receives the names of included files during a streaming scan,
+     * null during a normal scan.
+     *
+     * @since Ant 1.10.9
+     */
+    private Consumer<String> includedFileConsumer;
+
+    /**
+     * Files that have been passed to the consumer of a streaming scan
+     * because an include pattern named them directly.  They may be
+     * found a second time while scanning their parent directory.
+     *
+     * @since Ant 1.10.9
+     */
+    private final Set<String> streamedRootFiles = new HashSet<>();
+
     /**
      * Test whether or not a given path matches the start of a given
      * pattern up to the first "**".
@@ -812,11 +846,30 @@ public class DirectoryScanner
     /**
      * Set the selectors that will select the filelist.
      *
+     * <p>Since Ant 1.10.9 the selectors are evaluated in order of
+     * their estimated cost, see {@link SelectorCost}.</p>
+     *
      * @param selectors specifies the selectors to be invoked on a scan.
      */
     @Override
     public synchronized void setSelectors(final FileSelector[] selectors) {
-        this.selectors = selectors;
+        this.selectors = selectors == null ? null : SelectorCost.order(selectors);
+        pendingFilesSelectors = new ArrayList<>();
+        if (selectors != null) {
+            collectPendingFilesSelectors(selectors);
+        }
+    }
+
+    private void collectPendingFilesSelectors(final FileSelector[] selectors) {
+        for (final FileSelector s : selectors) {
+            if (s instanceof PendingFilesSelector) {
+                pendingFilesSelectors.add((PendingFilesSelector) s);
+            }
+            if (s instanceof BaseSelectorContainer) {
+                final BaseSelectorContainer c = (BaseSelectorContainer) s;
+                collectPendingFilesSelectors(c.getSelectors(c.getProject()));
+            }
+        }
     }
 
     /**
@@ -924,6 +977,39 @@ public class DirectoryScanner
         }
     }
 
+    /**
+     * Scan for files which match at least one include pattern and don't
+     * match any exclude patterns like {@link #scan} does, but pass the
+     * name of each included file to the given consumer as soon as it
+     * has been found instead of collecting them.
+     *
+     * <p>The names are passed in the order the files are found and
+     * each name is passed only once.  As the included files are not
+     * recorded, {@link #getIncludedFiles} and {@link
+     * #getIncludedFilesCount} can't be used after a streaming scan;
+     * the other results are available as usual.</p>
+     *
+     * @param consumer receives the names of the included files,
+     * relative to the base directory.
+     * @exception IllegalStateException if the base directory was set
+     *            incorrectly (i.e. if it doesn't exist or isn't a directory).
+     * @since Ant 1.10.9
+     */
+    public void scan(final Consumer<String> consumer) throws IllegalStateException {
+        synchronized (this) {
+            includedFileConsumer = consumer;
+        }
+        try {
+            scan();
+        } finally {
+            synchronized (this) {
+                includedFileConsumer = null;
+                streamedRootFiles.clear();
+                filesIncluded = null;
+            }
+        }
+    }
+
     /**
      * This routine is actually checking all the include patterns in
      * order to avoid scanning everything under base dir.
@@ -1025,7 +1111,7 @@ public class DirectoryScanner
                         final boolean included = isCaseSensitive()
                             ? originalpattern.equals(currentelement)
                             : originalpattern.equalsIgnoreCase(currentelement);
-                        if (included) {
+                        if (included && !streamedWithParent(currentPath)) {
                             accountForIncludedFile(currentPath, myfile);
                         }
                     }
@@ -1195,6 +1281,20 @@ public class DirectoryScanner
         scandir(dir, path, fast, newfiles, new LinkedList<>());
     }
 
+    /**
+     * Drops the directories that are being deleted in the background.
+     */
+    private static String[] withoutDeletions(final String[] names) {
+        if (Stream.of(names).noneMatch(DirectoryScanner::isBeingDeleted)) {
+            return names;
+        }
+        return Stream.of(names).filter(n -> !isBeingDeleted(n)).toArray(String[]::new);
+    }
+
+    private static boolean isBeingDeleted(final String name) {
+        return name.startsWith(".") && name.contains(DELETING_INFIX);
+    }
+
     private void scandir(final File dir, final TokenizedPath path, final boolean fast,
                          String[] newFiles, final Deque<String> directoryNamesFollowed) {
         String vpath = path.toString();
@@ -1206,6 +1306,7 @@ public class DirectoryScanner
         if (fast && hasBeenScanned(vpath)) {
             return;
         }
+        newFiles = withoutDeletions(newFiles);
         if (!followSymlinks) {
             final ArrayList<String> noLinks = new ArrayList<>();
             for (final String newFile : newFiles) {
@@ -1233,14 +1334,26 @@ public class DirectoryScanner
             directoryNamesFollowed.addFirst(dir.getName());
         }
 
-        for (String newFile : newFiles) {
+        // whether the entries match the patterns, only known in
+        // advance if a selector wants to know about pending files
+        boolean[] included = null;
+        boolean[] excluded = null;
+        if (!pendingFilesSelectors.isEmpty()) {
+            included = new boolean[newFiles.length];
+            excluded = new boolean[newFiles.length];
+            announcePendingFiles(dir, path, newFiles, included, excluded);
+        }
+
+        for (int i = 0; i < newFiles.length; i++) {
+            final String newFile = newFiles[i];
             final String name = vpath + newFile;
             final TokenizedPath newPath = new TokenizedPath(path, newFile);
             final File file = new File(dir, newFile);
             final String[] children = file.list();
+            final Boolean knownExcluded = excluded == null ? null : excluded[i];
             if (children == null || (children.length == 0 && file.isFile())) {
-                if (isIncluded(newPath)) {
-                    accountForIncludedFile(newPath, file);
+                if (included != null ? included[i] : isIncluded(newPath)) {
+                    accountForIncludedFile(newPath, file, knownExcluded);
                 } else {
                     everythingIncluded = false;
                     filesNotIncluded.addElement(name);
@@ -1258,8 +1371,8 @@ public class DirectoryScanner
                     continue;
                 }
 
-                if (isIncluded(newPath)) {
-                    accountForIncludedDir(newPath, file, fast, children,
+                if (included != null ? included[i] : isIncluded(newPath)) {
+                    accountForIncludedDir(newPath, file, knownExcluded, fast, children,
                                           directoryNamesFollowed);
                 } else {
                     everythingIncluded = false;
@@ -1279,16 +1392,106 @@ public class DirectoryScanner
         }
     }
 
+    /**
+     * Tells the selectors that want to know which of the given
+     * entries of dir match the include and exclude patterns.
+     * Records the result of the matches for each entry in included
+     * and, for the included ones, excluded.
+     */
+    private void announcePendingFiles(final File dir, final TokenizedPath path,
+                                      final String[] newFiles, final boolean[] included,
+                                      final boolean[] excluded) {
+        final List<File> pending = new ArrayList<>();
+        for (int i = 0; i < newFiles.length; i++) {
+            final TokenizedPath newPath = new TokenizedPath(path, newFiles[i]);
+            included[i] = isIncluded(newPath);
+            excluded[i] = included[i] && isExcluded(newPath);
+            if (included[i] && !excluded[i]) {
+                pending.add(new File(dir, newFiles[i]));
+            }
+        }
+        final List<File> files = Collections.unmodifiableList(pending);
+        for (final PendingFilesSelector s : pendingFilesSelectors) {
+            s.filesPending(basedir, files);
+        }
+    }
+
     /**
      * Process included file.
      * @param name  path of the file relative to the directory of the FileSet.
      * @param file  included File.
      */
     private void accountForIncludedFile(final TokenizedPath name, final File file) {
-        processIncluded(name, file, filesIncluded, filesExcluded,
+        accountForIncludedFile(name, file, null);
+    }
+
+    /**
+     * Process included file.
+     * @param name  path of the file relative to the directory of the FileSet.
+     * @param file  included File.
+     * @param knownExcluded whether the file matches an exclude
+     * pattern, null if this hasn't been checked, yet.
+     */
+    private void accountForIncludedFile(final TokenizedPath name, final File file,
+                                        final Boolean knownExcluded) {
+        if (includedFileConsumer != null) {
+            streamIncluded(name, file, knownExcluded);
+            return;
+        }
+        processIncluded(name, file, knownExcluded, filesIncluded, filesExcluded,
                         filesDeselected);
     }
 
+    /**
+     * Process included file during a streaming scan.
+     *
+     * <p>Unlike {@link #processIncluded processIncluded} this can't
+     * look at the included files in order to avoid duplicates.  A
+     * directory is scanned only once, so the only file that may be
+     * seen twice is one that is named directly by an include pattern
+     * and also found while scanning its parent directory.</p>
+     *
+     * @param path  path of the file relative to the directory of the FileSet.
+     * @param file  included File.
+     * @param knownExcluded whether the file matches an exclude
+     * pattern, null if this hasn't been checked, yet.
+     */
+    private void streamIncluded(final TokenizedPath path, final File file,
+                                final Boolean knownExcluded) {
+        final String name = path.toString();
+        if (streamedRootFiles.contains(name) || filesExcluded.contains(name)
+            || filesDeselected.contains(name)) {
+            return;
+        }
+        if (knownExcluded != null ? knownExcluded : isExcluded(path)) {
+            filesExcluded.add(name);
+            everythingIncluded = false;
+        } else if (isSelected(name, file)) {
+            if (!scannedDirs.contains(parentVPath(name))) {
+                streamedRootFiles.add(name);
+            }
+            includedFileConsumer.accept(name);
+        } else {
+            filesDeselected.add(name);
+            everythingIncluded = false;
+        }
+    }
+
+    /**
+     * Whether the file named by an include pattern has already been
+     * passed to the consumer of a streaming scan while scanning its
+     * parent directory.
+     */
+    private boolean streamedWithParent(final TokenizedPath path) {
+        return includedFileConsumer != null
+            && scannedDirs.contains(parentVPath(path.toString()));
+    }
+
+    private static String parentVPath(final String name) {
+        final int slash = name.lastIndexOf(File.separatorChar);
+        return slash < 0 ? "" : name.substring(0, slash + 1);
+    }
+
     /**
      * Process included directory.
      * @param name path of the directory relative to the directory of
@@ -1298,17 +1501,18 @@ public class DirectoryScanner
      */
     private void accountForIncludedDir(final TokenizedPath name, final File file,
                                        final boolean fast) {
-        processIncluded(name, file, dirsIncluded, dirsExcluded, dirsDeselected);
+        processIncluded(name, file, null, dirsIncluded, dirsExcluded, dirsDeselected);
         if (fast && couldHoldIncluded(name) && !contentsExcluded(name)) {
             scandir(file, name, fast);
         }
     }
 
     private void accountForIncludedDir(final TokenizedPath name,
-                                       final File file, final boolean fast,
-                                       final String[] children,
+                                       final File file, final Boolean knownExcluded,
+                                       final boolean fast, final String[] children,
                                        final Deque<String> directoryNamesFollowed) {
-        processIncluded(name, file, dirsIncluded, dirsExcluded, dirsDeselected);
+        processIncluded(name, file, knownExcluded, dirsIncluded, dirsExcluded,
+                        dirsDeselected);
         if (fast && couldHoldIncluded(name) && !contentsExcluded(name)) {
             scandir(file, name, fast, children, directoryNamesFollowed);
         }
@@ -1326,14 +1530,15 @@ public class DirectoryScanner
     }
 
     private void processIncluded(final TokenizedPath path,
-                                 final File file, final List<String> inc, final List<String> exc,
+                                 final File file, final Boolean knownExcluded,
+                                 final List<String> inc, final List<String> exc,
                                  final List<String> des) {
         final String name = path.toString();
         if (inc.contains(name) || exc.contains(name) || des.contains(name)) {
             return;
         }
         boolean included = false;
-        if (isExcluded(path)) {
+        if (knownExcluded != null ? knownExcluded : isExcluded(path)) {
             exc.add(name);
         } else if (isSelected(name, file)) {
             included = true;
@@ -1504,7 +1709,8 @@ public class DirectoryScanner
      */
     protected boolean isSelected(final String name, final File file) {
         return selectors == null
-                || Stream.of(selectors).allMatch(sel -> sel.isSelected(basedir, name, file));
+                || FileAttributeContext.evaluate(file, () -> Stream.of(selectors)
+                    .allMatch(sel -> sel.isSelected(basedir, name, file)));
     }
 
     /**
@@ -207,6 +207,13 @@ public final class MagicNames {
      */
     public static final String REFID_LOCAL_PROPERTIES = "ant.LocalProperties";
 
+    /**
+     * Reference used to store the cache of archive indexes.
+     * Value: {@value}
+     * @since Ant 1.10.9
+     */
+    public static final String REFID_ARCHIVE_INDEX_CACHE = "ant.archiveIndexCache";
+
     /**
      * Name of JVM system property which provides the name of the ProjectHelper class to use.
      * Value: {@value}
@@ -46,6 +46,7 @@ import org.apache.tools.ant.types.FilterSetCollection;
 import org.apache.tools.ant.types.Path;
 import org.apache.tools.ant.types.Resource;
 import org.apache.tools.ant.types.ResourceFactory;
+import org.apache.tools.ant.types.resources.ArchiveIndexCache;
 import org.apache.tools.ant.types.resources.FileResource;
 import org.apache.tools.ant.util.FileUtils;
 import org.apache.tools.ant.util.JavaEnvUtils;
@@ -289,6 +290,9 @@ public class Project implements ResourceFactory {
         subProject.setDefaultInputStream(getDefaultInputStream());
         subProject.setKeepGoingMode(this.isKeepGoingMode());
         subProject.setExecutor(getExecutor().getSubProjectExecutor());
+        // archives are indexed once per build
+        subProject.addReference(MagicNames.REFID_ARCHIVE_INDEX_CACHE,
+                                ArchiveIndexCache.getInstance(this));
     }
 
     /**
@@ -21,6 +21,7 @@ import java.io.FilterReader;
 import java.io.IOException;
 import java.io.Reader;
 import java.io.StringReader;
+import java.nio.CharBuffer;
 
 import org.apache.tools.ant.Project;
 import org.apache.tools.ant.util.FileUtils;
@@ -28,6 +29,14 @@ import org.apache.tools.ant.util.FileUtils;
 /**
  * Base class for core filter readers.
  *
+ * <p>Subclasses only have to implement {@link #read()}, the default
+ * implementation of {@link #read(char[], int, int)} calls it for
+ * each character.  Filters that can process blocks of characters
+ * should override both methods and read their input through {@link
+ * #getInput} and {@link #fillInput} or {@link
+ * #readLine(StringBuilder)} rather than from {@link #in} one
+ * character at a time.</p>
+ *
  */
 public abstract class BaseFilterReader extends FilterReader {
     /** Buffer size used when reading */
@@ -39,6 +48,9 @@ public abstract class BaseFilterReader extends FilterReader {
     /** The Ant project this filter is part of. */
     private Project project = null;
 
+    /** Characters read ahead from the underlying stream. */
+    private CharBuffer input = null;
+
     /**
      * Constructor used by Ant's introspection mechanism.
      * The original filter reader is only used for chaining
@@ -78,8 +90,9 @@ public abstract class BaseFilterReader extends FilterReader {
      *
      * @exception  IOException  If an I/O error occurs
      */
-    public final int read(final char[] cbuf, final int off,
-                          final int len) throws IOException {
+    @Override
+    public int read(final char[] cbuf, final int off,
+                    final int len) throws IOException {
         for (int i = 0; i < len; i++) {
             final int ch = read();
             if (ch == -1) {
@@ -167,6 +180,11 @@ public abstract class BaseFilterReader extends FilterReader {
      *                        reading
      */
     protected final String readLine() throws IOException {
+        if (input != null && input.hasRemaining()) {
+            StringBuilder line = new StringBuilder();
+            readLine(line);
+            return line.toString();
+        }
         int ch = in.read();
 
         if (ch == -1) {
@@ -194,6 +212,101 @@ public abstract class BaseFilterReader extends FilterReader {
      *            reading
      */
     protected final String readFully() throws IOException {
-        return FileUtils.readFully(in, BUFFER_SIZE);
+        String rest = FileUtils.readFully(in, BUFFER_SIZE);
+        if (input != null && input.hasRemaining()) {
+            String buffered = input.toString();
+            input.position(input.limit());
+            return rest == null ? buffered : buffered + rest;
+        }
+        return rest;
+    }
+
+    /**
+     * Appends a line of text ending with '\n' (or the end of the
+     * stream) to the given buffer, reading the underlying stream in
+     * blocks.
+     *
+     * <p>Characters that have been read beyond the end of the line
+     * are kept in the buffer returned by {@link #getInput}.</p>
+     *
+     * @param line the buffer to append the line to
+     * @return <code>false</code> if the end of the stream has already
+     * been reached
+     *
+     * @exception IOException if the underlying reader throws one during
+     *                        reading
+     * @since Ant 1.10.9
+     */
+    protected final boolean readLine(final StringBuilder line) throws IOException {
+        boolean read = false;
+        while (getInput().hasRemaining() || fillInput()) {
+            final char[] chars = input.array();
+            final int start = input.position();
+            final int limit = input.limit();
+            int end = start;
+            while (end < limit && chars[end] != '\n') {
+                end++;
+            }
+            if (end < limit) {
+                line.append(chars, start, end + 1 - start);
+                input.position(end + 1);
+                return true;
+            }
+            line.append(chars, start, limit - start);
+            input.position(limit);
+            read = true;
+        }
+        return read;
+    }
+
+    /**
+     * Returns the characters that have been read from the underlying
+     * stream but not been consumed, yet.  Filters consume characters
+     * by moving the position of the buffer.
+     *
+     * @return a heap buffer with an array offset of 0
+     * @since Ant 1.10.9
+     */
+    protected final CharBuffer getInput() {
+        if (input == null) {
+            input = CharBuffer.allocate(BUFFER_SIZE);
+            input.limit(0);
+        }
+        return input;
+    }
+
+    /**
+     * Reads the next block of characters from the underlying stream
+     * into the buffer returned by {@link #getInput}, keeping the
+     * characters that have not been consumed, yet.  The buffer grows
+     * if it is full, so callers must obtain it again after calling
+     * this method.
+     *
+     * @return <code>false</code> if the end of the stream has been
+     * reached and no characters have been added
+     *
+     * @exception IOException if the underlying reader throws one during
+     *                        reading
+     * @since Ant 1.10.9
+     */
+    protected final boolean fillInput() throws IOException {
+        CharBuffer buffer = getInput();
+        if (buffer.remaining() == buffer.capacity()) {
+            // the filter needs more look-ahead than fits into the buffer
+            buffer = CharBuffer.allocate(2 * buffer.capacity()).put(buffer);
+        } else {
+            buffer.compact();
+        }
+        input = buffer;
+        try {
+            final int n = in.read(buffer.array(), buffer.position(), buffer.remaining());
+            if (n <= 0) {
+                return false;
+            }
+            buffer.position(buffer.position() + n);
+            return true;
+        } finally {
+            buffer.flip();
+        }
     }
 }
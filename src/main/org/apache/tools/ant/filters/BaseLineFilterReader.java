@@ -0,0 +1,135 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.tools.ant.filters;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Base class for filters that process their input line by line.
+ *
+ * <p>Lines are read from the underlying stream in blocks and handed
+ * out from a reusable buffer, so neither the input nor the output is
+ * processed one character at a time.</p>
+ *
+ * @since Ant 1.10.9
+ */
+abstract class BaseLineFilterReader extends BaseParamFilterReader {
+
+    /** The current line, including the line terminator. */
+    private final StringBuilder line = new StringBuilder();
+
+    /** Index of the next character of the current line to return. */
+    private int linePos = 0;
+
+    /**
+     * Constructor for "dummy" instances.
+     *
+     * @see BaseFilterReader#BaseFilterReader()
+     */
+    BaseLineFilterReader() {
+        super();
+    }
+
+    /**
+     * Creates a new filtered reader.
+     *
+     * @param in A Reader object providing the underlying stream.
+     *           Must not be <code>null</code>.
+     */
+    BaseLineFilterReader(final Reader in) {
+        super(in);
+    }
+
+    /**
+     * Returns the next character in the filtered stream.
+     *
+     * @return the next character in the resulting stream, or -1
+     * if the end of the resulting stream has been reached
+     *
+     * @exception IOException if the underlying stream throws an IOException
+     * during reading
+     */
+    @Override
+    public int read() throws IOException {
+        if (linePos == line.length() && !nextLine()) {
+            return -1;
+        }
+        return line.charAt(linePos++);
+    }
+
+    /**
+     * Reads characters of the filtered stream into a portion of an
+     * array.
+     *
+     * @param cbuf Destination buffer to write characters to.
+     * @param off Offset at which to start storing characters.
+     * @param len Maximum number of characters to read.
+     * @return the number of characters read, or -1 if the end of the
+     * stream has been reached
+     *
+     * @exception IOException if the underlying stream throws an IOException
+     * during reading
+     */
+    @Override
+    public int read(final char[] cbuf, final int off, final int len) throws IOException {
+        int count = 0;
+        while (count < len) {
+            if (linePos == line.length() && !nextLine()) {
+                break;
+            }
+            final int n = Math.min(len - count, line.length() - linePos);
+            line.getChars(linePos, linePos + n, cbuf, off + count);
+            linePos += n;
+            count += n;
+        }
+        return count == 0 && len > 0 ? -1 : count;
+    }
+
+    /**
+     * Reads lines until one is accepted by {@link #filterLine}.
+     */
+    private boolean nextLine() throws IOException {
+        if (!getInitialized()) {
+            initialize();
+            setInitialized(true);
+        }
+        do {
+            line.setLength(0);
+            linePos = 0;
+            if (!readLine(line)) {
+                return false;
+            }
+        } while (!filterLine(line));
+        return true;
+    }
+
+    /**
+     * Reads the parameters of the filter.
+     */
+    abstract void initialize();
+
+    /**
+     * Decides whether a line is part of the filtered stream, may
+     * modify the line.
+     *
+     * @param line the line including its terminator
+     * @return whether the line is to be returned
+     */
+    abstract boolean filterLine(StringBuilder line);
+}
@@ -90,23 +90,7 @@ public final class ExpandProperties
      */
     public int read() throws IOException {
         if (index > EOF) {
-            if (buffer == null) {
-                String data = readFully();
-                Project project = getProject();
-                GetProperty getProperty;
-                if (propertySet == null) {
-                    getProperty = PropertyHelper.getPropertyHelper(project);
-                } else {
-                    getProperty = propertySet.getProperties()::getProperty;
-                }
-                Object expanded = new ParseProperties(project, PropertyHelper
-                                                      .getPropertyHelper(project)
-                                                      .getExpanders(),
-                                                      getProperty)
-                    .parseProperties(data);
-                buffer = expanded == null ? new char[0]
-                    : expanded.toString().toCharArray();
-            }
+            expand();
             if (index < buffer.length) {
                 return buffer[index++];
             }
@@ -115,6 +99,60 @@ public final class ExpandProperties
         return EOF;
     }
 
+    /**
+     * Reads characters of the filtered stream into a portion of an
+     * array.  The original stream is first read in fully, and the
+     * Ant properties are expanded.
+     *
+     * @param cbuf Destination buffer to write characters to.
+     * @param off Offset at which to start storing characters.
+     * @param len Maximum number of characters to read.
+     * @return the number of characters read, or -1 if the end of the
+     * stream has been reached
+     *
+     * @exception IOException if the underlying stream throws an IOException
+     * during reading
+     * @since Ant 1.10.9
+     */
+    @Override
+    public int read(final char[] cbuf, final int off, final int len) throws IOException {
+        if (index > EOF) {
+            expand();
+            if (index < buffer.length || len == 0) {
+                final int n = Math.min(len, buffer.length - index);
+                System.arraycopy(buffer, index, cbuf, off, n);
+                index += n;
+                return n;
+            }
+            index = EOF;
+        }
+        return EOF;
+    }
+
+    /**
+     * Reads the original stream and expands the properties when
+     * called for the first time.
+     */
+    private void expand() throws IOException {
+        if (buffer == null) {
+            String data = readFully();
+            Project project = getProject();
+            GetProperty getProperty;
+            if (propertySet == null) {
+                getProperty = PropertyHelper.getPropertyHelper(project);
+            } else {
+                getProperty = propertySet.getProperties()::getProperty;
+            }
+            Object expanded = new ParseProperties(project, PropertyHelper
+                                                  .getPropertyHelper(project)
+                                                  .getExpanders(),
+                                                  getProperty)
+                .parseProperties(data);
+            buffer = expanded == null ? new char[0]
+                : expanded.toString().toCharArray();
+        }
+    }
+
     /**
      * Creates a new ExpandProperties filter using the passed in
      * Reader for instantiation.
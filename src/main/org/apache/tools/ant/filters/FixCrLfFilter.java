@@ -298,6 +298,29 @@ public final class FixCrLfFilter extends BaseParamFilterReader implements Chaina
         return in.read();
     }
 
+    /**
+     * Reads characters of the filtered stream into a portion of an
+     * array.
+     *
+     * @param cbuf Destination buffer to write characters to.
+     * @param off Offset at which to start storing characters.
+     * @param len Maximum number of characters to read.
+     * @return the number of characters read, or -1 if the end of the
+     *         stream has been reached
+     *
+     * @exception IOException
+     *                if the underlying stream throws an IOException during
+     *                reading.
+     * @since Ant 1.10.9
+     */
+    @Override
+    public synchronized int read(char[] cbuf, int off, int len) throws IOException {
+        if (!initialized) {
+            initInternalFilters();
+        }
+        return in.read(cbuf, off, len);
+    }
+
     /**
      * Specify how DOS EOF (control-z) characters are to be handled.
      *
@@ -392,21 +415,65 @@ public final class FixCrLfFilter extends BaseParamFilterReader implements Chaina
      * method.
      *
      * <P>
-     * The input stream is already buffered by the copy task so this doesn't
-     * significantly impact performance while it makes writing the individual
-     * fix filters much easier.
+     * The input is read in blocks.  Characters that the filter passes
+     * on unchanged - as told by {@link #isPlain isPlain} - are copied
+     * in blocks by {@link #read(char[], int, int)}, all others are
+     * processed by read().  This keeps writing the individual fix
+     * filters easy while most of the characters don't go through
+     * read() at all.
      * </P>
      */
     private static class SimpleFilterReader extends Reader {
         private static final int PREEMPT_BUFFER_LENGTH = 16;
+        private static final int INPUT_BUFFER_LENGTH = 8192;
         private Reader in;
 
         private int[] preempt = new int[PREEMPT_BUFFER_LENGTH];
 
         private int preemptIndex = 0;
 
+        /** Input read ahead, null if the input must not be read ahead. */
+        private final char[] input;
+
+        private int inputPos = 0;
+
+        private int inputLimit = 0;
+
         public SimpleFilterReader(Reader in) {
             this.in = in;
+            // the state of a filter masking Java literals applies to
+            // the character it has returned last
+            input = in instanceof MaskJavaTabLiteralsFilter ? null
+                : new char[INPUT_BUFFER_LENGTH];
+        }
+
+        /**
+         * Whether the character can be passed on without calling read().
+         */
+        protected boolean isPlain(char c) {
+            return false;
+        }
+
+        /**
+         * Whether the filter is in a state that allows plain characters
+         * to be passed on without calling read().
+         */
+        protected boolean canCopy() {
+            return true;
+        }
+
+        /**
+         * Informs the filter about plain characters that have been
+         * passed on without calling read().
+         */
+        protected void copied(char[] cs, int start, int end) {
+        }
+
+        private boolean fillInput() throws IOException {
+            final int n = in.read(input, 0, input.length);
+            inputPos = 0;
+            inputLimit = Math.max(n, 0);
+            return n > 0;
         }
 
         public void push(char c) {
@@ -443,7 +510,13 @@ public final class FixCrLfFilter extends BaseParamFilterReader implements Chaina
         }
 
         public int read() throws IOException {
-            return preemptIndex > 0 ? preempt[--preemptIndex] : in.read();
+            if (preemptIndex > 0) {
+                return preempt[--preemptIndex];
+            }
+            if (input == null) {
+                return in.read();
+            }
+            return inputPos < inputLimit || fillInput() ? input[inputPos++] : -1;
         }
 
         public void close() throws IOException {
@@ -459,7 +532,7 @@ public final class FixCrLfFilter extends BaseParamFilterReader implements Chaina
         }
 
         public boolean ready() throws IOException {
-            return in.ready();
+            return preemptIndex > 0 || inputPos < inputLimit || in.ready();
         }
 
         public void mark(int i) throws IOException {
@@ -478,10 +551,27 @@ public final class FixCrLfFilter extends BaseParamFilterReader implements Chaina
             int count = 0;
             int c = 0;
 
-            // CheckStyle:InnerAssignment OFF - leave alone
-            while (length-- > 0 && (c = this.read()) != -1) {
-                buf[start++] = (char) c;
-                count++;
+            while (count < length) {
+                if (preemptIndex == 0 && input != null && canCopy()
+                    && (inputPos < inputLimit || fillInput())) {
+                    final int end = Math.min(inputLimit, inputPos + length - count);
+                    int pos = inputPos;
+                    while (pos < end && isPlain(input[pos])) {
+                        pos++;
+                    }
+                    if (pos > inputPos) {
+                        System.arraycopy(input, inputPos, buf, start + count, pos - inputPos);
+                        copied(input, inputPos, pos);
+                        count += pos - inputPos;
+                        inputPos = pos;
+                        continue;
+                    }
+                }
+                c = this.read();
+                if (c == -1) {
+                    break;
+                }
+                buf[start + count++] = (char) c;
             }
             // if at EOF with no characters in the buffer, return EOF
             return (count == 0 && c == -1) ? -1 : count;
@@ -628,6 +718,21 @@ public final class FixCrLfFilter extends BaseParamFilterReader implements Chaina
             this.fixLast = fixLast;
         }
 
+        @Override
+        protected boolean isPlain(char c) {
+            return c != '\r' && c != '\n' && c != CTRLZ;
+        }
+
+        @Override
+        protected boolean canCopy() {
+            return normalizedEOL == 0;
+        }
+
+        @Override
+        protected void copied(char[] cs, int start, int end) {
+            previousWasEOL = false;
+        }
+
         public int read() throws IOException {
             int thisChar = super.read();
 
@@ -704,6 +809,16 @@ public final class FixCrLfFilter extends BaseParamFilterReader implements Chaina
             super(in);
         }
 
+        @Override
+        protected boolean isPlain(char c) {
+            return true;
+        }
+
+        @Override
+        protected void copied(char[] cs, int start, int end) {
+            lastChar = cs[end - 1];
+        }
+
         public int read() throws IOException {
             int thisChar = super.read();
 
@@ -757,6 +872,16 @@ public final class FixCrLfFilter extends BaseParamFilterReader implements Chaina
             this.tabLength = tabLength;
         }
 
+        @Override
+        protected boolean isPlain(char c) {
+            return c != ' ' && c != '\t' && c != '\r' && c != '\n';
+        }
+
+        @Override
+        protected void copied(char[] cs, int start, int end) {
+            columnNumber += end - start;
+        }
+
         public int read() throws IOException {
             int c = super.read();
 
@@ -836,6 +961,16 @@ public final class FixCrLfFilter extends BaseParamFilterReader implements Chaina
             this.tabLength = tabLength;
         }
 
+        @Override
+        protected boolean isPlain(char c) {
+            return c != '\t' && c != '\r' && c != '\n';
+        }
+
+        @Override
+        protected void copied(char[] cs, int start, int end) {
+            columnNumber += end - start;
+        }
+
         public int read() throws IOException {
             int c = super.read();
 
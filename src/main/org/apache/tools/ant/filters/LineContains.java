@@ -17,7 +17,6 @@
  */
 package org.apache.tools.ant.filters;
 
-import java.io.IOException;
 import java.io.Reader;
 import java.util.Vector;
 
@@ -60,7 +59,7 @@ import org.apache.tools.ant.types.Parameter;
  *
  */
 public final class LineContains
-    extends BaseParamFilterReader
+    extends BaseLineFilterReader
     implements ChainableReader {
     /** Parameter name for the words to filter on. */
     private static final String CONTAINS_KEY = "contains";
@@ -71,13 +70,6 @@ public final class LineContains
     /** Vector that holds the strings that input lines must contain. */
     private Vector<String> contains = new Vector<>();
 
-    /**
-     * Remaining line to be read from this filter, or <code>null</code> if
-     * the next call to <code>read()</code> should read the original stream
-     * to find the next matching line.
-     */
-    private String line = null;
-
     private boolean negate = false;
 
     private boolean matchAny = false;
@@ -102,63 +94,35 @@ public final class LineContains
     }
 
     /**
-     * Returns the next character in the filtered stream, only including
-     * lines from the original stream which contain all of the specified words.
+     * Only accepts lines from the original stream which contain all
+     * (or any if <code>matchAny</code> is set) of the specified words -
+     * or none if negated.
      *
-     * @return the next character in the resulting stream, or -1
-     * if the end of the resulting stream has been reached
-     *
-     * @exception IOException if the underlying stream throws an IOException
-     * during reading
+     * @param line the line read from the original input
+     * @return whether the line is part of the result
      */
-    public int read() throws IOException {
-        if (!getInitialized()) {
-            initialize();
-            setInitialized(true);
-        }
-
-        int ch = -1;
-
-        if (line != null) {
-            ch = line.charAt(0);
-            if (line.length() == 1) {
-                line = null;
-            } else {
-                line = line.substring(1);
-            }
-        } else {
-            final int containsSize = contains.size();
-
-            for (line = readLine(); line != null; line = readLine()) {
-                boolean matches = true;
-                for (int i = 0; i < containsSize; i++) {
-                    final String containsStr = contains.elementAt(i);
-                    matches = line.contains(containsStr);
-                    if (!matches) {
-                        if (this.matchAny) {
-                            // this one didn't match, but we are expected to have
-                            // any one of them match. so try next
-                            continue;
-                        } else {
-                            // all were expected to match, but this one didn't.
-                            // so no point checking the rest
-                            break;
-                        }
-                    } else if (this.matchAny) {
-                        // we were expected to match any of the contains
-                        // and this one did. so no more checks needed
-                        break;
-                    }
-                }
-                if (matches ^ isNegated()) {
-                    break;
+    @Override
+    boolean filterLine(final StringBuilder line) {
+        boolean matches = true;
+        for (String containsStr : contains) {
+            matches = line.indexOf(containsStr) >= 0;
+            if (!matches) {
+                if (this.matchAny) {
+                    // this one didn't match, but we are expected to have
+                    // any one of them match. so try next
+                    continue;
                 }
+                // all were expected to match, but this one didn't.
+                // so no point checking the rest
+                break;
             }
-            if (line != null) {
-                return read();
+            if (this.matchAny) {
+                // we were expected to match any of the contains
+                // and this one did. so no more checks needed
+                break;
             }
         }
-        return ch;
+        return matches ^ isNegated();
     }
 
     /**
@@ -257,7 +221,8 @@ public final class LineContains
     /**
      * Parses the parameters to add user-defined contains strings.
      */
-    private void initialize() {
+    @Override
+    void initialize() {
         Parameter[] params = getParameters();
         if (params != null) {
             for (Parameter param : params) {
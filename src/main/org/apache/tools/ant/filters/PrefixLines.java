@@ -17,7 +17,6 @@
  */
 package org.apache.tools.ant.filters;
 
-import java.io.IOException;
 import java.io.Reader;
 
 import org.apache.tools.ant.types.Parameter;
@@ -36,7 +35,7 @@ import org.apache.tools.ant.types.Parameter;
  *
  */
 public final class PrefixLines
-    extends BaseParamFilterReader
+    extends BaseLineFilterReader
     implements ChainableReader {
     /** Parameter name for the prefix. */
     private static final String PREFIX_KEY = "prefix";
@@ -44,9 +43,6 @@ public final class PrefixLines
     /** The prefix to be used. */
     private String prefix = null;
 
-    /** Data that must be read from, if not null. */
-    private String queuedData = null;
-
     /**
      * Constructor for "dummy" instances.
      *
@@ -67,47 +63,17 @@ public final class PrefixLines
     }
 
     /**
-     * Returns the next character in the filtered stream. One line is read
-     * from the original input, and the prefix added. The resulting
-     * line is then used until it ends, at which point the next original line
-     * is read, etc.
-     *
-     * @return the next character in the resulting stream, or -1
-     * if the end of the resulting stream has been reached
+     * Adds the prefix to the line.
      *
-     * @exception IOException if the underlying stream throws an IOException
-     * during reading
+     * @param line the line read from the original input
+     * @return always true
      */
-    public int read() throws IOException {
-        if (!getInitialized()) {
-            initialize();
-            setInitialized(true);
-        }
-
-        int ch = -1;
-
-        if (queuedData != null && queuedData.isEmpty()) {
-            queuedData = null;
-        }
-
-        if (queuedData != null) {
-            ch = queuedData.charAt(0);
-            queuedData = queuedData.substring(1);
-            if (queuedData.isEmpty()) {
-                queuedData = null;
-            }
-        } else {
-            queuedData = readLine();
-            if (queuedData == null) {
-                ch = -1;
-            } else {
-                if (prefix != null) {
-                    queuedData = prefix + queuedData;
-                }
-                return read();
-            }
+    @Override
+    boolean filterLine(final StringBuilder line) {
+        if (prefix != null) {
+            line.insert(0, prefix);
         }
-        return ch;
+        return true;
     }
 
     /**
@@ -150,7 +116,8 @@ public final class PrefixLines
     /**
      * Initializes the prefix if it is available from the parameters.
      */
-    private void initialize() {
+    @Override
+    void initialize() {
         Parameter[] params = getParameters();
         if (params != null) {
             for (Parameter param : params) {
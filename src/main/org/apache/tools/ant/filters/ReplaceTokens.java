@@ -21,6 +21,8 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Reader;
+import java.nio.CharBuffer;
+import java.util.BitSet;
 import java.util.Hashtable;
 import java.util.Map;
 import java.util.Properties;
@@ -66,8 +68,10 @@ public final class ReplaceTokens
     /** This map holds the "resolved" tokens (begin- and end-tokens are added to make searching simpler) */
     private final TreeMap<String, String> resolvedTokens = new TreeMap<>();
     private boolean resolvedTokensBuilt = false;
-    /** Used for comparisons and lookup into the resolvedTokens map. */
-    private String readBuffer = "";
+    /** The characters resolved tokens start with. */
+    private final BitSet tokenStarts = new BitSet();
+    /** Target of single character reads. */
+    private final char[] singleChar = new char[1];
 
     /** replacement test from a token */
     private String replaceData = null;
@@ -110,6 +114,29 @@ public final class ReplaceTokens
      * during reading
      */
     public int read() throws IOException {
+        return read(singleChar, 0, 1) == -1 ? -1 : singleChar[0];
+    }
+
+    /**
+     * Reads characters of the filtered stream into a portion of an
+     * array, replacing tokens from the original stream.
+     *
+     * <p>Characters that cannot start a token are copied in blocks,
+     * only at positions where a token may start the map of tokens is
+     * consulted.</p>
+     *
+     * @param cbuf Destination buffer to write characters to.
+     * @param off Offset at which to start storing characters.
+     * @param len Maximum number of characters to read.
+     * @return the number of characters read, or -1 if the end of the
+     * stream has been reached
+     *
+     * @exception IOException if the underlying stream throws an IOException
+     * during reading
+     * @since Ant 1.10.9
+     */
+    @Override
+    public int read(final char[] cbuf, final int off, final int len) throws IOException {
         if (!getInitialized()) {
             initialize();
             setInitialized(true);
@@ -120,61 +147,96 @@ public final class ReplaceTokens
             for (Map.Entry<String, String> entry : hash.entrySet()) {
                 resolvedTokens.put(beginToken + entry.getKey() + endToken, entry.getValue());
             }
+            tokenStarts.clear();
+            resolvedTokens.keySet().stream().filter(k -> !k.isEmpty())
+                .forEach(k -> tokenStarts.set(k.charAt(0)));
             resolvedTokensBuilt = true;
         }
 
-        // are we currently serving replace data?
-        if (replaceData != null) {
-            if (replaceIndex < replaceData.length()) {
-                return replaceData.charAt(replaceIndex++);
-            } else {
-                replaceData = null;
+        int count = 0;
+        while (count < len) {
+            // are we currently serving replace data?
+            if (replaceData != null) {
+                final int n = Math.min(len - count, replaceData.length() - replaceIndex);
+                replaceData.getChars(replaceIndex, replaceIndex + n, cbuf, off + count);
+                replaceIndex += n;
+                count += n;
+                if (replaceIndex == replaceData.length()) {
+                    replaceData = null;
+                }
+                continue;
             }
-        }
 
-        // is the read buffer empty?
-        if (readBuffer.isEmpty()) {
-            int next = in.read();
-            if (next == -1) {
-                return next; // end of stream. all buffers empty.
+            CharBuffer input = getInput();
+            if (!input.hasRemaining()) {
+                if (!fillInput()) {
+                    break; // end of stream. all buffers empty.
+                }
+                input = getInput();
             }
-            readBuffer += (char) next;
-        }
 
-        for (;;) {
-            // get the closest tokens
-            SortedMap<String, String> possibleTokens = resolvedTokens.tailMap(readBuffer);
-            if (possibleTokens.isEmpty() || !possibleTokens.firstKey().startsWith(readBuffer)) { // if there is none, then deliver the first char from the buffer.
-                return getFirstCharacterFromReadBuffer();
-            } else if (readBuffer.equals(possibleTokens.firstKey())) { // there exists a nearest token - is it an exact match?
+            // copy everything that cannot start a token
+            final char[] chars = input.array();
+            final int start = input.position();
+            final int end = Math.min(input.limit(), start + len - count);
+            int pos = start;
+            while (pos < end && !tokenStarts.get(chars[pos])) {
+                pos++;
+            }
+            if (pos > start) {
+                System.arraycopy(chars, start, cbuf, off + count, pos - start);
+                count += pos - start;
+                input.position(pos);
+                continue;
+            }
+
+            final String token = matchToken();
+            input = getInput();
+            if (token == null) {
+                // deliver the first char and look for a token at the next one
+                cbuf[off + count++] = input.get();
+            } else {
                 // we have found a token. prepare the replaceData buffer.
-                replaceData = resolvedTokens.get(readBuffer);
+                input.position(input.position() + token.length());
+                replaceData = resolvedTokens.get(token);
                 replaceIndex = 0;
-                readBuffer = ""; // destroy the readBuffer - it's contents are being replaced entirely.
-                // get the first character via recursive call.
-                return read();
-            } else { // nearest token is not matching exactly - read one character more.
-                int next = in.read();
-                if (next != -1) {
-                    readBuffer += (char) next;
-                } else {
-                    return getFirstCharacterFromReadBuffer(); // end of stream. deliver remaining characters from buffer.
+                if (replaceData != null && replaceData.isEmpty()) {
+                    replaceData = null;
                 }
             }
         }
+        return count == 0 && len > 0 ? -1 : count;
     }
 
     /**
-     * @return the first character from the read buffer or -1 if read buffer is empty.
+     * Finds the token that starts at the current position of the
+     * input, reading more input as needed.
+     *
+     * @return the token or null if there is none
      */
-    private int getFirstCharacterFromReadBuffer() {
-        if (readBuffer.isEmpty()) {
-            return -1;
+    private String matchToken() throws IOException {
+        CharBuffer input = getInput();
+        int length = 1;
+        for (;;) {
+            if (input.remaining() < length) {
+                if (!fillInput()) {
+                    return null; // end of stream
+                }
+                input = getInput();
+                continue;
+            }
+            // get the closest tokens
+            final String candidate = new String(input.array(), input.position(), length);
+            final SortedMap<String, String> possibleTokens = resolvedTokens.tailMap(candidate);
+            if (possibleTokens.isEmpty() || !possibleTokens.firstKey().startsWith(candidate)) {
+                return null;
+            }
+            if (candidate.equals(possibleTokens.firstKey())) {
+                return candidate;
+            }
+            // nearest token is not matching exactly - look at one character more.
+            length++;
         }
-
-        int chr = readBuffer.charAt(0);
-        readBuffer = readBuffer.substring(1);
-        return chr;
     }
 
     /**
@@ -17,7 +17,6 @@
  */
 package org.apache.tools.ant.filters;
 
-import java.io.IOException;
 import java.io.Reader;
 import java.util.Vector;
 
@@ -49,7 +48,7 @@ import org.apache.tools.ant.types.Parameter;
  *
  */
 public final class StripLineComments
-    extends BaseParamFilterReader
+    extends BaseLineFilterReader
     implements ChainableReader {
     /** Parameter name for the comment prefix. */
     private static final String COMMENTS_KEY = "comment";
@@ -57,9 +56,6 @@ public final class StripLineComments
     /** Vector that holds the comment prefixes. */
     private Vector<String> comments = new Vector<>();
 
-    /** The line that has been read ahead. */
-    private String line = null;
-
     /**
      * Constructor for "dummy" instances.
      *
@@ -80,58 +76,33 @@ public final class StripLineComments
     }
 
     /**
-     * Returns the next character in the filtered stream, only including
-     * lines from the original stream which don't start with any of the
-     * specified comment prefixes.
-     *
-     * @return the next character in the resulting stream, or -1
-     * if the end of the resulting stream has been reached
+     * Only accepts lines which don't start with any of the specified
+     * comment prefixes.
      *
-     * @exception IOException if the underlying stream throws an IOException
-     * during reading
+     * @param line the line read from the original input
+     * @return whether the line is not a comment
      */
-    public int read() throws IOException {
-        if (!getInitialized()) {
-            initialize();
-            setInitialized(true);
-        }
-
-        int ch = -1;
-
-        if (line != null) {
-            ch = line.charAt(0);
-            if (line.length() == 1) {
-                line = null;
-            } else {
-                line = line.substring(1);
-            }
-        } else {
-            line = readLine();
-            final int commentsSize = comments.size();
-
-            while (line != null) {
-                for (int i = 0; i < commentsSize; i++) {
-                    String comment = comments.elementAt(i);
-                    if (line.startsWith(comment)) {
-                        line = null;
-                        break;
-                    }
-                }
-
-                if (line == null) {
-                    // line started with comment
-                    line = readLine();
-                } else {
-                    break;
-                }
+    @Override
+    boolean filterLine(final StringBuilder line) {
+        for (String comment : comments) {
+            if (startsWith(line, comment)) {
+                return false;
             }
+        }
+        return true;
+    }
 
-            if (line != null) {
-                return read();
+    private static boolean startsWith(final StringBuilder line, final String prefix) {
+        final int length = prefix.length();
+        if (line.length() < length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (line.charAt(i) != prefix.charAt(i)) {
+                return false;
             }
         }
-
-        return ch;
+        return true;
     }
 
     /**
@@ -183,7 +154,8 @@ public final class StripLineComments
     /**
      * Parses the parameters to set the comment prefixes.
      */
-    private void initialize() {
+    @Override
+    void initialize() {
         Parameter[] params = getParameters();
         if (params != null) {
             for (Parameter param : params) {
@@ -19,6 +19,8 @@ package org.apache.tools.ant.filters;
 
 import java.io.IOException;
 import java.io.Reader;
+import java.nio.CharBuffer;
+import java.util.Arrays;
 
 import org.apache.tools.ant.types.Parameter;
 
@@ -91,8 +93,8 @@ public final class TabsToSpaces
         if (spacesRemaining > 0) {
             spacesRemaining--;
             ch = ' ';
-        } else {
-            ch = in.read();
+        } else if (getInput().hasRemaining() || fillInput()) {
+            ch = getInput().get();
             if (ch == '\t') {
                 spacesRemaining = tabLength - 1;
                 ch = ' ';
@@ -101,6 +103,62 @@ public final class TabsToSpaces
         return ch;
     }
 
+    /**
+     * Reads characters of the filtered stream into a portion of an
+     * array, converting tabs to the specified number of spaces.
+     *
+     * @param cbuf Destination buffer to write characters to.
+     * @param off Offset at which to start storing characters.
+     * @param len Maximum number of characters to read.
+     * @return the number of characters read, or -1 if the end of the
+     * stream has been reached
+     *
+     * @exception IOException if the underlying stream throws an IOException
+     * during reading
+     * @since Ant 1.10.9
+     */
+    @Override
+    public int read(final char[] cbuf, final int off, final int len) throws IOException {
+        if (!getInitialized()) {
+            initialize();
+            setInitialized(true);
+        }
+
+        int count = 0;
+        while (count < len) {
+            if (spacesRemaining > 0) {
+                final int n = Math.min(spacesRemaining, len - count);
+                Arrays.fill(cbuf, off + count, off + count + n, ' ');
+                spacesRemaining -= n;
+                count += n;
+                continue;
+            }
+            CharBuffer input = getInput();
+            if (!input.hasRemaining()) {
+                if (!fillInput()) {
+                    break;
+                }
+                input = getInput();
+            }
+            final char[] chars = input.array();
+            final int start = input.position();
+            final int end = Math.min(input.limit(), start + len - count);
+            int pos = start;
+            while (pos < end && chars[pos] != '\t') {
+                pos++;
+            }
+            System.arraycopy(chars, start, cbuf, off + count, pos - start);
+            count += pos - start;
+            if (pos < end) {
+                cbuf[off + count++] = ' ';
+                spacesRemaining = tabLength - 1;
+                pos++;
+            }
+            input.position(pos);
+        }
+        return count == 0 && len > 0 ? -1 : count;
+    }
+
     /**
      * Sets the tab length.
      *
@@ -17,9 +17,12 @@
  */
 package org.apache.tools.ant.filters.util;
 
+import java.io.BufferedReader;
+import java.io.CharArrayReader;
 import java.io.FilterReader;
 import java.io.IOException;
 import java.io.Reader;
+import java.io.StringReader;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
@@ -238,6 +241,7 @@ public final class ChainReaderHelper {
                 .flatMap(Collection::stream).collect(Collectors.toList());
 
         if (!finalFilters.isEmpty()) {
+            instream = buffered(instream);
             boolean success = false;
             try {
                 for (Object o : finalFilters) {
@@ -261,6 +265,18 @@ public final class ChainReaderHelper {
         return new ChainReader(instream, classLoadersToCleanUp);
     }
 
+    /**
+     * Makes sure the first filter can read its input in blocks of
+     * the configured size.
+     */
+    private Reader buffered(Reader rdr) {
+        if (rdr instanceof BufferedReader || rdr instanceof StringReader
+            || rdr instanceof CharArrayReader || rdr instanceof BaseFilterReader) {
+            return rdr;
+        }
+        return new BufferedReader(rdr, bufferSize);
+    }
+
     /**
      * helper method to set the project on an object.
      * the reflection setProject does not work for anonymous/protected/private
@@ -37,6 +37,21 @@ import org.apache.tools.bzip2.CBZip2OutputStream;
  */
 
 public class BZip2 extends Pack {
+    private int threads = 1;
+
+    /**
+     * The number of threads used to compress the data.
+     *
+     * <p>With more than one thread several blocks are sorted and
+     * encoded at the same time, the result doesn't change.</p>
+     *
+     * @param threads int
+     * @since Ant 1.10.9
+     */
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
     /**
      * Compress the zipFile.
      */
@@ -47,7 +62,8 @@ public class BZip2 extends Pack {
                 new BufferedOutputStream(Files.newOutputStream(zipFile.toPath()));
             bos.write('B');
             bos.write('Z');
-            zOut = new CBZip2OutputStream(bos);
+            zOut = new CBZip2OutputStream(bos, CBZip2OutputStream.MAX_BLOCKSIZE,
+                                          threads);
             zipResource(getSrcResource(), zOut);
         } catch (IOException ioe) {
             String msg = "Problem creating bzip2 " + ioe.getMessage();
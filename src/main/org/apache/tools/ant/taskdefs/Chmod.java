@@ -20,6 +20,13 @@ package org.apache.tools.ant.taskdefs;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFileAttributes;
+import java.nio.file.attribute.PosixFilePermission;
+import java.util.Set;
+import java.util.Vector;
 
 import org.apache.tools.ant.BuildException;
 import org.apache.tools.ant.Project;
@@ -27,10 +34,19 @@ import org.apache.tools.ant.taskdefs.condition.Os;
 import org.apache.tools.ant.types.Commandline;
 import org.apache.tools.ant.types.FileSet;
 import org.apache.tools.ant.types.PatternSet;
+import org.apache.tools.ant.util.FileUtils;
+import org.apache.tools.ant.util.PermissionUtils;
+import org.apache.tools.ant.util.PosixMode;
 
 /**
  * Chmod equivalent for unix-like environments.
  *
+ * <p>Permissions are changed in-process on file systems that support
+ * POSIX permissions, unless the mode refers to the set-user-ID,
+ * set-group-ID or sticky bits or any of the process related
+ * attributes have been used.  The chmod command is run for all other
+ * cases.</p>
+ *
  * @since Ant 1.1
  *
  * @ant.task category="filesystem"
@@ -39,9 +55,16 @@ import org.apache.tools.ant.types.PatternSet;
  */
 public class Chmod extends ExecuteOn {
 
+    private static final FileUtils FILE_UTILS = FileUtils.getFileUtils();
+    private static final int SPECIAL_BITS = 07000;
+
+    /** The umask of this process, determined when needed. */
+    private static volatile Integer umask;
+
     private FileSet defaultSet = new FileSet();
     private boolean defaultSetDefined = false;
     private boolean havePerm = false;
+    private String perm;
 
     /**
      * Chmod task for setting file and directory permissions.
@@ -90,6 +113,7 @@ public class Chmod extends ExecuteOn {
     public void setPerm(String perm) {
         createArg().setValue(perm);
         havePerm = true;
+        this.perm = perm;
     }
 
     /**
@@ -191,13 +215,12 @@ public class Chmod extends ExecuteOn {
             }
         } else if (isValidOs()) {
             // we are chmoding the given directory
-            Execute execute = prepareExec();
-            Commandline cloned = (Commandline) cmdl.clone();
-            cloned.createArgument().setValue(defaultSet.getDir(getProject())
-                                             .getPath());
+            Vector<String> fileNames = new Vector<>();
+            fileNames.add(defaultSet.getDir(getProject()).getPath());
+            Vector<File> baseDirs = new Vector<>();
+            baseDirs.add(null);
             try {
-                execute.setCommandline(cloned.getCommandline());
-                runExecute(execute);
+                runParallel(prepareExec(), fileNames, baseDirs);
             } catch (IOException e) {
                 throw new BuildException("Execute failed: " + e, e, getLocation());
             } finally {
@@ -207,6 +230,90 @@ public class Chmod extends ExecuteOn {
         }
     }
 
+    /**
+     * Changes permissions in-process if the mode is supported and
+     * no additional arguments have been specified.
+     *
+     * @return InProcessOperation
+     * @since Ant 1.10.9
+     */
+    @Override
+    protected InProcessOperation createInProcessOperation() {
+        if (cmdl.getArguments().length != 1) {
+            return null;
+        }
+        PosixMode mode;
+        try {
+            mode = PosixMode.parse(perm);
+        } catch (IllegalArgumentException e) {
+            log("Can't apply " + perm + " in-process: " + e.getMessage(),
+                Project.MSG_VERBOSE);
+            return null;
+        }
+        final int mask;
+        if (mode.dependsOnUmask()) {
+            try {
+                mask = getUmask();
+            } catch (IOException | UnsupportedOperationException e) {
+                log("Can't determine umask: " + e, Project.MSG_VERBOSE);
+                return null;
+            }
+        } else {
+            mask = 0;
+        }
+        return file -> {
+            PosixFileAttributeView view =
+                Files.getFileAttributeView(file, PosixFileAttributeView.class);
+            if (view == null || hasSpecialBits(file)) {
+                return false;
+            }
+            PosixFileAttributes attrs = view.readAttributes();
+            Set<PosixFilePermission> permissions =
+                mode.apply(attrs.permissions(), attrs.isDirectory(), mask);
+            if (!permissions.equals(attrs.permissions())) {
+                view.setPermissions(permissions);
+            }
+            return true;
+        };
+    }
+
+    /**
+     * Setting the permissions in-process would clear the
+     * set-user-ID, set-group-ID and sticky bits, leave files that
+     * have them to chmod.
+     */
+    private static boolean hasSpecialBits(Path file) throws IOException {
+        try {
+            return (((Integer) Files.getAttribute(file, "unix:mode"))
+                    & SPECIAL_BITS) != 0;
+        } catch (UnsupportedOperationException | IllegalArgumentException e) {
+            // no way to tell
+            return false;
+        }
+    }
+
+    /**
+     * Determines the umask by creating a directory without explicit
+     * permissions.
+     */
+    private int getUmask() throws IOException {
+        Integer result = umask;
+        if (result == null) {
+            File probe = FILE_UTILS.createTempFile(getProject(), "umask", null,
+                                                   null, false, false);
+            Files.createDirectory(probe.toPath());
+            try {
+                result = ~PermissionUtils.modeFromPermissions(
+                    Files.getPosixFilePermissions(probe.toPath()),
+                    PermissionUtils.FileType.OTHER) & 0777;
+            } finally {
+                Files.delete(probe.toPath());
+            }
+            umask = result;
+        }
+        return result;
+    }
+
     /**
      * Set the executable.
      * This is not allowed for Chmod.
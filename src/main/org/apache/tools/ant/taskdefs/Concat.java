@@ -26,7 +26,11 @@ import java.io.InputStreamReader;
 import java.io.Reader;
 import java.io.StringReader;
 import java.io.Writer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Iterator;
@@ -43,6 +47,7 @@ import org.apache.tools.ant.types.FilterChain;
 import org.apache.tools.ant.types.Path;
 import org.apache.tools.ant.types.Resource;
 import org.apache.tools.ant.types.ResourceCollection;
+import org.apache.tools.ant.types.resources.FileProvider;
 import org.apache.tools.ant.types.resources.FileResource;
 import org.apache.tools.ant.types.resources.Intersect;
 import org.apache.tools.ant.types.resources.LogOutputResource;
@@ -798,6 +803,11 @@ public class Concat extends Task implements ResourceCollection {
             return;
         }
         try {
+            File destFile = getTransferableDestination(c);
+            if (destFile != null) {
+                transfer(c, destFile);
+                return;
+            }
             //most of these are defaulted because the concat-as-a-resource code hijacks a lot:
             ResourceUtils.copyResource(new ConcatResource(c), dest == null
                                        ? new LogOutputResource(this, Project.MSG_WARN)
@@ -918,6 +928,82 @@ public class Concat extends Task implements ResourceCollection {
         return result;
     }
 
+    /**
+     * The destination file if the sources can be copied to it byte
+     * by byte.
+     *
+     * <p>This is the case if all sources are files, the destination
+     * is a writable file and the content is neither filtered nor
+     * transcoded.  Text is only considered to stay the same if it is
+     * read and written using the same charset which doesn't need any
+     * state across files.</p>
+     *
+     * @return null if the content must be processed
+     */
+    private File getTransferableDestination(ResourceCollection c) {
+        FileProvider destProvider = dest == null ? null : dest.as(FileProvider.class);
+        if (destProvider == null || !(binary || isPlainText())) {
+            return null;
+        }
+        File destFile = destProvider.getFile();
+        if (destFile.exists() && !(destFile.isFile() && destFile.canWrite())) {
+            // let ResourceUtils deal with read-only files
+            return null;
+        }
+        return c.stream().allMatch(r -> r.as(FileProvider.class) != null)
+            ? destFile : null;
+    }
+
+    private boolean isPlainText() {
+        if (filterChains != null || header != null || footer != null || fixLastLine) {
+            return false;
+        }
+        try {
+            Charset in = encoding == null ? Charset.defaultCharset()
+                : Charset.forName(encoding);
+            Charset out = outputEncoding == null ? Charset.defaultCharset()
+                : Charset.forName(outputEncoding);
+            return in.equals(out) && (StandardCharsets.UTF_8.equals(in)
+                                      || StandardCharsets.ISO_8859_1.equals(in)
+                                      || StandardCharsets.US_ASCII.equals(in));
+        } catch (IllegalArgumentException e) {
+            // unsupported charset, fail when reading
+            return false;
+        }
+    }
+
+    /**
+     * Copies the content of the source files to the destination
+     * using FileChannel#transferTo, which allows the operating system
+     * to copy the data without passing it through the JVM.
+     */
+    private void transfer(ResourceCollection c, File destFile) throws IOException {
+        File parent = destFile.getParentFile();
+        if (parent != null && !parent.isDirectory() && !(parent.mkdirs() || parent.isDirectory())) {
+            throw new IOException("failed to create directory " + parent);
+        }
+        try (FileChannel out = FileChannel.open(destFile.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                append ? StandardOpenOption.APPEND : StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (Resource r : c) {
+                File source = r.as(FileProvider.class).getFile();
+                try (FileChannel in = FileChannel.open(source.toPath(),
+                                                       StandardOpenOption.READ)) {
+                    long size = in.size();
+                    long pos = 0;
+                    while (pos < size) {
+                        long n = in.transferTo(pos, size - pos, out);
+                        if (n <= 0) {
+                            // file has been truncated
+                            break;
+                        }
+                        pos += n;
+                    }
+                }
+            }
+        }
+    }
+
     private boolean isUpToDate(ResourceCollection c) {
         return dest != null && !forceOverwrite
                 && c.stream().noneMatch(r -> SelectorUtils.isOutOfDate(r, dest, FILE_UTILS.getFileTimestampGranularity()));
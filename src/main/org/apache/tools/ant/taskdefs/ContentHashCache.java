@@ -0,0 +1,219 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.apache.tools.ant.taskdefs;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.tools.ant.types.Resource;
+import org.apache.tools.ant.util.FileUtils;
+
+/**
+ * Hashes of the content of files, stored in a cache file and reused
+ * as long as neither the size nor the modification time of a file
+ * change.
+ *
+ * <p>Safe for use by multiple threads.</p>
+ *
+ * @since Ant 1.10.9
+ */
+final class ContentHashCache {
+
+    /** Identifies cache files, includes a format version. */
+    private static final int MAGIC = 0x414e4801;
+    private static final String ALGORITHM = "SHA-256";
+    private static final int BUFFER_SIZE = 8192;
+    private static final FileUtils FILE_UTILS = FileUtils.getFileUtils();
+
+    private final File cacheFile;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private volatile boolean modified;
+
+    /**
+     * Creates an empty cache.
+     *
+     * @param cacheFile the file to store the cache in
+     */
+    ContentHashCache(File cacheFile) {
+        this.cacheFile = cacheFile;
+    }
+
+    /**
+     * Reads the cache file if it exists.
+     *
+     * @throws IOException if the file cannot be read, the cache is
+     * empty in that case
+     */
+    void load() throws IOException {
+        if (!cacheFile.isFile()) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                 Files.newInputStream(cacheFile.toPath())))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("not a hash cache");
+            }
+            for (int count = in.readInt(); count > 0; count--) {
+                String name = in.readUTF();
+                long size = in.readLong();
+                long lastModified = in.readLong();
+                byte[] hash = new byte[in.readUnsignedByte()];
+                in.readFully(hash);
+                entries.put(name, new Entry(size, lastModified, hash));
+            }
+        } catch (IOException e) {
+            entries.clear();
+            throw e;
+        }
+    }
+
+    /**
+     * Writes the cache file if the cache has been modified.
+     *
+     * @throws IOException if the file cannot be written
+     */
+    void save() throws IOException {
+        if (!modified) {
+            return;
+        }
+        File parent = cacheFile.getAbsoluteFile().getParentFile();
+        Files.createDirectories(parent.toPath());
+        // next to the cache file so it can be renamed in one step
+        File temp = FILE_UTILS.createTempFile(null, "hashes", ".tmp", parent,
+                                              false, true);
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                     Files.newOutputStream(temp.toPath())))) {
+                out.writeInt(MAGIC);
+                out.writeInt(entries.size());
+                for (Map.Entry<String, Entry> e : entries.entrySet()) {
+                    out.writeUTF(e.getKey());
+                    out.writeLong(e.getValue().size);
+                    out.writeLong(e.getValue().lastModified);
+                    out.writeByte(e.getValue().hash.length);
+                    out.write(e.getValue().hash);
+                }
+            }
+            Files.move(temp.toPath(), cacheFile.toPath(),
+                       StandardCopyOption.REPLACE_EXISTING);
+            modified = false;
+        } finally {
+            Files.deleteIfExists(temp.toPath());
+        }
+    }
+
+    /**
+     * Calculates the hash of a resource's content.
+     *
+     * @param r the resource
+     * @return the hash
+     * @throws IOException if the resource cannot be read
+     */
+    byte[] hash(Resource r) throws IOException {
+        try (InputStream in = r.getInputStream()) {
+            return digest(in);
+        }
+    }
+
+    /**
+     * Provides the hash of a file's content, from the cache if the
+     * file hasn't changed since its hash has been recorded.
+     *
+     * @param f the file
+     * @return the hash
+     * @throws IOException if the file cannot be read
+     */
+    byte[] hash(File f) throws IOException {
+        BasicFileAttributes attrs =
+            Files.readAttributes(f.toPath(), BasicFileAttributes.class);
+        String name = f.getAbsolutePath();
+        Entry e = entries.get(name);
+        if (e != null && e.matches(attrs)) {
+            return e.hash;
+        }
+        byte[] hash;
+        try (InputStream in = Files.newInputStream(f.toPath())) {
+            hash = digest(in);
+        }
+        put(name, attrs, hash);
+        return hash;
+    }
+
+    /**
+     * Records the hash of a file that has just been written.
+     *
+     * @param f the file
+     * @param hash the hash of its content
+     * @throws IOException if the file's attributes cannot be read
+     */
+    void put(File f, byte[] hash) throws IOException {
+        put(f.getAbsolutePath(),
+            Files.readAttributes(f.toPath(), BasicFileAttributes.class), hash);
+    }
+
+    private void put(String name, BasicFileAttributes attrs, byte[] hash) {
+        entries.put(name, new Entry(attrs.size(),
+                                    attrs.lastModifiedTime().toMillis(), hash));
+        modified = true;
+    }
+
+    private static byte[] digest(InputStream in) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance(ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            // every Java platform is required to support it
+            throw new IllegalStateException(e);
+        }
+        byte[] buffer = new byte[BUFFER_SIZE];
+        for (int n = in.read(buffer); n >= 0; n = in.read(buffer)) {
+            digest.update(buffer, 0, n);
+        }
+        return digest.digest();
+    }
+
+    private static final class Entry {
+        private final long size;
+        private final long lastModified;
+        private final byte[] hash;
+
+        Entry(long size, long lastModified, byte[] hash) {
+            this.size = size;
+            this.lastModified = lastModified;
+            this.hash = hash;
+        }
+
+        boolean matches(BasicFileAttributes attrs) {
+            return size == attrs.size()
+                && lastModified == attrs.lastModifiedTime().toMillis();
+        }
+    }
+}
@@ -29,6 +29,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.Vector;
+import java.util.concurrent.Callable;
 
 import org.apache.tools.ant.BuildException;
 import org.apache.tools.ant.DirectoryScanner;
@@ -43,11 +44,14 @@ import org.apache.tools.ant.types.Resource;
 import org.apache.tools.ant.types.ResourceCollection;
 import org.apache.tools.ant.types.resources.FileProvider;
 import org.apache.tools.ant.types.resources.FileResource;
+import org.apache.tools.ant.util.DeferredLog;
 import org.apache.tools.ant.util.FileNameMapper;
 import org.apache.tools.ant.util.FileUtils;
 import org.apache.tools.ant.util.FlatFileNameMapper;
 import org.apache.tools.ant.util.IdentityMapper;
+import org.apache.tools.ant.util.LinkMode;
 import org.apache.tools.ant.util.LinkedHashtable;
+import org.apache.tools.ant.util.OrderedExecutor;
 import org.apache.tools.ant.util.ResourceUtils;
 import org.apache.tools.ant.util.SourceFileScanner;
 import org.apache.tools.ant.util.StringUtils;
@@ -105,6 +109,14 @@ public class Copy extends Task {
     private long granularity = 0;
     private boolean force = false;
     private boolean quiet = false;
+    private int threads = 1;
+    private LinkMode linkMode = LinkMode.none;
+    private boolean skipIdentical = false;
+    private File hashCacheFile = null;
+    private ContentHashCache hashCache = null;
+
+    /** Holds back messages logged by operations running on other threads. */
+    private final DeferredLog deferredLog = new DeferredLog();
 
     // used to store the single non-file resource to copy when the
     // tofile attribute has been used
@@ -429,6 +441,89 @@ public class Copy extends Task {
         this.granularity = granularity;
     }
 
+    /**
+     * Set the number of threads used to copy files.
+     *
+     * <p>Directories are created, messages are logged and errors are
+     * handled in the same order as if a single thread was used.</p>
+     * @param threads the number of threads, default is 1.
+     * @since Ant 1.10.9
+     */
+    public void setThreads(final int threads) {
+        this.threads = threads;
+    }
+
+    /**
+     * Get the number of threads used to copy files.
+     * @return int
+     * @since Ant 1.10.9
+     */
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * Set whether files that are copied without any filtering or
+     * change of encoding are hard linked or cloned instead.
+     *
+     * <p>Files are copied if a link or clone cannot be created.</p>
+     * @param linkMode the mode, default is {@link LinkMode#none}.
+     * @since Ant 1.10.9
+     */
+    public void setLinkMode(final LinkMode linkMode) {
+        this.linkMode = linkMode;
+    }
+
+    /**
+     * Get whether files are hard linked or cloned instead of being
+     * copied.
+     * @return LinkMode
+     * @since Ant 1.10.9
+     */
+    public LinkMode getLinkMode() {
+        return linkMode;
+    }
+
+    /**
+     * Set whether destination files with the same content as their
+     * source are left untouched - including their modification time.
+     *
+     * <p>Only applies to files that are copied without any filtering
+     * or change of encoding.  Sizes are compared first, contents only
+     * if the sizes match.</p>
+     * @param skipIdentical boolean, default is false.
+     * @since Ant 1.10.9
+     */
+    public void setSkipIdentical(final boolean skipIdentical) {
+        this.skipIdentical = skipIdentical;
+    }
+
+    /**
+     * Get whether destination files with the same content as their
+     * source are left untouched.
+     * @return boolean
+     * @since Ant 1.10.9
+     */
+    public boolean getSkipIdentical() {
+        return skipIdentical;
+    }
+
+    /**
+     * Set a file to keep hashes of the destination files' contents
+     * in if skipIdentical is true.
+     *
+     * <p>Without the cache the contents of source and destination
+     * files of the same size are compared byte by byte, with the
+     * cache only the source files need to be read as long as the
+     * destination files don't change.</p>
+     * @param hashCacheFile the file, will be created if it doesn't
+     * exist
+     * @since Ant 1.10.9
+     */
+    public void setHashCache(final File hashCacheFile) {
+        this.hashCacheFile = hashCacheFile;
+    }
+
     /**
      * Perform the copy operation.
      * @exception BuildException if an error occurs.
@@ -444,6 +539,16 @@ public class Copy extends Task {
             savedRc = rcs.elementAt(0);
         }
 
+        if (skipIdentical && hashCacheFile != null) {
+            hashCache = new ContentHashCache(hashCacheFile);
+            try {
+                hashCache.load();
+            } catch (final IOException e) {
+                log("Ignoring " + hashCacheFile + ": " + e.getMessage(),
+                    Project.MSG_WARN);
+            }
+        }
+
         try {
             // make sure we don't have an illegal set of options
             try {
@@ -609,6 +714,15 @@ public class Copy extends Task {
             fileCopyMap.clear();
             dirCopyMap.clear();
             completeDirMap.clear();
+            if (hashCache != null) {
+                try {
+                    hashCache.save();
+                } catch (final IOException e) {
+                    log("Failed to write " + hashCacheFile + ": " + e.getMessage(),
+                        Project.MSG_WARN);
+                }
+                hashCache = null;
+            }
         }
     }
 
@@ -859,48 +973,22 @@ public class Copy extends Task {
                 + " file" + (fileCopyMap.size() == 1 ? "" : "s")
                 + " to " + destDir.getAbsolutePath());
 
-            for (final Map.Entry<String, String[]> e : fileCopyMap.entrySet()) {
-                final String fromFile = e.getKey();
-
-                for (final String toFile : e.getValue()) {
-                    if (fromFile.equals(toFile)) {
-                        log("Skipping self-copy of " + fromFile, verbosity);
-                        continue;
-                    }
-                    try {
-                        log("Copying " + fromFile + " to " + toFile, verbosity);
+            try (OrderedExecutor executor = createExecutor()) {
+                final Set<File> parents = new HashSet<>();
+                for (final Map.Entry<String, String[]> e : fileCopyMap.entrySet()) {
+                    final String fromFile = e.getKey();
 
-                        final FilterSetCollection executionFilters =
-                            new FilterSetCollection();
-                        if (filtering) {
-                            executionFilters
-                                .addFilterSet(getProject().getGlobalFilterSet());
-                        }
-                        for (final FilterSet filterSet : filterSets) {
-                            executionFilters.addFilterSet(filterSet);
-                        }
-                        fileUtils.copyFile(new File(fromFile), new File(toFile),
-                                           executionFilters,
-                                           filterChains, forceOverwrite,
-                                           preserveLastModified,
-                                           /* append: */ false, inputEncoding,
-                                           outputEncoding, getProject(),
-                                           getForce());
-                    } catch (final IOException ioe) {
-                        String msg = "Failed to copy " + fromFile + " to " + toFile
-                            + " due to " + getDueTo(ioe);
-                        final File targetFile = new File(toFile);
-                        if (!(ioe instanceof
-                              ResourceUtils.ReadOnlyTargetFileException)
-                            && targetFile.exists() && !targetFile.delete()) {
-                            msg += " and I couldn't delete the corrupt " + toFile;
-                        }
-                        if (failonerror) {
-                            throw new BuildException(msg, ioe, getLocation());
+                    for (final String toFile : e.getValue()) {
+                        if (fromFile.equals(toFile)) {
+                            executor.inOrder(() -> log("Skipping self-copy of " + fromFile,
+                                                       verbosity));
+                            continue;
                         }
-                        log(msg, Project.MSG_ERR);
+                        prepareParent(executor, parents, new File(toFile));
+                        submit(executor, () -> copyFile(fromFile, toFile));
                     }
                 }
+                executor.finish();
             }
         }
         if (includeEmpty) {
@@ -942,50 +1030,210 @@ public class Copy extends Task {
                 + " resource" + (map.size() == 1 ? "" : "s")
                 + " to " + destDir.getAbsolutePath());
 
-            for (final Map.Entry<Resource, String[]> e : map.entrySet()) {
-                final Resource fromResource = e.getKey();
-                for (final String toFile : e.getValue()) {
-                    try {
-                        log("Copying " + fromResource + " to " + toFile,
-                            verbosity);
-
-                        final FilterSetCollection executionFilters = new FilterSetCollection();
-                        if (filtering) {
-                            executionFilters
-                                .addFilterSet(getProject().getGlobalFilterSet());
-                        }
-                        for (final FilterSet filterSet : filterSets) {
-                            executionFilters.addFilterSet(filterSet);
-                        }
-                        ResourceUtils.copyResource(fromResource,
-                                                   new FileResource(destDir,
-                                                                    toFile),
-                                                   executionFilters,
-                                                   filterChains,
-                                                   forceOverwrite,
-                                                   preserveLastModified,
-                                                   /* append: */ false,
-                                                   inputEncoding,
-                                                   outputEncoding,
-                                                   getProject(),
-                                                   getForce());
-                    } catch (final IOException ioe) {
-                        String msg = "Failed to copy " + fromResource
-                            + " to " + toFile
-                            + " due to " + getDueTo(ioe);
-                        final File targetFile = new File(toFile);
-                        if (!(ioe instanceof
-                              ResourceUtils.ReadOnlyTargetFileException)
-                            && targetFile.exists() && !targetFile.delete()) {
-                            msg += " and I couldn't delete the corrupt " + toFile;
-                        }
-                        if (failonerror) {
-                            throw new BuildException(msg, ioe, getLocation());
-                        }
-                        log(msg, Project.MSG_ERR);
+            try (OrderedExecutor executor = createExecutor()) {
+                final Set<File> parents = new HashSet<>();
+                for (final Map.Entry<Resource, String[]> e : map.entrySet()) {
+                    final Resource fromResource = e.getKey();
+                    for (final String toFile : e.getValue()) {
+                        prepareParent(executor, parents, new File(destDir, toFile));
+                        submit(executor, () -> copyResource(fromResource, toFile));
                     }
                 }
+                executor.finish();
+            }
+        }
+    }
+
+    /**
+     * Copies a single file.
+     * @return null or the handling of an error
+     */
+    private Runnable copyFile(final String fromFile, final String toFile) {
+        try {
+            final FilterSetCollection executionFilters = createExecutionFilters();
+            final File source = new File(fromFile);
+            final File dest = new File(toFile);
+            copyUnlessIdentical(new FileResource(source), dest, executionFilters,
+                () -> {
+                    log("Copying " + fromFile + " to " + toFile, verbosity);
+                    fileUtils.copyFile(source, dest,
+                                       executionFilters, filterChains,
+                                       forceOverwrite, preserveLastModified,
+                                       /* append: */ false, inputEncoding,
+                                       outputEncoding, getProject(), getForce(),
+                                       linkMode);
+                });
+            return null;
+        } catch (final IOException ioe) {
+            return () -> copyFailed(fromFile, toFile, ioe);
+        }
+    }
+
+    /**
+     * Copies a single resource.
+     * @return null or the handling of an error
+     */
+    private Runnable copyResource(final Resource fromResource, final String toFile) {
+        try {
+            final FilterSetCollection executionFilters = createExecutionFilters();
+            copyUnlessIdentical(fromResource, new File(destDir, toFile), executionFilters,
+                () -> {
+                    log("Copying " + fromResource + " to " + toFile, verbosity);
+                    ResourceUtils.copyResource(fromResource,
+                                               new FileResource(destDir, toFile),
+                                               executionFilters,
+                                               filterChains,
+                                               forceOverwrite,
+                                               preserveLastModified,
+                                               /* append: */ false,
+                                               inputEncoding,
+                                               outputEncoding,
+                                               getProject(),
+                                               getForce(),
+                                               linkMode);
+                });
+            return null;
+        } catch (final IOException ioe) {
+            return () -> copyFailed(fromResource, toFile, ioe);
+        }
+    }
+
+    /**
+     * Performs the copy operation unless skipIdentical is true, the
+     * content is copied verbatim and the destination already has
+     * the same content as the source.
+     */
+    private void copyUnlessIdentical(final Resource source, final File dest,
+                                     final FilterSetCollection executionFilters,
+                                     final CopyOperation copy) throws IOException {
+        final boolean transcoding = inputEncoding == null ? outputEncoding != null
+            : !inputEncoding.equals(outputEncoding);
+        if (!skipIdentical || executionFilters.hasFilters() || !filterChains.isEmpty()
+            || transcoding || !dest.isFile()) {
+            copy.copy();
+            return;
+        }
+        final long size = source.getSize();
+        if (size != Resource.UNKNOWN_SIZE && size != dest.length()) {
+            copy.copy();
+            return;
+        }
+        if (hashCache == null) {
+            if (ResourceUtils.contentEquals(source, new FileResource(dest), false)) {
+                log("Skipping " + source + " as " + dest + " is identical", verbosity);
+                return;
             }
+            copy.copy();
+            return;
+        }
+        final byte[] hash = hashCache.hash(source);
+        if (Arrays.equals(hash, hashCache.hash(dest))) {
+            log("Skipping " + source + " as " + dest + " is identical", verbosity);
+            return;
+        }
+        copy.copy();
+        hashCache.put(dest, hash);
+    }
+
+    /**
+     * A copy operation that may fail.
+     */
+    @FunctionalInterface
+    private interface CopyOperation {
+        void copy() throws IOException;
+    }
+
+    private FilterSetCollection createExecutionFilters() {
+        final FilterSetCollection executionFilters = new FilterSetCollection();
+        if (filtering) {
+            executionFilters.addFilterSet(getProject().getGlobalFilterSet());
+        }
+        for (final FilterSet filterSet : filterSets) {
+            executionFilters.addFilterSet(filterSet);
+        }
+        return executionFilters;
+    }
+
+    private void copyFailed(final Object from, final String toFile, final IOException ioe) {
+        String msg = "Failed to copy " + from + " to " + toFile
+            + " due to " + getDueTo(ioe);
+        final File targetFile = new File(toFile);
+        if (!(ioe instanceof ResourceUtils.ReadOnlyTargetFileException)
+            && targetFile.exists() && !targetFile.delete()) {
+            msg += " and I couldn't delete the corrupt " + toFile;
+        }
+        if (failonerror) {
+            throw new BuildException(msg, ioe, getLocation());
+        }
+        log(msg, Project.MSG_ERR);
+    }
+
+    /**
+     * Creates the executor that runs the copy operations using the
+     * configured number of threads.
+     * @return OrderedExecutor
+     * @since Ant 1.10.9
+     */
+    protected OrderedExecutor createExecutor() {
+        return new OrderedExecutor(threads);
+    }
+
+    /**
+     * Submits an operation to the executor.  If the executor uses
+     * more than one thread, messages the operation logs through this
+     * task are held back until the operation's turn has come.
+     * @param executor the executor
+     * @param operation the operation, returns null or an action to
+     * run once the operation's turn has come
+     * @since Ant 1.10.9
+     */
+    protected void submit(final OrderedExecutor executor,
+                          final Callable<Runnable> operation) {
+        deferredLog.submit(executor, operation);
+    }
+
+    /**
+     * Creates the parent directory of a destination file in advance
+     * if the executor uses more than one thread, so directories are
+     * created in the same order as with a single thread.
+     * @param executor the executor
+     * @param created the directories that have been handled already
+     * @param dest the destination file
+     * @since Ant 1.10.9
+     */
+    protected void prepareParent(final OrderedExecutor executor,
+                                 final Set<File> created, final File dest) {
+        final File parent = dest.getParentFile();
+        if (executor.isParallel() && parent != null && created.add(parent)
+            && !parent.isDirectory()) {
+            parent.mkdirs();
+        }
+    }
+
+    /**
+     * Logs a message, or holds it back if it is logged by an
+     * operation running on another thread.
+     * @param msg the message
+     * @param msgLevel the message priority
+     */
+    @Override
+    public void log(final String msg, final int msgLevel) {
+        if (!deferredLog.defer(() -> super.log(msg, msgLevel))) {
+            super.log(msg, msgLevel);
+        }
+    }
+
+    /**
+     * Logs a message, or holds it back if it is logged by an
+     * operation running on another thread.
+     * @param msg the message
+     * @param t the exception
+     * @param msgLevel the message priority
+     */
+    @Override
+    public void log(final String msg, final Throwable t, final int msgLevel) {
+        if (!deferredLog.defer(() -> super.log(msg, t, msgLevel))) {
+            super.log(msg, t, msgLevel);
         }
     }
 
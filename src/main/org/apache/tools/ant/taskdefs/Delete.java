@@ -19,17 +19,36 @@
 package org.apache.tools.ant.taskdefs;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
+import java.nio.file.LinkOption;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
+import java.util.EnumSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Vector;
-
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.tools.ant.BuildEvent;
 import org.apache.tools.ant.BuildException;
 import org.apache.tools.ant.DirectoryScanner;
 import org.apache.tools.ant.Project;
+import org.apache.tools.ant.SubBuildListener;
 import org.apache.tools.ant.taskdefs.condition.Os;
 import org.apache.tools.ant.types.FileSet;
 import org.apache.tools.ant.types.PatternSet;
@@ -128,6 +147,8 @@ public class Delete extends MatchingTask {
     private boolean removeNotFollowedSymlinks = false;
     private Resources rcs = null;
     private boolean performGc = Os.isFamily("windows");
+    private int threads = 1;
+    private boolean background = false;
 
     /**
      * Set the name of a single file to be removed.
@@ -219,6 +240,33 @@ public class Delete extends MatchingTask {
         performGc = b;
     }
 
+    /**
+     * The number of threads used to remove the directory specified
+     * by the dir attribute, sibling subdirectories are removed
+     * concurrently.
+     *
+     * @param threads int
+     * @since Ant 1.10.9
+     */
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
+    /**
+     * Whether the directory specified by the dir attribute should be
+     * renamed and removed in the background while the build goes on.
+     *
+     * <p>If the directory cannot be renamed it is removed right
+     * away.  The build waits for background removals before it
+     * finishes.</p>
+     *
+     * @param b boolean
+     * @since Ant 1.10.9
+     */
+    public void setBackground(boolean b) {
+        background = b;
+    }
+
     /**
      * Adds a set of files to be deleted.
      * @param set the set of files to be deleted
@@ -638,7 +686,9 @@ public class Delete extends MatchingTask {
                 if (verbosity == Project.MSG_VERBOSE) {
                     log("Deleting directory " + dir.getAbsolutePath());
                 }
-                removeDir(dir);
+                if (!background || !removeInBackground(dir)) {
+                    removeDir(dir);
+                }
             } else if (isDanglingSymlink(dir)) {
                 log("Trying to delete directory " + dir.getAbsolutePath()
                     + " which looks like a broken symlink.",
@@ -805,30 +855,283 @@ public class Delete extends MatchingTask {
     /**
      * Delete a directory
      *
+     * <p>Symbolic links to directories are followed, the content of
+     * the directory they point to is removed as well.</p>
+     *
      * @param d the directory to delete
      */
     protected void removeDir(File d) {
-        String[] list = d.list();
-        if (list == null) {
-            list = new String[0];
-        }
-        for (String s : list) {
-            File f = new File(d, s);
-            if (f.isDirectory()) {
-                removeDir(f);
-            } else {
-                log("Deleting " + f.getAbsolutePath(), quiet ? Project.MSG_VERBOSE : verbosity);
-                if (!delete(f)) {
-                    handle("Unable to delete file " + f.getAbsolutePath());
-                }
+        if (threads > 1) {
+            RemoveTree root = new RemoveTree(d.toPath(), null);
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                pool.invoke(root);
+            } finally {
+                pool.shutdown();
+            }
+            if (root.failure.get() != null) {
+                throw root.failure.get();
             }
+            return;
+        }
+        try {
+            Files.walkFileTree(d.toPath(), EnumSet.of(FileVisitOption.FOLLOW_LINKS),
+                               Integer.MAX_VALUE, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult visitFile(Path f, BasicFileAttributes attrs) {
+                    removeFile(f.toFile());
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path f, IOException e) {
+                    // a symbolic link creating a cycle or a directory
+                    // that cannot be read
+                    if (Files.isDirectory(f, LinkOption.NOFOLLOW_LINKS)) {
+                        removeEmptyDir(f.toFile());
+                    } else {
+                        removeFile(f.toFile());
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult postVisitDirectory(Path dir, IOException e) {
+                    removeEmptyDir(dir.toFile());
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            // the visitor doesn't throw any
+            handle(e);
         }
+    }
+
+    private void removeFile(File f) {
+        log("Deleting " + f.getAbsolutePath(), quiet ? Project.MSG_VERBOSE : verbosity);
+        if (!delete(f)) {
+            handle("Unable to delete file " + f.getAbsolutePath());
+        }
+    }
+
+    private void removeEmptyDir(File d) {
         log("Deleting directory " + d.getAbsolutePath(), verbosity);
         if (!delete(d)) {
             handle("Unable to delete directory " + d.getAbsolutePath());
         }
     }
 
+    /**
+     * Removes a directory tree, the subdirectories of each directory
+     * are removed by separate tasks of a ForkJoinPool.
+     */
+    private class RemoveTree extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Path dir;
+        /** The tree removal of the parent directory. */
+        private final RemoveTree parent;
+        /** The identity of the directory, used to detect cycles. */
+        private final Object key;
+        /** The first failure within the whole tree. */
+        private final AtomicReference<BuildException> failure;
+
+        RemoveTree(Path dir, RemoveTree parent) {
+            this.dir = dir;
+            this.parent = parent;
+            this.failure = parent == null ? new AtomicReference<>() : parent.failure;
+            Object k = null;
+            try {
+                k = Files.readAttributes(dir, BasicFileAttributes.class).fileKey();
+            } catch (IOException e) {
+                // will be handled when listing the directory fails
+            }
+            key = k;
+        }
+
+        @Override
+        protected void compute() {
+            List<RemoveTree> subdirs = new ArrayList<>();
+            try {
+                try (DirectoryStream<Path> entries = Files.newDirectoryStream(dir)) {
+                    for (Path entry : entries) {
+                        if (failure.get() != null) {
+                            return;
+                        }
+                        RemoveTree subdir = Files.isDirectory(entry)
+                            ? new RemoveTree(entry, this) : null;
+                        if (subdir == null || subdir.isCycle()) {
+                            removeFile(entry.toFile());
+                        } else {
+                            subdirs.add(subdir);
+                        }
+                    }
+                } catch (IOException e) {
+                    // like File#list returning null, try to remove
+                    // the directory nonetheless
+                }
+                invokeAll(subdirs);
+                if (failure.get() == null) {
+                    removeEmptyDir(dir.toFile());
+                }
+            } catch (BuildException e) {
+                failure.compareAndSet(null, e);
+            }
+        }
+
+        private boolean isCycle() {
+            if (key == null) {
+                return false;
+            }
+            for (RemoveTree t = parent; t != null; t = t.parent) {
+                if (key.equals(t.key)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Renames the directory and removes it in the background.
+     *
+     * <p>The directory is renamed to a hidden sibling so the rename
+     * doesn't need to cross file systems.  The new name contains
+     * {@link DirectoryScanner#DELETING_INFIX} so filesets of the
+     * parent directory don't pick it up while it is being removed.
+     * If the build gets killed before the removal has finished the
+     * renamed directory is left on disk.</p>
+     *
+     * @param d the directory to remove
+     * @return false if the directory cannot be renamed and has to be
+     * removed right away.
+     */
+    private boolean removeInBackground(File d) {
+        Path source = d.toPath();
+        if (Files.isSymbolicLink(source) || d.getParentFile() == null) {
+            return false;
+        }
+        Path trash = source.resolveSibling("." + d.getName()
+            + DirectoryScanner.DELETING_INFIX + Long.toHexString(System.nanoTime()));
+        try {
+            Files.move(source, trash, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | UnsupportedOperationException e) {
+            log("Cannot rename " + d.getAbsolutePath() + ", deleting it right away: "
+                + e, Project.MSG_VERBOSE);
+            return false;
+        }
+        log("Renamed " + d.getAbsolutePath() + " to " + trash
+            + ", deleting it in the background", Project.MSG_VERBOSE);
+        BackgroundRemovals.of(getProject()).submit(() -> {
+            try {
+                removeDir(trash.toFile());
+            } catch (BuildException e) {
+                log("Failed to delete " + trash + ": " + e.getMessage(), Project.MSG_WARN);
+            }
+        });
+        return true;
+    }
+
+    /**
+     * Directory trees that are removed in the background, the build
+     * waits for them to be removed before it finishes.
+     */
+    private static final class BackgroundRemovals implements SubBuildListener {
+        private static final String REFERENCE = "ant.delete.background-removals";
+
+        private final Project project;
+
+        /** Created on demand, shut down whenever the build waits for it. */
+        private ExecutorService executor;
+
+        private BackgroundRemovals(Project project) {
+            this.project = project;
+        }
+
+        static BackgroundRemovals of(Project project) {
+            synchronized (project) {
+                BackgroundRemovals removals = project.getReference(REFERENCE);
+                if (removals == null) {
+                    removals = new BackgroundRemovals(project);
+                    project.addReference(REFERENCE, removals);
+                    project.addBuildListener(removals);
+                }
+                return removals;
+            }
+        }
+
+        synchronized void submit(Runnable removal) {
+            if (executor == null) {
+                executor = Executors.newSingleThreadExecutor(r -> {
+                    Thread t = new Thread(r, "ant-background-delete");
+                    t.setDaemon(true);
+                    return t;
+                });
+            }
+            executor.execute(removal);
+        }
+
+        private void await() {
+            final ExecutorService running;
+            synchronized (this) {
+                running = executor;
+                executor = null;
+            }
+            if (running == null) {
+                return;
+            }
+            running.shutdown();
+            try {
+                while (!running.awaitTermination(1, TimeUnit.MINUTES)) {
+                    project.log("Waiting for directories to be deleted in the background",
+                                Project.MSG_INFO);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public void buildFinished(BuildEvent event) {
+            await();
+        }
+
+        @Override
+        public void subBuildFinished(BuildEvent event) {
+            if (event.getProject() == project) {
+                await();
+            }
+        }
+
+        @Override
+        public void buildStarted(BuildEvent event) {
+        }
+
+        @Override
+        public void subBuildStarted(BuildEvent event) {
+        }
+
+        @Override
+        public void targetStarted(BuildEvent event) {
+        }
+
+        @Override
+        public void targetFinished(BuildEvent event) {
+        }
+
+        @Override
+        public void taskStarted(BuildEvent event) {
+        }
+
+        @Override
+        public void taskFinished(BuildEvent event) {
+        }
+
+        @Override
+        public void messageLogged(BuildEvent event) {
+        }
+    }
+
     /**
      * remove an array of files in a directory, and a list of subdirectories
      * which will only be deleted if 'includeEmpty' is true
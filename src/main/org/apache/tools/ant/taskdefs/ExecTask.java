@@ -61,6 +61,7 @@ public class ExecTask extends Task {
     private boolean searchPath = false;
     private boolean spawn = false;
     private boolean incompatibleWithSpawn = false;
+    private boolean outputCaptured = false;
 
     //include locally for screening purposes
     private String inputString;
@@ -243,6 +244,7 @@ public class ExecTask extends Task {
      */
     public void setOutputproperty(String outputProp) {
         redirector.setOutputProperty(outputProp);
+        outputCaptured = true;
         incompatibleWithSpawn = true;
     }
 
@@ -256,6 +258,7 @@ public class ExecTask extends Task {
      */
     public void setErrorProperty(String errorProperty) {
         redirector.setErrorProperty(errorProperty);
+        outputCaptured = true;
         incompatibleWithSpawn = true;
     }
 
@@ -583,6 +586,20 @@ public class ExecTask extends Task {
         this.vmLauncher = vmLauncher;
     }
 
+    /**
+     * Whether the task has been configured in a way that only makes
+     * sense if an external process is run: the process is spawned,
+     * is subject to a timeout or its input or output are redirected.
+     *
+     * @return boolean
+     * @since Ant 1.10.9
+     */
+    protected boolean requiresProcess() {
+        return spawn || timeout != null || input != null || inputString != null
+            || output != null || error != null || outputCaptured
+            || redirectorElement != null;
+    }
+
     /**
      * Create an Execute instance with the correct working directory set.
      *
@@ -20,6 +20,7 @@ package org.apache.tools.ant.taskdefs;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
@@ -687,6 +688,23 @@ public class ExecuteOn extends ExecTask {
     protected void runParallel(Execute exe, Vector<String> fileNames,
                                Vector<File> baseDirs)
         throws IOException, BuildException {
+        InProcessOperation operation =
+            requiresProcess() || srcFilePos != null || targetFilePos != null
+            ? null : createInProcessOperation();
+        if (operation != null) {
+            Vector<String> remainingNames = new Vector<>();
+            Vector<File> remainingDirs = new Vector<>();
+            runInProcess(operation, fileNames, baseDirs, remainingNames,
+                         remainingDirs);
+            if (remainingNames.isEmpty()) {
+                return;
+            }
+            log("Running " + cmdl.getExecutable() + " for "
+                + remainingNames.size() + " remaining file(s)",
+                Project.MSG_VERBOSE);
+            fileNames = remainingNames;
+            baseDirs = remainingDirs;
+        }
         String[] s = fileNames.toArray(new String[fileNames.size()]);
         File[] b = baseDirs.toArray(new File[baseDirs.size()]);
 
@@ -730,6 +748,64 @@ public class ExecuteOn extends ExecTask {
         }
     }
 
+    /**
+     * Provides an operation that does the command's work for a single
+     * file without running the command.
+     *
+     * <p>Subclasses wrapping commands that only modify the files
+     * they are applied to may override this to avoid starting
+     * processes.  It is only used in parallel mode and if neither
+     * the process' input nor output are redirected and neither a
+     * srcfile nor a targetfile element have been specified.</p>
+     *
+     * @return the operation or null if the command must be run,
+     * which is the default
+     * @since Ant 1.10.9
+     */
+    protected InProcessOperation createInProcessOperation() {
+        return null;
+    }
+
+    /**
+     * Applies an operation to all files it supports, failures are
+     * treated like a non-zero exit code of the command.
+     */
+    private void runInProcess(InProcessOperation operation,
+                              Vector<String> fileNames, Vector<File> baseDirs,
+                              Vector<String> remainingNames,
+                              Vector<File> remainingDirs) {
+        log("Applying " + cmdl.getExecutable() + " in-process to "
+            + fileNames.size() + " file(s)", Project.MSG_VERBOSE);
+        int failures = 0;
+        for (int i = 0; i < fileNames.size(); i++) {
+            String name = fileNames.get(i);
+            File base = baseDirs.get(i);
+            File file = base == null ? getProject().resolveFile(name)
+                : new File(base, name);
+            try {
+                if (!operation.apply(file.toPath())) {
+                    remainingNames.add(name);
+                    remainingDirs.add(base);
+                }
+            } catch (IOException e) {
+                log("Failed to apply " + cmdl.getExecutable() + " to "
+                    + file + ": " + e, Project.MSG_WARN);
+                failures++;
+            }
+        }
+        if (failures > 0) {
+            maybeSetResultPropertyValue(1);
+            String msg = cmdl.getExecutable() + " failed for " + failures
+                + " file" + (failures != 1 ? "s" : "");
+            if (failOnError) {
+                throw new BuildException(msg, getLocation());
+            }
+            log(msg, Project.MSG_ERR);
+        } else if (remainingNames.isEmpty()) {
+            maybeSetResultPropertyValue(0);
+        }
+    }
+
     /**
      * Inserts target file names (which are already absolute paths)
      * into the list of arguments, taking prefix and postfix into
@@ -750,6 +826,24 @@ public class ExecuteOn extends ExecTask {
         }
     }
 
+    /**
+     * Does the work of the command for a single file.
+     *
+     * @since Ant 1.10.9
+     */
+    @FunctionalInterface
+    protected interface InProcessOperation {
+        /**
+         * Applies the operation to a file.
+         *
+         * @param file the file
+         * @return false if the operation doesn't support the file and
+         * the command must be run for it
+         * @throws IOException if the file cannot be modified
+         */
+        boolean apply(Path file) throws IOException;
+    }
+
     /**
      * Enumerated attribute with the values "file", "dir" and "both"
      * for the type attribute.
@@ -23,6 +23,7 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.util.Date;
 import java.util.Enumeration;
@@ -45,6 +46,7 @@ import org.apache.tools.ant.types.selectors.SelectorUtils;
 import org.apache.tools.ant.util.FileNameMapper;
 import org.apache.tools.ant.util.FileUtils;
 import org.apache.tools.ant.util.IdentityMapper;
+import org.apache.tools.ant.util.OrderedExecutor;
 import org.apache.tools.zip.ZipEntry;
 import org.apache.tools.zip.ZipFile;
 
@@ -78,6 +80,7 @@ public class Expand extends Task {
     private boolean stripAbsolutePathSpec = true;
     private boolean scanForUnicodeExtraFields = true;
     private Boolean allowFilesToEscapeDest = null;
+    private int threads = 1;
 
     private String encoding;
 
@@ -187,14 +190,20 @@ public class Expand extends Task {
                     + " as the file does not exist",
                     getLocation());
         }
-        try (ZipFile zf = new ZipFile(srcF, encoding, scanForUnicodeExtraFields)) {
+        try (ZipFile zf = new ZipFile(srcF, encoding, scanForUnicodeExtraFields, true);
+             OrderedExecutor executor = new OrderedExecutor(threads)) {
             boolean empty = true;
+            Set<File> targets = new HashSet<>();
             Enumeration<ZipEntry> entries = zf.getEntries();
             while (entries.hasMoreElements()) {
                 ZipEntry ze = entries.nextElement();
                 empty = false;
-                InputStream is = null;
                 log("extracting " + ze.getName(), Project.MSG_DEBUG);
+                if (executor.isParallel()) {
+                    submit(executor, fileUtils, srcF, dir, zf, ze, mapper, targets);
+                    continue;
+                }
+                InputStream is = null;
                 try {
                     extractFile(fileUtils, srcF, dir,
                                 is = zf.getInputStream(ze), //NOSONAR
@@ -204,16 +213,69 @@ public class Expand extends Task {
                     FileUtils.close(is);
                 }
             }
+            executor.finish();
             if (empty && getFailOnEmptyArchive()) {
                 throw new BuildException("archive '%s' is empty", srcF);
             }
             log("expand complete", Project.MSG_VERBOSE);
         } catch (IOException ioe) {
-            throw new BuildException(
-                "Error while expanding " + srcF.getPath()
-                + "\n" + ioe.toString(),
-                ioe);
+            throw expandFailed(srcF, ioe);
+        } catch (UncheckedIOException e) {
+            // a corrupt entry of the lazily read archive
+            throw expandFailed(srcF, e.getCause());
+        }
+    }
+
+    /**
+     * Decides whether and where to extract an entry and creates the
+     * directories needed right away, the entry's data is written by
+     * the executor's threads.
+     */
+    private void submit(OrderedExecutor executor, FileUtils fileUtils, File srcF,
+                        File dir, ZipFile zf, ZipEntry ze, FileNameMapper mapper,
+                        Set<File> targets) throws IOException {
+        String name = ze.getName();
+        if (stripAbsolutePathSpec && startsWithPathSpec(name)) {
+            name = name.substring(1);
+        }
+        if (!targets.isEmpty() && targets.contains(target(fileUtils, dir, name, mapper))) {
+            // the file is written by an entry that came before, wait
+            // for it so the overwrite check sees the file
+            executor.finish();
+            targets.clear();
         }
+        long time = ze.getTime();
+        File f = prepareTarget(fileUtils, dir, ze.getName(), new Date(time),
+                               ze.isDirectory(), mapper);
+        if (f == null) {
+            return;
+        }
+        targets.add(f);
+        if (ze.isDirectory()) {
+            executor.inOrder(() -> fileUtils.setFileLastModified(f, time));
+            return;
+        }
+        executor.submit(() -> {
+            try (InputStream is = zf.getInputStream(ze)) {
+                writeFile(is, f);
+                fileUtils.setFileLastModified(f, time);
+            } catch (FileNotFoundException ex) {
+                return () -> log("Unable to expand to file " + f.getPath(),
+                                 ex, Project.MSG_WARN);
+            } catch (IOException ioe) {
+                return () -> {
+                    throw expandFailed(srcF, ioe);
+                };
+            }
+            return null;
+        });
+    }
+
+    private static BuildException expandFailed(File srcF, IOException ioe) {
+        return new BuildException(
+            "Error while expanding " + srcF.getPath()
+            + "\n" + ioe.toString(),
+            ioe);
     }
 
     /**
@@ -256,11 +318,34 @@ public class Expand extends Task {
                                String entryName, Date entryDate,
                                boolean isDirectory, FileNameMapper mapper)
                                throws IOException {
+        File f = prepareTarget(fileUtils, dir, entryName, entryDate, isDirectory, mapper);
+        if (f == null) {
+            return;
+        }
+        try {
+            if (!isDirectory) {
+                writeEntry(compressedInputStream, f);
+            }
+            fileUtils.setFileLastModified(f, entryDate.getTime());
+        } catch (FileNotFoundException ex) {
+            log("Unable to expand to file " + f.getPath(),
+                    ex,
+                    Project.MSG_WARN);
+        }
+    }
+    // CheckStyle:ParameterNumberCheck ON
 
-        final boolean entryNameStartsWithPathSpec = !entryName.isEmpty()
-            && (entryName.charAt(0) == File.separatorChar
-                || entryName.charAt(0) == '/'
-                || entryName.charAt(0) == '\\');
+    /**
+     * Applies the patterns, the mapper and the overwrite check to an
+     * entry and creates the directories it needs.
+     *
+     * @return the file to extract the entry to, null if the entry is
+     * skipped
+     */
+    private File prepareTarget(FileUtils fileUtils, File dir, String entryName,
+                               Date entryDate, boolean isDirectory,
+                               FileNameMapper mapper) throws IOException {
+        final boolean entryNameStartsWithPathSpec = startsWithPathSpec(entryName);
         if (stripAbsolutePathSpec && entryNameStartsWithPathSpec) {
             log("stripped absolute path spec from " + entryName,
                 Project.MSG_VERBOSE);
@@ -324,57 +409,79 @@ public class Expand extends Task {
                 log("skipping " + entryName
                     + " as it is excluded or not included.",
                     Project.MSG_VERBOSE);
-                return;
+                return null;
             }
         }
-        String[] mappedNames = mapper.mapFileName(entryName);
-        if (mappedNames == null || mappedNames.length == 0) {
-            mappedNames = new String[] {entryName};
-        }
-        File f = fileUtils.resolveFile(dir, mappedNames[0]);
+        File f = target(fileUtils, dir, entryName, mapper);
         if (!allowedOutsideOfDest && !fileUtils.isLeadingPath(dir, f, true)) {
             log("skipping " + entryName + " as its target " + f.getCanonicalPath()
                 + " is outside of " + dir.getCanonicalPath() + ".", Project.MSG_VERBOSE);
-                return;
+                return null;
         }
 
-        try {
-            if (!overwrite && f.exists()
-                && f.lastModified() >= entryDate.getTime()) {
-                log("Skipping " + f + " as it is up-to-date",
-                    Project.MSG_DEBUG);
-                return;
-            }
+        if (!overwrite && f.exists()
+            && f.lastModified() >= entryDate.getTime()) {
+            log("Skipping " + f + " as it is up-to-date",
+                Project.MSG_DEBUG);
+            return null;
+        }
 
-            log("expanding " + entryName + " to " + f,
-                Project.MSG_VERBOSE);
-            // create intermediary directories - sometimes zip don't add them
-            File dirF = f.getParentFile();
-            if (dirF != null) {
-                dirF.mkdirs();
-            }
+        log("expanding " + entryName + " to " + f,
+            Project.MSG_VERBOSE);
+        // create intermediary directories - sometimes zip don't add them
+        File dirF = f.getParentFile();
+        if (dirF != null) {
+            dirF.mkdirs();
+        }
 
-            if (isDirectory) {
-                f.mkdirs();
-            } else {
-                byte[] buffer = new byte[BUFFER_SIZE];
-                try (OutputStream fos = Files.newOutputStream(f.toPath())) {
-                    int length;
-                    while ((length = compressedInputStream.read(buffer)) >= 0) {
-                        fos.write(buffer, 0, length);
-                    }
-                }
-            }
+        if (isDirectory) {
+            f.mkdirs();
+        }
+        return f;
+    }
 
-            fileUtils.setFileLastModified(f, entryDate.getTime());
-        } catch (FileNotFoundException ex) {
-            log("Unable to expand to file " + f.getPath(),
-                    ex,
-                    Project.MSG_WARN);
+    /**
+     * The file an entry is extracted to, leading path separators
+     * must have been stripped already if necessary.
+     */
+    private File target(FileUtils fileUtils, File dir, String entryName,
+                        FileNameMapper mapper) {
+        String[] mappedNames = mapper.mapFileName(entryName);
+        if (mappedNames == null || mappedNames.length == 0) {
+            mappedNames = new String[] {entryName};
         }
+        return fileUtils.resolveFile(dir, mappedNames[0]);
+    }
 
+    private static boolean startsWithPathSpec(String entryName) {
+        return !entryName.isEmpty()
+            && (entryName.charAt(0) == File.separatorChar
+                || entryName.charAt(0) == '/'
+                || entryName.charAt(0) == '\\');
+    }
+
+    /**
+     * Writes the contents of an entry extracted by {@link
+     * #extractFile extractFile} to a file.
+     *
+     * @param in the stream to read the contents from
+     * @param f the file to write to
+     * @throws IOException on error
+     * @since Ant 1.10.9
+     */
+    protected void writeEntry(InputStream in, File f) throws IOException {
+        writeFile(in, f);
+    }
+
+    private static void writeFile(InputStream in, File f) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        try (OutputStream fos = Files.newOutputStream(f.toPath())) {
+            int length;
+            while ((length = in.read(buffer)) >= 0) {
+                fos.write(buffer, 0, length);
+            }
+        }
     }
-    // CheckStyle:ParameterNumberCheck ON
 
     /**
      * Set the destination directory. File will be unzipped into the
@@ -540,6 +647,22 @@ public class Expand extends Task {
         allowFilesToEscapeDest = b;
     }
 
+    /**
+     * The number of threads used to extract the entries of a zip
+     * archive.
+     *
+     * <p>With more than one thread directories are created, messages
+     * are logged and errors are handled in the order of the entries
+     * but entries are not passed to {@link #extractFile
+     * extractFile}.</p>
+     *
+     * @param threads int
+     * @since Ant 1.10.9
+     */
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
     /**
      * Whether to allow the extracted file or directory to be outside of the dest directory.
      *
@@ -19,10 +19,12 @@
 package org.apache.tools.ant.taskdefs;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.nio.file.Files;
 import java.util.zip.GZIPOutputStream;
 
 import org.apache.tools.ant.BuildException;
+import org.apache.tools.ant.util.ParallelGZIPOutputStream;
 
 /**
  * Compresses a file with the GZIP algorithm. Normally used to compress
@@ -34,13 +36,29 @@ import org.apache.tools.ant.BuildException;
  */
 
 public class GZip extends Pack {
+    private int threads = 1;
+
+    /**
+     * The number of threads used to compress the data.
+     *
+     * <p>With more than one thread the data is compressed in blocks
+     * of 128 KB on a pool of threads.</p>
+     *
+     * @param threads int
+     * @since Ant 1.10.9
+     */
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
     /**
      * perform the GZip compression operation.
      */
     @Override
     protected void pack() {
-        try (GZIPOutputStream zOut =
-            new GZIPOutputStream(Files.newOutputStream(zipFile.toPath()))) {
+        try (OutputStream zOut = threads > 1
+             ? new ParallelGZIPOutputStream(Files.newOutputStream(zipFile.toPath()), threads)
+             : new GZIPOutputStream(Files.newOutputStream(zipFile.toPath()))) {
             zipResource(getSrcResource(), zOut);
         } catch (IOException ioe) {
             String msg = "Problem creating gzip " + ioe.getMessage();
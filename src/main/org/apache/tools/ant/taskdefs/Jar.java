@@ -36,6 +36,7 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Set;
 import java.util.SortedMap;
 import java.util.StringTokenizer;
@@ -54,6 +55,7 @@ import org.apache.tools.ant.types.Path;
 import org.apache.tools.ant.types.Resource;
 import org.apache.tools.ant.types.ResourceCollection;
 import org.apache.tools.ant.types.ZipFileSet;
+import org.apache.tools.ant.types.resources.CompressedResource;
 import org.apache.tools.ant.types.spi.Service;
 import org.apache.tools.ant.util.FileUtils;
 import org.apache.tools.ant.util.StreamUtils;
@@ -75,6 +77,9 @@ public class Jar extends Zip {
     /** The manifest file name. */
     private static final String MANIFEST_NAME = "META-INF/MANIFEST.MF";
 
+    /** File name suffixes of the compressed resources. */
+    private static final String[] COMPRESSION_SUFFIXES = {".gz", ".bz2", ".xz"};
+
     /**
      * List of all known SPI Services
      */
@@ -590,7 +595,7 @@ public class Jar extends Zip {
         writer.println();
 
         // header newline
-        writer.println(zipFile.getName());
+        writer.println(getIndexedArchiveName());
 
         writeIndexLikeList(new ArrayList<>(addedDirs.keySet()),
                            rootEntries, writer);
@@ -636,6 +641,29 @@ public class Jar extends Zip {
         }
     }
 
+    /**
+     * The name of the archive as written to the index list.  If the
+     * archive is written to a compressed resource the index refers to
+     * the uncompressed archive, so the compression's file name suffix
+     * is dropped.
+     */
+    private String getIndexedArchiveName() {
+        if (zipFile != null) {
+            return zipFile.getName();
+        }
+        String name = getDest().getName().replace('\\', '/');
+        name = name.substring(name.lastIndexOf('/') + 1);
+        if (getDest() instanceof CompressedResource) {
+            String lower = name.toLowerCase(Locale.ENGLISH);
+            for (String suffix : COMPRESSION_SUFFIXES) {
+                if (lower.endsWith(suffix) && lower.length() > suffix.length()) {
+                    return name.substring(0, name.length() - suffix.length());
+                }
+            }
+        }
+        return name;
+    }
+
     /**
      * Overridden from Zip class to deal with manifests and index lists.
      * @param is the stream to read data for the entry from.  The
@@ -775,7 +803,7 @@ public class Jar extends Zip {
         }
 
         // need to handle manifest as a special check
-        if (zipFile.exists()) {
+        if (zipFile != null && zipFile.exists()) {
             // if it doesn't exist, it will get created anyway, don't
             // bother with any up-to-date checks.
 
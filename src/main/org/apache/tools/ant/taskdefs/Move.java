@@ -19,7 +19,9 @@ package org.apache.tools.ant.taskdefs;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 
 import org.apache.tools.ant.BuildException;
 import org.apache.tools.ant.DirectoryScanner;
@@ -27,6 +29,7 @@ import org.apache.tools.ant.Project;
 import org.apache.tools.ant.taskdefs.condition.Os;
 import org.apache.tools.ant.types.FileSet;
 import org.apache.tools.ant.types.FilterSetCollection;
+import org.apache.tools.ant.util.OrderedExecutor;
 
 /**
  * Moves a file or directory to a new file or directory.
@@ -134,33 +137,20 @@ public class Move extends Copy {
             log("Moving " + moveCount + " file" + ((moveCount == 1) ? "" : "s")
                     + " to " + destDir.getAbsolutePath());
 
-            for (Map.Entry<String, String[]> entry : fileCopyMap.entrySet()) {
-                String fromFile = entry.getKey();
-                File f = new File(fromFile);
-                boolean selfMove = false;
-                if (f.exists()) { //Is this file still available to be moved?
+            try (OrderedExecutor executor = createExecutor()) {
+                Set<File> parents = new HashSet<>();
+                for (Map.Entry<String, String[]> entry : fileCopyMap.entrySet()) {
+                    String fromFile = entry.getKey();
                     String[] toFiles = entry.getValue();
-                    for (int i = 0; i < toFiles.length; i++) {
-                        String toFile = toFiles[i];
-
-                        if (fromFile.equals(toFile)) {
-                            log("Skipping self-move of " + fromFile, verbosity);
-                            selfMove = true;
-
-                            // if this is the last time through the loop then
-                            // move will not occur, but that's what we want
-                            continue;
-                        }
-                        File d = new File(toFile);
-                        if ((i + 1) == toFiles.length && !selfMove) {
-                            // Only try to move if this is the last mapped file
-                            // and one of the mappings isn't to itself
-                            moveFile(f, d, filtering, forceOverwrite);
-                        } else {
-                            copyFile(f, d, filtering, forceOverwrite);
-                        }
+                    for (String toFile : toFiles) {
+                        prepareParent(executor, parents, new File(toFile));
                     }
+                    submit(executor, () -> {
+                        moveFile(fromFile, toFiles);
+                        return null;
+                    });
                 }
+                executor.finish();
             }
         }
 
@@ -202,6 +192,39 @@ public class Move extends Copy {
         }
     }
 
+    /**
+     * Moves a file to the last of its destinations and copies it to
+     * the others.
+     * @param fromFile the source file
+     * @param toFiles the destinations
+     */
+    private void moveFile(String fromFile, String[] toFiles) {
+        File f = new File(fromFile);
+        boolean selfMove = false;
+        if (f.exists()) { //Is this file still available to be moved?
+            for (int i = 0; i < toFiles.length; i++) {
+                String toFile = toFiles[i];
+
+                if (fromFile.equals(toFile)) {
+                    log("Skipping self-move of " + fromFile, verbosity);
+                    selfMove = true;
+
+                    // if this is the last time through the loop then
+                    // move will not occur, but that's what we want
+                    continue;
+                }
+                File d = new File(toFile);
+                if ((i + 1) == toFiles.length && !selfMove) {
+                    // Only try to move if this is the last mapped file
+                    // and one of the mappings isn't to itself
+                    moveFile(f, d, filtering, forceOverwrite);
+                } else {
+                    copyFile(f, d, filtering, forceOverwrite);
+                }
+            }
+        }
+    }
+
     /**
      * Try to move the file via a rename, but if this fails or filtering
      * is enabled, copy the file then delete the sourceFile.
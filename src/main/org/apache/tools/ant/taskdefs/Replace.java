@@ -18,17 +18,11 @@
 
 package org.apache.tools.ant.taskdefs;
 
-import java.io.BufferedReader;
-import java.io.BufferedWriter;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.io.OutputStream;
-import java.io.OutputStreamWriter;
 import java.io.Reader;
 import java.io.Writer;
-import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.Iterator;
@@ -43,7 +37,9 @@ import org.apache.tools.ant.types.ResourceCollection;
 import org.apache.tools.ant.types.resources.FileProvider;
 import org.apache.tools.ant.types.resources.FileResource;
 import org.apache.tools.ant.types.resources.Union;
-import org.apache.tools.ant.util.FileUtils;
+import org.apache.tools.ant.util.FileRewriter;
+import org.apache.tools.ant.util.OrderedExecutor;
+import org.apache.tools.ant.util.ReplacingWriter;
 import org.apache.tools.ant.util.StreamUtils;
 
 /**
@@ -59,7 +55,7 @@ import org.apache.tools.ant.util.StreamUtils;
  */
 public class Replace extends MatchingTask {
 
-    private static final FileUtils FILE_UTILS = FileUtils.getFileUtils();
+    private static final int BUFF_SIZE = 8192;
 
     private File sourceFile = null;
     private NestedString token = null;
@@ -83,6 +79,8 @@ public class Replace extends MatchingTask {
 
     private boolean preserveLastModified = false;
     private boolean failOnNoReplacements = false;
+    private boolean singlePass = false;
+    private int threads = 1;
 
     /**
      * An inline string to use as the replacement text.
@@ -134,9 +132,6 @@ public class Replace extends MatchingTask {
         private String replaceValue;
         private String property;
 
-        private StringBuffer inputBuffer;
-        private StringBuffer outputBuffer = new StringBuffer();
-
         /**
          * Validate the filter's configuration.
          * @throws BuildException if any part is invalid.
@@ -270,218 +265,6 @@ public class Replace extends MatchingTask {
             }
             return value;
         }
-
-        /**
-         * Retrieves the output buffer of this filter. The filter guarantees
-         * that data is only appended to the end of this StringBuffer.
-         * @return The StringBuffer containing the output of this filter.
-         */
-        StringBuffer getOutputBuffer() {
-            return outputBuffer;
-        }
-
-        /**
-         * Sets the input buffer for this filter.
-         * The filter expects from the component providing the input that data
-         * is only added by that component to the end of this StringBuffer.
-         * This StringBuffer will be modified by this filter, and expects that
-         * another component will only append to this StringBuffer.
-         * @param input The input for this filter.
-         */
-        void setInputBuffer(StringBuffer input) {
-            inputBuffer = input;
-        }
-
-        /**
-         * Processes the buffer as far as possible. Takes into account that
-         * appended data may make it possible to replace the end of the already
-         * received data, when the token is split over the "old" and the "new"
-         * part.
-         * @return true if some data has been made available in the
-         *         output buffer.
-         */
-        boolean process() {
-            String t = getToken();
-            if (inputBuffer.length() > t.length()) {
-                int pos = replace();
-                pos = Math.max(inputBuffer.length() - t.length(), pos);
-                outputBuffer.append(inputBuffer.substring(0, pos));
-                inputBuffer.delete(0, pos);
-                return true;
-            }
-            return false;
-        }
-
-        /**
-         * Processes the buffer to the end. Does not take into account that
-         * appended data may make it possible to replace the end of the already
-         * received data.
-         */
-        void flush() {
-            replace();
-            outputBuffer.append(inputBuffer);
-            inputBuffer.delete(0, inputBuffer.length());
-        }
-
-        /**
-         * Performs the replace operation.
-         * @return The position of the last character that was inserted as
-         *         replacement.
-         */
-        private int replace() {
-            String t = getToken();
-            int found = inputBuffer.indexOf(t);
-            int pos = -1;
-            final int tokenLength = t.length();
-            final int replaceValueLength = replaceValue.length();
-            while (found >= 0) {
-                inputBuffer.replace(found, found + tokenLength, replaceValue);
-                pos = found + replaceValueLength;
-                found = inputBuffer.indexOf(t, pos);
-                ++replaceCount;
-            }
-            return pos;
-        }
-    }
-
-    /**
-     * Class reading a file in small chunks, and presenting these chunks in
-     * a StringBuffer. Compatible with the Replacefilter.
-     * @since 1.7
-     */
-    private class FileInput implements AutoCloseable {
-        private static final int BUFF_SIZE = 4096;
-
-        private StringBuffer outputBuffer;
-        private final InputStream is;
-        private Reader reader;
-        private char[] buffer;
-
-        /**
-         * Constructs the input component. Opens the file for reading.
-         * @param source The file to read from.
-         * @throws IOException When the file cannot be read from.
-         */
-        FileInput(File source) throws IOException {
-            outputBuffer = new StringBuffer();
-            buffer = new char[BUFF_SIZE];
-            is = Files.newInputStream(source.toPath());
-            try {
-                reader = new BufferedReader(
-                    encoding != null ? new InputStreamReader(is, encoding)
-                        : new InputStreamReader(is));
-            } finally {
-                if (reader == null) {
-                    is.close();
-                }
-            }
-        }
-
-        /**
-         * Retrieves the output buffer of this filter. The component guarantees
-         * that data is only appended to the end of this StringBuffer.
-         * @return The StringBuffer containing the output of this filter.
-         */
-        StringBuffer getOutputBuffer() {
-            return outputBuffer;
-        }
-
-        /**
-         * Reads some data from the file.
-         * @return true when the end of the file has not been reached.
-         * @throws IOException When the file cannot be read from.
-         */
-        boolean readChunk() throws IOException {
-            int bufferLength = reader.read(buffer);
-            if (bufferLength < 0) {
-                return false;
-            }
-            outputBuffer.append(new String(buffer, 0, bufferLength));
-            return true;
-        }
-
-        /**
-         * Closes the file.
-         * @throws IOException When the file cannot be closed.
-         */
-        @Override
-        public void close() throws IOException {
-            is.close();
-        }
-
-    }
-
-    /**
-     * Component writing a file in chunks, taking the chunks from the
-     * Replacefilter.
-     * @since 1.7
-     */
-    private class FileOutput implements AutoCloseable {
-        private StringBuffer inputBuffer;
-        private final OutputStream os;
-        private Writer writer;
-
-        /**
-         * Constructs the output component. Opens the file for writing.
-         * @param out The file to read to.
-         * @throws IOException When the file cannot be read from.
-         */
-        FileOutput(File out) throws IOException {
-            os = Files.newOutputStream(out.toPath());
-            try {
-                writer = new BufferedWriter(
-                    encoding != null ? new OutputStreamWriter(os, encoding)
-                        : new OutputStreamWriter(os));
-            } finally {
-                if (writer == null) {
-                    os.close();
-                }
-            }
-        }
-
-        /**
-         * Sets the input buffer for this component.
-         * The filter expects from the component providing the input that data
-         * is only added by that component to the end of this StringBuffer.
-         * This StringBuffer will be modified by this filter, and expects that
-         * another component will only append to this StringBuffer.
-         * @param input The input for this filter.
-         */
-        void setInputBuffer(StringBuffer input) {
-            inputBuffer = input;
-        }
-
-        /**
-         * Writes the buffer as far as possible.
-         * @return false to be inline with the Replacefilter.
-         * (Yes defining an interface crossed my mind, but would publish the
-         * internal behavior.)
-         * @throws IOException when the output cannot be written.
-         */
-        boolean process() throws IOException {
-            writer.write(inputBuffer.toString());
-            inputBuffer.delete(0, inputBuffer.length());
-            return false;
-        }
-
-        /**
-         * Processes the buffer to the end.
-         * @throws IOException when the output cannot be flushed.
-         */
-        void flush() throws IOException {
-            process();
-            writer.flush();
-        }
-
-        /**
-         * Closes the file.
-         * @throws IOException When the file cannot be closed.
-         */
-        @Override
-        public void close() throws IOException {
-            os.close();
-        }
-
     }
 
     /**
@@ -529,22 +312,24 @@ public class Replace extends MatchingTask {
             fileCount = 0;
             replaceCount = 0;
 
-            if (sourceFile != null) {
-                processFile(sourceFile);
-            }
+            try (OrderedExecutor executor = new OrderedExecutor(threads)) {
+                if (sourceFile != null) {
+                    submit(executor, sourceFile);
+                }
 
-            if (dir != null) {
-                DirectoryScanner ds = super.getDirectoryScanner(dir);
-                for (String src : ds.getIncludedFiles()) {
-                    File file = new File(dir, src);
-                    processFile(file);
+                if (dir != null) {
+                    DirectoryScanner ds = super.getDirectoryScanner(dir);
+                    for (String src : ds.getIncludedFiles()) {
+                        submit(executor, new File(dir, src));
+                    }
                 }
-            }
 
-            if (resources != null) {
-                for (Resource r : resources) {
-                    processFile(r.as(FileProvider.class).getFile());
+                if (resources != null) {
+                    for (Resource r : resources) {
+                        submit(executor, r.as(FileProvider.class).getFile());
+                    }
                 }
+                executor.finish();
             }
 
             if (summary) {
@@ -631,90 +416,93 @@ public class Replace extends MatchingTask {
         return props;
     }
 
+    /**
+     * Processes the file, possibly on a different thread, and logs
+     * the outcome in order.
+     *
+     * @param executor the executor
+     * @param src the source <code>File</code>.
+     */
+    private void submit(OrderedExecutor executor, File src) {
+        executor.submit(() -> {
+            int count = processFile(src);
+            return () -> {
+                logFilterChain(src.getPath());
+                if (count > 0) {
+                    fileCount++;
+                    replaceCount += count;
+                }
+            };
+        });
+    }
+
     /**
      * Perform the replacement on the given file.
      *
      * The replacement is performed on a temporary file which then
-     * replaces the original file.
+     * replaces the original file.  The temporary file is only
+     * created once the first token has been found, files without any
+     * token are only read.
      *
      * @param src the source <code>File</code>.
+     * @return the number of replaced tokens
      */
-    private void processFile(File src) throws BuildException {
+    private int processFile(File src) throws BuildException {
         if (!src.exists()) {
             throw new BuildException("Replace: source file " + src.getPath()
                                      + " doesn't exist", getLocation());
         }
 
-        int repCountStart = replaceCount;
-        logFilterChain(src.getPath());
-
+        List<ReplacingWriter> stages = new ArrayList<>();
+        FileRewriter result = new FileRewriter(getProject(), src, encoding,
+            () -> stages.stream().anyMatch(w -> w.getCount() > 0));
         try {
-            File temp = FILE_UTILS.createTempFile(getProject(), "rep", ".tmp",
-                    src.getParentFile(), false, true);
-            try {
-                try (FileInput in = new FileInput(src);
-                     FileOutput out = new FileOutput(temp)) {
-                    out.setInputBuffer(buildFilterChain(in.getOutputBuffer()));
-
-                    while (in.readChunk()) {
-                        if (processFilterChain()) {
-                            out.process();
-                        }
-                    }
-
-                    flushFilterChain();
-
-                    out.flush();
-                }
-                boolean changes = (replaceCount != repCountStart);
-                if (changes) {
-                    fileCount++;
-                    long origLastModified = src.lastModified();
-                    FILE_UTILS.rename(temp, src);
-                    if (preserveLastModified) {
-                        FILE_UTILS.setFileLastModified(src, origLastModified);
-                    }
-                }
-            } finally {
-                if (temp.isFile() && !temp.delete()) {
-                    temp.deleteOnExit();
+            try (Reader in = result.openSource();
+                 Writer out = buildFilterChain(result, stages)) {
+                char[] buffer = new char[BUFF_SIZE];
+                int n;
+                while ((n = in.read(buffer)) >= 0) {
+                    out.write(buffer, 0, n);
                 }
             }
+            result.replaceSource(preserveLastModified);
+            return stages.stream().mapToInt(ReplacingWriter::getCount).sum();
         } catch (IOException ioe) {
             throw new BuildException("IOException in " + src + " - "
                     + ioe.getClass().getName() + ":"
                     + ioe.getMessage(), ioe, getLocation());
+        } finally {
+            result.deleteTempFile();
         }
     }
 
     /**
-     * Flushes all filters.
-     */
-    private void flushFilterChain() {
-        replacefilters.forEach(Replacefilter::flush);
-    }
-
-    /**
-     * Performs the normal processing of the filters.
-     * @return true if the filter chain produced new output.
-     */
-    private boolean processFilterChain() {
-        return replacefilters.stream().allMatch(Replacefilter::process);
-    }
-
-    /**
-     * Creates the chain of filters to operate.
-     * @param inputBuffer <code>StringBuffer</code> containing the input for the
-     *                    first filter.
-     * @return <code>StringBuffer</code> containing the output of the last filter.
+     * Creates the chain of writers that perform the replacements.
+     * Each filter gets a writer of its own that works on the output
+     * of the filter before it unless all tokens are replaced in a
+     * single pass.
+     *
+     * @param out the writer that receives the output of the last filter.
+     * @param stages receives the writers that have been created.
+     * @return the writer receiving the input of the first filter.
      */
-    private StringBuffer buildFilterChain(StringBuffer inputBuffer) {
-        StringBuffer buf = inputBuffer;
-        for (Replacefilter filter : replacefilters) {
-            filter.setInputBuffer(buf);
-            buf = filter.getOutputBuffer();
+    private Writer buildFilterChain(Writer out, List<ReplacingWriter> stages) {
+        if (singlePass) {
+            ReplacingWriter w = new ReplacingWriter(out,
+                replacefilters.stream().map(Replacefilter::getToken).toArray(String[]::new),
+                replacefilters.stream().map(f -> f.replaceValue).toArray(String[]::new));
+            stages.add(w);
+            return w;
+        }
+        Writer w = out;
+        for (int i = replacefilters.size() - 1; i >= 0; i--) {
+            Replacefilter filter = replacefilters.get(i);
+            ReplacingWriter stage = new ReplacingWriter(w, filter.getToken(),
+                                                        filter.replaceValue);
+            stages.add(stage);
+            w = stage;
         }
-        return buf;
+        return w;
     }
 
     /**
@@ -900,6 +688,31 @@ public class Replace extends MatchingTask {
         failOnNoReplacements = b;
     }
 
+    /**
+     * Whether all tokens should be replaced in a single pass over
+     * the file rather than one token after the other.
+     *
+     * <p>In a single pass replacement values are not searched for
+     * tokens of later filters and where occurrences of different
+     * tokens overlap, the one that starts first is replaced.</p>
+     *
+     * @param b boolean
+     * @since Ant 1.10.9
+     */
+    public void setSinglePass(boolean b) {
+        singlePass = b;
+    }
+
+    /**
+     * The number of threads used to process files.
+     *
+     * @param threads int
+     * @since Ant 1.10.9
+     */
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
     /**
      * Adds the token and value as first &lt;replacefilter&gt; element.
      * The token and value are always processed first.
@@ -18,12 +18,25 @@
 
 package org.apache.tools.ant.taskdefs;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeSet;
 import java.util.stream.Stream;
 
 import org.apache.tools.ant.BuildException;
@@ -41,6 +54,7 @@ import org.apache.tools.ant.types.resources.selectors.Exists;
 import org.apache.tools.ant.types.selectors.FileSelector;
 import org.apache.tools.ant.types.selectors.NoneSelector;
 import org.apache.tools.ant.util.FileUtils;
+import org.apache.tools.ant.util.LinkMode;
 
 /**
  * Synchronize a local target directory from the files defined
@@ -59,6 +73,14 @@ import org.apache.tools.ant.util.FileUtils;
  */
 public class Sync extends Task {
 
+    private static final FileUtils FILE_UTILS = FileUtils.getFileUtils();
+
+    /** Identifies state files, includes a format version. */
+    private static final int STATE_MAGIC = 0x414e5301;
+
+    /** Recorded state of a directory. */
+    private static final long[] DIRECTORY = {-1, 0};
+
     // Same as regular <copy> task... see at end-of-file!
     private MyCopy myCopy;
 
@@ -67,6 +89,8 @@ public class Sync extends Task {
 
     private Resources resources = null;
 
+    private File stateFile;
+
     // Override Task#init
     /**
      * Initialize the sync task.
@@ -112,16 +136,50 @@ public class Sync extends Task {
         // or was empty, then no previous file removal is necessary!
         boolean noRemovalNecessary = !toDir.exists() || toDir.list().length < 1;
 
+        Map<String, long[]> previousState = null;
+        if (stateFile != null) {
+            if (!noRemovalNecessary) {
+                previousState = readState(toDir);
+            }
+            // a sync that fails must not leave an outdated state behind
+            if (stateFile.exists() && !stateFile.delete()) {
+                throw new BuildException("Unable to delete " + stateFile,
+                                         getLocation());
+            }
+            myCopy.previousState = previousState;
+            myCopy.recordState = true;
+        }
+
         // Copy all the necessary out-of-date files
         log("PASS#1: Copying files to " + toDir, Project.MSG_DEBUG);
         myCopy.execute();
 
+        if (stateFile != null) {
+            if (FILE_UTILS.isLeadingPath(toDir, stateFile.getAbsoluteFile())) {
+                // never remove the state file itself
+                allFiles.add(FILE_UTILS.removeLeadingPath(toDir, stateFile));
+            }
+        }
+
         // Do we need to perform further processing?
         if (noRemovalNecessary) {
             log("NO removing necessary in " + toDir, Project.MSG_DEBUG);
-            return; // nope ;-)
+        } else if (previousState != null && syncTarget == null) {
+            removeOrphans(previousState, allFiles, toDir);
+        } else {
+            removeOrphans(allFiles, toDir);
         }
 
+        if (stateFile != null) {
+            writeState(toDir);
+        }
+    }
+
+    /**
+     * Removes all files not listed in the source filesets from the
+     * destination directory by scanning it.
+     */
+    private void removeOrphans(Set<String> allFiles, File toDir) {
         // will hold the directories matched by SyncTarget in reversed
         // lexicographic order (order is important, that's why we use
         // a LinkedHashSet
@@ -152,6 +210,143 @@ public class Sync extends Task {
         }
     }
 
+    /**
+     * Removes the files and directories written by the previous run
+     * that are no longer listed in the source filesets, without
+     * scanning the destination directory.
+     *
+     * <p>Directories that become empty are removed as well unless
+     * they are part of the sources and includeEmptyDirs is true.</p>
+     */
+    private void removeOrphans(Map<String, long[]> previousState,
+                               Set<String> allFiles, File toDir) {
+        log("PASS#2: Removing orphans recorded in " + stateFile + " from "
+            + toDir, Project.MSG_DEBUG);
+        int removedFiles = 0;
+        int removedDirs = 0;
+        int removedEmptyDirs = 0;
+        // reversed order visits directories before their parents
+        Set<String> dirs = new TreeSet<>(Comparator.reverseOrder());
+        for (Map.Entry<String, long[]> e : previousState.entrySet()) {
+            String name = e.getKey();
+            if (allFiles.contains(name)) {
+                continue;
+            }
+            if (e.getValue()[0] < 0) {
+                dirs.add(name);
+                continue;
+            }
+            File f = new File(toDir, name);
+            if (f.isFile()) {
+                log("Removing orphan file: " + f, Project.MSG_DEBUG);
+                if (f.delete()) {
+                    ++removedFiles;
+                }
+            }
+            addParents(name, dirs);
+        }
+        for (String name : dirs) {
+            boolean orphan = !allFiles.contains(name);
+            if (!orphan && myCopy.getIncludeEmptyDirs()) {
+                continue;
+            }
+            File f = new File(toDir, name);
+            String[] children = f.list();
+            if (children != null && children.length == 0) {
+                log("Removing " + (orphan ? "orphan" : "empty") + " directory: " + f,
+                    Project.MSG_DEBUG);
+                if (f.delete()) {
+                    if (orphan) {
+                        ++removedDirs;
+                    } else {
+                        ++removedEmptyDirs;
+                    }
+                }
+            }
+        }
+        logRemovedCount(removedDirs, "dangling director", "y", "ies");
+        logRemovedCount(removedFiles, "dangling file", "", "s");
+        logRemovedCount(removedEmptyDirs, "empty director", "y", "ies");
+    }
+
+    private static void addParents(String name, Set<String> dirs) {
+        int sep = Math.max(name.lastIndexOf('/'), name.lastIndexOf(File.separatorChar));
+        while (sep > 0) {
+            name = name.substring(0, sep);
+            if (!dirs.add(name)) {
+                // so have its parents
+                break;
+            }
+            sep = Math.max(name.lastIndexOf('/'), name.lastIndexOf(File.separatorChar));
+        }
+    }
+
+    /**
+     * Reads the state recorded by the previous run, returns null if
+     * there is none or it doesn't belong to the given directory.
+     */
+    private Map<String, long[]> readState(File toDir) {
+        if (!stateFile.isFile()) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                 Files.newInputStream(stateFile.toPath())))) {
+            if (in.readInt() != STATE_MAGIC
+                || !toDir.getAbsolutePath().equals(in.readUTF())) {
+                log("Ignoring " + stateFile + " as it has been written for a"
+                    + " different directory or version of Ant", Project.MSG_VERBOSE);
+                return null;
+            }
+            int count = in.readInt();
+            Map<String, long[]> state = new HashMap<>(count * 4 / 3 + 1);
+            for (int i = 0; i < count; i++) {
+                String name = in.readUTF();
+                long size = in.readLong();
+                long lastModified = in.readLong();
+                state.put(name, size < 0 ? DIRECTORY : new long[] {size, lastModified});
+            }
+            log("Read state of " + count + " files from " + stateFile,
+                Project.MSG_VERBOSE);
+            return state;
+        } catch (IOException e) {
+            log("Ignoring " + stateFile + ": " + e, Project.MSG_WARN);
+            return null;
+        }
+    }
+
+    /**
+     * Records the files written by this run.
+     */
+    private void writeState(File toDir) {
+        Map<String, long[]> state = myCopy.verifyState();
+        File parent = stateFile.getAbsoluteFile().getParentFile();
+        if (!parent.isDirectory() && !parent.mkdirs() && !parent.isDirectory()) {
+            throw new BuildException("Unable to create directory " + parent,
+                                     getLocation());
+        }
+        File temp = FILE_UTILS.createTempFile(getProject(), "sync", ".tmp",
+                                              parent, false, false);
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                     Files.newOutputStream(temp.toPath())))) {
+                out.writeInt(STATE_MAGIC);
+                out.writeUTF(toDir.getAbsolutePath());
+                out.writeInt(state.size());
+                for (Map.Entry<String, long[]> e : state.entrySet()) {
+                    out.writeUTF(e.getKey());
+                    out.writeLong(e.getValue()[0]);
+                    out.writeLong(e.getValue()[1]);
+                }
+            }
+            Files.move(temp.toPath(), stateFile.toPath(),
+                       StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            temp.delete();
+            throw new BuildException("Failed to write " + stateFile + ": " + e,
+                                     e, getLocation());
+        }
+    }
+
     private void logRemovedCount(int count, String prefix,
                                  String singularSuffix, String pluralSuffix) {
         File toDir = myCopy.getToDir();
@@ -423,6 +618,42 @@ public class Sync extends Task {
         myCopy.setGranularity(granularity);
     }
 
+    /**
+     * The number of threads used to copy files.
+     * @param threads int
+     * @since Ant 1.10.9
+     */
+    public void setThreads(int threads) {
+        myCopy.setThreads(threads);
+    }
+
+    /**
+     * Set whether files that are copied without any filtering or
+     * change of encoding are hard linked or cloned instead.
+     * @param linkMode the mode, default is {@link LinkMode#none}.
+     * @since Ant 1.10.9
+     */
+    public void setLinkMode(LinkMode linkMode) {
+        myCopy.setLinkMode(linkMode);
+    }
+
+    /**
+     * A file recording the files written by this task.
+     *
+     * <p>If set, subsequent runs use it to find orphans without
+     * scanning the destination directory and only compare source
+     * files to the destination if their size or modification time
+     * differ from the recorded state.  Files that are modified,
+     * added or removed in the destination directory by other means
+     * are not detected while the state file exists.</p>
+     *
+     * @param stateFile File
+     * @since Ant 1.10.9
+     */
+    public void setStateFile(File stateFile) {
+        this.stateFile = stateFile;
+    }
+
     /**
      * A container for patterns and selectors that can be used to
      * specify files that should be kept in the target even if they
@@ -459,6 +690,27 @@ public class Sync extends Task {
         // fact that they are newer or not than the destination.
         private Set<String> nonOrphans = new HashSet<>();
 
+        // State recorded by the previous run, files matching it are
+        // not compared to the destination.
+        private Map<String, long[]> previousState;
+        private boolean recordState;
+        // State of the files synchronized by this run.
+        private final Map<String, long[]> state = new HashMap<>();
+        // Files whose state must be read from the destination.
+        private final Set<String> unverified = new HashSet<>();
+        private long granularity =
+            FileUtils.getFileUtils().getFileTimestampGranularity();
+
+        /**
+         * @see Copy#setGranularity(long)
+         * {@inheritDoc}
+         */
+        @Override
+        public void setGranularity(long granularity) {
+            super.setGranularity(granularity);
+            this.granularity = granularity;
+        }
+
         /**
          * @see Copy#scan(File, File, String[], String[])
          * {@inheritDoc}
@@ -468,7 +720,15 @@ public class Sync extends Task {
                             String[] dirs) {
             assertTrue("No mapper", mapperElement == null);
 
-            super.scan(fromDir, toDir, files, dirs);
+            String[] changed = files;
+            if (recordState) {
+                changed = changedFiles(fromDir, files);
+                Collections.addAll(unverified, changed);
+                for (String dir : dirs) {
+                    state.put(dir, DIRECTORY);
+                }
+            }
+            super.scan(fromDir, toDir, changed, dirs);
 
             Collections.addAll(nonOrphans, files);
             Collections.addAll(nonOrphans, dirs);
@@ -483,10 +743,63 @@ public class Sync extends Task {
             assertTrue("No mapper", mapperElement == null);
 
             Stream.of(resources).map(Resource::getName).forEach(nonOrphans::add);
+            if (recordState) {
+                Stream.of(resources).map(Resource::getName).forEach(unverified::add);
+            }
 
             return super.scan(resources, toDir);
         }
 
+        /**
+         * Filters out the files whose size and modification time
+         * match the state recorded by the previous run.
+         */
+        private String[] changedFiles(File fromDir, String[] files) {
+            if (previousState == null || forceOverwrite) {
+                return files;
+            }
+            List<String> changed = new ArrayList<>();
+            for (String name : files) {
+                long[] previous = previousState.get(name);
+                File source = new File(fromDir, name);
+                if (previous != null && previous[0] == source.length()
+                    && Math.abs(previous[1] - source.lastModified()) <= granularity) {
+                    state.put(name, previous);
+                } else {
+                    changed.add(name);
+                }
+            }
+            if (changed.size() < files.length) {
+                log((files.length - changed.size()) + " files in " + fromDir
+                    + " are unchanged since the last sync", Project.MSG_VERBOSE);
+            }
+            return changed.toArray(new String[0]);
+        }
+
+        /**
+         * Reads the state of all files that have not been found to
+         * be unchanged from the destination directory.
+         */
+        private Map<String, long[]> verifyState() {
+            for (String name : unverified) {
+                try {
+                    BasicFileAttributes attrs = Files.readAttributes(
+                        new File(destDir, name).toPath(), BasicFileAttributes.class);
+                    if (attrs.isDirectory()) {
+                        state.put(name, DIRECTORY);
+                    } else if (attrs.isRegularFile()) {
+                        state.put(name, new long[] {attrs.size(),
+                                attrs.lastModifiedTime().toMillis()});
+                    }
+                } catch (IOException e) {
+                    // not there, will be compared to the source next time
+                    state.remove(name);
+                }
+            }
+            unverified.clear();
+            return state;
+        }
+
         /**
          * Get the destination directory.
          * @return the destination directory
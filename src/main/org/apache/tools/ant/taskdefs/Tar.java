@@ -25,7 +25,9 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -50,9 +52,11 @@ import org.apache.tools.ant.types.resources.TarResource;
 import org.apache.tools.ant.types.selectors.SelectorUtils;
 import org.apache.tools.ant.util.FileUtils;
 import org.apache.tools.ant.util.MergingMapper;
+import org.apache.tools.ant.util.ParallelGZIPOutputStream;
 import org.apache.tools.ant.util.ResourceUtils;
 import org.apache.tools.ant.util.SourceFileScanner;
 import org.apache.tools.bzip2.CBZip2OutputStream;
+import org.apache.tools.tar.TarBuffer;
 import org.apache.tools.tar.TarConstants;
 import org.apache.tools.tar.TarEntry;
 import org.apache.tools.tar.TarOutputStream;
@@ -123,6 +127,8 @@ public class Tar extends MatchingTask {
     private boolean longWarningGiven = false;
 
     private TarCompressionMethod compression = new TarCompressionMethod();
+    private int threads = 1;
+    private int blockSize = TarBuffer.DEFAULT_BLKSIZE;
 
     /**
      * Encoding to use for filenames, defaults to the platform's
@@ -252,6 +258,31 @@ public class Tar extends MatchingTask {
         this.encoding = encoding;
     }
 
+    /**
+     * The number of threads used to compress the archive, only
+     * supported by gzip and bzip2 compression.
+     *
+     * @param threads int
+     * @since Ant 1.10.9
+     */
+    public void setThreads(final int threads) {
+        this.threads = threads;
+    }
+
+    /**
+     * The size of the blocks the archive is written in, must be a
+     * multiple of 512 - the default is 10240 like for tar(1).
+     *
+     * <p>Larger blocks mean fewer writes, the archive is padded to
+     * a multiple of the block size, though.</p>
+     *
+     * @param blockSize int
+     * @since Ant 1.10.9
+     */
+    public void setBlockSize(final int blockSize) {
+        this.blockSize = blockSize;
+    }
+
     /**
      * do the business
      * @throws BuildException on error
@@ -273,6 +304,11 @@ public class Tar extends MatchingTask {
                                      getLocation());
         }
 
+        if (blockSize <= 0 || blockSize % TarBuffer.DEFAULT_RCDSIZE != 0) {
+            throw new BuildException("blocksize must be a positive multiple of "
+                                     + TarBuffer.DEFAULT_RCDSIZE, getLocation());
+        }
+
         final Vector<TarFileSet> savedFileSets = new Vector<>(filesets);
         try {
             if (baseDir != null) {
@@ -319,10 +355,7 @@ public class Tar extends MatchingTask {
 
             log("Building tar: " + tarFile.getAbsolutePath(), Project.MSG_INFO);
 
-            try (TarOutputStream tOut = new TarOutputStream(
-                compression.compress(new BufferedOutputStream(
-                    Files.newOutputStream(tarFile.toPath()))),
-                encoding)) {
+            try (TarOutputStream tOut = openArchive()) {
                 tOut.setDebug(true);
                 if (longFileMode.isTruncateMode()) {
                     tOut.setLongFileMode(TarOutputStream.LONGFILE_TRUNCATE);
@@ -352,6 +385,27 @@ public class Tar extends MatchingTask {
         }
     }
 
+    /**
+     * Opens the archive, uncompressed archives are written to a file
+     * channel so the contents of files can be transferred without
+     * copying them.
+     */
+    private TarOutputStream openArchive() throws IOException {
+        if (TarCompressionMethod.NONE.equals(compression.getValue())) {
+            final FileChannel channel = FileChannel.open(tarFile.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE);
+            try {
+                return new TarOutputStream(channel, blockSize, encoding);
+            } catch (final IOException | RuntimeException e) {
+                channel.close();
+                throw e;
+            }
+        }
+        return new TarOutputStream(compression.compress(new BufferedOutputStream(
+            Files.newOutputStream(tarFile.toPath())), threads), blockSize, encoding);
+    }
+
     /**
      * tar a file
      * @param file the file to tar
@@ -503,7 +557,15 @@ public class Tar extends MatchingTask {
         try {
             tOut.putNextEntry(te);
 
-            if (!r.isDirectory()) {
+            final FileProvider fp = r.as(FileProvider.class);
+            // only worth it if the archive is written to a channel
+            if (!r.isDirectory() && fp != null
+                && TarCompressionMethod.NONE.equals(compression.getValue())) {
+                try (FileChannel source = FileChannel.open(fp.getFile().toPath(),
+                                                           StandardOpenOption.READ)) {
+                    tOut.transferFrom(source, 0, te.getSize());
+                }
+            } else if (!r.isDirectory()) {
                 in = r.getInputStream();
 
                 final byte[] buffer = new byte[BUFFER_SIZE];
@@ -984,14 +1046,16 @@ public class Tar extends MatchingTask {
          *     corresponding compression method
          *
          *  @param ostream output stream
+         *  @param threads the number of threads to compress with
          *  @return output stream with on-the-fly compression
          *  @exception IOException thrown if file is not writable
          */
-        private OutputStream compress(final OutputStream ostream)
+        private OutputStream compress(final OutputStream ostream, final int threads)
             throws IOException {
             final String v = getValue();
             if (GZIP.equals(v)) {
-                return new GZIPOutputStream(ostream);
+                return threads > 1 ? new ParallelGZIPOutputStream(ostream, threads)
+                    : new GZIPOutputStream(ostream);
             }
             if (XZ.equals(v)) {
                 return newXZOutputStream(ostream);
@@ -999,7 +1063,8 @@ public class Tar extends MatchingTask {
             if (BZIP2.equals(v)) {
                 ostream.write('B');
                 ostream.write('Z');
-                return new CBZip2OutputStream(ostream);
+                return new CBZip2OutputStream(ostream,
+                    CBZip2OutputStream.MAX_BLOCKSIZE, threads);
             }
             return ostream;
         }
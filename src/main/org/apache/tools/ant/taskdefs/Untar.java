@@ -24,7 +24,9 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
 import java.util.zip.GZIPInputStream;
 
 import org.apache.tools.ant.BuildException;
@@ -53,6 +55,13 @@ import org.apache.tools.tar.TarInputStream;
  * @ant.task category="packaging"
  */
 public class Untar extends Expand {
+    /**
+     * Size of the blocks read from uncompressed archives, doesn't
+     * need to match the block size the archive has been written with
+     * as the last block may be incomplete.
+     */
+    private static final int CHANNEL_BLOCK_SIZE = 64 * 1024;
+
     /**
      *   compression method
      */
@@ -92,6 +101,19 @@ public class Untar extends Expand {
             getLocation());
     }
 
+    /**
+     * Tar entries can only be read one after the other.
+     *
+     * @since Ant 1.10.9
+     */
+    @Override
+    public void setThreads(int threads) {
+        throw new BuildException(
+            "The " + getTaskName()
+                + " task doesn't support the threads attribute",
+            getLocation());
+    }
+
     /**
      * @see Expand#expandFile(FileUtils, File, File)
      * {@inheritDoc}
@@ -104,8 +126,23 @@ public class Untar extends Expand {
                     + " as the file does not exist",
                     getLocation());
         }
-        try (InputStream fis = Files.newInputStream(srcF.toPath())) {
-            expandStream(srcF.getPath(), fis, dir);
+        try {
+            if (UntarCompressionMethod.NONE.equals(compression.getValue())) {
+                // uncompressed archives are read through a channel so
+                // entries can be skipped and transferred without
+                // copying them
+                try (FileChannel channel = FileChannel.open(srcF.toPath(),
+                                                            StandardOpenOption.READ);
+                     TarInputStream tis = new TarInputStream(channel,
+                                                             CHANNEL_BLOCK_SIZE,
+                                                             getEncoding())) {
+                    expandTar(srcF.getPath(), tis, dir);
+                }
+            } else {
+                try (InputStream fis = Files.newInputStream(srcF.toPath())) {
+                    expandStream(srcF.getPath(), fis, dir);
+                }
+            }
         } catch (IOException ioe) {
             throw new BuildException("Error while expanding " + srcF.getPath()
                                      + "\n" + ioe.toString(),
@@ -145,20 +182,44 @@ public class Untar extends Expand {
         try (TarInputStream tis = new TarInputStream(
             compression.decompress(name, new BufferedInputStream(stream)),
             getEncoding())) {
-            log("Expanding: " + name + " into " + dir, Project.MSG_INFO);
-            boolean empty = true;
-            FileNameMapper mapper = getMapper();
-            TarEntry te;
-            while ((te = tis.getNextEntry()) != null) {
-                empty = false;
-                extractFile(FileUtils.getFileUtils(), null, dir, tis,
-                            te.getName(), te.getModTime(),
-                            te.isDirectory(), mapper);
-            }
-            if (empty && getFailOnEmptyArchive()) {
-                throw new BuildException("archive '%s' is empty", name);
-            }
-            log("expand complete", Project.MSG_VERBOSE);
+            expandTar(name, tis, dir);
+        }
+    }
+
+    private void expandTar(String name, TarInputStream tis, File dir)
+        throws IOException {
+        log("Expanding: " + name + " into " + dir, Project.MSG_INFO);
+        boolean empty = true;
+        FileNameMapper mapper = getMapper();
+        TarEntry te;
+        while ((te = tis.getNextEntry()) != null) {
+            empty = false;
+            extractFile(FileUtils.getFileUtils(), null, dir, tis,
+                        te.getName(), te.getModTime(),
+                        te.isDirectory(), mapper);
+        }
+        if (empty && getFailOnEmptyArchive()) {
+            throw new BuildException("archive '%s' is empty", name);
+        }
+        log("expand complete", Project.MSG_VERBOSE);
+    }
+
+    /**
+     * Transfers the contents of tar entries to the file using a
+     * channel.
+     *
+     * @since Ant 1.10.9
+     */
+    @Override
+    protected void writeEntry(InputStream in, File f) throws IOException {
+        if (!(in instanceof TarInputStream)) {
+            super.writeEntry(in, f);
+            return;
+        }
+        try (FileChannel out = FileChannel.open(f.toPath(),
+                 StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                 StandardOpenOption.WRITE)) {
+            ((TarInputStream) in).copyEntryContents(out);
         }
     }
 
@@ -18,6 +18,7 @@
 package org.apache.tools.ant.taskdefs;
 
 import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
@@ -47,6 +48,7 @@ import org.apache.tools.ant.types.Resource;
 import org.apache.tools.ant.types.ResourceCollection;
 import org.apache.tools.ant.types.ZipFileSet;
 import org.apache.tools.ant.types.ZipScanner;
+import org.apache.tools.ant.types.resources.ArchiveIndexCache;
 import org.apache.tools.ant.types.resources.ArchiveResource;
 import org.apache.tools.ant.types.resources.FileProvider;
 import org.apache.tools.ant.types.resources.FileResource;
@@ -96,6 +98,7 @@ public class Zip extends MatchingTask {
         MISSING_DIR_PROVIDER = sr -> MISSING_SELECTOR;
 
     protected File zipFile;
+    private Resource dest;
     // use to scan own archive
     private ZipScanner zs;
     private File baseDir;
@@ -227,6 +230,13 @@ public class Zip extends MatchingTask {
      */
     private Zip64ModeAttribute zip64Mode = Zip64ModeAttribute.AS_NEEDED;
 
+    /**
+     * Number of threads used to compress entries.
+     *
+     * @since Ant 1.10.9
+     */
+    private int threads = 1;
+
     /**
      * This is the name/location of where to
      * create the .zip file.
@@ -273,6 +283,33 @@ public class Zip extends MatchingTask {
         return zipFile;
     }
 
+    /**
+     * The resource to write the archive to, as an alternative to
+     * destfile.
+     *
+     * <p>A resource that is a file is treated exactly like destfile.
+     * Any other resource receives the archive through its output
+     * stream while it is created, without staging it in a temporary
+     * file.  Such an archive is always created from scratch, it can
+     * neither be updated nor checked for being up-to-date.</p>
+     *
+     * @param dest the resource to write to
+     * @since Ant 1.10.9
+     */
+    public void setDest(final Resource dest) {
+        this.dest = dest;
+    }
+
+    /**
+     * The resource the archive is written to if it isn't a file.
+     * @return the destination resource, null if the archive is
+     * written to destfile
+     * @since Ant 1.10.9
+     */
+    public Resource getDest() {
+        return dest;
+    }
+
 
     /**
      * Directory from which to archive files; optional.
@@ -588,6 +625,19 @@ public class Zip extends MatchingTask {
         return zip64Mode;
     }
 
+    /**
+     * The number of threads used to compress entries.
+     *
+     * <p>Entries are still added in the same order and the archive
+     * is the same as the one a single thread would create.</p>
+     *
+     * @param threads int
+     * @since Ant 1.10.9
+     */
+    public void setThreads(final int threads) {
+        this.threads = threads;
+    }
+
     /**
      * Set all stored file modification times to {@code time}.
      * @param time Milliseconds since 1970-01-01 00:00, or
@@ -677,7 +727,7 @@ public class Zip extends MatchingTask {
                 return;
             }
 
-            final File parent = zipFile.getParentFile();
+            final File parent = zipFile == null ? null : zipFile.getParentFile();
             if (parent != null && !parent.isDirectory()
                 && !(parent.mkdirs() || parent.isDirectory())) {
                 throw new BuildException(
@@ -686,7 +736,8 @@ public class Zip extends MatchingTask {
             }
 
             updatedFile = true;
-            if (!zipFile.exists() && state.isWithoutAnyResources()) {
+            if (zipFile != null && !zipFile.exists()
+                && state.isWithoutAnyResources()) {
                 createEmptyZip(zipFile);
                 return;
             }
@@ -699,13 +750,19 @@ public class Zip extends MatchingTask {
             final String action = doUpdate ? "Updating " : "Building ";
 
             if (!skipWriting) {
-                log(action + archiveType + ": " + zipFile.getAbsolutePath());
+                log(action + archiveType + ": " + (zipFile == null
+                    ? dest.toLongString() : zipFile.getAbsolutePath()));
             }
 
             ZipOutputStream zOut = null;
             try {
                 if (!skipWriting) {
-                    zOut = new ZipOutputStream(zipFile);
+                    if (zipFile != null) {
+                        zOut = new ZipOutputStream(zipFile);
+                    } else {
+                        zOut = new ZipOutputStream(new BufferedOutputStream(
+                            dest.getOutputStream(), BUFFER_SIZE));
+                    }
 
                     zOut.setEncoding(encoding);
                     zOut.setUseLanguageEncodingFlag(useLanguageEncodingFlag);
@@ -715,7 +772,10 @@ public class Zip extends MatchingTask {
                     zOut.setMethod(doCompress
                         ? ZipOutputStream.DEFLATED : ZipOutputStream.STORED);
                     zOut.setLevel(level);
-                    zOut.setUseZip64(zip64Mode.getMode());
+                    zOut.setUseZip64(zipFile == null
+                        && zip64Mode.getMode() == Zip64Mode.AsNeeded
+                        ? Zip64Mode.AsNeededStreaming : zip64Mode.getMode());
+                    zOut.setThreads(threads);
                 }
                 initZipOutputStream(zOut);
 
@@ -777,7 +837,8 @@ public class Zip extends MatchingTask {
                 + ioe.getMessage();
 
             // delete a bogus ZIP file (but only if it's not the original one)
-            if ((!doUpdate || renamedFile != null) && !zipFile.delete()) {
+            if (zipFile != null && (!doUpdate || renamedFile != null)
+                && !zipFile.delete()) {
                 msg += " (and the archive is probably corrupt but I could not "
                     + "delete it)";
             }
@@ -843,7 +904,23 @@ public class Zip extends MatchingTask {
                 "basedir attribute must be set, or at least one resource collection must be given!");
         }
 
-        if (zipFile == null) {
+        if (dest != null) {
+            if (zipFile != null) {
+                throw new BuildException(
+                    "Only one of destfile and dest may be specified.");
+            }
+            final FileProvider fp = dest.as(FileProvider.class);
+            if (fp != null) {
+                zipFile = fp.getFile();
+                dest = null;
+            } else if (doUpdate) {
+                throw new BuildException(
+                    "Cannot update a %s archive that isn't a file.",
+                    archiveType);
+            }
+        }
+
+        if (zipFile == null && dest == null) {
             throw new BuildException("You must specify the %s file to create!",
                 archiveType);
         }
@@ -859,6 +936,10 @@ public class Zip extends MatchingTask {
             }
         }
 
+        if (zipFile == null) {
+            return;
+        }
+
         if (zipFile.exists() && !zipFile.isFile()) {
             throw new BuildException("%s is not a file.", zipFile);
         }
@@ -872,7 +953,7 @@ public class Zip extends MatchingTask {
     private void processDoUpdate() {
         // Whether or not an actual update is required -
         // we don't need to update if the original file doesn't exist
-        if (doUpdate && !zipFile.exists()) {
+        if (doUpdate && zipFile != null && !zipFile.exists()) {
             doUpdate = false;
             logWhenWriting("ignoring update attribute as " + archiveType
                            + " doesn't exist.", Project.MSG_DEBUG);
@@ -1076,9 +1157,11 @@ public class Zip extends MatchingTask {
                     doCompress = (ze.getMethod() == ZipEntry.DEFLATED);
                 }
                 try (final BufferedInputStream is = new BufferedInputStream(zf.getInputStream(ze))) {
+                    CURRENT_RAW_SOURCE.set(new RawSource(zf, ze, is));
                     zipFile(is, zOut, prefix + name, ze.getTime(),
                             fromArchive, mode, ze.getExtraFields(true));
                 } finally {
+                    CURRENT_RAW_SOURCE.remove();
                     doCompress = oldCompress;
                 }
             }
@@ -1211,6 +1294,7 @@ public class Zip extends MatchingTask {
             zs = new ZipScanner();
             zs.setEncoding(encoding);
             zs.setSrc(zipFile);
+            zs.setIndexCache(ArchiveIndexCache.getInstance(getProject()));
         }
         return zs;
     }
@@ -1351,23 +1435,24 @@ public class Zip extends MatchingTask {
 
                 if ("skip".equals(emptyBehavior)) {
                     if (doUpdate) {
-                        logWhenWriting(archiveType + " archive " + zipFile
+                        logWhenWriting(archiveType + " archive "
+                                       + (zipFile != null ? zipFile : dest)
                                        + " not updated because no new files were"
                                        + " included.", Project.MSG_VERBOSE);
                     } else {
                         logWhenWriting("Warning: skipping " + archiveType
-                                       + " archive " + zipFile
+                                       + " archive " + (zipFile != null ? zipFile : dest)
                                        + " because no files were included.",
                                        Project.MSG_WARN);
                     }
                 } else if ("fail".equals(emptyBehavior)) {
                     throw new BuildException("Cannot create " + archiveType
-                                             + " archive " + zipFile
+                                             + " archive " + (zipFile != null ? zipFile : dest)
                                              + ": no files were included.",
                                              getLocation());
                 } else {
                     // Create.
-                    if (!zipFile.exists())  {
+                    if (zipFile == null || !zipFile.exists())  {
                         needsUpdate = true;
                     }
                 }
@@ -1380,7 +1465,7 @@ public class Zip extends MatchingTask {
 
         // initialResources is not empty
 
-        if (!zipFile.exists()) {
+        if (zipFile == null || !zipFile.exists()) {
             return new ArchiveState(true, initialResources);
         }
 
@@ -1500,7 +1585,7 @@ public class Zip extends MatchingTask {
 
         // initialResources is not empty
 
-        if (!zipFile.exists()) {
+        if (zipFile == null || !zipFile.exists()) {
             return new ArchiveState(true, initialResources);
         }
 
@@ -1733,6 +1818,12 @@ public class Zip extends MatchingTask {
      */
     private static final ThreadLocal<ZipExtraField[]> CURRENT_ZIP_EXTRA = new ThreadLocal<>();
 
+    /*
+     * Same construct for the archive entry whose stream is passed to
+     * zipFile so its compressed data can be copied verbatim.
+     */
+    private static final ThreadLocal<RawSource> CURRENT_RAW_SOURCE = new ThreadLocal<>();
+
     /**
      * Provides the extra fields for the zip entry currently being
      * added to the archive - if any.
@@ -1798,6 +1889,12 @@ public class Zip extends MatchingTask {
             final ZipEntry ze = new ZipEntry(vPath);
             ze.setTime(fixedModTime != null ? modTimeMillis : lastModified);
             ze.setMethod(doCompress ? ZipEntry.DEFLATED : ZipEntry.STORED);
+            // entries of other archives that already use the right
+            // method are copied without decompressing them
+            final RawSource raw = CURRENT_RAW_SOURCE.get();
+            final ZipEntry rawEntry = raw != null && raw.in == in
+                && raw.entry.getMethod() == ze.getMethod()
+                && raw.zf.canReadEntryData(raw.entry) ? raw.entry : null;
             // if the input stream doesn't support mark/reset ability, we wrap it in a
             // stream that adds that support.
             // Note: We do *not* close this newly created wrapping input stream, since
@@ -1811,7 +1908,7 @@ public class Zip extends MatchingTask {
              *
              * This forces us to process the data twice.
              */
-            if (!zOut.isSeekable() && !doCompress) {
+            if (rawEntry == null && !zOut.isSeekable() && !doCompress) {
                 long size = 0;
                 final CRC32 cal = new CRC32();
                 markableInputStream.mark(Integer.MAX_VALUE);
@@ -1833,16 +1930,25 @@ public class Zip extends MatchingTask {
                 ze.setExtraFields(extra);
             }
 
-            zOut.putNextEntry(ze);
-
-            final byte[] buffer = new byte[BUFFER_SIZE];
-            int count = 0;
-            do {
-                if (count != 0) {
-                    zOut.write(buffer, 0, count);
+            if (rawEntry != null) {
+                ze.setCrc(rawEntry.getCrc());
+                ze.setSize(rawEntry.getSize());
+                ze.setCompressedSize(rawEntry.getCompressedSize());
+                try (InputStream rawData = raw.zf.getRawInputStream(rawEntry)) {
+                    zOut.addRawEntry(ze, rawData);
                 }
-                count = markableInputStream.read(buffer, 0, buffer.length);
-            } while (count != -1);
+            } else {
+                zOut.putNextEntry(ze);
+
+                final byte[] buffer = new byte[BUFFER_SIZE];
+                int count = 0;
+                do {
+                    if (count != 0) {
+                        zOut.write(buffer, 0, count);
+                    }
+                    count = markableInputStream.read(buffer, 0, buffer.length);
+                } while (count != -1);
+            }
         }
         addedFiles.add(vPath);
     }
@@ -1980,6 +2086,7 @@ public class Zip extends MatchingTask {
     public void reset() {
         resources.clear();
         zipFile = null;
+        dest = null;
         baseDir = null;
         groupfilesets.clear();
         duplicate = "add";
@@ -2235,4 +2342,20 @@ public class Zip extends MatchingTask {
         }
 
     }
+
+    /**
+     * An entry of an existing archive together with the stream its
+     * content is read from.
+     */
+    private static final class RawSource {
+        private final ZipFile zf;
+        private final ZipEntry entry;
+        private final InputStream in;
+
+        private RawSource(final ZipFile zf, final ZipEntry entry, final InputStream in) {
+            this.zf = zf;
+            this.entry = entry;
+            this.in = in;
+        }
+    }
  }
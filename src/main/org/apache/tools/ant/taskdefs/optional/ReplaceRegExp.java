@@ -17,18 +17,11 @@
  */
 package org.apache.tools.ant.taskdefs.optional;
 
-import java.io.BufferedReader;
-import java.io.BufferedWriter;
 import java.io.File;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.io.OutputStream;
-import java.io.OutputStreamWriter;
 import java.io.Reader;
 import java.io.Writer;
-import java.nio.charset.Charset;
-import java.nio.file.Files;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.apache.tools.ant.BuildException;
 import org.apache.tools.ant.Project;
@@ -40,8 +33,12 @@ import org.apache.tools.ant.types.ResourceCollection;
 import org.apache.tools.ant.types.Substitution;
 import org.apache.tools.ant.types.resources.FileProvider;
 import org.apache.tools.ant.types.resources.Union;
+import org.apache.tools.ant.util.DeferredLog;
+import org.apache.tools.ant.util.FileRewriter;
 import org.apache.tools.ant.util.FileUtils;
+import org.apache.tools.ant.util.OrderedExecutor;
 import org.apache.tools.ant.util.regexp.Regexp;
+import org.apache.tools.ant.util.regexp.RegexpFactory;
 import org.apache.tools.ant.util.regexp.RegexpUtil;
 
 /**
@@ -124,9 +121,16 @@ public class ReplaceRegExp extends Task {
     private RegularExpression regex;
     private Substitution subs;
 
-    private static final FileUtils FILE_UTILS = FileUtils.getFileUtils();
+    private static final int BUFF_SIZE = 8192;
 
     private boolean preserveLastModified = false;
+    private int threads = 1;
+
+    /** Holds back messages logged by operations running on other threads. */
+    private final DeferredLog deferredLog = new DeferredLog();
+
+    /** The regular expression used by a thread of the executor. */
+    private final ThreadLocal<Regexp> workerRegexp = new ThreadLocal<>();
 
     /**
      * Encoding to assume for the files
@@ -315,6 +319,17 @@ public class ReplaceRegExp extends Task {
         preserveLastModified = b;
     }
 
+    /**
+     * The number of threads used to process the files of nested
+     * resource collections.
+     *
+     * @param threads int
+     * @since Ant 1.10.9
+     */
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
     /**
      * Invoke a regular expression (r) on a string (input) using
      * substitutions (s) for a matching regex.
@@ -330,7 +345,8 @@ public class ReplaceRegExp extends Task {
                                String input,
                                int options) {
         String res = input;
-        Regexp regexp = r.getRegexp(getProject());
+        Regexp regexp = r == regex && workerRegexp.get() != null
+            ? workerRegexp.get() : r.getRegexp(getProject());
 
         if (regexp.matches(input, options)) {
             log("Found match; substituting", Project.MSG_DEBUG);
@@ -344,112 +360,44 @@ public class ReplaceRegExp extends Task {
     /**
      * Perform the replacement on a file
      *
+     * <p>The file is only rewritten if its content has been changed
+     * by the replacement.</p>
+     *
      * @param f the file to perform the replacement on
      * @param options the regular expressions options
      * @exception IOException if an error occurs
      */
     protected void doReplace(File f, int options)
          throws IOException {
-        File temp = FILE_UTILS.createTempFile(getProject(), "replace", ".txt", null, true, true);
+        AtomicBoolean changes = new AtomicBoolean();
+        FileRewriter out = new FileRewriter(getProject(), f, encoding, changes::get);
         try {
-            boolean changes = false;
-
-            final Charset charset = encoding == null ? Charset.defaultCharset() : Charset.forName(encoding);
-            try (InputStream is = Files.newInputStream(f.toPath());
-                 OutputStream os = Files.newOutputStream(temp.toPath())) {
-                Reader r = null;
-                Writer w = null;
-                try {
-                    r = new InputStreamReader(is, charset);
-                    w = new OutputStreamWriter(os, charset);
-                    log("Replacing pattern '" + regex.getPattern(getProject())
-                        + "' with '" + subs.getExpression(getProject())
-                        + "' in '" + f.getPath() + "'" + (byline ? " by line" : "")
-                        + (flags.isEmpty() ? "" : " with flags: '" + flags + "'")
-                        + ".", Project.MSG_VERBOSE);
-
-                    if (byline) {
-                        r = new BufferedReader(r);
-                        w = new BufferedWriter(w);
-
-                        StringBuilder linebuf = new StringBuilder();
-                        int c;
-                        boolean hasCR = false;
-
-                        do {
-                            c = r.read();
-
-                            if (c == '\r') {
-                                if (hasCR) {
-                                    // second CR -> EOL + possibly empty line
-                                    changes |= replaceAndWrite(linebuf.toString(),
-                                                               w, options);
-                                    w.write('\r');
-
-                                    linebuf = new StringBuilder();
-                                    // hasCR is still true (for the second one)
-                                } else {
-                                    // first CR in this line
-                                    hasCR = true;
-                                }
-                            } else if (c == '\n') {
-                                // LF -> EOL
-                                changes |= replaceAndWrite(linebuf.toString(),
-                                                           w, options);
-                                if (hasCR) {
-                                    w.write('\r');
-                                    hasCR = false;
-                                }
-                                w.write('\n');
-
-                                linebuf = new StringBuilder();
-                            } else { // any other char
-                                if (hasCR || c < 0) {
-                                    // Mac-style linebreak or EOF (or both)
-                                    changes |= replaceAndWrite(linebuf.toString(),
-                                                               w, options);
-                                    if (hasCR) {
-                                        w.write('\r');
-                                        hasCR = false;
-                                    }
-
-                                    linebuf = new StringBuilder();
-                                }
-
-                                if (c >= 0) {
-                                    linebuf.append((char) c);
-                                }
-                            }
-                        } while (c >= 0);
-
-                    } else {
-                        changes = multilineReplace(r, w, options);
-                    }
-                } finally {
-                    FileUtils.close(r);
-                    FileUtils.close(w);
+            try (Reader r = out.openSource(); Writer w = out) {
+                log("Replacing pattern '" + regex.getPattern(getProject())
+                    + "' with '" + subs.getExpression(getProject())
+                    + "' in '" + f.getPath() + "'" + (byline ? " by line" : "")
+                    + (flags.isEmpty() ? "" : " with flags: '" + flags + "'")
+                    + ".", Project.MSG_VERBOSE);
+
+                if (byline) {
+                    bylineReplace(r, w, options, changes);
+                } else {
+                    multilineReplace(r, w, options, changes);
                 }
             }
-            if (changes) {
+            if (changes.get()) {
                 log("File has changed; saving the updated file", Project.MSG_VERBOSE);
                 try {
-                    long origLastModified = f.lastModified();
-                    FILE_UTILS.rename(temp, f);
-                    if (preserveLastModified) {
-                        FILE_UTILS.setFileLastModified(f, origLastModified);
-                    }
-                    temp = null;
+                    out.replaceSource(preserveLastModified);
                 } catch (IOException e) {
-                    throw new BuildException("Couldn't rename temporary file "
-                                             + temp, e, getLocation());
+                    throw new BuildException("Couldn't rename temporary file for "
+                                             + f, e, getLocation());
                 }
             } else {
                 log("No change made", Project.MSG_DEBUG);
             }
         } finally {
-            if (temp != null) {
-                temp.delete();
-            }
+            out.deleteTempFile();
         }
     }
 
@@ -488,34 +436,140 @@ public class ReplaceRegExp extends Task {
         }
 
         if (resources != null) {
-            for (Resource r : resources) {
-                File f = r.as(FileProvider.class).getFile();
-
-                if (f.exists()) {
-                    try {
-                        doReplace(f, options);
-                    } catch (Exception e) {
-                        log("An error occurred processing file: '"
-                            + f.getAbsolutePath() + "': " + e.toString(),
-                            Project.MSG_ERR);
+            String pattern = regex.getPattern(getProject());
+            try (OrderedExecutor executor = new OrderedExecutor(threads)) {
+                for (Resource r : resources) {
+                    File f = r.as(FileProvider.class).getFile();
+
+                    if (f.exists()) {
+                        submit(executor, pattern, () -> {
+                            try {
+                                doReplace(f, options);
+                            } catch (Exception e) {
+                                log("An error occurred processing file: '"
+                                    + f.getAbsolutePath() + "': " + e.toString(),
+                                    Project.MSG_ERR);
+                            }
+                        });
+                    } else {
+                        executor.inOrder(() -> log("The following file is missing: '"
+                            + f.getAbsolutePath() + "'", Project.MSG_ERR));
                     }
-                } else {
-                    log("The following file is missing: '"
-                        + f.getAbsolutePath() + "'", Project.MSG_ERR);
                 }
+                executor.finish();
             }
         }
     }
 
-    private boolean multilineReplace(Reader r, Writer w, int options)
+    /**
+     * Runs an operation on the executor.  Messages logged by the
+     * operation are held back until the operations submitted before
+     * have completed and each thread matches with a regular
+     * expression of its own, as implementations are not required to
+     * be thread-safe.
+     */
+    private void submit(OrderedExecutor executor, String pattern, Runnable operation) {
+        deferredLog.submit(executor, () -> {
+            if (executor.isParallel() && workerRegexp.get() == null) {
+                Regexp regexp = new RegexpFactory().newRegexp(getProject());
+                regexp.setPattern(pattern);
+                workerRegexp.set(regexp);
+            }
+            operation.run();
+            return null;
+        });
+    }
+
+    /**
+     * Logs a message, or holds it back if it is logged by an
+     * operation running on another thread.
+     * @param msg the message
+     * @param msgLevel the message priority
+     * @since Ant 1.10.9
+     */
+    @Override
+    public void log(String msg, int msgLevel) {
+        if (!deferredLog.defer(() -> super.log(msg, msgLevel))) {
+            super.log(msg, msgLevel);
+        }
+    }
+
+    /**
+     * Logs a message, or holds it back if it is logged by an
+     * operation running on another thread.
+     * @param msg the message
+     * @param t the exception
+     * @param msgLevel the message priority
+     * @since Ant 1.10.9
+     */
+    @Override
+    public void log(String msg, Throwable t, int msgLevel) {
+        if (!deferredLog.defer(() -> super.log(msg, t, msgLevel))) {
+            super.log(msg, t, msgLevel);
+        }
+    }
+
+    /**
+     * Reads the text line by line and performs the replacement on
+     * each line without its line terminator.  Only a single line is
+     * held in memory.
+     */
+    private void bylineReplace(Reader r, Writer w, int options, AtomicBoolean changes)
         throws IOException {
-        return replaceAndWrite(FileUtils.safeReadFully(r), w, options);
+        char[] buffer = new char[BUFF_SIZE];
+        StringBuilder linebuf = new StringBuilder();
+        boolean hasCR = false;
+        int n;
+        while ((n = r.read(buffer)) >= 0) {
+            int start = 0;
+            for (int i = 0; i < n; i++) {
+                char c = buffer[i];
+                if (hasCR) {
+                    // the line has already been replaced, only the
+                    // line terminator is yet to be written
+                    hasCR = false;
+                    if (c == '\n') {
+                        w.write("\r\n");
+                        start = i + 1;
+                        continue;
+                    }
+                    // Mac-style linebreak
+                    w.write('\r');
+                }
+                if (c == '\r' || c == '\n') {
+                    linebuf.append(buffer, start, i - start);
+                    replaceAndWrite(linebuf.toString(), w, options, changes);
+                    linebuf.setLength(0);
+                    if (c == '\n') {
+                        w.write('\n');
+                    } else {
+                        hasCR = true;
+                    }
+                    start = i + 1;
+                }
+            }
+            linebuf.append(buffer, start, n - start);
+        }
+        if (hasCR) {
+            w.write('\r');
+        } else {
+            replaceAndWrite(linebuf.toString(), w, options, changes);
+        }
+    }
+
+    private void multilineReplace(Reader r, Writer w, int options,
+                                  AtomicBoolean changes)
+        throws IOException {
+        replaceAndWrite(FileUtils.safeReadFully(r), w, options, changes);
     }
 
-    private boolean replaceAndWrite(String s, Writer w, int options)
+    private void replaceAndWrite(String s, Writer w, int options,
+                                 AtomicBoolean changes)
         throws IOException {
         String res = doReplace(regex, subs, s, options);
+        if (!res.equals(s)) {
+            changes.set(true);
+        }
         w.write(res);
-        return !res.equals(s);
     }
 }
@@ -30,14 +30,29 @@
 package org.apache.tools.ant.taskdefs.optional.unix;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.attribute.GroupPrincipal;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.UserPrincipal;
+import java.nio.file.attribute.UserPrincipalLookupService;
 
 import org.apache.tools.ant.BuildException;
+import org.apache.tools.ant.Project;
 import org.apache.tools.ant.taskdefs.ExecuteOn;
 import org.apache.tools.ant.taskdefs.condition.Os;
 import org.apache.tools.ant.types.Commandline;
 import org.apache.tools.ant.types.FileSet;
 
 /**
+ * Base class for tasks that change the ownership of files.
+ *
+ * <p>Ownership is changed in-process on file systems that support
+ * POSIX attributes if the new owner or group can be found and none
+ * of the process related attributes have been used.  The command is
+ * run for all other cases.</p>
+ *
  * @since Ant 1.6
  *
  * @ant.task category="filesystem"
@@ -101,6 +116,49 @@ public abstract class AbstractAccessTask extends ExecuteOn {
             + " doesn\'t support the addsourcefile attribute", getLocation());
     }
 
+    /**
+     * Creates an operation that changes the owner and/or group of
+     * files in-process.
+     *
+     * @param owner name or id of the new owner, may be null
+     * @param group name or id of the new group, may be null
+     * @return the operation or null if owner or group cannot be
+     * found, so the command has to be run
+     * @since Ant 1.10.9
+     */
+    protected InProcessOperation createOwnershipChange(String owner, String group) {
+        if (cmdl.getArguments().length != 1) {
+            return null;
+        }
+        final UserPrincipal user;
+        final GroupPrincipal groupPrincipal;
+        try {
+            UserPrincipalLookupService lookup =
+                FileSystems.getDefault().getUserPrincipalLookupService();
+            user = owner == null ? null : lookup.lookupPrincipalByName(owner);
+            groupPrincipal = group == null ? null
+                : lookup.lookupPrincipalByGroupName(group);
+        } catch (IOException | UnsupportedOperationException e) {
+            log("Can't look up owner or group in-process: " + e,
+                Project.MSG_VERBOSE);
+            return null;
+        }
+        return file -> {
+            PosixFileAttributeView view =
+                Files.getFileAttributeView(file, PosixFileAttributeView.class);
+            if (view == null) {
+                return false;
+            }
+            if (user != null) {
+                view.setOwner(user);
+            }
+            if (groupPrincipal != null) {
+                view.setGroup(groupPrincipal);
+            }
+            return true;
+        };
+    }
+
     /**
      * Automatically approve Unix OS's.
      * @return true if a valid OS, for unix this is always true, otherwise
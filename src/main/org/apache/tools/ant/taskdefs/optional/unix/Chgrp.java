@@ -41,6 +41,7 @@ import org.apache.tools.ant.BuildException;
 public class Chgrp extends AbstractAccessTask {
 
     private boolean haveGroup = false;
+    private String group;
 
     /**
      * Chgrp task for setting unix group of a file.
@@ -57,6 +58,7 @@ public class Chgrp extends AbstractAccessTask {
     public void setGroup(String group) {
         createArg().setValue(group);
         haveGroup = true;
+        this.group = group;
     }
 
     /**
@@ -72,6 +74,17 @@ public class Chgrp extends AbstractAccessTask {
         super.checkConfiguration();
     }
 
+    /**
+     * Changes the group in-process.
+     *
+     * @return InProcessOperation
+     * @since Ant 1.10.9
+     */
+    @Override
+    protected InProcessOperation createInProcessOperation() {
+        return createOwnershipChange(null, group);
+    }
+
     /**
      * We don't want to expose the executable attribute, so override it.
      *
@@ -41,6 +41,7 @@ import org.apache.tools.ant.BuildException;
 public class Chown extends AbstractAccessTask {
 
     private boolean haveOwner = false;
+    private String owner;
 
     /**
      * Chown task for setting file and directory permissions.
@@ -57,6 +58,7 @@ public class Chown extends AbstractAccessTask {
     public void setOwner(String owner) {
         createArg().setValue(owner);
         haveOwner = true;
+        this.owner = owner;
     }
 
     /**
@@ -72,6 +74,28 @@ public class Chown extends AbstractAccessTask {
         super.checkConfiguration();
     }
 
+    /**
+     * Changes the owner - and the group if the owner attribute has
+     * the form <code>owner:group</code> - in-process.
+     *
+     * @return InProcessOperation
+     * @since Ant 1.10.9
+     */
+    @Override
+    protected InProcessOperation createInProcessOperation() {
+        int colon = owner.indexOf(':');
+        if (colon < 0) {
+            return createOwnershipChange(owner, null);
+        }
+        String user = owner.substring(0, colon);
+        String group = owner.substring(colon + 1);
+        if (group.isEmpty()) {
+            // owner: means the owner's login group, leave it to chown
+            return null;
+        }
+        return createOwnershipChange(user.isEmpty() ? null : user, group);
+    }
+
     /**
      * We don't want to expose the executable attribute, so override it.
      *
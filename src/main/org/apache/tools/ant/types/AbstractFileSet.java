@@ -21,6 +21,7 @@ import java.io.File;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Enumeration;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Stack;
 import java.util.stream.Collectors;
@@ -29,6 +30,8 @@ import org.apache.tools.ant.BuildException;
 import org.apache.tools.ant.DirectoryScanner;
 import org.apache.tools.ant.FileScanner;
 import org.apache.tools.ant.Project;
+import org.apache.tools.ant.types.resources.FileResourceIterator;
+import org.apache.tools.ant.types.resources.StreamingFileResourceIterator;
 import org.apache.tools.ant.types.selectors.AndSelector;
 import org.apache.tools.ant.types.selectors.ContainsRegexpSelector;
 import org.apache.tools.ant.types.selectors.ContainsSelector;
@@ -504,24 +507,7 @@ public abstract class AbstractFileSet extends DataType
             if (directoryScanner != null && p == getProject()) {
                 ds = directoryScanner;
             } else {
-                if (dir == null) {
-                    throw new BuildException("No directory specified for %s.",
-                        getDataTypeName());
-                }
-                if (!dir.exists() && errorOnMissingDir) {
-                    throw new BuildException(dir.getAbsolutePath()
-                                             + DirectoryScanner
-                                             .DOES_NOT_EXIST_POSTFIX);
-                }
-                if (!dir.isDirectory() && dir.exists()) {
-                    throw new BuildException("%s is not a directory.",
-                        dir.getAbsolutePath());
-                }
-                ds = new DirectoryScanner();
-                setupDirectoryScanner(ds, p);
-                ds.setFollowSymlinks(followSymlinks);
-                ds.setErrorOnMissingDir(errorOnMissingDir);
-                ds.setMaxLevelsOfSymlinks(maxLevelsOfSymlinks);
+                ds = createDirectoryScanner(p);
                 directoryScanner = (p == getProject()) ? ds : directoryScanner;
             }
         }
@@ -529,6 +515,59 @@ public abstract class AbstractFileSet extends DataType
         return ds;
     }
 
+    /**
+     * Returns an iterator over the files matched by this fileset that
+     * are found by a scan running in a separate thread.  Each file is
+     * handed out as soon as the scanner has found it rather than after
+     * the whole directory tree has been scanned, and the files are
+     * not kept in memory.
+     *
+     * <p>If the files have already been scanned for the given project
+     * the results of that scan are used instead.  In either case the
+     * files are not returned in any particular order.</p>
+     *
+     * @param p the Project against which the DirectoryScanner should be configured.
+     * @return an iterator over FileResources
+     * @since Ant 1.10.9
+     */
+    protected Iterator<Resource> streamIncludedFiles(Project p) {
+        if (isReference()) {
+            return getRef(p).streamIncludedFiles(p);
+        }
+        dieOnCircularReference();
+        final boolean scanned;
+        synchronized (this) {
+            scanned = directoryScanner != null && p == getProject();
+        }
+        if (scanned) {
+            return new FileResourceIterator(p, dir,
+                getDirectoryScanner(p).getIncludedFiles());
+        }
+        return new StreamingFileResourceIterator(p, dir, createDirectoryScanner(p));
+    }
+
+    private DirectoryScanner createDirectoryScanner(Project p) {
+        if (dir == null) {
+            throw new BuildException("No directory specified for %s.",
+                getDataTypeName());
+        }
+        if (!dir.exists() && errorOnMissingDir) {
+            throw new BuildException(dir.getAbsolutePath()
+                                     + DirectoryScanner
+                                     .DOES_NOT_EXIST_POSTFIX);
+        }
+        if (!dir.isDirectory() && dir.exists()) {
+            throw new BuildException("%s is not a directory.",
+                dir.getAbsolutePath());
+        }
+        DirectoryScanner ds = new DirectoryScanner();
+        setupDirectoryScanner(ds, p);
+        ds.setFollowSymlinks(followSymlinks);
+        ds.setErrorOnMissingDir(errorOnMissingDir);
+        ds.setMaxLevelsOfSymlinks(maxLevelsOfSymlinks);
+        return ds;
+    }
+
     /**
      * Set up the specified directory scanner against this
      * AbstractFileSet's Project.
@@ -24,6 +24,7 @@ import java.util.Stack;
 import org.apache.tools.ant.BuildException;
 import org.apache.tools.ant.DirectoryScanner;
 import org.apache.tools.ant.Project;
+import org.apache.tools.ant.types.resources.ArchiveIndexCache;
 import org.apache.tools.ant.types.resources.FileProvider;
 import org.apache.tools.ant.types.resources.FileResource;
 import org.apache.tools.zip.UnixStat;
@@ -324,6 +325,7 @@ public abstract class ArchiveFileSet extends FileSet {
         ArchiveScanner as = newArchiveScanner();
         as.setErrorOnMissingArchive(errorOnMissingArchive);
         as.setSrc(src);
+        as.setIndexCache(ArchiveIndexCache.getInstance(p));
         super.setDir(p.getBaseDir());
         setupDirectoryScanner(as, p);
         as.init();
@@ -25,6 +25,7 @@ import java.util.TreeMap;
 
 import org.apache.tools.ant.DirectoryScanner;
 import org.apache.tools.ant.Project;
+import org.apache.tools.ant.types.resources.ArchiveIndexCache;
 import org.apache.tools.ant.types.resources.FileProvider;
 import org.apache.tools.ant.types.resources.FileResource;
 import org.apache.tools.ant.types.resources.FileResourceIterator;
@@ -90,6 +91,8 @@ public abstract class ArchiveScanner extends DirectoryScanner {
      */
     private boolean errorOnMissingArchive = true;
 
+    private ArchiveIndexCache indexCache = ArchiveIndexCache.DISABLED;
+
     /**
      * Sets whether an error is thrown if an archive does not exist.
      *
@@ -101,6 +104,28 @@ public abstract class ArchiveScanner extends DirectoryScanner {
         this.errorOnMissingArchive = errorOnMissingArchive;
     }
 
+    /**
+     * Sets the cache to take the entries of archives from.
+     *
+     * @param indexCache the cache, null if the archive should be read
+     * whenever it has changed since it has been scanned last
+     * @since Ant 1.10.9
+     */
+    public void setIndexCache(ArchiveIndexCache indexCache) {
+        this.indexCache = indexCache == null ? ArchiveIndexCache.DISABLED
+            : indexCache;
+    }
+
+    /**
+     * The cache to take the entries of archives from.
+     *
+     * @return ArchiveIndexCache
+     * @since Ant 1.10.9
+     */
+    protected ArchiveIndexCache getIndexCache() {
+        return indexCache;
+    }
+
     /**
      * Don't scan when we have no zipfile.
      * @since Ant 1.7
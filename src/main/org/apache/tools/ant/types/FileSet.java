@@ -19,9 +19,15 @@
 package org.apache.tools.ant.types;
 
 import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import org.apache.tools.ant.Project;
 import org.apache.tools.ant.types.resources.FileResourceIterator;
+import org.apache.tools.ant.types.resources.StreamingFileResourceIterator;
 
 /**
  * Moved out of MatchingTask to make it a standalone object that could
@@ -30,6 +36,8 @@ import org.apache.tools.ant.types.resources.FileResourceIterator;
  */
 public class FileSet extends AbstractFileSet implements ResourceCollection {
 
+    private boolean streaming = false;
+
     /**
      * Constructor for FileSet.
      */
@@ -43,6 +51,38 @@ public class FileSet extends AbstractFileSet implements ResourceCollection {
      */
     protected FileSet(FileSet fileset) {
         super(fileset);
+        this.streaming = fileset.streaming;
+    }
+
+    /**
+     * Sets whether {@link #iterator} should hand out the files while
+     * the directory is still being scanned rather than after the
+     * scan has finished.  The files are returned in no particular
+     * order then.
+     *
+     * @param streaming boolean
+     * @since Ant 1.10.9
+     */
+    public synchronized void setStreaming(boolean streaming) {
+        if (isReference()) {
+            throw tooManyAttributes();
+        }
+        this.streaming = streaming;
+    }
+
+    /**
+     * Whether {@link #iterator} hands out the files while the
+     * directory is still being scanned.
+     *
+     * @return boolean
+     * @since Ant 1.10.9
+     */
+    public synchronized boolean isStreaming() {
+        if (isReference()) {
+            return getRef().isStreaming();
+        }
+        dieOnCircularReference();
+        return streaming;
     }
 
     /**
@@ -68,10 +108,54 @@ public class FileSet extends AbstractFileSet implements ResourceCollection {
         if (isReference()) {
             return getRef().iterator();
         }
+        if (streaming) {
+            return streamIncludedFiles(getProject());
+        }
         return new FileResourceIterator(getProject(), getDir(getProject()),
             getDirectoryScanner().getIncludedFiles());
     }
 
+    /**
+     * Performs the action for each resource, cancels a streaming scan
+     * if the action fails.
+     * @param action the action
+     * @since Ant 1.10.9
+     */
+    @Override
+    public void forEach(Consumer<? super Resource> action) {
+        Iterator<Resource> it = iterator();
+        try {
+            it.forEachRemaining(action);
+        } finally {
+            close(it);
+        }
+    }
+
+    /**
+     * Fulfill the ResourceCollection contract.  Closing the stream
+     * cancels a streaming scan that hasn't finished, yet.
+     * @return Stream of Resources
+     * @since Ant 1.10.9
+     */
+    @Override
+    public Stream<? extends Resource> stream() {
+        if (isReference()) {
+            return getRef().stream();
+        }
+        if (!isStreaming()) {
+            return ResourceCollection.super.stream();
+        }
+        Iterator<Resource> it = iterator();
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(it,
+            Spliterator.NONNULL), false).onClose(() -> close(it));
+    }
+
+    private static void close(Iterator<Resource> it) {
+        if (it instanceof StreamingFileResourceIterator) {
+            ((StreamingFileResourceIterator) it).close();
+        }
+    }
+
     /**
      * Fulfill the ResourceCollection contract.
      * @return number of elements as int.
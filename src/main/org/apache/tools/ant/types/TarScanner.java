@@ -19,9 +19,12 @@
 package org.apache.tools.ant.types;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 import org.apache.tools.ant.BuildException;
+import org.apache.tools.ant.types.resources.FileProvider;
 import org.apache.tools.ant.types.resources.TarResource;
 import org.apache.tools.tar.TarEntry;
 import org.apache.tools.tar.TarInputStream;
@@ -52,25 +55,46 @@ public class TarScanner extends ArchiveScanner {
             Map<String, Resource> fileEntries, Map<String, Resource> matchFileEntries,
             Map<String, Resource> dirEntries, Map<String, Resource> matchDirEntries) {
 
+        for (TarEntry entry : readEntries(src, encoding)) {
+            Resource r = new TarResource(src, entry);
+            String name = entry.getName();
+            if (entry.isDirectory()) {
+                name = trimSeparator(name);
+                dirEntries.put(name, r);
+                if (match(name)) {
+                    matchDirEntries.put(name, r);
+                }
+            } else {
+                fileEntries.put(name, r);
+                if (match(name)) {
+                    matchFileEntries.put(name, r);
+                }
+            }
+        }
+    }
+
+    /**
+     * Takes the entries of archives that are files from the index
+     * cache, reads other archives.
+     */
+    private List<TarEntry> readEntries(Resource src, String encoding) {
+        FileProvider fp = src.as(FileProvider.class);
+        if (fp != null) {
+            try {
+                return getIndexCache().getTarIndex(fp.getFile(), encoding)
+                    .getEntries();
+            } catch (IOException ex) {
+                throw new BuildException("problem reading " + srcFile, ex);
+            }
+        }
         try (TarInputStream ti = new TarInputStream(src.getInputStream(), encoding)) {
             try {
+                List<TarEntry> entries = new ArrayList<>();
                 TarEntry entry = null;
                 while ((entry = ti.getNextEntry()) != null) {
-                    Resource r = new TarResource(src, entry);
-                    String name = entry.getName();
-                    if (entry.isDirectory()) {
-                        name = trimSeparator(name);
-                        dirEntries.put(name, r);
-                        if (match(name)) {
-                            matchDirEntries.put(name, r);
-                        }
-                    } else {
-                        fileEntries.put(name, r);
-                        if (match(name)) {
-                            matchFileEntries.put(name, r);
-                        }
-                    }
+                    entries.add(entry);
                 }
+                return entries;
             } catch (IOException ex) {
                 throw new BuildException("problem reading " + srcFile, ex);
             }
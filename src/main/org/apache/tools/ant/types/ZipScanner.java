@@ -26,8 +26,7 @@ import java.util.zip.ZipException;
 import org.apache.tools.ant.BuildException;
 import org.apache.tools.ant.types.resources.FileProvider;
 import org.apache.tools.ant.types.resources.ZipResource;
-import org.apache.tools.ant.util.StreamUtils;
-import org.apache.tools.zip.ZipFile;
+import org.apache.tools.zip.ZipEntry;
 
 /**
  * Scans zip archives for resources.
@@ -60,8 +59,9 @@ public class ZipScanner extends ArchiveScanner {
             .map(FileProvider::getFile).orElseThrow(() -> new BuildException(
                 "Only file provider resources are supported"));
 
-        try (ZipFile zf = new ZipFile(srcFile, encoding)) {
-            StreamUtils.enumerationAsStream(zf.getEntries()).forEach(entry -> {
+        try {
+            for (ZipEntry entry : getIndexCache().getZipIndex(srcFile, encoding)
+                     .getEntries()) {
                 Resource r = new ZipResource(srcFile, encoding, entry);
                 String name = entry.getName();
                 if (entry.isDirectory()) {
@@ -76,7 +76,7 @@ public class ZipScanner extends ArchiveScanner {
                         matchFileEntries.put(name, r);
                     }
                 }
-            });
+            }
         } catch (ZipException ex) {
             throw new BuildException("Problem reading " + srcFile, ex);
         } catch (IOException ex) {
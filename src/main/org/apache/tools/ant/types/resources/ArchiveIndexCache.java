@@ -0,0 +1,241 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.tools.ant.types.resources;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.apache.tools.ant.MagicNames;
+import org.apache.tools.ant.Project;
+import org.apache.tools.tar.TarEntry;
+import org.apache.tools.tar.TarInputStream;
+import org.apache.tools.zip.ZipEntry;
+import org.apache.tools.zip.ZipFile;
+
+/**
+ * The entries of zip and tar archives that have been read during a
+ * build, shared by the archive scanners and archive resources of a
+ * project and its subprojects.
+ *
+ * <p>An index is reused as long as neither the size nor the
+ * modification time of the archive change.  The cache holds the
+ * entries of a limited number of archives, the indexes used least
+ * recently are dropped first.</p>
+ *
+ * <p>Safe for use by multiple threads.</p>
+ *
+ * @since Ant 1.10.9
+ */
+public final class ArchiveIndexCache {
+
+    /** Maximum number of entries of all cached indexes. */
+    private static final int MAX_ENTRIES = 250000;
+    /** Size of the blocks read from tar archives. */
+    private static final int TAR_BLOCK_SIZE = 64 * 1024;
+
+    /**
+     * A cache that doesn't hold on to any index, for scanners and
+     * resources that don't belong to a project.
+     */
+    public static final ArchiveIndexCache DISABLED = new ArchiveIndexCache(0);
+
+    private final int maxEntries;
+    private final Map<String, Cached> indexes = new LinkedHashMap<>(16, 0.75f, true);
+    private int size;
+
+    /**
+     * Creates a cache.
+     *
+     * @param maxEntries the maximum number of entries of all cached
+     * indexes
+     */
+    ArchiveIndexCache(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Get the cache for the given project.
+     *
+     * @param project the project to retrieve the cache for.
+     * @return ArchiveIndexCache
+     */
+    public static synchronized ArchiveIndexCache getInstance(Project project) {
+        ArchiveIndexCache c =
+            project.getReference(MagicNames.REFID_ARCHIVE_INDEX_CACHE);
+        if (c == null) {
+            c = new ArchiveIndexCache(MAX_ENTRIES);
+            project.addReference(MagicNames.REFID_ARCHIVE_INDEX_CACHE, c);
+        }
+        return c;
+    }
+
+    /**
+     * Provides the entries of a zip archive.
+     *
+     * @param archive the archive
+     * @param encoding the encoding of file names, null for the
+     * platform's default encoding
+     * @return the index
+     * @throws IOException if the archive cannot be read
+     */
+    public Index<ZipEntry> getZipIndex(File archive, String encoding)
+        throws IOException {
+        return getIndex(archive, "zip:" + encoding, ZipEntry::getName, f -> {
+            try (ZipFile zf = new ZipFile(f, encoding, true, true)) {
+                return Collections.list(zf.getEntries());
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        });
+    }
+
+    /**
+     * Provides the entries of an uncompressed tar archive.
+     *
+     * @param archive the archive
+     * @param encoding the encoding of file names, null for the
+     * platform's default encoding
+     * @return the index
+     * @throws IOException if the archive cannot be read
+     */
+    public Index<TarEntry> getTarIndex(File archive, String encoding)
+        throws IOException {
+        return getIndex(archive, "tar:" + encoding, TarEntry::getName, f -> {
+            try (FileChannel channel = FileChannel.open(f.toPath(),
+                                                        StandardOpenOption.READ);
+                 TarInputStream ti = new TarInputStream(channel, TAR_BLOCK_SIZE,
+                                                        encoding)) {
+                List<TarEntry> entries = new ArrayList<>();
+                for (TarEntry te = ti.getNextEntry(); te != null;
+                     te = ti.getNextEntry()) {
+                    entries.add(te);
+                }
+                return entries;
+            }
+        });
+    }
+
+    /**
+     * The number of entries of all cached indexes.
+     *
+     * @return int
+     */
+    synchronized int size() {
+        return size;
+    }
+
+    /**
+     * The kind must identify the type of the entries.
+     */
+    @SuppressWarnings("unchecked")
+    private <E> Index<E> getIndex(File archive, String kind,
+                                  Function<E, String> nameOf,
+                                  Reader<E> reader) throws IOException {
+        final String key = archive.getAbsolutePath() + "\n" + kind;
+        final long length = archive.length();
+        final long lastModified = archive.lastModified();
+        synchronized (this) {
+            Cached c = indexes.get(key);
+            if (c != null && c.length == length && c.lastModified == lastModified) {
+                return (Index<E>) c.index;
+            }
+        }
+        Index<E> index = new Index<>(reader.read(archive), nameOf);
+        synchronized (this) {
+            Cached old = indexes.remove(key);
+            if (old != null) {
+                size -= old.index.entries.size();
+            }
+            if (maxEntries > 0 && index.entries.size() <= maxEntries) {
+                indexes.put(key, new Cached(length, lastModified, index));
+                size += index.entries.size();
+                for (Iterator<Cached> it = indexes.values().iterator();
+                     size > maxEntries && it.hasNext();) {
+                    size -= it.next().index.entries.size();
+                    it.remove();
+                }
+            }
+        }
+        return index;
+    }
+
+    /**
+     * The entries of an archive.
+     *
+     * @param <E> the type of the entries
+     */
+    public static final class Index<E> {
+        private final List<E> entries;
+        private final Map<String, E> byName;
+
+        private Index(List<E> entries, Function<E, String> nameOf) {
+            this.entries = Collections.unmodifiableList(entries);
+            byName = new HashMap<>();
+            for (E e : entries) {
+                byName.putIfAbsent(nameOf.apply(e), e);
+            }
+        }
+
+        /**
+         * All entries in the order they appear in the archive.
+         *
+         * @return List
+         */
+        public List<E> getEntries() {
+            return entries;
+        }
+
+        /**
+         * The first entry of the given name.
+         *
+         * @param name String
+         * @return the entry or null if there is none
+         */
+        public E getEntry(String name) {
+            return byName.get(name);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Reader<E> {
+        List<E> read(File archive) throws IOException;
+    }
+
+    private static final class Cached {
+        private final long length;
+        private final long lastModified;
+        private final Index<?> index;
+
+        Cached(long length, long lastModified, Index<?> index) {
+            this.length = length;
+            this.lastModified = lastModified;
+            this.index = index;
+        }
+    }
+}
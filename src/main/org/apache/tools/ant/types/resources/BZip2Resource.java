@@ -17,6 +17,7 @@
  */
 package org.apache.tools.ant.types.resources;
 
+import java.io.BufferedInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -55,6 +56,9 @@ public class BZip2Resource extends CompressedResource {
      */
     @Override
     protected InputStream wrapStream(InputStream in) throws IOException {
+        // CBZip2InputStream reads ahead if it can give back what it
+        // didn't need
+        in = new BufferedInputStream(in);
         for (char ch : MAGIC) {
             if (in.read() != ch) {
                 throw new IOException("Invalid bz2 stream.");
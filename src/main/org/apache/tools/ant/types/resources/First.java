@@ -19,6 +19,7 @@ package org.apache.tools.ant.types.resources;
 
 import java.util.Collection;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.apache.tools.ant.types.Resource;
 
@@ -35,8 +36,9 @@ public class First extends SizeLimitCollection {
      */
     @Override
     protected Collection<Resource> getCollection() {
-        return getResourceCollection().stream().limit(getValidCount())
-            .collect(Collectors.toList());
+        try (Stream<? extends Resource> resources = getResourceCollection().stream()) {
+            return resources.limit(getValidCount()).collect(Collectors.toList());
+        }
     }
 
 }
@@ -17,8 +17,12 @@
  */
 package org.apache.tools.ant.types.resources;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Stack;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import org.apache.tools.ant.BuildException;
@@ -34,11 +38,33 @@ import org.apache.tools.ant.types.resources.comparators.ResourceComparator;
  * Note that Sort must not be used in cases where the ordering of the objects
  * being sorted might change during the sorting process.
  *
+ * <p>If all comparators provide a {@link ResourceComparator#getSortKey
+ * sort key} it is computed only once per resource.  In this case
+ * collections of plain file resources that are bigger than the
+ * {@link #setSpillThreshold spill threshold} are sorted in chunks that
+ * are written to temporary files and merged while iterating.</p>
+ *
  * @since Ant 1.7
  */
 public class Sort extends BaseResourceCollectionWrapper {
 
     private DelegatedResourceComparator comp = new DelegatedResourceComparator();
+    private int spillThreshold = 0;
+
+    /**
+     * Sets the number of resources that are sorted in memory.
+     * Bigger collections of file resources are sorted in chunks of
+     * this size that are stored in temporary files.  Only used if all
+     * comparators provide a sort key.
+     * @param spillThreshold the number of resources, 0 or less means
+     * to always sort in memory.
+     * @since Ant 1.10.9
+     */
+    public synchronized void setSpillThreshold(int spillThreshold) {
+        checkAttributesAllowed();
+        this.spillThreshold = spillThreshold;
+        FailFast.invalidate(this);
+    }
 
     /**
      * Sort the contained elements.
@@ -46,8 +72,42 @@ public class Sort extends BaseResourceCollectionWrapper {
      */
     @Override
     protected synchronized Collection<Resource> getCollection() {
-        return getResourceCollection().stream().map(Resource.class::cast)
-            .sorted(comp).collect(Collectors.toList());
+        Function<Resource, Comparable<?>> key = comp.getSortKey();
+        if (key == null) {
+            return getResourceCollection().stream().map(Resource.class::cast)
+                .sorted(comp).collect(Collectors.toList());
+        }
+        List<SpilledResources.Entry> entries = new ArrayList<>();
+        SpilledResources spilled = null;
+        boolean spillable = spillThreshold > 0;
+        for (Resource r : getResourceCollection()) {
+            entries.add(new SpilledResources.Entry(key.apply(r), r));
+            spillable &= SpilledResources.isSpillable(r);
+            if (spillable && entries.size() >= spillThreshold) {
+                if (spilled == null) {
+                    spilled = new SpilledResources(getProject());
+                }
+                spilled.addRun(sort(entries));
+                entries.clear();
+            }
+        }
+        if (spilled != null) {
+            if (spillable) {
+                if (!entries.isEmpty()) {
+                    spilled.addRun(sort(entries));
+                }
+                return spilled;
+            }
+            // a resource that can't be written to disk came late
+            entries.addAll(0, spilled.readAll());
+        }
+        return sort(entries).stream().map(SpilledResources.Entry::getResource)
+            .collect(Collectors.toList());
+    }
+
+    private static List<SpilledResources.Entry> sort(List<SpilledResources.Entry> entries) {
+        entries.sort(Comparator.naturalOrder());
+        return entries;
     }
 
     /**
@@ -0,0 +1,387 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.tools.ant.types.resources;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.file.Files;
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+import org.apache.tools.ant.BuildEvent;
+import org.apache.tools.ant.BuildException;
+import org.apache.tools.ant.BuildListener;
+import org.apache.tools.ant.Project;
+import org.apache.tools.ant.types.Resource;
+import org.apache.tools.ant.util.FileUtils;
+
+/**
+ * Sorted file resources that have been written to temporary files in
+ * sorted runs, merged while iterating.
+ *
+ * <p>Each run contains the sort key, base directory and name of each
+ * resource.  Runs are merged in levels: once there are {@link
+ * #MAX_FAN_IN} runs of the same level they are merged into a single
+ * run of the next level, so each resource is only rewritten a
+ * logarithmic number of times.</p>
+ *
+ * <p>The temporary files are deleted and readers of iterations that
+ * have been abandoned are closed when the build has finished, or when
+ * the VM exits if there is no project.</p>
+ *
+ * @since Ant 1.10.9
+ */
+class SpilledResources extends AbstractCollection<Resource> {
+
+    private static final FileUtils FILE_UTILS = FileUtils.getFileUtils();
+
+    /** Maximum number of runs merged at once. */
+    private static final int MAX_FAN_IN = 64;
+
+    /** Reset the object stream after this many records to free its handle table. */
+    private static final int RESET_INTERVAL = 1024;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Project project;
+
+    /** The runs in the order their content has been added. */
+    private final List<Run> runs = new ArrayList<>();
+
+    /** Iterations that haven't reached their end, yet. */
+    private final Set<Merge> openMerges =
+        Collections.newSetFromMap(new IdentityHashMap<>());
+
+    private int size = 0;
+
+    /**
+     * Whether the resource can be written to a run and recreated.
+     * @param r the resource
+     * @return boolean
+     */
+    static boolean isSpillable(Resource r) {
+        return r.getClass() == FileResource.class && !r.isReference()
+            && ((FileResource) r).getBaseDir() != null;
+    }
+
+    SpilledResources(Project project) {
+        this.project = project;
+        if (project != null) {
+            project.addBuildListener(new Disposer());
+        }
+    }
+
+    /**
+     * Writes sorted entries to a new run.
+     * @param sorted spillable entries sorted by key
+     */
+    synchronized void addRun(List<Entry> sorted) {
+        runs.add(new Run(write(sorted.iterator()), 0));
+        size += sorted.size();
+        // the runs of the lowest level are the last ones
+        int level = 0;
+        while (runs.size() >= MAX_FAN_IN
+               && runs.get(runs.size() - MAX_FAN_IN).level == level) {
+            mergeLast(MAX_FAN_IN, ++level);
+        }
+    }
+
+    /**
+     * Reads all entries back into memory and deletes the runs.
+     * @return the entries sorted by key
+     */
+    synchronized List<Entry> readAll() {
+        List<Entry> all = new ArrayList<>(size);
+        try (Merge m = merge()) {
+            m.forEachRemaining(all::add);
+        }
+        dispose();
+        return all;
+    }
+
+    @Override
+    public synchronized int size() {
+        return size;
+    }
+
+    @Override
+    public synchronized Iterator<Resource> iterator() {
+        Merge merged = merge();
+        openMerges.add(merged);
+        return new Iterator<Resource>() {
+            @Override
+            public boolean hasNext() {
+                return merged.hasNext();
+            }
+
+            @Override
+            public Resource next() {
+                return merged.next().getResource();
+            }
+        };
+    }
+
+    /**
+     * Closes the readers of all iterations and deletes the runs.
+     */
+    synchronized void dispose() {
+        new ArrayList<>(openMerges).forEach(Merge::close);
+        runs.forEach(r -> r.file.delete());
+        runs.clear();
+        size = 0;
+    }
+
+    /**
+     * Replaces the last count runs by a single run of the given level.
+     */
+    private void mergeLast(int count, int level) {
+        List<Run> last = runs.subList(runs.size() - count, runs.size());
+        File merged;
+        try (Merge m = new Merge(new ArrayList<>(last))) {
+            merged = write(m);
+        }
+        last.forEach(r -> r.file.delete());
+        last.clear();
+        runs.add(new Run(merged, level));
+    }
+
+    /**
+     * Merges all runs, reduces their number first so no more than
+     * {@link #MAX_FAN_IN} files are open at once.
+     */
+    private Merge merge() {
+        while (runs.size() > MAX_FAN_IN) {
+            mergeLast(MAX_FAN_IN, runs.get(runs.size() - MAX_FAN_IN).level + 1);
+        }
+        return new Merge(new ArrayList<>(runs));
+    }
+
+    private File write(Iterator<Entry> entries) {
+        File run = FILE_UTILS.createTempFile(project, "sort", ".run", null,
+                                             true, true);
+        try (ObjectOutputStream out = new ObjectOutputStream(
+                 new BufferedOutputStream(Files.newOutputStream(run.toPath()),
+                                          BUFFER_SIZE))) {
+            int count = 0;
+            while (entries.hasNext()) {
+                Entry e = entries.next();
+                FileResource r = (FileResource) e.getResource();
+                out.writeObject(e.key);
+                out.writeObject(r.getBaseDir());
+                out.writeObject(r.getName());
+                if (++count % RESET_INTERVAL == 0) {
+                    out.reset();
+                }
+            }
+            out.writeObject(null);
+        } catch (IOException e) {
+            throw new BuildException("Failed to write " + run, e);
+        }
+        return run;
+    }
+
+    /** A temporary file holding sorted entries. */
+    private static final class Run {
+        private final File file;
+        private final int level;
+
+        Run(File file, int level) {
+            this.file = file;
+            this.level = level;
+        }
+    }
+
+    /**
+     * Merges the entries of several runs.  Each run is closed once
+     * its end has been reached.
+     */
+    private final class Merge implements Iterator<Entry>, AutoCloseable {
+        private final PriorityQueue<Cursor> queue = new PriorityQueue<>();
+
+        Merge(List<Run> merged) {
+            try {
+                for (int i = 0; i < merged.size(); i++) {
+                    Cursor c = new Cursor(merged.get(i).file, i);
+                    if (c.advance()) {
+                        queue.add(c);
+                    }
+                }
+            } catch (BuildException e) {
+                close();
+                throw e;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (queue.isEmpty()) {
+                close();
+                return false;
+            }
+            return true;
+        }
+
+        @Override
+        public Entry next() {
+            Cursor c = queue.poll();
+            if (c == null) {
+                throw new NoSuchElementException();
+            }
+            Entry e = c.current;
+            try {
+                if (c.advance()) {
+                    queue.add(c);
+                }
+            } catch (BuildException ex) {
+                close();
+                throw ex;
+            }
+            return e;
+        }
+
+        @Override
+        public void close() {
+            queue.forEach(Cursor::close);
+            queue.clear();
+            synchronized (SpilledResources.this) {
+                openMerges.remove(this);
+            }
+        }
+    }
+
+    /**
+     * Resource together with its sort key.  Entries are ordered by
+     * their keys.
+     */
+    static final class Entry implements Comparable<Entry> {
+        private final Comparable<?> key;
+        private final Resource resource;
+
+        Entry(Comparable<?> key, Resource resource) {
+            this.key = key;
+            this.resource = resource;
+        }
+
+        Resource getResource() {
+            return resource;
+        }
+
+        @Override
+        @SuppressWarnings({"rawtypes", "unchecked"})
+        public int compareTo(Entry other) {
+            return ((Comparable) key).compareTo(other.key);
+        }
+    }
+
+    /**
+     * Reads the entries of a run.  Runs with the same key are ordered
+     * by their position so the merge is stable.
+     */
+    private final class Cursor implements Comparable<Cursor> {
+        private final File file;
+        private final int index;
+        private ObjectInputStream in;
+        private Entry current;
+
+        Cursor(File file, int index) {
+            this.file = file;
+            this.index = index;
+        }
+
+        /**
+         * Reads the next entry, closes the run at its end.
+         * @return whether there has been another entry
+         */
+        boolean advance() {
+            try {
+                if (in == null) {
+                    in = new ObjectInputStream(new BufferedInputStream(
+                        Files.newInputStream(file.toPath()), BUFFER_SIZE));
+                }
+                Comparable<?> key = (Comparable<?>) in.readObject();
+                if (key == null) {
+                    close();
+                    current = null;
+                    return false;
+                }
+                FileResource r = new FileResource((File) in.readObject(),
+                                                  (String) in.readObject());
+                r.setProject(project);
+                current = new Entry(key, r);
+                return true;
+            } catch (IOException | ClassNotFoundException e) {
+                close();
+                throw new BuildException("Failed to read " + file, e);
+            }
+        }
+
+        void close() {
+            FileUtils.close(in);
+        }
+
+        @Override
+        public int compareTo(Cursor other) {
+            int c = current.compareTo(other.current);
+            return c != 0 ? c : Integer.compare(index, other.index);
+        }
+    }
+
+    /** Deletes the runs once the build has finished. */
+    private final class Disposer implements BuildListener {
+        @Override
+        public void buildFinished(BuildEvent event) {
+            dispose();
+            project.removeBuildListener(this);
+        }
+
+        @Override
+        public void buildStarted(BuildEvent event) {
+        }
+
+        @Override
+        public void targetStarted(BuildEvent event) {
+        }
+
+        @Override
+        public void targetFinished(BuildEvent event) {
+        }
+
+        @Override
+        public void taskStarted(BuildEvent event) {
+        }
+
+        @Override
+        public void taskFinished(BuildEvent event) {
+        }
+
+        @Override
+        public void messageLogged(BuildEvent event) {
+        }
+    }
+}
@@ -0,0 +1,225 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.tools.ant.types.resources;
+
+import java.io.File;
+import java.lang.ref.WeakReference;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.tools.ant.BuildException;
+import org.apache.tools.ant.DirectoryScanner;
+import org.apache.tools.ant.Project;
+import org.apache.tools.ant.types.Resource;
+
+/**
+ * Iterator of FileResources that are found by a DirectoryScanner
+ * running in a separate thread.
+ *
+ * <p>Each file is handed out as soon as the scanner has found it.
+ * At most a fixed number of names is buffered, the scanner waits for
+ * the consumer once the buffer is full.  Errors of the scan are
+ * rethrown by {@link #hasNext}.</p>
+ *
+ * <p>Consumers that may stop before all files have been consumed
+ * should {@link #close} the iterator, which cancels the scan.  An
+ * iterator that is abandoned without being closed is detected once
+ * it has been garbage collected.</p>
+ *
+ * <p>The scans of all iterators share a pool of daemon threads.</p>
+ *
+ * @since Ant 1.10.9
+ */
+public class StreamingFileResourceIterator implements Iterator<Resource>, AutoCloseable {
+
+    /** Default number of names buffered between scanner and consumer. */
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    /** Marks the end of the scan in the queue. */
+    private static final Object END = new Object();
+
+    /** How often a blocked scanner checks whether it has been abandoned. */
+    private static final long POLL_MILLIS = 500;
+
+    /** Runs the scans, threads are created on demand and expire when idle. */
+    private static final ExecutorService SCANNERS = Executors.newCachedThreadPool(r -> {
+        Thread t = new Thread(r, "ant-fileset-scanner");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final Project project;
+    private final File basedir;
+    private final BlockingQueue<Object> queue;
+    private final Future<?> scan;
+    private String next;
+    private boolean done;
+
+    /**
+     * Starts scanning with the given, not yet used, scanner.
+     * @param project associated Project instance
+     * @param basedir the base directory of the scanner
+     * @param ds the configured scanner
+     */
+    public StreamingFileResourceIterator(Project project, File basedir,
+                                         DirectoryScanner ds) {
+        this(project, basedir, ds, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Starts scanning with the given, not yet used, scanner.
+     * @param project associated Project instance
+     * @param basedir the base directory of the scanner
+     * @param ds the configured scanner
+     * @param capacity the number of names to buffer
+     */
+    public StreamingFileResourceIterator(Project project, File basedir,
+                                         DirectoryScanner ds, int capacity) {
+        this.project = project;
+        this.basedir = basedir;
+        queue = new ArrayBlockingQueue<>(capacity);
+        scan = SCANNERS.submit(new Scan(ds, queue, new WeakReference<>(this)));
+    }
+
+    /**
+     * Cancels the scan if it hasn't finished, yet.  The iterator
+     * doesn't return any further resources afterwards.
+     */
+    @Override
+    public void close() {
+        if (!done) {
+            done = true;
+            next = null;
+            scan.cancel(true);
+            queue.clear();
+        }
+    }
+
+    /**
+     * Find out whether this iterator has more elements, waits for
+     * the scanner if necessary.
+     * @return whether there are more Resources to iterate over.
+     */
+    @Override
+    public boolean hasNext() {
+        if (next == null && !done) {
+            Object o;
+            try {
+                o = queue.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new BuildException("interrupted while waiting for "
+                                         + "directory scanner", e);
+            }
+            if (o instanceof String) {
+                next = (String) o;
+            } else {
+                done = true;
+                if (o instanceof RuntimeException) {
+                    throw (RuntimeException) o;
+                }
+                if (o instanceof Error) {
+                    throw (Error) o;
+                }
+            }
+        }
+        return next != null;
+    }
+
+    /**
+     * Get the next element from this iterator, waits for the scanner
+     * if necessary.
+     * @return the next Object.
+     */
+    @Override
+    public Resource next() {
+        return nextResource();
+    }
+
+    /**
+     * Convenience method to return the next resource.
+     * @return the next File.
+     */
+    public FileResource nextResource() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        FileResource result = new FileResource(basedir, next);
+        result.setProject(project);
+        next = null;
+        return result;
+    }
+
+    /**
+     * Runs the scanner.  Only holds a weak reference to the iterator
+     * so it can tell whether anybody is still interested.
+     */
+    private static class Scan implements Runnable {
+        private final DirectoryScanner ds;
+        private final BlockingQueue<Object> queue;
+        private final WeakReference<StreamingFileResourceIterator> consumer;
+
+        Scan(DirectoryScanner ds, BlockingQueue<Object> queue,
+             WeakReference<StreamingFileResourceIterator> consumer) {
+            this.ds = ds;
+            this.queue = queue;
+            this.consumer = consumer;
+        }
+
+        @Override
+        public void run() {
+            Object last = END;
+            try {
+                ds.scan(this::put);
+            } catch (Abandoned e) {
+                return;
+            } catch (RuntimeException | Error e) {
+                last = e;
+            }
+            try {
+                put(last);
+            } catch (Abandoned e) {
+                // nobody left to tell
+            }
+        }
+
+        private void put(Object o) {
+            try {
+                while (!queue.offer(o, POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+                    if (consumer.get() == null) {
+                        throw new Abandoned();
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new Abandoned();
+            }
+        }
+    }
+
+    /** Stops a scan nobody is interested in anymore. */
+    private static class Abandoned extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+    }
+}
@@ -178,6 +178,17 @@ public class TarResource extends ArchiveResource {
     @Override
     protected void fetchEntry() {
         Resource archive = getArchive();
+        FileProvider fp = archive.as(FileProvider.class);
+        if (fp != null && getProject() != null) {
+            try {
+                setEntry(ArchiveIndexCache.getInstance(getProject())
+                         .getTarIndex(fp.getFile(), null).getEntry(getName()));
+            } catch (IOException e) {
+                log(e.getMessage(), Project.MSG_DEBUG);
+                throw new BuildException(e);
+            }
+            return;
+        }
         try (TarInputStream i = new TarInputStream(archive.getInputStream())) {
             TarEntry te = null;
             while ((te = i.getNextEntry()) != null) {
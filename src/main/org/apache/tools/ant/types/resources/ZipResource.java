@@ -22,6 +22,7 @@ import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.UncheckedIOException;
 
 import org.apache.tools.ant.BuildException;
 import org.apache.tools.ant.Project;
@@ -129,7 +130,7 @@ public class ZipResource extends ArchiveResource {
         if (isReference()) {
             return getRef().getInputStream();
         }
-        return getZipEntryStream(new ZipFile(getZipfile(), getEncoding()), getName());
+        return getZipEntryStream(new ZipFile(getZipfile(), getEncoding(), true, true), getName());
     }
 
     /**
@@ -183,7 +184,13 @@ public class ZipResource extends ArchiveResource {
      */
     public static InputStream getZipEntryStream(ZipFile zipFile,
                                                 String zipEntry) throws IOException {
-        ZipEntry ze = zipFile.getEntry(zipEntry);
+        ZipEntry ze;
+        try {
+            ze = zipFile.getEntry(zipEntry);
+        } catch (UncheckedIOException e) {
+            zipFile.close();
+            throw e.getCause();
+        }
         if (ze == null) {
             zipFile.close();
             throw new BuildException("no entry " + zipEntry + " in " + zipFile.getName());
@@ -207,13 +214,26 @@ public class ZipResource extends ArchiveResource {
      * fetches information from the named entry inside the archive.
      */
     protected void fetchEntry() {
+        if (getProject() != null) {
+            try {
+                setEntry(ArchiveIndexCache.getInstance(getProject())
+                         .getZipIndex(getZipfile(), getEncoding()).getEntry(getName()));
+            } catch (IOException e) {
+                log(e.getMessage(), Project.MSG_DEBUG);
+                throw new BuildException(e);
+            }
+            return;
+        }
         ZipFile z = null;
         try {
-            z = new ZipFile(getZipfile(), getEncoding());
+            z = new ZipFile(getZipfile(), getEncoding(), true, true);
             setEntry(z.getEntry(getName()));
         } catch (IOException e) {
             log(e.getMessage(), Project.MSG_DEBUG);
             throw new BuildException(e);
+        } catch (UncheckedIOException e) {
+            log(e.getCause().getMessage(), Project.MSG_DEBUG);
+            throw new BuildException(e.getCause());
         } finally {
             ZipFile.closeQuietly(z);
         }
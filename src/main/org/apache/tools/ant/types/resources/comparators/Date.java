@@ -18,6 +18,7 @@
 package org.apache.tools.ant.types.resources.comparators;
 
 import java.util.Comparator;
+import java.util.function.Function;
 
 import org.apache.tools.ant.types.Resource;
 
@@ -38,4 +39,13 @@ public class Date extends ResourceComparator {
             bar);
     }
 
+    /**
+     * Returns a function that computes the modification time of a resource.
+     * @return Function
+     * @since Ant 1.10.9
+     */
+    @Override
+    protected Function<Resource, Comparable<?>> resourceSortKey() {
+        return Resource::getLastModified;
+    }
 }
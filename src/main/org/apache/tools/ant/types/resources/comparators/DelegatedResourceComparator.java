@@ -17,10 +17,12 @@
  */
 package org.apache.tools.ant.types.resources.comparators;
 
+import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Stack;
 import java.util.Vector;
+import java.util.function.Function;
 
 import org.apache.tools.ant.BuildException;
 import org.apache.tools.ant.Project;
@@ -91,6 +93,33 @@ public class DelegatedResourceComparator extends ResourceComparator {
         return composite(resourceComparators).compare(foo, bar);
     }
 
+    /**
+     * Returns a function that computes the sort keys of all
+     * delegates.
+     * @return Function or null if there are no delegates or one of
+     * them doesn't provide a sort key.
+     * @since Ant 1.10.9
+     */
+    @Override
+    protected synchronized Function<Resource, Comparable<?>> resourceSortKey() {
+        if (resourceComparators == null || resourceComparators.isEmpty()) {
+            return null;
+        }
+        List<Function<Resource, Comparable<?>>> keys = new ArrayList<>();
+        for (ResourceComparator c : resourceComparators) {
+            Function<Resource, Comparable<?>> key = c.getSortKey();
+            if (key == null) {
+                return null;
+            }
+            keys.add(key);
+        }
+        if (keys.size() == 1) {
+            return keys.get(0);
+        }
+        return r -> new SortKeys.Composite(keys.stream().map(k -> k.apply(r))
+            .toArray(Comparable<?>[]::new));
+    }
+
     /**
      * Overrides the version from DataType to recurse on nested ResourceSelector
 s.
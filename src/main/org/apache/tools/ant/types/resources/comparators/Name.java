@@ -17,6 +17,8 @@
  */
 package org.apache.tools.ant.types.resources.comparators;
 
+import java.util.function.Function;
+
 import org.apache.tools.ant.types.Resource;
 
 /**
@@ -35,4 +37,13 @@ public class Name extends ResourceComparator {
         return foo.getName().compareTo(bar.getName());
     }
 
+    /**
+     * Returns a function that computes the name of a resource.
+     * @return Function
+     * @since Ant 1.10.9
+     */
+    @Override
+    protected Function<Resource, Comparable<?>> resourceSortKey() {
+        return Resource::getName;
+    }
 }
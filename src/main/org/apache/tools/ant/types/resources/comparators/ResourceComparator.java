@@ -18,6 +18,7 @@
 package org.apache.tools.ant.types.resources.comparators;
 
 import java.util.Comparator;
+import java.util.function.Function;
 
 import org.apache.tools.ant.types.DataType;
 import org.apache.tools.ant.types.Resource;
@@ -43,6 +44,27 @@ public abstract class ResourceComparator extends DataType implements Comparator<
         return c.resourceCompare(foo, bar);
     }
 
+    /**
+     * Returns a function that computes the value this comparator
+     * orders a resource by, if the order of two resources only
+     * depends on such a value computed for each of them on its own.
+     *
+     * <p>Comparing the values of two resources must yield the same
+     * result as comparing the resources.  This allows {@link
+     * org.apache.tools.ant.types.resources.Sort Sort} to query each
+     * resource only once rather than every time it takes part in a
+     * comparison.  The values should be serializable.</p>
+     *
+     * @return the function or null if this comparator needs to look
+     * at both resources at the same time.
+     * @since Ant 1.10.9
+     */
+    public final Function<Resource, Comparable<?>> getSortKey() {
+        dieOnCircularReference();
+        ResourceComparator c = isReference() ? getRef() : this;
+        return c.resourceSortKey();
+    }
+
     /**
      * Test for equality with this ResourceComparator.
      * @param o the Object to compare against.
@@ -77,6 +99,17 @@ public abstract class ResourceComparator extends DataType implements Comparator<
      */
     protected abstract int resourceCompare(Resource foo, Resource bar);
 
+    /**
+     * Returns a function that computes the value this comparator
+     * orders a resource by.  This implementation returns null.
+     * @return the function or null if there is no such value.
+     * @see #getSortKey
+     * @since Ant 1.10.9
+     */
+    protected Function<Resource, Comparable<?>> resourceSortKey() {
+        return null;
+    }
+
     private ResourceComparator getRef() {
         return getCheckedRef(ResourceComparator.class);
     }
@@ -20,6 +20,7 @@ package org.apache.tools.ant.types.resources.comparators;
 import java.util.Comparator;
 import java.util.Optional;
 import java.util.Stack;
+import java.util.function.Function;
 
 import org.apache.tools.ant.BuildException;
 import org.apache.tools.ant.Project;
@@ -74,6 +75,22 @@ public class Reverse extends ResourceComparator {
             .orElseGet(Comparator::naturalOrder).reversed().compare(foo, bar);
     }
 
+    /**
+     * Returns a function that computes the reversed sort key of the
+     * nested comparator.
+     * @return Function or null if there is no nested comparator or
+     * it doesn't provide a sort key.
+     * @since Ant 1.10.9
+     */
+    @Override
+    protected Function<Resource, Comparable<?>> resourceSortKey() {
+        if (nested == null) {
+            return null;
+        }
+        Function<Resource, Comparable<?>> key = nested.getSortKey();
+        return key == null ? null : key.andThen(SortKeys.Reversed::new);
+    }
+
     protected void dieOnCircularReference(Stack<Object> stk, Project p)
         throws BuildException {
         if (isChecked()) {
@@ -18,6 +18,7 @@
 package org.apache.tools.ant.types.resources.comparators;
 
 import java.util.Comparator;
+import java.util.function.Function;
 
 import org.apache.tools.ant.types.Resource;
 
@@ -37,4 +38,13 @@ public class Size extends ResourceComparator {
         return Comparator.comparingLong(Resource::getSize).compare(foo, bar);
     }
 
+    /**
+     * Returns a function that computes the size of a resource.
+     * @return Function
+     * @since Ant 1.10.9
+     */
+    @Override
+    protected Function<Resource, Comparable<?>> resourceSortKey() {
+        return Resource::getSize;
+    }
 }
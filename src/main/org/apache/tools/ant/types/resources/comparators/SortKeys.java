@@ -0,0 +1,92 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.tools.ant.types.resources.comparators;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Sort keys built from the keys of other comparators.
+ * @since Ant 1.10.9
+ */
+final class SortKeys {
+
+    private SortKeys() {
+    }
+
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    static int compare(Comparable<?> a, Comparable<?> b) {
+        return ((Comparable) a).compareTo(b);
+    }
+
+    /** Orders by the reverse order of another key. */
+    static final class Reversed implements Comparable<Reversed>, Serializable {
+        private static final long serialVersionUID = 1L;
+        private final Comparable<?> key;
+
+        Reversed(Comparable<?> key) {
+            this.key = key;
+        }
+
+        @Override
+        public int compareTo(Reversed other) {
+            return SortKeys.compare(other.key, key);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Reversed && key.equals(((Reversed) o).key);
+        }
+
+        @Override
+        public int hashCode() {
+            return key.hashCode();
+        }
+    }
+
+    /** Orders by a sequence of keys, the first one being the most significant. */
+    static final class Composite implements Comparable<Composite>, Serializable {
+        private static final long serialVersionUID = 1L;
+        private final Comparable<?>[] keys;
+
+        Composite(Comparable<?>[] keys) {
+            this.keys = keys;
+        }
+
+        @Override
+        public int compareTo(Composite other) {
+            for (int i = 0; i < keys.length; i++) {
+                int c = SortKeys.compare(keys[i], other.keys[i]);
+                if (c != 0) {
+                    return c;
+                }
+            }
+            return 0;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Composite && Arrays.equals(keys, ((Composite) o).keys);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(keys);
+        }
+    }
+}
@@ -18,6 +18,7 @@
 package org.apache.tools.ant.types.resources.comparators;
 
 import java.util.Comparator;
+import java.util.function.Function;
 
 import org.apache.tools.ant.types.Resource;
 
@@ -39,4 +40,13 @@ public class Type extends ResourceComparator {
         return Comparator.comparing(Resource::isDirectory).compare(foo, bar);
     }
 
+    /**
+     * Returns a function that computes whether it is a directory of a resource.
+     * @return Function
+     * @since Ant 1.10.9
+     */
+    @Override
+    protected Function<Resource, Comparable<?>> resourceSortKey() {
+        return Resource::isDirectory;
+    }
 }
@@ -45,6 +45,8 @@ public class AndSelector extends BaseSelectorContainer {
     /**
      * Returns true (the file is selected) only if all other selectors
      * agree that the file should be selected.
+     * Cheap selectors are consulted before the ones that need to
+     * read the file, see {@link SelectorCost}.
      *
      * @param basedir the base directory the scan is being done from
      * @param filename the name of the file to check
@@ -54,8 +56,9 @@ public class AndSelector extends BaseSelectorContainer {
      */
     public boolean isSelected(File basedir, String filename, File file) {
         validate();
-        return Stream.of(getSelectors(getProject()))
-            .allMatch(s -> s.isSelected(basedir, filename, file));
+        return FileAttributeContext.evaluate(file,
+            () -> Stream.of(getSelectorsByCost(getProject()))
+                .allMatch(s -> s.isSelected(basedir, filename, file)));
     }
 
 }
@@ -40,6 +40,7 @@ public abstract class BaseSelectorContainer extends BaseSelector
         implements SelectorContainer {
 
     private List<FileSelector> selectorsList = Collections.synchronizedList(new ArrayList<>());
+    private volatile FileSelector[] selectorsByCost;
 
     /**
      * Indicates whether there are any selectors here.
@@ -69,6 +70,23 @@ public abstract class BaseSelectorContainer extends BaseSelector
         return selectorsList.toArray(new FileSelector[selectorsList.size()]);
     }
 
+    /**
+     * Returns the set of selectors ordered by their estimated cost,
+     * cheap selectors first.
+     * @param p the current project
+     * @return an array of selectors
+     * @see SelectorCost
+     * @since Ant 1.10.9
+     */
+    public FileSelector[] getSelectorsByCost(Project p) {
+        FileSelector[] ordered = selectorsByCost;
+        if (ordered == null) {
+            ordered = SelectorCost.order(getSelectors(p));
+            selectorsByCost = ordered;
+        }
+        return ordered;
+    }
+
     /**
      * Returns an enumerator for accessing the set of selectors.
      * @return an enumerator for the selectors
@@ -98,6 +116,7 @@ public abstract class BaseSelectorContainer extends BaseSelector
      */
     public void appendSelector(FileSelector selector) {
         selectorsList.add(selector);
+        selectorsByCost = null;
         setChecked(false);
     }
 
@@ -22,6 +22,7 @@ import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.nio.charset.Charset;
 
 import org.apache.tools.ant.BuildException;
 import org.apache.tools.ant.Project;
@@ -30,6 +31,7 @@ import org.apache.tools.ant.types.RegularExpression;
 import org.apache.tools.ant.types.Resource;
 import org.apache.tools.ant.types.resources.FileResource;
 import org.apache.tools.ant.types.resources.selectors.ResourceSelector;
+import org.apache.tools.ant.util.ContentSearch;
 import org.apache.tools.ant.util.regexp.Regexp;
 import org.apache.tools.ant.util.regexp.RegexpUtil;
 
@@ -49,6 +51,8 @@ public class ContainsRegexpSelector extends BaseExtendSelector
     private static final String ML_KEY = "multiline";
     /** Parameter name for the singleline attribute. */
     private static final String SL_KEY = "singleline";
+    /** Characters with a special meaning in regular expressions. */
+    private static final String REGEXP_META = "\\^$.|?*+()[]{}";
 
     private String userProvidedExpression = null;
     private RegularExpression myRegExp = null;
@@ -56,6 +60,7 @@ public class ContainsRegexpSelector extends BaseExtendSelector
     private boolean caseSensitive = true;
     private boolean multiLine = false;
     private boolean singleLine = false;
+    private volatile ContentSearch literalSearch;
 
     /**
      * @return a string describing this object
@@ -72,6 +77,7 @@ public class ContainsRegexpSelector extends BaseExtendSelector
      */
     public void setExpression(String theexpression) {
         this.userProvidedExpression = theexpression;
+        literalSearch = null;
     }
 
     /**
@@ -81,6 +87,7 @@ public class ContainsRegexpSelector extends BaseExtendSelector
      */
     public void setCaseSensitive(boolean b) {
         caseSensitive = b;
+        literalSearch = null;
     }
 
     /**
@@ -164,6 +171,19 @@ public class ContainsRegexpSelector extends BaseExtendSelector
             return true;
         }
 
+        if (isLiteral(userProvidedExpression)
+            && ContentSearch.isByteSearchable(Charset.defaultCharset(),
+                                              !caseSensitive,
+                                              userProvidedExpression)) {
+            ContentSearch s = literalSearch;
+            if (s == null) {
+                s = new ContentSearch(Charset.defaultCharset(), !caseSensitive,
+                                      userProvidedExpression);
+                literalSearch = s;
+            }
+            return ContainsSelector.search(s, r);
+        }
+
         if (myRegExp == null) {
             myRegExp = new RegularExpression();
             myRegExp.setPattern(userProvidedExpression);
@@ -191,4 +211,12 @@ public class ContainsRegexpSelector extends BaseExtendSelector
                 "Could not get InputStream from " + r.toLongString(), e);
         }
     }
+
+    /**
+     * Whether the expression doesn't contain any characters with a
+     * special meaning in regular expressions.
+     */
+    private static boolean isLiteral(String expression) {
+        return expression.chars().noneMatch(c -> REGEXP_META.indexOf(c) >= 0);
+    }
 }
@@ -21,15 +21,26 @@ package org.apache.tools.ant.types.selectors;
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.apache.tools.ant.BuildException;
 import org.apache.tools.ant.Project;
 import org.apache.tools.ant.types.Parameter;
 import org.apache.tools.ant.types.Resource;
+import org.apache.tools.ant.types.resources.FileProvider;
 import org.apache.tools.ant.types.resources.FileResource;
 import org.apache.tools.ant.types.resources.selectors.ResourceSelector;
+import org.apache.tools.ant.util.ContentSearch;
 
 /**
  * Selector that filters files/resources based on whether they contain a
@@ -52,6 +63,7 @@ public class ContainsSelector extends BaseExtendSelector implements ResourceSele
     private boolean casesensitive = true;
     private boolean ignorewhitespace = false;
     private String encoding = null;
+    private volatile ContentSearch search;
 
     /**
      * @return a string describing this object
@@ -68,6 +80,7 @@ public class ContainsSelector extends BaseExtendSelector implements ResourceSele
      */
     public void setText(String contains) {
         this.contains = contains;
+        search = null;
     }
 
     /**
@@ -77,6 +90,7 @@ public class ContainsSelector extends BaseExtendSelector implements ResourceSele
      */
     public void setEncoding(String encoding) {
         this.encoding = encoding;
+        search = null;
     }
 
     /**
@@ -86,6 +100,7 @@ public class ContainsSelector extends BaseExtendSelector implements ResourceSele
      */
     public void setCasesensitive(boolean casesensitive) {
         this.casesensitive = casesensitive;
+        search = null;
     }
 
     /**
@@ -96,6 +111,7 @@ public class ContainsSelector extends BaseExtendSelector implements ResourceSele
      */
     public void setIgnorewhitespace(boolean ignorewhitespace) {
         this.ignorewhitespace = ignorewhitespace;
+        search = null;
     }
 
     /**
@@ -163,6 +179,10 @@ public class ContainsSelector extends BaseExtendSelector implements ResourceSele
             return true;
         }
 
+        if (getSearchLiteral() != null) {
+            return search(r);
+        }
+
         String userstr = contains;
         if (!casesensitive) {
             userstr = contains.toLowerCase();
@@ -196,4 +216,126 @@ public class ContainsSelector extends BaseExtendSelector implements ResourceSele
                 "Could not get InputStream from " + r.toLongString(), e);
         }
     }
+
+    /**
+     * The charset of the resources processed.
+     */
+    Charset getCharset() {
+        return encoding == null ? Charset.defaultCharset() : Charset.forName(encoding);
+    }
+
+    /**
+     * Whether this selector ignores case.
+     */
+    boolean isCaseSensitive() {
+        return casesensitive;
+    }
+
+    /**
+     * The literal to search for in the raw bytes of a resource, null
+     * if the text cannot be searched for that way.
+     */
+    String getSearchLiteral() {
+        if (contains == null || ignorewhitespace) {
+            return null;
+        }
+        String literal = casesensitive ? contains : contains.toLowerCase();
+        return ContentSearch.isByteSearchable(getCharset(), !casesensitive, literal)
+            ? literal : null;
+    }
+
+    /**
+     * Replaces contains selectors that search for a literal in the
+     * same way by a single selector that searches for all their
+     * literals in one pass.  Used by containers that select a file if
+     * any of their children selects it.
+     *
+     * <p>Only selectors of exactly this class are combined, as
+     * subclasses may override the selection, and never across a
+     * {@link SelectorCost#isBarrier barrier}.</p>
+     *
+     * @param selectors the selectors of the container
+     * @return the selectors with each combined contains selector at
+     * the position of the first selector it replaces
+     */
+    static FileSelector[] combine(FileSelector[] selectors) {
+        List<FileSelector> result = new ArrayList<>();
+        int start = 0;
+        for (int i = 0; i <= selectors.length; i++) {
+            if (i == selectors.length || SelectorCost.isBarrier(selectors[i])) {
+                result.addAll(combine(selectors, start, i));
+                if (i < selectors.length) {
+                    result.add(selectors[i]);
+                }
+                start = i + 1;
+            }
+        }
+        return result.size() == selectors.length ? selectors
+            : result.toArray(new FileSelector[result.size()]);
+    }
+
+    /**
+     * Combines the contains selectors of the given range.
+     */
+    private static List<FileSelector> combine(FileSelector[] selectors, int from, int to) {
+        Map<String, List<ContainsSelector>> groups = new LinkedHashMap<>();
+        for (int i = from; i < to; i++) {
+            if (selectors[i].getClass() == ContainsSelector.class) {
+                ContainsSelector c = (ContainsSelector) selectors[i];
+                if (c.contains != null && !c.contains.isEmpty()
+                    && c.getSearchLiteral() != null) {
+                    groups.computeIfAbsent(c.getCharset().name() + c.casesensitive,
+                                           k -> new ArrayList<>()).add(c);
+                }
+            }
+        }
+        Map<FileSelector, FileSelector> replacements = new HashMap<>();
+        for (List<ContainsSelector> group : groups.values()) {
+            if (group.size() > 1) {
+                ContainsSelector first = group.get(0);
+                ContentSearch s = new ContentSearch(first.getCharset(),
+                    !first.casesensitive, group.stream()
+                    .map(ContainsSelector::getSearchLiteral).toArray(String[]::new));
+                FileSelector combined = (basedir, filename, file) -> {
+                    Resource r = new FileResource(file);
+                    return r.isDirectory() || search(s, r);
+                };
+                group.forEach(c -> replacements.put(c, null));
+                replacements.put(first, combined);
+            }
+        }
+        return Stream.of(selectors).skip(from).limit(to - from)
+            .map(s -> replacements.containsKey(s) ? replacements.get(s) : s)
+            .filter(Objects::nonNull).collect(Collectors.toList());
+    }
+
+    private boolean search(Resource r) {
+        ContentSearch s = search;
+        if (s == null) {
+            s = new ContentSearch(getCharset(), !casesensitive, getSearchLiteral());
+            search = s;
+        }
+        return search(s, r);
+    }
+
+    /**
+     * Searches the resource's content, memory mapping it if it is a
+     * file.
+     */
+    static boolean search(ContentSearch s, Resource r) {
+        File f = r.asOptional(FileProvider.class).map(FileProvider::getFile)
+            .orElse(null);
+        if (f != null) {
+            try {
+                return s.search(f) >= 0;
+            } catch (IOException e) {
+                throw new BuildException("Could not read " + r.toLongString(), e);
+            }
+        }
+        try (InputStream in = r.getInputStream()) {
+            return s.search(in) >= 0;
+        } catch (IOException e) {
+            throw new BuildException("Could not read " + r.toLongString(), e);
+        }
+    }
 }
@@ -231,8 +231,9 @@ public class DateSelector extends BaseExtendSelector {
      */
     public boolean isSelected(File basedir, String filename, File file) {
         validate();
-        return (file.isDirectory() && !includeDirs)
-            || when.evaluate(file.lastModified(), millis, granularity);
+        FileAttributeContext attrs = FileAttributeContext.of(file);
+        return (attrs.isDirectory() && !includeDirs)
+            || when.evaluate(attrs.lastModified(), millis, granularity);
     }
 
     /**
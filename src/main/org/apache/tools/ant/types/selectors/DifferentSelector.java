@@ -80,12 +80,15 @@ public class DifferentSelector extends MappingSelector {
      */
     protected boolean selectionTest(File srcfile, File destfile) {
 
+        FileAttributeContext src = FileAttributeContext.of(srcfile);
+        FileAttributeContext dest = FileAttributeContext.of(destfile);
+
         //if either of them is missing, they are different
-        if (srcfile.exists() != destfile.exists()) {
+        if (src.exists() != dest.exists()) {
             return true;
         }
 
-        if (srcfile.length() != destfile.length()) {
+        if (src.length() != dest.length()) {
             // different size =>different files
             return true;
         }
@@ -93,8 +96,8 @@ public class DifferentSelector extends MappingSelector {
         if (!ignoreFileTimes) {
             //same date if dest timestamp is within granularity of the srcfile
             boolean sameDate;
-            sameDate = destfile.lastModified() >= srcfile.lastModified() - granularity
-                    && destfile.lastModified() <= srcfile.lastModified() + granularity;
+            sameDate = dest.lastModified() >= src.lastModified() - granularity
+                    && dest.lastModified() <= src.lastModified() + granularity;
 
             // different dates => different files
             if (!sameDate) {
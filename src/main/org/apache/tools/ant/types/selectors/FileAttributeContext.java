@@ -0,0 +1,163 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.apache.tools.ant.types.selectors;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Holds the basic attributes of the file that is currently being
+ * selected so that all selectors evaluated for that file share a
+ * single stat call.
+ *
+ * <p>Selector containers and the DirectoryScanner open a context
+ * for each file via {@link #evaluate evaluate}; selectors obtain the
+ * attributes through {@link #of of}.  Outside of an open context
+ * {@link #of of} returns a fresh, unshared instance, so selectors
+ * behave as before when they are used on their own.</p>
+ *
+ * <p>The context is bound to the current thread.</p>
+ *
+ * @since Ant 1.10.9
+ */
+public final class FileAttributeContext {
+
+    private static final ThreadLocal<FileAttributeContext> CURRENT =
+        new ThreadLocal<>();
+
+    private final File file;
+    private BasicFileAttributes attributes;
+    private boolean loaded;
+
+    private FileAttributeContext(File file) {
+        this.file = file;
+    }
+
+    /**
+     * Evaluates the given test with a context for the given file.
+     * If a context for the same file is already open on this thread
+     * it is reused, otherwise a new one is opened for the duration of
+     * the test.
+     *
+     * @param file the file being selected, may be null
+     * @param test the selection test to run
+     * @return the result of the test
+     */
+    public static boolean evaluate(File file, BooleanSupplier test) {
+        FileAttributeContext current = CURRENT.get();
+        if (file == null || current != null && current.file.equals(file)) {
+            return test.getAsBoolean();
+        }
+        CURRENT.set(new FileAttributeContext(file));
+        try {
+            return test.getAsBoolean();
+        } finally {
+            if (current == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(current);
+            }
+        }
+    }
+
+    /**
+     * Returns the attribute context for the given file - the shared
+     * one if a context for this file is open on the current thread, a
+     * new one otherwise.
+     *
+     * @param file the file
+     * @return FileAttributeContext
+     */
+    public static FileAttributeContext of(File file) {
+        FileAttributeContext current = CURRENT.get();
+        if (current != null && current.file.equals(file)) {
+            return current;
+        }
+        return new FileAttributeContext(file);
+    }
+
+    /**
+     * @return the file this context describes
+     */
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * @return whether the file exists
+     * @see File#exists
+     */
+    public boolean exists() {
+        return getAttributes() != null;
+    }
+
+    /**
+     * @return whether the file is a directory
+     * @see File#isDirectory
+     */
+    public boolean isDirectory() {
+        BasicFileAttributes a = getAttributes();
+        return a != null && a.isDirectory();
+    }
+
+    /**
+     * @return whether the file is a normal file
+     * @see File#isFile
+     */
+    public boolean isFile() {
+        BasicFileAttributes a = getAttributes();
+        return a != null && a.isRegularFile();
+    }
+
+    /**
+     * @return the length of the file, 0 if it doesn't exist
+     * @see File#length
+     */
+    public long length() {
+        BasicFileAttributes a = getAttributes();
+        return a == null ? 0L : a.size();
+    }
+
+    /**
+     * @return the last modification time of the file in milliseconds,
+     * 0 if it doesn't exist
+     * @see File#lastModified
+     */
+    public long lastModified() {
+        BasicFileAttributes a = getAttributes();
+        return a == null ? 0L : a.lastModifiedTime().toMillis();
+    }
+
+    private BasicFileAttributes getAttributes() {
+        if (!loaded) {
+            try {
+                attributes = Files.readAttributes(file.toPath(),
+                                                  BasicFileAttributes.class);
+            } catch (IOException | RuntimeException e) {
+                // same as java.io.File: treat unreadable as not existing
+                attributes = null;
+            }
+            loaded = true;
+        }
+        return attributes;
+    }
+}
@@ -73,6 +73,11 @@ public class MajoritySelector extends BaseSelectorContainer {
      */
     public boolean isSelected(File basedir, String filename, File file) {
         validate();
+        return FileAttributeContext.evaluate(file,
+            () -> vote(basedir, filename, file));
+    }
+
+    private boolean vote(File basedir, String filename, File file) {
         int yesvotes = 0;
         int novotes = 0;
 
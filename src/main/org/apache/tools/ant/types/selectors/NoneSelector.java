@@ -46,6 +46,8 @@ public class NoneSelector extends BaseSelectorContainer {
     /**
      * Returns true (the file is selected) only if all other selectors
      * agree that the file should not be selected.
+     * Cheap selectors are consulted before the ones that need to
+     * read the file, see {@link SelectorCost}.
      *
      * @param basedir the base directory the scan is being done from
      * @param filename is the name of the file to check
@@ -55,8 +57,9 @@ public class NoneSelector extends BaseSelectorContainer {
      */
     public boolean isSelected(File basedir, String filename, File file) {
         validate();
-        return Stream.of(getSelectors(getProject()))
-            .noneMatch(s -> s.isSelected(basedir, filename, file));
+        return FileAttributeContext.evaluate(file,
+            () -> Stream.of(getSelectorsByCost(getProject()))
+                .noneMatch(s -> s.isSelected(basedir, filename, file)));
     }
 
 }
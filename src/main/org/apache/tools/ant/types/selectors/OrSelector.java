@@ -29,6 +29,8 @@ import java.util.stream.Stream;
  */
 public class OrSelector extends BaseSelectorContainer {
 
+    private volatile FileSelector[] searchPlan;
+
     /**
      * @return a string representation of the selector
      */
@@ -45,6 +47,8 @@ public class OrSelector extends BaseSelectorContainer {
     /**
      * Returns true (the file is selected) if any of the other selectors
      * agree that the file should be selected.
+     * Cheap selectors are consulted before the ones that need to
+     * read the file, see {@link SelectorCost}.
      *
      * @param basedir the base directory the scan is being done from
      * @param filename the name of the file to check
@@ -54,8 +58,36 @@ public class OrSelector extends BaseSelectorContainer {
      */
     public boolean isSelected(File basedir, String filename, File file) {
         validate();
-        return Stream.of(getSelectors(getProject()))
-            .anyMatch(s -> s.isSelected(basedir, filename, file));
+        FileSelector[] selectors = getSearchPlan();
+        return FileAttributeContext.evaluate(file,
+            () -> Stream.of(selectors)
+                .anyMatch(s -> s.isSelected(basedir, filename, file)));
+    }
+
+    /**
+     * Add a new selector into this container.
+     *
+     * @param selector the new selector to add
+     */
+    @Override
+    public void appendSelector(FileSelector selector) {
+        super.appendSelector(selector);
+        searchPlan = null;
+    }
+
+    /**
+     * The selectors ordered by cost where contains selectors that
+     * aren't separated by a barrier have been combined into one that
+     * searches for all their texts at once, see
+     * {@link ContainsSelector#combine}.
+     */
+    private FileSelector[] getSearchPlan() {
+        FileSelector[] plan = searchPlan;
+        if (plan == null) {
+            plan = ContainsSelector.combine(getSelectorsByCost(getProject()));
+            searchPlan = plan;
+        }
+        return plan;
     }
 
 }
@@ -0,0 +1,47 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.tools.ant.types.selectors;
+
+import java.io.File;
+import java.util.List;
+
+/**
+ * A selector that wants to know which files of a directory it is
+ * going to be asked about, for example in order to do expensive work
+ * for them in advance.
+ *
+ * <p>The {@link org.apache.tools.ant.DirectoryScanner DirectoryScanner}
+ * announces the files of each directory that match its include and
+ * exclude patterns before it evaluates its selectors for them.  The
+ * selector may still not be asked about all of them, as other
+ * selectors may deselect a file first.</p>
+ *
+ * @since Ant 1.10.9
+ */
+public interface PendingFilesSelector extends FileSelector {
+
+    /**
+     * Announces the files of a directory the selector is about to
+     * be asked about, in the order they are going to be selected.
+     * Replaces any files announced before.
+     *
+     * @param basedir the base directory the scan is performed from
+     * @param files the files, may contain directories
+     */
+    void filesPending(File basedir, List<File> files);
+}
@@ -220,7 +220,8 @@ public class SelectSelector extends BaseSelectorContainer {
         }
 
         Enumeration<FileSelector> e = selectorElements();
-        return !e.hasMoreElements() || e.nextElement().isSelected(basedir, filename, file);
+        return !e.hasMoreElements() || FileAttributeContext.evaluate(file,
+            () -> e.nextElement().isSelected(basedir, filename, file));
     }
 }
 
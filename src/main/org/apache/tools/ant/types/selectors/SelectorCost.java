@@ -0,0 +1,156 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.apache.tools.ant.types.selectors;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import org.apache.tools.ant.types.selectors.modifiedselector.ModifiedSelector;
+
+/**
+ * Estimates how expensive it is to evaluate a selector so that
+ * containers can try cheap selectors before the ones that need to
+ * read a file's content.
+ *
+ * <p>Selectors Ant doesn't know about are assumed to read the file's
+ * content.  Containers are as expensive as their most expensive
+ * child.</p>
+ *
+ * <p>Ordering never moves a selector across a selector that may have
+ * side effects or depend on being evaluated in the declared order -
+ * {@link ModifiedSelector}, which updates its cache while selecting,
+ * selectors Ant doesn't know about and containers holding any of
+ * them.  Subclasses of Ant's selectors count as unknown as they may
+ * override the selection logic.</p>
+ *
+ * @since Ant 1.10.9
+ */
+public final class SelectorCost {
+
+    /** Selector only looks at the name or path of the file. */
+    public static final int NAME = 0;
+    /** Selector looks at file attributes like size or timestamp. */
+    public static final int ATTRIBUTES = 1;
+    /** Selector reads the content of the file. */
+    public static final int CONTENT = 2;
+
+    private static final Comparator<FileSelector> BY_COST =
+        Comparator.comparingInt(SelectorCost::of);
+
+    /**
+     * Costs of the selectors Ant knows about, keyed by their exact
+     * class - a subclass may override the selection logic.
+     */
+    private static final Map<Class<?>, Integer> COSTS = new HashMap<>();
+
+    /** Containers Ant knows about, keyed by their exact class. */
+    private static final Set<Class<?>> CONTAINERS = new HashSet<>();
+
+    static {
+        for (Class<?> c : Arrays.asList(FilenameSelector.class, DepthSelector.class)) {
+            COSTS.put(c, NAME);
+        }
+        for (Class<?> c : Arrays.asList(DateSelector.class, SizeSelector.class,
+                                        TypeSelector.class, DependSelector.class,
+                                        PresentSelector.class, ReadableSelector.class,
+                                        WritableSelector.class, ExecutableSelector.class,
+                                        SymlinkSelector.class, OwnedBySelector.class,
+                                        PosixGroupSelector.class,
+                                        PosixPermissionsSelector.class)) {
+            COSTS.put(c, ATTRIBUTES);
+        }
+        for (Class<?> c : Arrays.asList(DifferentSelector.class, ContainsSelector.class,
+                                        ContainsRegexpSelector.class,
+                                        SignedSelector.class)) {
+            COSTS.put(c, CONTENT);
+        }
+        CONTAINERS.addAll(Arrays.asList(AndSelector.class, OrSelector.class,
+                                        NotSelector.class, NoneSelector.class,
+                                        MajoritySelector.class, SelectSelector.class));
+    }
+
+    private SelectorCost() {
+    }
+
+    /**
+     * Estimates the cost of the given selector.
+     *
+     * @param s the selector
+     * @return one of {@link #NAME}, {@link #ATTRIBUTES} or {@link #CONTENT}
+     */
+    public static int of(FileSelector s) {
+        Integer cost = COSTS.get(s.getClass());
+        if (cost != null) {
+            return cost;
+        }
+        if (CONTAINERS.contains(s.getClass())) {
+            return children(s).mapToInt(SelectorCost::of).max().orElse(NAME);
+        }
+        return CONTENT;
+    }
+
+    /**
+     * Whether the selector must be evaluated in its declared position
+     * relative to the other selectors.
+     *
+     * @param s the selector
+     * @return true for {@link ModifiedSelector}, selectors Ant doesn't
+     * know about - including subclasses of the ones it knows - and
+     * containers holding any of them
+     */
+    public static boolean isBarrier(FileSelector s) {
+        if (COSTS.containsKey(s.getClass())) {
+            return false;
+        }
+        if (CONTAINERS.contains(s.getClass())) {
+            return children(s).anyMatch(SelectorCost::isBarrier);
+        }
+        return true;
+    }
+
+    private static Stream<FileSelector> children(FileSelector s) {
+        BaseSelectorContainer c = (BaseSelectorContainer) s;
+        return Stream.of(c.getSelectors(c.getProject()));
+    }
+
+    /**
+     * Returns a copy of the given selectors ordered by increasing cost.
+     * Selectors of the same cost keep their relative order and no
+     * selector is moved across a {@link #isBarrier barrier}.
+     *
+     * @param selectors the selectors to order
+     * @return FileSelector[]
+     */
+    public static FileSelector[] order(FileSelector[] selectors) {
+        FileSelector[] ordered = selectors.clone();
+        int start = 0;
+        for (int i = 0; i <= ordered.length; i++) {
+            if (i == ordered.length || isBarrier(ordered[i])) {
+                Arrays.sort(ordered, start, i, BY_COST);
+                start = i + 1;
+            }
+        }
+        return ordered;
+    }
+}
@@ -218,10 +218,11 @@ public class SizeSelector extends BaseExtendSelector {
         validate();
 
         // Directory size never selected for
-        if (file.isDirectory()) {
+        FileAttributeContext attrs = FileAttributeContext.of(file);
+        if (attrs.isDirectory()) {
             return true;
         }
-        long diff = file.length() - sizelimit;
+        long diff = attrs.length() - sizelimit;
         return when.evaluate(diff == 0 ? 0 : (int) (diff / Math.abs(diff)));
     }
 
@@ -100,7 +100,7 @@ public class TypeSelector extends BaseExtendSelector {
         // throw BuildException on error
         validate();
 
-        if (file.isDirectory()) {
+        if (FileAttributeContext.of(file).isDirectory()) {
             return type.equals(FileType.DIR);
         }
         return type.equals(FileType.FILE);
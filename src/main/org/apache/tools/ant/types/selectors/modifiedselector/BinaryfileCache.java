@@ -0,0 +1,416 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.apache.tools.ant.types.selectors.modifiedselector;
+
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.tools.ant.taskdefs.condition.Os;
+
+
+/**
+ * Stores the values in an append-only binary file.
+ *
+ * <p>When loaded the file is memory mapped and indexed by key.  Saving
+ * only appends the entries that changed since the file has been
+ * loaded or saved, superseded records are removed by rewriting the
+ * file once they make up more than half of it.  Each value is
+ * stored together with size and modification time of its file, so
+ * the ModifiedSelector can skip the algorithm for unchanged files.</p>
+ *
+ * <p>The use of this Cache-implementation requires the use of the parameter
+ * &lt;param name="cache.cachefile" .../&gt; for defining, where to store
+ * the cache. The ModifiedSelector sets the <i>cachefile</i> to the default
+ * value <i>cache.bin</i>.</p>
+ *
+ * Supported &lt;param&gt;s are:
+ * <table>
+ * <caption>Cache parameters</caption>
+ * <tr>
+ *   <th>name</th><th>values</th><th>description</th><th>required</th>
+ * </tr>
+ * <tr>
+ *   <td>cache.cachefile</td>
+ *   <td><i>path to file</i></td>
+ *   <td>the name of the cache file</td>
+ *   <td>yes</td>
+ * </tr>
+ * </table>
+ *
+ * @since Ant 1.10.9
+ */
+public class BinaryfileCache implements StampedCache {
+
+    /** "ANTC" */
+    private static final int MAGIC = 0x414e5443;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 8;
+    /** Don't bother compacting files with fewer superseded records. */
+    private static final int MIN_GARBAGE = 1024;
+    private static final long UNKNOWN = -1;
+
+
+    // -----  member variables - configuration  -----
+
+
+    /** Where to store the cache? */
+    private File cachefile = null;
+
+    /** The index of the cache file. */
+    private Map<String, Entry> cache = new HashMap<>();
+
+
+    // -----  member variables - internal use  -----
+
+
+    /** Entries that have been modified since the last save. */
+    private final Map<String, Entry> appended = new LinkedHashMap<>();
+
+    /** Is the cache already loaded? Prevents from multiple load operations. */
+    private boolean cacheLoaded = false;
+
+    /** Number of records in the cache file. */
+    private long records = 0;
+
+    /** Length of the well-formed part of the cache file. */
+    private long validLength = 0;
+
+    /** Must the file be written from scratch on the next save? */
+    private boolean rewrite = true;
+
+
+    // -----  Constructors  -----
+
+
+    /** Bean-Constructor. */
+    public BinaryfileCache() {
+    }
+
+    /**
+     * Constructor.
+     * @param cachefile set the cachefile
+     */
+    public BinaryfileCache(File cachefile) {
+        this.cachefile = cachefile;
+    }
+
+
+    // -----  Cache-Configuration  -----
+
+
+    /**
+     * Setter.
+     * @param file new value
+     */
+    public void setCachefile(File file) {
+        cachefile = file;
+    }
+
+    /**
+     * Getter.
+     * @return the cachefile
+     */
+    public File getCachefile() {
+        return cachefile;
+    }
+
+    /**
+     * This cache is valid if the cachefile is set.
+     * @return true if all is ok false otherwise
+     */
+    @Override
+    public boolean isValid() {
+        return cachefile != null;
+    }
+
+
+    // -----  Data Access
+
+
+    /**
+     * Load the cache from the underlying file.
+     */
+    @Override
+    public synchronized void load() {
+        cache = new HashMap<>();
+        appended.clear();
+        records = 0;
+        validLength = 0;
+        rewrite = true;
+        if (cachefile != null && cachefile.isFile() && cachefile.canRead()) {
+            try (FileChannel channel = FileChannel.open(cachefile.toPath(),
+                                                        StandardOpenOption.READ)) {
+                ByteBuffer buf = map(channel);
+                if (buf.remaining() >= HEADER_SIZE && buf.getInt() == MAGIC
+                    && buf.getInt() == VERSION) {
+                    validLength = buf.position();
+                    rewrite = false;
+                    while (buf.hasRemaining()) {
+                        String key = readString(buf);
+                        long size = buf.getLong();
+                        long lastModified = buf.getLong();
+                        String value = readString(buf);
+                        cache.put(key, new Entry(value, size, lastModified));
+                        records++;
+                        validLength = buf.position();
+                    }
+                }
+            } catch (BufferUnderflowException e) {
+                // truncated record at the end of the file, probably a
+                // save has been interrupted - it is dropped by the next save
+            } catch (Exception e) {
+                e.printStackTrace(); //NOSONAR
+            }
+        }
+        cacheLoaded = true;
+    }
+
+    /**
+     * Saves modification of the cache.
+     * Appends the modified entries to the cache file or writes a new
+     * file if there is none or it contains too many superseded records.
+     */
+    @Override
+    public synchronized void save() {
+        if (appended.isEmpty() || cachefile == null) {
+            return;
+        }
+        long garbage = records + appended.size() - cache.size();
+        try {
+            if (rewrite || !cachefile.isFile()
+                || garbage >= MIN_GARBAGE && garbage > cache.size()) {
+                compact();
+            } else {
+                append();
+            }
+            appended.clear();
+        } catch (Exception e) {
+            e.printStackTrace(); //NOSONAR
+        }
+    }
+
+    /** Deletes the cache and its underlying file. */
+    @Override
+    public synchronized void delete() {
+        cache = new HashMap<>();
+        appended.clear();
+        records = 0;
+        validLength = 0;
+        rewrite = true;
+        cachefile.delete();
+        cacheLoaded = true;
+    }
+
+    /**
+     * Returns a value for a given key from the cache.
+     * @param key the key
+     * @return the stored value
+     */
+    @Override
+    public synchronized Object get(Object key) {
+        if (!cacheLoaded) {
+            load();
+        }
+        Entry e = cache.get(String.valueOf(key));
+        return e == null ? null : e.value;
+    }
+
+    /**
+     * Returns the value stored for a given key if it has been stored
+     * together with the given size and modification time.
+     * @param key the key
+     * @param size the current size of the file
+     * @param lastModified the current modification time of the file
+     * @return the stored value or <i>null</i>
+     */
+    @Override
+    public synchronized Object get(Object key, long size, long lastModified) {
+        if (!cacheLoaded) {
+            load();
+        }
+        Entry e = cache.get(String.valueOf(key));
+        return e != null && e.size == size && e.lastModified == lastModified
+            && size != UNKNOWN && lastModified != UNKNOWN ? e.value : null;
+    }
+
+    /**
+     * Saves a key-value-pair in the cache.
+     * @param key the key
+     * @param value the value
+     */
+    @Override
+    public void put(Object key, Object value) {
+        put(key, value, UNKNOWN, UNKNOWN);
+    }
+
+    /**
+     * Saves a key-value-pair in the cache together with the size and
+     * modification time of the file.
+     * @param key the key
+     * @param value the value
+     * @param size the size of the file
+     * @param lastModified the modification time of the file
+     */
+    @Override
+    public synchronized void put(Object key, Object value, long size, long lastModified) {
+        if (!cacheLoaded) {
+            load();
+        }
+        String k = String.valueOf(key);
+        Entry e = new Entry(String.valueOf(value), size, lastModified);
+        cache.put(k, e);
+        appended.put(k, e);
+    }
+
+    /**
+     * Returns an iterator over the keys in the cache.
+     * @return An iterator over the keys.
+     */
+    @Override
+    public synchronized Iterator<String> iterator() {
+        if (!cacheLoaded) {
+            load();
+        }
+        return new HashMap<>(cache).keySet().iterator();
+    }
+
+
+    // -----  internal  -----
+
+
+    /**
+     * Maps the file.  On Windows a mapped file cannot be replaced or
+     * truncated until the mapping has been garbage collected, so it
+     * is read into memory there.
+     */
+    private static ByteBuffer map(FileChannel channel) throws IOException {
+        if (!Os.isFamily(Os.FAMILY_WINDOWS)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        ByteBuffer buf = ByteBuffer.allocate((int) channel.size());
+        while (buf.hasRemaining() && channel.read(buf) >= 0) {
+            // read until the buffer is full
+        }
+        buf.flip();
+        return buf;
+    }
+
+    private void append() throws IOException {
+        try (FileChannel channel = FileChannel.open(cachefile.toPath(),
+                                                    StandardOpenOption.WRITE)) {
+            if (channel.size() != validLength) {
+                channel.truncate(validLength);
+            }
+            channel.position(validLength);
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                Channels.newOutputStream(channel)));
+            writeRecords(out, appended);
+            out.flush();
+            validLength = channel.position();
+        }
+        records += appended.size();
+    }
+
+    private void compact() throws IOException {
+        File parent = cachefile.getAbsoluteFile().getParentFile();
+        if (parent != null) {
+            parent.mkdirs();
+        }
+        File tmp = new File(parent, cachefile.getName() + ".tmp");
+        try (OutputStream os = Files.newOutputStream(tmp.toPath())) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(os));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            writeRecords(out, cache);
+            out.flush();
+            validLength = out.size();
+        }
+        Files.move(tmp.toPath(), cachefile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        records = cache.size();
+        rewrite = false;
+    }
+
+    private static void writeRecords(DataOutputStream out, Map<String, Entry> entries)
+        throws IOException {
+        for (Map.Entry<String, Entry> e : entries.entrySet()) {
+            writeString(out, e.getKey());
+            out.writeLong(e.getValue().size);
+            out.writeLong(e.getValue().lastModified);
+            writeString(out, e.getValue().value);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        byte[] b = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(b.length);
+        out.write(b);
+    }
+
+    private static String readString(ByteBuffer buf) {
+        int len = buf.getInt();
+        if (len < 0 || len > buf.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        byte[] b = new byte[len];
+        buf.get(b);
+        return new String(b, StandardCharsets.UTF_8);
+    }
+
+    private static final class Entry {
+        private final String value;
+        private final long size;
+        private final long lastModified;
+
+        private Entry(String value, long size, long lastModified) {
+            this.value = value;
+            this.size = size;
+            this.lastModified = lastModified;
+        }
+    }
+
+
+    // -----  additional  -----
+
+
+    /**
+     * Override Object.toString().
+     * @return information about this cache
+     */
+    @Override
+    public String toString() {
+        return String.format("<BinaryfileCache:cachefile=%s;noOfEntries=%d>",
+                cachefile, cache.size());
+    }
+}
@@ -81,6 +81,12 @@ public class DigestAlgorithm implements Algorithm {
      */
     private MessageDigest messageDigest = null;
 
+    /**
+     * Message Digest instances of other threads.
+     */
+    private final ThreadLocal<MessageDigest> threadDigests =
+        ThreadLocal.withInitial(this::createMessageDigest);
+
     /**
      * Size of the read buffer to use.
      */
@@ -112,23 +118,26 @@ public class DigestAlgorithm implements Algorithm {
 
 
     /** Initialize the security message digest. */
-    public void initMessageDigest() {
+    public synchronized void initMessageDigest() {
         if (messageDigest != null) {
             return;
         }
+        messageDigest = createMessageDigest();
+        threadDigests.set(messageDigest);
+    }
 
+    private MessageDigest createMessageDigest() {
         if (provider != null && !provider.isEmpty() && !"null".equals(provider)) {
             try {
-                messageDigest = MessageDigest.getInstance(algorithm, provider);
+                return MessageDigest.getInstance(algorithm, provider);
             } catch (NoSuchAlgorithmException | NoSuchProviderException e) {
                 throw new BuildException(e);
             }
-        } else {
-            try {
-                messageDigest = MessageDigest.getInstance(algorithm);
-            } catch (NoSuchAlgorithmException noalgo) {
-                throw new BuildException(noalgo);
-            }
+        }
+        try {
+            return MessageDigest.getInstance(algorithm);
+        } catch (NoSuchAlgorithmException noalgo) {
+            throw new BuildException(noalgo);
         }
     }
 
@@ -147,6 +156,7 @@ public class DigestAlgorithm implements Algorithm {
 
     /**
      * Computes a value for a file content with the specified digest algorithm.
+     * This method may be invoked from several threads concurrently.
      * @param file    File object for which the value should be evaluated.
      * @return        The value for that file
      */
@@ -157,15 +167,16 @@ public class DigestAlgorithm implements Algorithm {
             return null;
         }
         initMessageDigest();
+        MessageDigest md = threadDigests.get();
         byte[] buf = new byte[readBufferSize];
-        messageDigest.reset();
+        md.reset();
         try (DigestInputStream dis = new DigestInputStream(Files.newInputStream(file.toPath()),
-                messageDigest)) {
+                md)) {
             // read the whole stream
             while (dis.read(buf, 0, readBufferSize) != -1) {
             }
             StringBuilder checksumSb = new StringBuilder();
-            for (byte digestByte : messageDigest.digest()) {
+            for (byte digestByte : md.digest()) {
                 checksumSb.append(String.format("%02x", BYTE_MASK & digestByte));
             }
             return checksumSb.toString();
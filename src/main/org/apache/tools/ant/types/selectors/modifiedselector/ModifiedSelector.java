@@ -24,7 +24,13 @@ import java.io.File;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.tools.ant.BuildEvent;
 import org.apache.tools.ant.BuildException;
@@ -39,6 +45,8 @@ import org.apache.tools.ant.types.Resource;
 import org.apache.tools.ant.types.resources.FileResource;
 import org.apache.tools.ant.types.resources.selectors.ResourceSelector;
 import org.apache.tools.ant.types.selectors.BaseExtendSelector;
+import org.apache.tools.ant.types.selectors.FileAttributeContext;
+import org.apache.tools.ant.types.selectors.PendingFilesSelector;
 import org.apache.tools.ant.util.FileUtils;
 import org.apache.tools.ant.util.ResourceUtils;
 
@@ -144,7 +152,8 @@ import org.apache.tools.ant.util.ResourceUtils;
  * @since  Ant 1.6
  */
 public class ModifiedSelector extends BaseExtendSelector
-                              implements BuildListener, ResourceSelector {
+                              implements BuildListener, ResourceSelector,
+                                         PendingFilesSelector {
 
     private static final String CACHE_PREFIX = "cache.";
     private static final String ALGORITHM_PREFIX = "algorithm.";
@@ -187,6 +196,9 @@ public class ModifiedSelector extends BaseExtendSelector
     /** Delay the writing of the cache file */
     private boolean delayUpdate = true;
 
+    /** Number of threads computing values in advance. */
+    private int threads = 1;
+
 
     // ----- internal member variables -----
 
@@ -203,6 +215,12 @@ public class ModifiedSelector extends BaseExtendSelector
     /** Count of modified properties */
     private int modified = 0;
 
+    /**
+     * Whether stamps of unchanged values have been recorded since the
+     * cache has been saved.
+     */
+    private boolean stampsRefreshed = false;
+
     /** Flag whether this object is configured. Configuration is only done once. */
     private boolean isConfigured = false;
 
@@ -228,6 +246,21 @@ public class ModifiedSelector extends BaseExtendSelector
     /** provided classpath for the classloader */
     private Path classpath = null;
 
+    /** Computes values of the pending files. */
+    private ExecutorService readAheadPool = null;
+
+    /** Values that are being computed in advance. */
+    private final Map<File, Future<String>> readAhead = new HashMap<>();
+
+    /** Files the scanner is going to ask about, in order. */
+    private List<File> pendingFiles = Collections.emptyList();
+
+    /** Positions of the files inside pendingFiles. */
+    private Map<File, Integer> pendingIndex = Collections.emptyMap();
+
+    /** Index of the next pending file to compute in advance. */
+    private int pendingNext = 0;
+
 
     // -----  constructors  -----
 
@@ -344,6 +377,9 @@ public class ModifiedSelector extends BaseExtendSelector
             // use Cache defined via name
             if ("propertyfile".equals(cacheName.getValue())) {
                 cache = new PropertiesfileCache();
+            } else if ("binaryfile".equals(cacheName.getValue())) {
+                cache = new BinaryfileCache(
+                    new File(cachefile.getParentFile(), "cache.bin"));
             }
         } else if (cacheClass != null) {
             // use Cache specified by classname
@@ -382,6 +418,14 @@ public class ModifiedSelector extends BaseExtendSelector
         //
         specialParameter.forEach(this::useParameter);
         specialParameter.clear();
+
+        if (threads > 1 && algorithm instanceof DigestAlgorithm) {
+            readAheadPool = Executors.newFixedThreadPool(threads, r -> {
+                Thread t = new Thread(r, "modified-selector");
+                t.setDaemon(true);
+                return t;
+            });
+        }
     }
 
 
@@ -501,21 +545,121 @@ public class ModifiedSelector extends BaseExtendSelector
 
         // Get the values and do the comparison
         String cachedValue = String.valueOf(cache.get(f.getAbsolutePath()));
-        String newValue = algorithm.getValue(f);
+        String newValue = null;
+        long size = -1;
+        long lastModified = -1;
+        if (cache instanceof StampedCache) {
+            // an unchanged file doesn't need to be passed to the algorithm
+            FileAttributeContext attrs = FileAttributeContext.of(f);
+            size = attrs.length();
+            lastModified = attrs.lastModified();
+            Object stamped = ((StampedCache) cache)
+                .get(f.getAbsolutePath(), size, lastModified);
+            if (stamped != null) {
+                newValue = String.valueOf(stamped);
+            }
+        }
+        boolean stampedValue = newValue != null;
+        if (!stampedValue) {
+            newValue = getValue(f);
+        }
 
         boolean rv = comparator.compare(cachedValue, newValue) != 0;
 
         // Maybe update the cache
         if (update && rv) {
-            cache.put(f.getAbsolutePath(), newValue);
+            if (size >= 0) {
+                ((StampedCache) cache)
+                    .put(f.getAbsolutePath(), newValue, size, lastModified);
+            } else {
+                cache.put(f.getAbsolutePath(), newValue);
+            }
             setModified(getModified() + 1);
             if (!getDelayUpdate()) {
                 saveCache();
             }
+        } else if (update && !stampedValue && size >= 0) {
+            // the value is unchanged, only record the new stamp so the
+            // algorithm can be skipped next time; written at the end
+            // of the build
+            ((StampedCache) cache)
+                .put(f.getAbsolutePath(), newValue, size, lastModified);
+            stampsRefreshed = true;
         }
         return rv;
     }
 
+    /**
+     * Computes the value of the file using the algorithm.  If more
+     * than one thread has been configured, the values of the files
+     * the scanner has announced as pending are computed in the
+     * background so they are likely available when the selector gets
+     * asked for them.
+     */
+    private String getValue(File f) {
+        if (readAheadPool == null) {
+            return algorithm.getValue(f);
+        }
+        Future<String> value = readAhead.remove(f);
+        scheduleReadAhead(f);
+        if (value == null) {
+            return algorithm.getValue(f);
+        }
+        try {
+            return value.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BuildException(e);
+        } catch (ExecutionException e) {
+            throw new BuildException(e.getCause());
+        }
+    }
+
+    private void scheduleReadAhead(File f) {
+        Integer current = pendingIndex.get(f);
+        if (current != null && current >= pendingNext) {
+            pendingNext = current + 1;
+        }
+        while (readAhead.size() < 2 * threads
+               && pendingNext < pendingFiles.size()) {
+            File next = pendingFiles.get(pendingNext++);
+            if (readAhead.containsKey(next) || !next.isFile() || isUnchanged(next)) {
+                continue;
+            }
+            readAhead.put(next, readAheadPool.submit(() -> algorithm.getValue(next)));
+        }
+    }
+
+    /**
+     * Remembers the files the scanner is going to ask about so their
+     * values can be computed in advance if more than one thread has
+     * been configured.
+     * @param basedir the base directory the scan is performed from
+     * @param files the files of the directory that is being scanned
+     * @since Ant 1.10.9
+     */
+    @Override
+    public void filesPending(File basedir, List<File> files) {
+        // creates the pool if threads have been configured
+        validate();
+        if (readAheadPool == null) {
+            return;
+        }
+        readAhead.values().forEach(v -> v.cancel(false));
+        readAhead.clear();
+        pendingFiles = files;
+        pendingIndex = new HashMap<>();
+        for (int i = 0; i < files.size(); i++) {
+            pendingIndex.put(files.get(i), i);
+        }
+        pendingNext = 0;
+    }
+
+    private boolean isUnchanged(File f) {
+        return cache instanceof StampedCache && ((StampedCache) cache)
+            .get(f.getAbsolutePath(), f.length(), f.lastModified()) != null;
+    }
+
 
    /**
     * save the cache file
@@ -524,6 +668,7 @@ public class ModifiedSelector extends BaseExtendSelector
         if (getModified() > 0) {
             cache.save();
             setModified(0);
+            stampsRefreshed = false;
         }
     }
 
@@ -621,6 +766,19 @@ public class ModifiedSelector extends BaseExtendSelector
     }
 
 
+    /**
+     * The number of threads that compute values.  Values for the
+     * files a directory scanner is going to ask about are computed
+     * in advance if this is bigger than 1.  Only supported by the
+     * <i>digest</i> algorithm.
+     * @param threads number of threads
+     * @since Ant 1.10.9
+     */
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
+
     /**
      * Add the classpath.
      * @param path the classpath
@@ -734,6 +892,8 @@ public class ModifiedSelector extends BaseExtendSelector
             setDelayUpdate("true".equalsIgnoreCase(value));
         } else if ("seldirs".equals(key)) {
             setSeldirs("true".equalsIgnoreCase(value));
+        } else if ("threads".equals(key)) {
+            setThreads(Integer.parseInt(value));
         } else if (key.startsWith(CACHE_PREFIX)) {
             String name = key.substring(CACHE_PREFIX.length());
             tryToSetAParameter(cache, name, value);
@@ -794,6 +954,17 @@ public class ModifiedSelector extends BaseExtendSelector
         if (getDelayUpdate()) {
             saveCache();
         }
+        if (stampsRefreshed) {
+            cache.save();
+            stampsRefreshed = false;
+        }
+        if (readAheadPool != null) {
+            readAheadPool.shutdownNow();
+            readAheadPool = null;
+            readAhead.clear();
+            pendingFiles = Collections.emptyList();
+            pendingIndex = Collections.emptyMap();
+        }
     }
 
 
@@ -893,7 +1064,7 @@ public class ModifiedSelector extends BaseExtendSelector
          */
         @Override
         public String[] getValues() {
-            return new String[] {"propertyfile"};
+            return new String[] {"propertyfile", "binaryfile"};
         }
     }
 
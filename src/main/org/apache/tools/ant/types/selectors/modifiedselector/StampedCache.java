@@ -0,0 +1,52 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.apache.tools.ant.types.selectors.modifiedselector;
+
+
+/**
+ * A Cache that records the size and the modification time of a file
+ * together with the value computed for it.  The ModifiedSelector
+ * uses it to skip the Algorithm for files whose size and modification
+ * time haven't changed since the value has been stored.
+ *
+ * @since Ant 1.10.9
+ */
+public interface StampedCache extends Cache {
+
+    /**
+     * Returns the value stored for a given key if it has been stored
+     * together with the given size and modification time.
+     * @param key the key
+     * @param size the current size of the file
+     * @param lastModified the current modification time of the file
+     * @return the stored value or <i>null</i> if there is no value or
+     * the file has changed since it has been stored
+     */
+    Object get(Object key, long size, long lastModified);
+
+    /**
+     * Saves a key-value-pair in the cache together with the size and
+     * modification time of the file the value has been computed for.
+     * @param key the key
+     * @param value the value
+     * @param size the size of the file
+     * @param lastModified the modification time of the file
+     */
+    void put(Object key, Object value, long size, long lastModified);
+}
@@ -0,0 +1,258 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.apache.tools.ant.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Locale;
+
+import org.apache.tools.ant.taskdefs.condition.Os;
+
+/**
+ * Searches the raw bytes of files or streams for any of a set of
+ * literal strings at once, using an Aho-Corasick automaton, and
+ * stops at the first hit.
+ *
+ * <p>The literals are encoded using a given charset and the search
+ * works on the encoded bytes.  {@link #isByteSearchable
+ * isByteSearchable} tells whether this yields the same result as
+ * searching the decoded lines of text for the literal.</p>
+ *
+ * <p>Large files are memory mapped, smaller ones are read in chunks
+ * through a {@link FileChannel}.  Instances are immutable and may be
+ * shared between threads.</p>
+ *
+ * @since Ant 1.10.9
+ */
+public final class ContentSearch {
+
+    /** Files of at least this size are memory mapped. */
+    private static final long MAP_THRESHOLD = 4L * 1024 * 1024;
+    /** Maximum size of a single mapped region. */
+    private static final long MAP_WINDOW = 256L * 1024 * 1024;
+    /**
+     * Mapped files can't be deleted or overwritten on Windows before
+     * the mapping has been garbage collected, so files are never
+     * mapped there.
+     */
+    private static final boolean CAN_MAP = !Os.isFamily(Os.FAMILY_WINDOWS);
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int ALPHABET = 256;
+
+    /** Maps input bytes before they are fed to the automaton. */
+    private final byte[] fold = new byte[ALPHABET];
+    /** Transition table, ALPHABET entries per state. */
+    private final int[] delta;
+    /** Index of the literal recognized in a state, -1 if none. */
+    private final int[] match;
+
+    /**
+     * Creates a search for the given literals.
+     *
+     * @param charset charset used to encode the literals
+     * @param ignoreCase whether ASCII letters should match regardless
+     * of their case
+     * @param literals the strings to search for, must not be empty
+     */
+    public ContentSearch(Charset charset, boolean ignoreCase, String... literals) {
+        for (int i = 0; i < ALPHABET; i++) {
+            fold[i] = (byte) (ignoreCase && i >= 'A' && i <= 'Z' ? i + ('a' - 'A') : i);
+        }
+        byte[][] patterns = new byte[literals.length][];
+        int maxStates = 1;
+        for (int i = 0; i < literals.length; i++) {
+            patterns[i] = literals[i].getBytes(charset);
+            if (patterns[i].length == 0) {
+                throw new IllegalArgumentException("empty literal");
+            }
+            maxStates += patterns[i].length;
+        }
+
+        int[] trie = new int[maxStates * ALPHABET];
+        Arrays.fill(trie, -1);
+        int[] out = new int[maxStates];
+        Arrays.fill(out, -1);
+        int states = 1;
+        for (int i = 0; i < patterns.length; i++) {
+            int s = 0;
+            for (byte b : patterns[i]) {
+                int c = fold[b & 0xff] & 0xff;
+                if (trie[s * ALPHABET + c] < 0) {
+                    trie[s * ALPHABET + c] = states++;
+                }
+                s = trie[s * ALPHABET + c];
+            }
+            if (out[s] < 0) {
+                out[s] = i;
+            }
+        }
+
+        // breadth first construction of the failure function folded
+        // into a complete transition table
+        delta = Arrays.copyOf(trie, states * ALPHABET);
+        match = Arrays.copyOf(out, states);
+        int[] failure = new int[states];
+        Deque<Integer> queue = new ArrayDeque<>();
+        for (int c = 0; c < ALPHABET; c++) {
+            int t = delta[c];
+            if (t < 0) {
+                delta[c] = 0;
+            } else {
+                failure[t] = 0;
+                queue.add(t);
+            }
+        }
+        while (!queue.isEmpty()) {
+            int s = queue.remove();
+            if (match[s] < 0) {
+                match[s] = match[failure[s]];
+            }
+            for (int c = 0; c < ALPHABET; c++) {
+                int t = delta[s * ALPHABET + c];
+                int f = delta[failure[s] * ALPHABET + c];
+                if (t < 0) {
+                    delta[s * ALPHABET + c] = f;
+                } else {
+                    failure[t] = f;
+                    queue.add(t);
+                }
+            }
+        }
+    }
+
+    /**
+     * Whether searching the bytes of a text encoded in the given
+     * charset for the literal finds the same as searching each line
+     * of the decoded text.
+     *
+     * <p>This is the case for UTF-8 and single byte charsets as long
+     * as the literal doesn't contain line terminators and can be
+     * encoded.  Case insensitive searches are only supported for
+     * ASCII literals in ASCII and ISO-8859-1 encoded text.</p>
+     *
+     * @param charset the charset of the text
+     * @param ignoreCase whether the search is case insensitive
+     * @param literal the literal to search for
+     * @return boolean
+     */
+    public static boolean isByteSearchable(Charset charset, boolean ignoreCase,
+                                           String literal) {
+        if (literal.isEmpty() || literal.indexOf('\n') >= 0
+            || literal.indexOf('\r') >= 0 || literal.indexOf('\uFFFD') >= 0) {
+            return false;
+        }
+        if (ignoreCase) {
+            return (StandardCharsets.US_ASCII.equals(charset)
+                    || StandardCharsets.ISO_8859_1.equals(charset))
+                && literal.chars().allMatch(c -> c < 0x80)
+                && "i".equals("I".toLowerCase())
+                && literal.toLowerCase().equals(literal.toLowerCase(Locale.ENGLISH));
+        }
+        if (StandardCharsets.UTF_8.equals(charset)) {
+            return true;
+        }
+        if (!charset.canEncode()) {
+            return false;
+        }
+        CharsetEncoder encoder = charset.newEncoder();
+        return encoder.maxBytesPerChar() == 1f && encoder.canEncode(literal)
+            && literal.equals(new String(literal.getBytes(charset), charset));
+    }
+
+    /**
+     * Searches the file.
+     *
+     * @param file the file to search
+     * @return the index of the literal that has been found first or -1
+     * if none of the literals is contained in the file
+     * @throws IOException on error
+     */
+    public int search(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(),
+                                                    StandardOpenOption.READ)) {
+            long size = channel.size();
+            int state = 0;
+            if (CAN_MAP && size >= MAP_THRESHOLD) {
+                for (long pos = 0; pos < size; pos += MAP_WINDOW) {
+                    MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_ONLY,
+                        pos, Math.min(MAP_WINDOW, size - pos));
+                    while (region.hasRemaining()) {
+                        state = next(state, region.get());
+                        if (match[state] >= 0) {
+                            return match[state];
+                        }
+                    }
+                }
+                return -1;
+            }
+            ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+            byte[] bytes = buffer.array();
+            int read;
+            while ((read = channel.read(buffer)) >= 0) {
+                for (int i = 0; i < read; i++) {
+                    state = next(state, bytes[i]);
+                    if (match[state] >= 0) {
+                        return match[state];
+                    }
+                }
+                buffer.clear();
+            }
+            return -1;
+        }
+    }
+
+    /**
+     * Searches the stream, stops reading as soon as a literal has
+     * been found.  The stream is not closed.
+     *
+     * @param in the stream to search
+     * @return the index of the literal that has been found first or -1
+     * if none of the literals is contained in the stream
+     * @throws IOException on error
+     */
+    public int search(InputStream in) throws IOException {
+        byte[] bytes = new byte[BUFFER_SIZE];
+        int state = 0;
+        int read;
+        while ((read = in.read(bytes)) >= 0) {
+            for (int i = 0; i < read; i++) {
+                state = next(state, bytes[i]);
+                if (match[state] >= 0) {
+                    return match[state];
+                }
+            }
+        }
+        return -1;
+    }
+
+    private int next(int state, byte b) {
+        return delta[state * ALPHABET + (fold[b & 0xff] & 0xff)];
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.tools.ant.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import org.apache.tools.ant.BuildException;
+
+/**
+ * Holds back the messages a task logs while its operations run on
+ * the threads of an {@link OrderedExecutor}, so they are logged in
+ * the order the operations have been submitted.
+ *
+ * <p>The task submits its operations through {@link #submit submit}
+ * and its log methods pass each message to {@link #defer defer}
+ * before logging it.</p>
+ *
+ * @since Ant 1.10.9
+ */
+public class DeferredLog {
+
+    /** Collects messages logged by operations running on other threads. */
+    private final ThreadLocal<List<Runnable>> messages = new ThreadLocal<>();
+
+    /**
+     * Holds back a message if the current thread is running an
+     * operation submitted through this instance.
+     * @param logging logs the message
+     * @return false if the message has to be logged right away
+     */
+    public boolean defer(Runnable logging) {
+        List<Runnable> deferred = messages.get();
+        if (deferred == null) {
+            return false;
+        }
+        deferred.add(logging);
+        return true;
+    }
+
+    /**
+     * Submits an operation to the executor.  If the executor uses
+     * more than one thread, messages the operation logs are held back
+     * until the operation's turn has come and are logged before its
+     * action is run.  An exception thrown by the operation is
+     * rethrown after its messages have been logged.
+     * @param executor the executor
+     * @param operation the operation, returns null or an action to
+     * run once the operation's turn has come
+     */
+    public void submit(OrderedExecutor executor, Callable<Runnable> operation) {
+        if (!executor.isParallel()) {
+            executor.submit(operation);
+            return;
+        }
+        executor.submit(() -> {
+            List<Runnable> deferred = new ArrayList<>();
+            messages.set(deferred);
+            Runnable action;
+            try {
+                action = operation.call();
+            } catch (Exception e) {
+                RuntimeException failure = e instanceof RuntimeException
+                    ? (RuntimeException) e : new BuildException(e);
+                action = () -> {
+                    throw failure;
+                };
+            } finally {
+                messages.remove();
+            }
+            Runnable result = action;
+            return () -> {
+                deferred.forEach(Runnable::run);
+                if (result != null) {
+                    result.run();
+                }
+            };
+        });
+    }
+}
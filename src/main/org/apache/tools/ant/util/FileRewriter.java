@@ -0,0 +1,189 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.apache.tools.ant.util;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.util.function.BooleanSupplier;
+
+import org.apache.tools.ant.Project;
+
+/**
+ * Receives the new content of a text file and replaces the file with
+ * it - but only if the content has been changed.
+ *
+ * <p>Until the caller signals a change, the text written is assumed
+ * to be the same as the file's content and only the number of
+ * characters is recorded.  Once a change has been signalled the new
+ * content is written to a temporary file next to the original, which
+ * starts with as many characters copied from the original file.
+ * Unchanged files are only read this way and never rewritten.</p>
+ *
+ * @since Ant 1.10.9
+ */
+public class FileRewriter extends Writer {
+
+    private static final FileUtils FILE_UTILS = FileUtils.getFileUtils();
+    private static final int BUFFER_SIZE = 8192;
+
+    private final Project project;
+    private final File source;
+    private final String encoding;
+    private final BooleanSupplier changed;
+    private long unchanged;
+    private File temp;
+    private Writer writer;
+
+    /**
+     * Creates the writer.
+     *
+     * @param project the project, used to locate temporary files
+     * @param source the file to rewrite
+     * @param encoding the encoding of the file, null for the
+     * platform's default encoding
+     * @param changed tells whether the text written so far differs
+     * from the file's content, must not return false once it has
+     * returned true
+     */
+    public FileRewriter(Project project, File source, String encoding,
+                        BooleanSupplier changed) {
+        this.project = project;
+        this.source = source;
+        this.encoding = encoding;
+        this.changed = changed;
+    }
+
+    /**
+     * Opens a reader for the file's content.
+     *
+     * @return Reader
+     * @throws IOException if the file cannot be read
+     */
+    public Reader openSource() throws IOException {
+        InputStream is = Files.newInputStream(source.toPath());
+        try {
+            return encoding == null ? new InputStreamReader(is)
+                : new InputStreamReader(is, encoding);
+        } catch (IOException | RuntimeException e) {
+            is.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public void write(char[] cbuf, int off, int len) throws IOException {
+        if (writer == null) {
+            if (!changed.getAsBoolean()) {
+                unchanged += len;
+                return;
+            }
+            open();
+        }
+        writer.write(cbuf, off, len);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (writer != null) {
+            writer.flush();
+        }
+    }
+
+    /**
+     * Closes the temporary file, creates it if the content has been
+     * changed after the last character has been written.
+     *
+     * @throws IOException on error
+     */
+    @Override
+    public void close() throws IOException {
+        if (writer == null && changed.getAsBoolean()) {
+            open();
+        }
+        if (writer != null) {
+            writer.close();
+        }
+    }
+
+    /**
+     * Replaces the file with the new content if the content has been
+     * changed, must be called after the writer has been closed.
+     *
+     * @param preserveLastModified whether the file's modification
+     * time should be kept
+     * @return whether the file has been replaced
+     * @throws IOException if the file cannot be replaced
+     */
+    public boolean replaceSource(boolean preserveLastModified) throws IOException {
+        if (temp == null) {
+            return false;
+        }
+        long origLastModified = source.lastModified();
+        FILE_UTILS.rename(temp, source);
+        temp = null;
+        if (preserveLastModified) {
+            FILE_UTILS.setFileLastModified(source, origLastModified);
+        }
+        return true;
+    }
+
+    /**
+     * Removes the temporary file if it still exists.
+     */
+    public void deleteTempFile() {
+        if (temp != null && temp.isFile() && !temp.delete()) {
+            temp.deleteOnExit();
+        }
+        temp = null;
+    }
+
+    private void open() throws IOException {
+        temp = FILE_UTILS.createTempFile(project, "rep", ".tmp",
+                source.getParentFile(), false, true);
+        OutputStream os = Files.newOutputStream(temp.toPath());
+        try {
+            writer = new BufferedWriter(
+                encoding == null ? new OutputStreamWriter(os)
+                    : new OutputStreamWriter(os, encoding), BUFFER_SIZE);
+        } finally {
+            if (writer == null) {
+                os.close();
+            }
+        }
+        try (Reader in = openSource()) {
+            char[] buffer = new char[BUFFER_SIZE];
+            while (unchanged > 0) {
+                int n = in.read(buffer, 0, (int) Math.min(BUFFER_SIZE, unchanged));
+                if (n < 0) {
+                    throw new IOException(source + " has been modified");
+                }
+                writer.write(buffer, 0, n);
+                unchanged -= n;
+            }
+        }
+    }
+}
@@ -578,11 +578,56 @@ public class FileUtils {
                          boolean append,
                          String inputEncoding, String outputEncoding,
                          Project project, boolean force) throws IOException {
+        copyFile(sourceFile, destFile, filters, filterChains, overwrite,
+                 preserveLastModified, append, inputEncoding, outputEncoding,
+                 project, force, LinkMode.none);
+    }
+
+    /**
+     * Convenience method to copy a file from a source to a
+     * destination specifying if token filtering must be used, if
+     * filter chains must be used, if source files may overwrite
+     * newer destination files, the last modified time of
+     * <code>destFile</code> file should be made equal
+     * to the last modified time of <code>sourceFile</code> and
+     * whether the file should be linked instead if it is copied
+     * without modification.
+     *
+     * @param sourceFile the file to copy from.
+     *                   Must not be <code>null</code>.
+     * @param destFile the file to copy to.
+     *                 Must not be <code>null</code>.
+     * @param filters the collection of filters to apply to this copy.
+     * @param filterChains filterChains to apply during the copy.
+     * @param overwrite Whether or not the destination file should be
+     *                  overwritten if it already exists.
+     * @param preserveLastModified Whether or not the last modified time of
+     *                             the resulting file should be set to that
+     *                             of the source file.
+     * @param append whether to append to the destination file.
+     * @param inputEncoding the encoding used to read the files.
+     * @param outputEncoding the encoding used to write the files.
+     * @param project the project instance.
+     * @param force whether to overwrite read-only destination files.
+     * @param linkMode how to duplicate the file if it is copied
+     *                 without modification.
+     *
+     * @throws IOException if the copying fails.
+     *
+     * @since Ant 1.10.9
+     */
+    public void copyFile(File sourceFile, File destFile,
+                         FilterSetCollection filters, Vector<FilterChain> filterChains,
+                         boolean overwrite, boolean preserveLastModified,
+                         boolean append,
+                         String inputEncoding, String outputEncoding,
+                         Project project, boolean force, LinkMode linkMode)
+        throws IOException {
         ResourceUtils.copyResource(new FileResource(sourceFile),
                                    new FileResource(destFile),
                                    filters, filterChains, overwrite,
                                    preserveLastModified, append, inputEncoding,
-                                   outputEncoding, project, force);
+                                   outputEncoding, project, force, linkMode);
     }
 
     // CheckStyle:ParameterNumberCheck ON
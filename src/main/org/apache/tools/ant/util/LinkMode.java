@@ -0,0 +1,226 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.tools.ant.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.FileStore;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.tools.ant.taskdefs.condition.Os;
+
+/**
+ * How the content of a file is duplicated if it is copied without
+ * any modification.
+ *
+ * <p>Whenever linking or cloning a file is not possible the file is
+ * copied instead.</p>
+ *
+ * @since Ant 1.10.9
+ */
+public enum LinkMode {
+    /** Always copy the content. */
+    none,
+    /**
+     * Create a hard link.  Source and destination share their
+     * content, permissions and modification time afterwards, changing
+     * one of them changes the other.
+     */
+    hard,
+    /**
+     * Create a copy-on-write clone on file systems that support it -
+     * like Btrfs, XFS or APFS.  The clone is independent of the
+     * source but doesn't use any additional space until one of them
+     * is modified.
+     */
+    reflink,
+    /** Try a clone first and a hard link after that. */
+    auto;
+
+    /** Upper limit of the number of cached file stores. */
+    private static final int MAX_CACHED_STORES = 1024;
+
+    /** File stores of directories. */
+    private static final Map<Path, FileStore> STORES = new ConcurrentHashMap<>();
+
+    /** Whether file stores have been found to support clones. */
+    private static final Map<FileStore, Boolean> REFLINK = new ConcurrentHashMap<>();
+
+    /**
+     * Links or clones the source file to the destination according to
+     * this mode, replacing an existing destination file.
+     *
+     * @param source the file to link to, must exist
+     * @param dest the file to create
+     * @return whether the link or clone has been created, if not the
+     * destination is left untouched.
+     */
+    boolean link(File source, File dest) {
+        if (this == none) {
+            return false;
+        }
+        Path from = source.toPath();
+        Path to = dest.toPath();
+        try {
+            if (Files.exists(to) && Files.isSameFile(from, to)) {
+                // an earlier build has created the same link
+                return this != reflink;
+            }
+        } catch (IOException e) {
+            return false;
+        }
+        return this != hard && reflink(from, to) || this != reflink && hardLink(from, to);
+    }
+
+    /**
+     * Whether the destination file has been created as a hard link to
+     * the source and the source would be overwritten if the
+     * destination is.
+     *
+     * @param source the source file
+     * @param dest the destination file
+     * @return boolean
+     */
+    static boolean isLinked(File source, File dest) {
+        Path to = dest.toPath();
+        try {
+            Object links = Files.getAttribute(to, "unix:nlink");
+            if (links instanceof Integer && (Integer) links < 2) {
+                return false;
+            }
+        } catch (IOException e) {
+            // most likely there is no destination file
+            return false;
+        } catch (UnsupportedOperationException | IllegalArgumentException e) {
+            // no "unix" view, compare the files
+        }
+        try {
+            return Files.isRegularFile(to) && Files.isSameFile(source.toPath(), to);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Creates the link next to the destination and moves it into
+     * place so the destination stays untouched if it fails.
+     */
+    private static boolean hardLink(Path from, Path to) {
+        Path tmp = temporary(to);
+        try {
+            Files.deleteIfExists(tmp);
+            // link the file a symbolic link points to, not the link
+            Files.createLink(tmp, from.toRealPath());
+            Files.move(tmp, to, StandardCopyOption.REPLACE_EXISTING);
+            return true;
+        } catch (IOException | UnsupportedOperationException | SecurityException e) {
+            deleteQuietly(tmp);
+            return false;
+        }
+    }
+
+    /**
+     * Clones the file using the cp command of the operating system,
+     * Java doesn't provide a portable way to do so.  Clones are only
+     * possible within a single file store and the first clone in a
+     * file store probes whether it supports them at all, once that
+     * has failed no cp process is started for the store again.
+     */
+    private static boolean reflink(Path from, Path to) {
+        Path tmp = temporary(to);
+        String[] cmd;
+        if (Os.isFamily(Os.FAMILY_MAC)) {
+            cmd = new String[] {"cp", "-c", from.toString(), tmp.toString()};
+        } else if (Os.isName("linux")) {
+            cmd = new String[] {"cp", "--reflink=always", "--", from.toString(),
+                                tmp.toString()};
+        } else {
+            return false;
+        }
+        FileStore store = store(to);
+        if (store == null || !store.equals(store(from))) {
+            return false;
+        }
+        Boolean supported = REFLINK.get(store);
+        if (Boolean.FALSE.equals(supported)) {
+            return false;
+        }
+        try {
+            Files.deleteIfExists(tmp);
+            Process p = new ProcessBuilder(cmd).redirectErrorStream(true).start();
+            try (InputStream in = p.getInputStream()) {
+                while (in.read() != -1) { //NOSONAR
+                    // discard diagnostics
+                }
+            }
+            if (p.waitFor() == 0) {
+                Files.move(tmp, to, StandardCopyOption.REPLACE_EXISTING);
+                REFLINK.put(store, Boolean.TRUE);
+                return true;
+            }
+        } catch (IOException e) {
+            // no cp command
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            deleteQuietly(tmp);
+            return false;
+        }
+        deleteQuietly(tmp);
+        if (supported == null) {
+            REFLINK.putIfAbsent(store, Boolean.FALSE);
+        }
+        return false;
+    }
+
+    private static Path temporary(Path file) {
+        return file.resolveSibling(file.getFileName() + ".link.tmp");
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            // nothing we can do
+        }
+    }
+
+    private static FileStore store(Path file) {
+        Path dir = file.toAbsolutePath().getParent();
+        if (dir == null) {
+            return null;
+        }
+        FileStore store = STORES.get(dir);
+        if (store == null) {
+            try {
+                store = Files.getFileStore(dir);
+            } catch (IOException e) {
+                return null;
+            }
+            if (STORES.size() >= MAX_CACHED_STORES) {
+                STORES.clear();
+            }
+            STORES.put(dir, store);
+        }
+        return store;
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.tools.ant.util;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.tools.ant.BuildException;
+
+/**
+ * Runs operations on a bounded pool of threads while their outcome
+ * is processed by the submitting thread in the order the operations
+ * have been submitted.
+ *
+ * <p>Each operation returns an action - usually logging and error
+ * handling - that is run by the thread that calls {@link #submit
+ * submit} or {@link #finish finish} once all operations submitted
+ * before have been completed.  Exceptions thrown by an operation are
+ * rethrown at the same point.  This makes the result of a task that
+ * uses several threads the same as if it had performed the operations
+ * one after the other.</p>
+ *
+ * <p>At most twice as many operations as there are threads are
+ * pending at any time, {@link #submit submit} waits for the oldest
+ * one otherwise.  With a single thread operations are run directly by
+ * the submitting thread.</p>
+ *
+ * @since Ant 1.10.9
+ */
+public class OrderedExecutor implements AutoCloseable {
+
+    private static final AtomicInteger POOL_NUMBER = new AtomicInteger();
+    private static final long SHUTDOWN_WAIT_SECONDS = 60;
+
+    private final int threads;
+    private final ExecutorService pool;
+    private final Deque<Future<Runnable>> pending = new ArrayDeque<>();
+
+    /**
+     * Creates an executor.
+     * @param threads the number of threads to use, values less than
+     * one are treated as one.
+     */
+    public OrderedExecutor(int threads) {
+        this.threads = Math.max(1, threads);
+        if (this.threads == 1) {
+            pool = null;
+        } else {
+            String prefix = "ant-worker-" + POOL_NUMBER.incrementAndGet() + "-";
+            AtomicInteger n = new AtomicInteger();
+            pool = Executors.newFixedThreadPool(this.threads, r -> {
+                Thread t = new Thread(r, prefix + n.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+
+    /**
+     * Whether operations are run by more than one thread.
+     * @return boolean
+     */
+    public boolean isParallel() {
+        return pool != null;
+    }
+
+    /**
+     * Submits an operation.
+     * @param operation the operation, returns the action to run in
+     * order or null.
+     * @throws BuildException if the operation or the action of an
+     * operation submitted earlier fails.
+     */
+    public void submit(Callable<Runnable> operation) {
+        if (pool == null) {
+            run(call(operation));
+            return;
+        }
+        pending.add(pool.submit(operation));
+        while (pending.size() > 2 * threads) {
+            commit(pending.remove());
+        }
+    }
+
+    /**
+     * Runs the action after all actions of operations that have been
+     * submitted before.
+     * @param action the action
+     * @throws BuildException if the action of an operation submitted
+     * earlier fails.
+     */
+    public void inOrder(Runnable action) {
+        if (pending.isEmpty()) {
+            action.run();
+        } else {
+            pending.add(CompletableFuture.completedFuture(action));
+        }
+    }
+
+    /**
+     * Waits for all pending operations and runs their actions.
+     * @throws BuildException if an operation or its action fails.
+     */
+    public void finish() {
+        while (!pending.isEmpty()) {
+            commit(pending.remove());
+        }
+    }
+
+    /**
+     * Cancels operations that haven't been started and waits for the
+     * running ones to complete, without running their actions.
+     */
+    @Override
+    public void close() {
+        pending.forEach(f -> f.cancel(false));
+        pending.clear();
+        if (pool != null) {
+            pool.shutdown();
+            try {
+                pool.awaitTermination(SHUTDOWN_WAIT_SECONDS, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void commit(Future<Runnable> f) {
+        try {
+            run(f.get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BuildException("interrupted", e);
+        } catch (ExecutionException e) {
+            throw rethrow(e.getCause());
+        }
+    }
+
+    private static Runnable call(Callable<Runnable> operation) {
+        try {
+            return operation.call();
+        } catch (Exception e) {
+            throw rethrow(e);
+        }
+    }
+
+    private static void run(Runnable action) {
+        if (action != null) {
+            action.run();
+        }
+    }
+
+    private static RuntimeException rethrow(Throwable t) {
+        if (t instanceof RuntimeException) {
+            return (RuntimeException) t;
+        }
+        if (t instanceof Error) {
+            throw (Error) t;
+        }
+        return new BuildException(t);
+    }
+}
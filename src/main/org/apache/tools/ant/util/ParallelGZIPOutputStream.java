@@ -0,0 +1,309 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.apache.tools.ant.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Writes data in the GZIP format, compressing it on several threads.
+ *
+ * <p>The data is split into blocks that are compressed independently,
+ * each block uses the end of the block before it as preset
+ * dictionary so the compression ratio is almost the same as the one
+ * of {@link java.util.zip.GZIPOutputStream}.  All but the last block
+ * are terminated by a sync flush, which aligns them on byte
+ * boundaries, so the compressed blocks can simply be concatenated
+ * and the result is a single standard GZIP member that can be read
+ * by any gunzip.  This is the approach taken by pigz.</p>
+ *
+ * <p>At most twice as many blocks as there are threads are held in
+ * memory, {@link #write(byte[], int, int) write} waits for the oldest
+ * block otherwise.  The stream itself is not safe for use by multiple
+ * threads.</p>
+ *
+ * @since Ant 1.10.9
+ */
+public class ParallelGZIPOutputStream extends FilterOutputStream {
+
+    /** Size of the uncompressed blocks, the same as pigz uses. */
+    private static final int BLOCK_SIZE = 128 * 1024;
+    /** Size of the deflate window. */
+    private static final int DICTIONARY_SIZE = 32 * 1024;
+    private static final int BUFFER_SIZE = 8192;
+    private static final byte[] HEADER = {
+        (byte) 0x1f, (byte) 0x8b, // magic
+        Deflater.DEFLATED,        // compression method
+        0,                        // flags
+        0, 0, 0, 0,               // modification time
+        0,                        // extra flags
+        (byte) 0xff               // operating system: unknown
+    };
+    private static final int TRAILER_SIZE = 8;
+    private static final AtomicInteger POOL_NUMBER = new AtomicInteger();
+    private static final long SHUTDOWN_WAIT_SECONDS = 60;
+
+    private final int threads;
+    private final int level;
+    private final ExecutorService executor;
+    private final Deque<Future<byte[]>> pending = new ArrayDeque<>();
+    private final Queue<Deflater> deflaters = new ConcurrentLinkedQueue<>();
+    private final CRC32 crc = new CRC32();
+
+    private byte[] block = new byte[BLOCK_SIZE];
+    private int blockLength;
+    private byte[] previousBlock;
+    private long size;
+    private boolean headerWritten;
+    private boolean finished;
+
+    /**
+     * Creates a stream using the default compression level.
+     *
+     * @param out the stream to write the compressed data to
+     * @param threads the number of threads to use, values less than
+     * one are treated as one
+     */
+    public ParallelGZIPOutputStream(OutputStream out, int threads) {
+        this(out, threads, Deflater.DEFAULT_COMPRESSION);
+    }
+
+    /**
+     * Creates a stream.
+     *
+     * @param out the stream to write the compressed data to
+     * @param threads the number of threads to use, values less than
+     * one are treated as one
+     * @param level the compression level
+     */
+    public ParallelGZIPOutputStream(OutputStream out, int threads, int level) {
+        super(out);
+        this.threads = Math.max(1, threads);
+        this.level = level;
+        if (this.threads == 1) {
+            executor = null;
+        } else {
+            String prefix = "gzip-deflater-" + POOL_NUMBER.incrementAndGet() + "-";
+            AtomicInteger n = new AtomicInteger();
+            executor = Executors.newFixedThreadPool(this.threads, r -> {
+                Thread t = new Thread(r, prefix + n.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[] {(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (finished) {
+            throw new IOException("stream has already been finished");
+        }
+        crc.update(b, off, len);
+        size += len;
+        while (len > 0) {
+            if (blockLength == BLOCK_SIZE) {
+                submit(false);
+            }
+            int n = Math.min(len, BLOCK_SIZE - blockLength);
+            System.arraycopy(b, off, block, blockLength, n);
+            blockLength += n;
+            off += n;
+            len -= n;
+        }
+    }
+
+    /**
+     * Writes all blocks that have been compressed so far, the data of
+     * the block that isn't full yet is kept back.
+     *
+     * @throws IOException on error
+     */
+    @Override
+    public void flush() throws IOException {
+        writeCompressed(false);
+        out.flush();
+    }
+
+    /**
+     * Compresses the remaining data and writes the GZIP trailer
+     * without closing the underlying stream.
+     *
+     * @throws IOException on error
+     */
+    public void finish() throws IOException {
+        if (finished) {
+            return;
+        }
+        finished = true;
+        try {
+            submit(true);
+            writeCompressed(true);
+            byte[] trailer = new byte[TRAILER_SIZE];
+            writeInt(trailer, 0, crc.getValue());
+            writeInt(trailer, 4, size);
+            out.write(trailer);
+        } finally {
+            shutdown();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            finish();
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Hands the current block to the executor and starts a new one.
+     */
+    private void submit(boolean last) throws IOException {
+        byte[] data = block;
+        int length = blockLength;
+        byte[] dictionary = previousBlock;
+        if (executor == null) {
+            pending.add(CompletableFuture.completedFuture(
+                deflate(data, length, dictionary, last)));
+        } else {
+            pending.add(executor.submit(() -> deflate(data, length, dictionary, last)));
+        }
+        previousBlock = data;
+        block = last ? null : new byte[BLOCK_SIZE];
+        blockLength = 0;
+        writeCompressed(false);
+        while (pending.size() > 2 * threads) {
+            write(pending.remove());
+        }
+    }
+
+    /**
+     * Writes compressed blocks in order.
+     *
+     * @param all whether to wait for all blocks or only write those
+     * that have already been compressed
+     */
+    private void writeCompressed(boolean all) throws IOException {
+        while (!pending.isEmpty() && (all || pending.peek().isDone())) {
+            write(pending.remove());
+        }
+    }
+
+    private void write(Future<byte[]> f) throws IOException {
+        if (!headerWritten) {
+            out.write(HEADER);
+            headerWritten = true;
+        }
+        try {
+            out.write(f.get());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted while compressing");
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    /**
+     * Compresses a block, all but the last block end with a sync
+     * flush.
+     */
+    private byte[] deflate(byte[] data, int length, byte[] dictionary, boolean last) {
+        Deflater d = deflaters.poll();
+        if (d == null) {
+            d = new Deflater(level, true);
+        }
+        try {
+            if (dictionary != null) {
+                d.setDictionary(dictionary, BLOCK_SIZE - DICTIONARY_SIZE, DICTIONARY_SIZE);
+            }
+            d.setInput(data, 0, length);
+            ByteArrayOutputStream result = new ByteArrayOutputStream(length / 2 + BUFFER_SIZE);
+            byte[] buffer = new byte[BUFFER_SIZE];
+            if (last) {
+                d.finish();
+                while (!d.finished()) {
+                    result.write(buffer, 0, d.deflate(buffer));
+                }
+            } else {
+                int n;
+                do {
+                    n = d.deflate(buffer, 0, buffer.length, Deflater.SYNC_FLUSH);
+                    result.write(buffer, 0, n);
+                } while (n == buffer.length);
+            }
+            return result.toByteArray();
+        } finally {
+            d.reset();
+            deflaters.add(d);
+        }
+    }
+
+    private void shutdown() {
+        pending.forEach(f -> f.cancel(false));
+        pending.clear();
+        if (executor != null) {
+            executor.shutdown();
+            try {
+                executor.awaitTermination(SHUTDOWN_WAIT_SECONDS, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        Deflater d;
+        while ((d = deflaters.poll()) != null) {
+            d.end();
+        }
+    }
+
+    private static void writeInt(byte[] b, int off, long value) {
+        for (int i = 0; i < 4; i++) {
+            b[off + i] = (byte) (value >> (8 * i));
+        }
+    }
+}
@@ -0,0 +1,192 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.apache.tools.ant.util;
+
+import java.nio.file.attribute.PosixFilePermission;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A file mode as accepted by chmod(1), either an octal number or a
+ * symbolic mode like {@code u+x,go-w}.
+ *
+ * <p>Only the read, write and execute permissions are supported,
+ * modes that refer to the set-user-ID, set-group-ID or sticky bits
+ * are rejected.  Like chmod a symbolic mode without a "who" part
+ * applies to all users but doesn't change permissions that are set
+ * in the umask.</p>
+ *
+ * @since Ant 1.10.9
+ */
+public final class PosixMode {
+
+    private static final int ALL = 0777;
+    private static final int EXECUTE = 0111;
+
+    private final int octal;
+    private final List<Action> actions;
+
+    private PosixMode(int octal, List<Action> actions) {
+        this.octal = octal;
+        this.actions = actions;
+    }
+
+    /**
+     * Parses a mode.
+     *
+     * @param mode the mode as it would be passed to chmod
+     * @return PosixMode
+     * @throws IllegalArgumentException if the mode is invalid or not
+     * supported
+     */
+    public static PosixMode parse(String mode) {
+        if (mode.matches("[0-7]{1,4}")) {
+            int value = Integer.parseInt(mode, 8);
+            if ((value & ~ALL) != 0) {
+                throw new IllegalArgumentException("unsupported mode " + mode);
+            }
+            return new PosixMode(value, null);
+        }
+        List<Action> actions = new ArrayList<>();
+        for (String clause : mode.split(",", -1)) {
+            int i = 0;
+            int who = 0;
+            while (i < clause.length() && "ugoa".indexOf(clause.charAt(i)) >= 0) {
+                who |= who(clause.charAt(i++));
+            }
+            if (i == clause.length()) {
+                throw new IllegalArgumentException("invalid mode " + mode);
+            }
+            while (i < clause.length()) {
+                char op = clause.charAt(i++);
+                if ("+-=".indexOf(op) < 0) {
+                    throw new IllegalArgumentException("invalid mode " + mode);
+                }
+                Action action = new Action(op, who);
+                if (i < clause.length() && "ugo".indexOf(clause.charAt(i)) >= 0) {
+                    action.copyFrom = who(clause.charAt(i++));
+                } else {
+                    for (; i < clause.length() && "+-=".indexOf(clause.charAt(i)) < 0; i++) {
+                        switch (clause.charAt(i)) {
+                        case 'r':
+                            action.permissions |= 0444;
+                            break;
+                        case 'w':
+                            action.permissions |= 0222;
+                            break;
+                        case 'x':
+                            action.permissions |= EXECUTE;
+                            break;
+                        case 'X':
+                            action.conditionalExecute = true;
+                            break;
+                        default:
+                            throw new IllegalArgumentException("unsupported mode " + mode);
+                        }
+                    }
+                }
+                actions.add(action);
+            }
+        }
+        return new PosixMode(-1, actions);
+    }
+
+    /**
+     * Whether the result of {@link #apply apply} depends on the
+     * umask.
+     *
+     * @return boolean
+     */
+    public boolean dependsOnUmask() {
+        return actions != null && actions.stream().anyMatch(a -> a.who == 0);
+    }
+
+    /**
+     * Calculates the permissions a file ends up with if the mode is
+     * applied to it.
+     *
+     * @param permissions the current permissions of the file
+     * @param isDirectory whether the file is a directory
+     * @param umask the umask as a Unix mode, only used if {@link
+     * #dependsOnUmask} is true
+     * @return the new permissions
+     */
+    public Set<PosixFilePermission> apply(Set<PosixFilePermission> permissions,
+                                          boolean isDirectory, int umask) {
+        if (actions == null) {
+            return PermissionUtils.permissionsFromMode(octal);
+        }
+        int mode = PermissionUtils.modeFromPermissions(permissions,
+            PermissionUtils.FileType.OTHER) & ALL;
+        for (Action action : actions) {
+            int value = action.permissions;
+            if (action.copyFrom != 0) {
+                int bits = mode & action.copyFrom;
+                bits = (bits | bits >> 3 | bits >> 6) & 07;
+                value = bits * 0111;
+            }
+            if (action.conditionalExecute && (isDirectory || (mode & EXECUTE) != 0)) {
+                value |= EXECUTE;
+            }
+            value &= action.who != 0 ? action.who : ~umask & ALL;
+            switch (action.op) {
+            case '+':
+                mode |= value;
+                break;
+            case '-':
+                mode &= ~value;
+                break;
+            default:
+                // without "who" nothing is preserved, not even the
+                // permissions set in the umask
+                int preserved = action.who != 0 ? ~action.who & ALL : 0;
+                mode = (mode & preserved) | value;
+                break;
+            }
+        }
+        return PermissionUtils.permissionsFromMode(mode);
+    }
+
+    private static int who(char c) {
+        switch (c) {
+        case 'u':
+            return 0700;
+        case 'g':
+            return 0070;
+        case 'o':
+            return 0007;
+        default:
+            return ALL;
+        }
+    }
+
+    private static class Action {
+        private final char op;
+        private final int who;
+        private int permissions;
+        private int copyFrom;
+        private boolean conditionalExecute;
+
+        Action(char op, int who) {
+            this.op = op;
+            this.who = who;
+        }
+    }
+}
@@ -0,0 +1,313 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.apache.tools.ant.util;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A Writer that replaces occurrences of any of a set of literal
+ * strings in the text written to it and passes the result on to
+ * another Writer.
+ *
+ * <p>All tokens are searched for at once using an Aho-Corasick
+ * automaton.  Occurrences don't overlap: the occurrence that starts
+ * first is replaced, if several tokens start at the same position the
+ * one that has been specified first wins.  Replacement values are
+ * not searched for tokens again.</p>
+ *
+ * <p>Only as many characters as may belong to an occurrence are held
+ * back, the text is not buffered as a whole.  Held back characters
+ * are written when the writer is closed - {@link #flush flush} only
+ * flushes the underlying writer.</p>
+ *
+ * @since Ant 1.10.9
+ */
+public final class ReplacingWriter extends Writer {
+
+    private static final int INITIAL_BUFFER_SIZE = 8192;
+
+    private final Writer out;
+    private final String[] tokens;
+    private final String[] values;
+
+    /** Sorted characters of the transitions leaving each state. */
+    private final char[][] keys;
+    /** Target states of the transitions leaving each state. */
+    private final int[][] targets;
+    private final int[] failure;
+    /** Length of the prefix a state stands for. */
+    private final int[] depth;
+    /** Index of the longest token recognized in a state, -1 if none. */
+    private final int[] match;
+    /** Characters any token starts with. */
+    private final BitSet first = new BitSet();
+
+    /** Characters that have not been written yet. */
+    private char[] pending = new char[INITIAL_BUFFER_SIZE];
+    private int length;
+    /** Number of pending characters fed to the automaton. */
+    private int scanned;
+    private int state;
+    /** Start and token of the best occurrence found so far. */
+    private int candidateStart = -1;
+    private int candidate;
+
+    private int count;
+    private boolean closed;
+
+    /**
+     * Creates a writer replacing a single token.
+     *
+     * @param out the writer to pass the text on to
+     * @param token the string to replace, must not be empty
+     * @param value the replacement
+     */
+    public ReplacingWriter(Writer out, String token, String value) {
+        this(out, new String[] {token}, new String[] {value});
+    }
+
+    /**
+     * Creates a writer replacing several tokens.
+     *
+     * @param out the writer to pass the text on to
+     * @param tokens the strings to replace, none of them may be empty
+     * @param values the replacement of the token at the same index
+     */
+    public ReplacingWriter(Writer out, String[] tokens, String[] values) {
+        if (tokens.length != values.length) {
+            throw new IllegalArgumentException("need a value for each token");
+        }
+        this.out = out;
+        this.tokens = tokens.clone();
+        this.values = values.clone();
+
+        List<TreeMap<Character, Integer>> trie = new ArrayList<>();
+        List<Integer> depths = new ArrayList<>();
+        List<Integer> terminal = new ArrayList<>();
+        trie.add(new TreeMap<>());
+        depths.add(0);
+        terminal.add(-1);
+        for (int i = 0; i < tokens.length; i++) {
+            if (tokens[i].isEmpty()) {
+                throw new IllegalArgumentException("empty token");
+            }
+            first.set(tokens[i].charAt(0));
+            int s = 0;
+            for (char c : tokens[i].toCharArray()) {
+                Integer t = trie.get(s).get(c);
+                if (t == null) {
+                    t = trie.size();
+                    trie.get(s).put(c, t);
+                    trie.add(new TreeMap<>());
+                    depths.add(depths.get(s) + 1);
+                    terminal.add(-1);
+                }
+                s = t;
+            }
+            if (terminal.get(s) < 0) {
+                terminal.set(s, i);
+            }
+        }
+
+        int states = trie.size();
+        keys = new char[states][];
+        targets = new int[states][];
+        depth = new int[states];
+        match = new int[states];
+        for (int s = 0; s < states; s++) {
+            Map<Character, Integer> edges = trie.get(s);
+            keys[s] = new char[edges.size()];
+            targets[s] = new int[edges.size()];
+            int e = 0;
+            for (Map.Entry<Character, Integer> edge : edges.entrySet()) {
+                keys[s][e] = edge.getKey();
+                targets[s][e++] = edge.getValue();
+            }
+            depth[s] = depths.get(s);
+            match[s] = terminal.get(s);
+        }
+
+        // breadth first so the failure of a state is known before
+        // the states below it are visited
+        failure = new int[states];
+        Deque<Integer> queue = new ArrayDeque<>();
+        for (int t : targets[0]) {
+            queue.add(t);
+        }
+        while (!queue.isEmpty()) {
+            int s = queue.remove();
+            if (match[s] < 0) {
+                match[s] = match[failure[s]];
+            }
+            for (int e = 0; e < keys[s].length; e++) {
+                int t = targets[s][e];
+                failure[t] = s == 0 ? 0 : next(failure[s], keys[s][e]);
+                queue.add(t);
+            }
+        }
+    }
+
+    /**
+     * The number of occurrences that have been replaced so far.
+     *
+     * @return int
+     */
+    public int getCount() {
+        return count;
+    }
+
+    @Override
+    public void write(int c) throws IOException {
+        write(new char[] {(char) c}, 0, 1);
+    }
+
+    @Override
+    public void write(String str, int off, int len) throws IOException {
+        write(str.toCharArray(), off, len);
+    }
+
+    @Override
+    public void write(char[] cbuf, int off, int len) throws IOException {
+        if (closed) {
+            throw new IOException("writer has been closed");
+        }
+        if (length + len > pending.length) {
+            pending = Arrays.copyOf(pending, Math.max(2 * pending.length, length + len));
+        }
+        System.arraycopy(cbuf, off, pending, length, len);
+        length += len;
+        scan();
+        if (candidateStart < 0) {
+            // characters before the prefix recognized by the current
+            // state can't be part of an occurrence anymore
+            emit(scanned - depth[state]);
+        }
+    }
+
+    /**
+     * Flushes the underlying writer, characters that may belong to an
+     * occurrence are kept back.
+     *
+     * @throws IOException on error
+     */
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    /**
+     * Writes all pending characters and closes the underlying writer.
+     *
+     * @throws IOException on error
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            scan();
+            while (candidateStart >= 0) {
+                replace();
+                scan();
+            }
+            emit(length);
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Feeds pending characters to the automaton and replaces each
+     * occurrence as soon as no occurrence starting earlier is
+     * possible.
+     */
+    private void scan() throws IOException {
+        while (scanned < length) {
+            char c = pending[scanned++];
+            if (state == 0 && !first.get(c)) {
+                continue;
+            }
+            state = next(state, c);
+            int m = match[state];
+            if (m >= 0) {
+                int start = scanned - tokens[m].length();
+                if (candidateStart < 0 || start < candidateStart
+                    || start == candidateStart && m < candidate) {
+                    candidateStart = start;
+                    candidate = m;
+                }
+            }
+            if (candidateStart >= 0 && candidateStart < scanned - depth[state]) {
+                replace();
+            }
+        }
+    }
+
+    /**
+     * Replaces the candidate occurrence and rewinds the automaton to
+     * the first character following it.
+     */
+    private void replace() throws IOException {
+        out.write(pending, 0, candidateStart);
+        count++;
+        out.write(values[candidate]);
+        int end = candidateStart + tokens[candidate].length();
+        System.arraycopy(pending, end, pending, 0, length - end);
+        length -= end;
+        scanned = 0;
+        state = 0;
+        candidateStart = -1;
+    }
+
+    /**
+     * Writes the given number of pending characters.
+     */
+    private void emit(int n) throws IOException {
+        if (n > 0) {
+            out.write(pending, 0, n);
+            System.arraycopy(pending, n, pending, 0, length - n);
+            length -= n;
+            scanned -= n;
+        }
+    }
+
+    private int next(int s, char c) {
+        while (true) {
+            int e = Arrays.binarySearch(keys[s], c);
+            if (e >= 0) {
+                return targets[s][e];
+            }
+            if (s == 0) {
+                return 0;
+            }
+            s = failure[s];
+        }
+    }
+}
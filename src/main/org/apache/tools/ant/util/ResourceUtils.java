@@ -29,6 +29,7 @@ import java.io.OutputStreamWriter;
 import java.io.Reader;
 import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
+import java.nio.file.Files;
 import java.nio.file.StandardOpenOption;
 import java.util.Arrays;
 import java.util.Vector;
@@ -372,6 +373,52 @@ public class ResourceUtils {
                                     final String inputEncoding, final String outputEncoding,
                                     final Project project, final boolean force)
         throws IOException {
+        copyResource(source, dest, filters, filterChains, overwrite,
+                     preserveLastModified, append, inputEncoding,
+                     outputEncoding, project, force, LinkMode.none);
+    }
+
+    /**
+     * Convenience method to copy content from one Resource to another
+     * specifying whether token filtering must be used, whether filter chains
+     * must be used, whether newer destination files may be overwritten,
+     * whether the last modified time of <code>dest</code> file should be made
+     * equal to the last modified time of <code>source</code> and whether
+     * files that are copied without any modification should be linked
+     * instead.
+     *
+     * @param source the Resource to copy from.
+     *                   Must not be <code>null</code>.
+     * @param dest   the Resource to copy to.
+     *                 Must not be <code>null</code>.
+     * @param filters the collection of filters to apply to this copy.
+     * @param filterChains filterChains to apply during the copy.
+     * @param overwrite Whether or not the destination Resource should be
+     *                  overwritten if it already exists.
+     * @param preserveLastModified Whether or not the last modified time of
+     *                             the destination Resource should be set to that
+     *                             of the source.
+     * @param append Whether to append to an Appendable Resource.
+     * @param inputEncoding the encoding used to read the files.
+     * @param outputEncoding the encoding used to write the files.
+     * @param project the project instance.
+     * @param force whether read-only target files will be overwritten
+     * @param linkMode how to duplicate files that are copied without
+     *                 modification, falls back to copying if the link
+     *                 or clone cannot be created.
+     *
+     * @throws IOException if the copying fails.
+     *
+     * @since Ant 1.10.9
+     */
+    public static void copyResource(final Resource source, final Resource dest,
+                            final FilterSetCollection filters, final Vector<FilterChain> filterChains,
+                            final boolean overwrite, final boolean preserveLastModified,
+                                    final boolean append,
+                                    final String inputEncoding, final String outputEncoding,
+                                    final Project project, final boolean force,
+                                    final LinkMode linkMode)
+        throws IOException {
         if (!overwrite && !SelectorUtils.isOutOfDate(source, dest,
                 FileUtils.getFileUtils().getFileTimestampGranularity())) {
             return;
@@ -390,7 +437,8 @@ public class ResourceUtils {
         if (dest.as(FileProvider.class) != null) {
             destFile = dest.as(FileProvider.class).getFile();
         }
-        if (destFile != null && destFile.isFile() && !destFile.canWrite()) {
+        final boolean destIsFile = destFile != null && destFile.isFile();
+        if (destIsFile && !destFile.canWrite()) {
             if (!force) {
                 throw new ReadOnlyTargetFileException(destFile);
             }
@@ -399,25 +447,37 @@ public class ResourceUtils {
                     "failed to delete read-only destination file " + destFile);
             }
         }
+        final File sourceFile = source.as(FileProvider.class) == null ? null
+            : source.as(FileProvider.class).getFile();
+        final boolean transcoding = (effectiveInputEncoding != null
+                                     && !effectiveInputEncoding.equals(outputEncoding))
+            || (effectiveInputEncoding == null && outputEncoding != null);
+        final boolean linking = linkMode != null && linkMode != LinkMode.none
+            && !filterSetsAvailable && !filterChainsAvailable && !transcoding
+            && sourceFile != null && destFile != null && !append;
+        if ((linkMode == LinkMode.hard || linkMode == LinkMode.auto) && !linking
+            && sourceFile != null && destIsFile && !append
+            && LinkMode.isLinked(sourceFile, destFile)
+            && !FILE_UTILS.areSame(sourceFile, destFile)) {
+            // destination is a hard link created by an earlier copy
+            // that couldn't be linked this time, writing to it would
+            // overwrite the source
+            Files.delete(destFile.toPath());
+        }
 
         if (filterSetsAvailable) {
             copyWithFilterSets(source, dest, filters, filterChains,
                                append, effectiveInputEncoding,
                                outputEncoding, project);
-        } else if (filterChainsAvailable
-                   || (effectiveInputEncoding != null
-                       && !effectiveInputEncoding.equals(outputEncoding))
-                   || (effectiveInputEncoding == null && outputEncoding != null)) {
+        } else if (filterChainsAvailable || transcoding) {
             copyWithFilterChainsOrTranscoding(source, dest, filterChains,
                                               append, effectiveInputEncoding,
                                               outputEncoding,
                                               project);
         } else {
-            boolean copied = false;
-            if (source.as(FileProvider.class) != null
-                && destFile != null && !append) {
-                final File sourceFile =
-                    source.as(FileProvider.class).getFile();
+            boolean copied = linking && !FILE_UTILS.areSame(sourceFile, destFile)
+                && createParent(destFile) && linkMode.link(sourceFile, destFile);
+            if (!copied && sourceFile != null && destFile != null && !append) {
                 try {
                     copyUsingFileChannels(sourceFile, destFile, project);
                     copied = true;
@@ -730,9 +790,7 @@ public class ResourceUtils {
             log(project, "Skipping (self) copy of " + sourceFile +  " to " + destFile);
             return;
         }
-        final File parent = destFile.getParentFile();
-        if (parent != null && !parent.isDirectory()
-            && !(parent.mkdirs() || parent.isDirectory())) {
+        if (!createParent(destFile)) {
             throw new IOException("failed to create the parent directory"
                                   + " for " + destFile);
         }
@@ -754,6 +812,12 @@ public class ResourceUtils {
         }
     }
 
+    private static boolean createParent(final File destFile) {
+        final File parent = destFile.getParentFile();
+        return parent == null || parent.isDirectory()
+            || parent.mkdirs() || parent.isDirectory();
+    }
+
     private static void copyUsingStreams(final Resource source, final Resource dest,
                                          final boolean append, final Project project)
         throws IOException {
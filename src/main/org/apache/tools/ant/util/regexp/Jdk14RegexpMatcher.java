@@ -34,6 +34,9 @@ public class Jdk14RegexpMatcher implements RegexpMatcher {
 
     private String pattern;
 
+    /** The pattern compiled most recently. */
+    private volatile Compiled compiled;
+
     /**
      * Set the regexp pattern from the String description.
      * @param pattern the pattern to match
@@ -61,8 +64,15 @@ public class Jdk14RegexpMatcher implements RegexpMatcher {
      */
     protected Pattern getCompiledPattern(int options)
         throws BuildException {
+        int cOptions = getCompilerOptions(options);
+        Compiled c = compiled;
+        if (c != null && c.options == cOptions && c.pattern.pattern().equals(pattern)) {
+            return c.pattern;
+        }
         try {
-            return Pattern.compile(this.pattern, getCompilerOptions(options));
+            Pattern p = Pattern.compile(this.pattern, cOptions);
+            compiled = new Compiled(p, cOptions);
+            return p;
         } catch (PatternSyntaxException e) {
             throw new BuildException(e);
         }
@@ -166,4 +176,17 @@ public class Jdk14RegexpMatcher implements RegexpMatcher {
         return cOptions;
     }
 
+    /**
+     * A compiled pattern together with the options it has been
+     * compiled with.
+     */
+    private static final class Compiled {
+        private final Pattern pattern;
+        private final int options;
+
+        private Compiled(Pattern pattern, int options) {
+            this.pattern = pattern;
+            this.options = options;
+        }
+    }
 }
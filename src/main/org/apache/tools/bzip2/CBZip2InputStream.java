@@ -25,6 +25,7 @@ package org.apache.tools.bzip2;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Arrays;
 
 /**
  * An input stream that decompresses from the BZip2 format (without the file
@@ -72,6 +73,29 @@ public class CBZip2InputStream extends InputStream implements BZip2Constants {
     private InputStream in;
     private final boolean decompressConcatenated;
 
+    /**
+     * Number of bits looked up in a single step when decoding
+     * Huffman codes, longer codes are decoded bit by bit.
+     */
+    private static final int LOOKUP_BITS = 10;
+    private static final int LOOKUP_MASK = (1 << LOOKUP_BITS) - 1;
+    /** Number of bits used for the code length in lookup entries. */
+    private static final int LOOKUP_LENGTH_BITS = 5;
+    private static final int INPUT_BUFFER_SIZE = 8192;
+
+    /**
+     * Compressed input that has been read from in but not been
+     * consumed, null if input is read byte by byte.
+     */
+    private final byte[] inBuf;
+    private int inPos;
+    private int inLimit;
+    /**
+     * Whether unused input has to be given back to in at the end of
+     * the stream - using mark and reset.
+     */
+    private final boolean giveBackInput;
+
     private int currentChar = -1;
 
     private static final int EOF               = 0;
@@ -158,6 +182,12 @@ public class CBZip2InputStream extends InputStream implements BZip2Constants {
 
         this.in = in;
         this.decompressConcatenated = decompressConcatenated;
+        // input may only be read ahead if nobody is going to read
+        // from in after the end of the stream or it can be reset
+        this.giveBackInput = !decompressConcatenated && in != null
+            && in.markSupported();
+        this.inBuf = decompressConcatenated || this.giveBackInput
+            ? new byte[INPUT_BUFFER_SIZE] : null;
 
         init(true);
         initBlock();
@@ -199,13 +229,105 @@ public class CBZip2InputStream extends InputStream implements BZip2Constants {
 
         final int hi = offs + len;
         int destOffs = offs;
-        for (int b; (destOffs < hi) && ((b = read0()) >= 0);) {
-            dest[destOffs++] = (byte) b;
+        while (destOffs < hi) {
+            if (this.currentState == NO_RAND_PART_B_STATE
+                || this.currentState == NO_RAND_PART_C_STATE) {
+                destOffs = readNoRand(dest, destOffs, hi);
+            } else {
+                final int b = read0();
+                if (b < 0) {
+                    break;
+                }
+                dest[destOffs++] = (byte) b;
+            }
         }
 
         return (destOffs == offs) ? -1 : (destOffs - offs);
     }
 
+    /**
+     * Bulk version of read0 for blocks that are not randomised, uses
+     * the same state as setupNoRandPartA, B and C but keeps it in
+     * local variables until the block ends or dest is full.
+     *
+     * @return the new offset into dest
+     */
+    private int readNoRand(final byte[] dest, int offs, final int hi)
+        throws IOException {
+        final byte[] ll8 = this.data.ll8;
+        final int[] tt = this.data.tt;
+        final int lastShadow = this.last;
+        final CRC crcShadow = this.crc;
+        int state = this.currentState;
+        int current = this.currentChar;
+        int ch2 = this.su_ch2;
+        int chPrev = this.su_chPrev;
+        int count = this.su_count;
+        int tPos = this.su_tPos;
+        int i2 = this.su_i2;
+        int j2 = this.su_j2;
+        int z = this.su_z;
+        boolean endOfBlock = false;
+
+        while (offs < hi) {
+            dest[offs++] = (byte) current;
+
+            boolean partA = true;
+            if (state == NO_RAND_PART_B_STATE) {
+                if (ch2 != chPrev) {
+                    count = 1;
+                } else if (++count >= 4) {
+                    z = ll8[tPos] & 0xff;
+                    tPos = tt[tPos];
+                    j2 = 0;
+                    partA = false;
+                }
+            } else {
+                partA = false;
+            }
+            if (!partA) {
+                // part C
+                if (j2 < z) {
+                    current = ch2;
+                    crcShadow.updateCRC(ch2);
+                    j2++;
+                    state = NO_RAND_PART_C_STATE;
+                    continue;
+                }
+                i2++;
+                count = 0;
+            }
+            // part A
+            if (i2 <= lastShadow) {
+                chPrev = ch2;
+                ch2 = ll8[tPos] & 0xff;
+                tPos = tt[tPos];
+                i2++;
+                current = ch2;
+                state = NO_RAND_PART_B_STATE;
+                crcShadow.updateCRC(ch2);
+            } else {
+                endOfBlock = true;
+                break;
+            }
+        }
+
+        this.currentState = state;
+        this.currentChar = current;
+        this.su_ch2 = ch2;
+        this.su_chPrev = chPrev;
+        this.su_count = count;
+        this.su_tPos = tPos;
+        this.su_i2 = i2;
+        this.su_j2 = j2;
+        this.su_z = (char) z;
+        if (endOfBlock) {
+            // moves on to the next block
+            setupNoRandPartA();
+        }
+        return offs;
+    }
+
     private void makeMaps() {
         final boolean[] inUse   = this.data.inUse;
         final byte[] seqToUnseq = this.data.seqToUnseq;
@@ -270,24 +392,24 @@ public class CBZip2InputStream extends InputStream implements BZip2Constants {
                 throw new IOException("Empty InputStream");
             }
         } else {
-            int magic0 = this.in.read();
+            int magic0 = readByte();
             if (magic0 == -1) {
                 return false;
             }
-            int magic1 = this.in.read();
+            int magic1 = readByte();
             if (magic0 != 'B' || magic1 != 'Z') {
                 throw new IOException("Garbage after a valid BZip2 stream");
             }
         }
 
-        int magic2 = this.in.read();
+        int magic2 = readByte();
         if (magic2 != 'h') {
             throw new IOException(isFirstStream
                     ? "Stream is not in the BZip2 format"
                     : "Garbage after a valid BZip2 stream");
         }
 
-        int blockSize = this.in.read();
+        int blockSize = readByte();
         if (blockSize < '1' || blockSize > '9') {
             throw new IOException("Stream is not BZip2 formatted: illegal "
                                   + "blocksize " + (char) blockSize);
@@ -393,7 +515,52 @@ public class CBZip2InputStream extends InputStream implements BZip2Constants {
 
         // Look for the next .bz2 stream if decompressing
         // concatenated files.
-        return !decompressConcatenated || !init(false);
+        if (!decompressConcatenated) {
+            giveBackInput();
+            return true;
+        }
+        return !init(false);
+    }
+
+    /**
+     * Reads the next byte of compressed input.
+     */
+    private int readByte() throws IOException {
+        if (this.inBuf == null) {
+            return this.in.read();
+        }
+        if (this.inPos == this.inLimit) {
+            if (this.giveBackInput) {
+                this.in.mark(INPUT_BUFFER_SIZE);
+            }
+            final int n = this.in.read(this.inBuf, 0, INPUT_BUFFER_SIZE);
+            if (n <= 0) {
+                return -1;
+            }
+            this.inPos = 0;
+            this.inLimit = n;
+        }
+        return this.inBuf[this.inPos++] & 0xff;
+    }
+
+    /**
+     * Positions in right after the end of the stream if more input
+     * than needed has been read.
+     */
+    private void giveBackInput() throws IOException {
+        if (this.giveBackInput && this.inLimit > 0) {
+            this.in.reset();
+            long toSkip = this.inPos;
+            while (toSkip > 0) {
+                final long skipped = this.in.skip(toSkip);
+                if (skipped <= 0) {
+                    throw new IOException("failed to reposition stream");
+                }
+                toSkip -= skipped;
+            }
+            this.inPos = 0;
+            this.inLimit = 0;
+        }
     }
 
     @Override
@@ -416,9 +583,8 @@ public class CBZip2InputStream extends InputStream implements BZip2Constants {
         int bsBuffShadow = this.bsBuff;
 
         if (bsLiveShadow < n) {
-            final InputStream inShadow = this.in;
             do {
-                int thech = inShadow.read();
+                int thech = readByte();
 
                 if (thech < 0) {
                     throw new IOException("unexpected end of stream");
@@ -440,7 +606,7 @@ public class CBZip2InputStream extends InputStream implements BZip2Constants {
         int bsBuffShadow = this.bsBuff;
 
         if (bsLiveShadow < 1) {
-            int thech = this.in.read();
+            int thech = readByte();
 
             if (thech < 0) {
                 throw new IOException("unexpected end of stream");
@@ -600,6 +766,7 @@ public class CBZip2InputStream extends InputStream implements BZip2Constants {
         final int[][] limit = dataShadow.limit;
         final int[][] base  = dataShadow.base;
         final int[][] perm  = dataShadow.perm;
+        final short[][] lookup = dataShadow.lookup;
 
         for (int t = 0; t < nGroups; t++) {
             int minLen = 32;
@@ -616,25 +783,54 @@ public class CBZip2InputStream extends InputStream implements BZip2Constants {
             }
             hbCreateDecodeTables(limit[t], base[t], perm[t], len[t], minLen,
                                  maxLen, alphaSize);
+            hbCreateLookupTable(lookup[t], len[t], minLen, maxLen, alphaSize);
             minLens[t] = minLen;
         }
     }
 
+    /**
+     * Fills the table used by nextSymbol, the index is the next
+     * LOOKUP_BITS bits of input and each entry holds the symbol
+     * shifted by LOOKUP_LENGTH_BITS and the length of its code - or
+     * zero if the code is longer than LOOKUP_BITS.
+     */
+    private static void hbCreateLookupTable(final short[] lookup,
+                                            final char[] length,
+                                            final int minLen,
+                                            final int maxLen,
+                                            final int alphaSize) {
+        Arrays.fill(lookup, (short) 0);
+        for (int i = Math.max(minLen, 1), code = 0;
+             i <= maxLen && i <= LOOKUP_BITS; i++) {
+            final int shift = LOOKUP_BITS - i;
+            for (int j = 0; j < alphaSize; j++) {
+                if (length[j] == i) {
+                    final int from = code << shift;
+                    final int to = (code + 1) << shift;
+                    if (to > lookup.length) {
+                        // invalid code lengths, leave it to the
+                        // slow path to fail
+                        return;
+                    }
+                    Arrays.fill(lookup, from, to,
+                                (short) ((j << LOOKUP_LENGTH_BITS) | i));
+                    code++;
+                }
+            }
+            code <<= 1;
+        }
+    }
+
     private void getAndMoveToFrontDecode() throws IOException {
         this.origPtr = bsR(24);
         recvDecodingTables();
 
-        final InputStream inShadow = this.in;
         final Data dataShadow   = this.data;
         final byte[] ll8        = dataShadow.ll8;
         final int[] unzftab     = dataShadow.unzftab;
         final byte[] selector   = dataShadow.selector;
         final byte[] seqToUnseq = dataShadow.seqToUnseq;
         final char[] yy         = dataShadow.getAndMoveToFrontDecode_yy;
-        final int[] minLens     = dataShadow.minLens;
-        final int[][] limit     = dataShadow.limit;
-        final int[][] base      = dataShadow.base;
-        final int[][] perm      = dataShadow.perm;
         final int limitLast     = this.blockSize100k * 100000;
 
         /*
@@ -651,15 +847,9 @@ public class CBZip2InputStream extends InputStream implements BZip2Constants {
         int groupNo     = 0;
         int groupPos    = G_SIZE - 1;
         final int eob   = this.nInUse + 1;
-        int nextSym     = getAndMoveToFrontDecode0(0);
-        int bsBuffShadow      = this.bsBuff;
-        int bsLiveShadow      = this.bsLive;
-        int lastShadow        = -1;
+        int lastShadow  = -1;
         int zt          = selector[groupNo] & 0xff;
-        int[] base_zt   = base[zt];
-        int[] limit_zt  = limit[zt];
-        int[] perm_zt   = perm[zt];
-        int minLens_zt  = minLens[zt];
+        int nextSym     = nextSymbol(zt);
 
         while (nextSym != eob) {
             if (nextSym == RUNA || nextSym == RUNB) {
@@ -677,45 +867,11 @@ public class CBZip2InputStream extends InputStream implements BZip2Constants {
                     if (groupPos == 0) {
                         groupPos    = G_SIZE - 1;
                         zt          = selector[++groupNo] & 0xff;
-                        base_zt     = base[zt];
-                        limit_zt    = limit[zt];
-                        perm_zt     = perm[zt];
-                        minLens_zt  = minLens[zt];
                     } else {
                         groupPos--;
                     }
 
-                    int zn = minLens_zt;
-
-                    // Inlined:
-                    // int zvec = bsR(zn);
-                    while (bsLiveShadow < zn) {
-                        final int thech = inShadow.read();
-                        if (thech >= 0) {
-                            bsBuffShadow = (bsBuffShadow << 8) | thech;
-                            bsLiveShadow += 8;
-                        } else {
-                            throw new IOException("unexpected end of stream");
-                        }
-                    }
-                    int zvec = (bsBuffShadow >> (bsLiveShadow - zn)) & ((1 << zn) - 1);
-                    bsLiveShadow -= zn;
-
-                    while (zvec > limit_zt[zn]) {
-                        zn++;
-                        while (bsLiveShadow < 1) {
-                            final int thech = inShadow.read();
-                            if (thech >= 0) {
-                                bsBuffShadow = (bsBuffShadow << 8) | thech;
-                                bsLiveShadow += 8;
-                            } else {
-                                throw new IOException("unexpected end of stream");
-                            }
-                        }
-                        bsLiveShadow--;
-                        zvec = (zvec << 1) | ((bsBuffShadow >> bsLiveShadow) & 1);
-                    }
-                    nextSym = perm_zt[zvec - base_zt[zn]];
+                    nextSym = nextSymbol(zt);
                 }
 
                 final byte ch = seqToUnseq[yy[0]];
@@ -755,68 +911,69 @@ public class CBZip2InputStream extends InputStream implements BZip2Constants {
                 if (groupPos == 0) {
                     groupPos    = G_SIZE - 1;
                     zt          = selector[++groupNo] & 0xff;
-                    base_zt     = base[zt];
-                    limit_zt    = limit[zt];
-                    perm_zt     = perm[zt];
-                    minLens_zt  = minLens[zt];
                 } else {
                     groupPos--;
                 }
 
-                int zn = minLens_zt;
-
-                // Inlined:
-                // int zvec = bsR(zn);
-                while (bsLiveShadow < zn) {
-                    final int thech = inShadow.read();
-                    if (thech >= 0) {
-                        bsBuffShadow = (bsBuffShadow << 8) | thech;
-                        bsLiveShadow += 8;
-                    } else {
-                        throw new IOException("unexpected end of stream");
-                    }
-                }
-                int zvec = (bsBuffShadow >> (bsLiveShadow - zn)) & ((1 << zn) - 1);
-                bsLiveShadow -= zn;
-
-                while (zvec > limit_zt[zn]) {
-                    zn++;
-                    while (bsLiveShadow < 1) {
-                        final int thech = inShadow.read();
-                        if (thech >= 0) {
-                            bsBuffShadow = (bsBuffShadow << 8) | thech;
-                            bsLiveShadow += 8;
-                        } else {
-                            throw new IOException("unexpected end of stream");
-                        }
-                    }
-                    bsLiveShadow--;
-                    zvec = (zvec << 1) | ((bsBuffShadow >> bsLiveShadow) & 1);
-                }
-                nextSym = perm_zt[zvec - base_zt[zn]];
+                nextSym = nextSymbol(zt);
             }
         }
 
         this.last = lastShadow;
-        this.bsLive = bsLiveShadow;
-        this.bsBuff = bsBuffShadow;
     }
 
-    private int getAndMoveToFrontDecode0(final int groupNo)
-        throws IOException {
-        final InputStream inShadow  = this.in;
-        final Data dataShadow  = this.data;
-        final int zt          = dataShadow.selector[groupNo] & 0xff;
-        final int[] limit_zt  = dataShadow.limit[zt];
-        int zn = dataShadow.minLens[zt];
-        int zvec = bsR(zn);
+    /**
+     * Decodes the next symbol using the Huffman tables of group zt.
+     *
+     * <p>Codes of up to LOOKUP_BITS bits are decoded with a single
+     * table lookup, only longer codes are extended bit by bit.</p>
+     */
+    private int nextSymbol(final int zt) throws IOException {
+        final Data dataShadow = this.data;
         int bsLiveShadow = this.bsLive;
         int bsBuffShadow = this.bsBuff;
 
+        // the end of stream marker follows the last block, so this
+        // never reads beyond the end of the stream
+        while (bsLiveShadow < LOOKUP_BITS) {
+            final int thech = readByte();
+            if (thech < 0) {
+                break;
+            }
+            bsBuffShadow = (bsBuffShadow << 8) | thech;
+            bsLiveShadow += 8;
+        }
+
+        int zn = dataShadow.minLens[zt];
+        if (bsLiveShadow >= LOOKUP_BITS) {
+            final int entry = dataShadow.lookup[zt][
+                (bsBuffShadow >> (bsLiveShadow - LOOKUP_BITS)) & LOOKUP_MASK];
+            if (entry != 0) {
+                this.bsLive = bsLiveShadow - (entry & ((1 << LOOKUP_LENGTH_BITS) - 1));
+                this.bsBuff = bsBuffShadow;
+                return entry >>> LOOKUP_LENGTH_BITS;
+            }
+            // the code is longer than LOOKUP_BITS
+            zn = Math.max(zn, LOOKUP_BITS);
+        }
+
+        while (bsLiveShadow < zn) {
+            final int thech = readByte();
+            if (thech >= 0) {
+                bsBuffShadow = (bsBuffShadow << 8) | thech;
+                bsLiveShadow += 8;
+            } else {
+                throw new IOException("unexpected end of stream");
+            }
+        }
+        int zvec = (bsBuffShadow >> (bsLiveShadow - zn)) & ((1 << zn) - 1);
+        bsLiveShadow -= zn;
+
+        final int[] limit_zt = dataShadow.limit[zt];
         while (zvec > limit_zt[zn]) {
             zn++;
             while (bsLiveShadow < 1) {
-                final int thech = inShadow.read();
+                final int thech = readByte();
 
                 if (thech >= 0) {
                     bsBuffShadow = (bsBuffShadow << 8) | thech;
@@ -1004,18 +1161,19 @@ public class CBZip2InputStream extends InputStream implements BZip2Constants {
         final int[][] base  = new int[N_GROUPS][MAX_ALPHA_SIZE];                      //     6192 byte
         final int[][] perm  = new int[N_GROUPS][MAX_ALPHA_SIZE];                      //     6192 byte
         final int[] minLens = new int[N_GROUPS];                                      //       24 byte
+        final short[][] lookup = new short[N_GROUPS][1 << LOOKUP_BITS];               //    12288 byte
 
         final int[]     cftab     = new int[257];                                     //     1028 byte
         final char[]    getAndMoveToFrontDecode_yy = new char[256];                   //      512 byte
         final char[][]  temp_charArray2d  = new char[N_GROUPS][MAX_ALPHA_SIZE];       //     3096 byte
         final byte[] recvDecodingTables_pos = new byte[N_GROUPS];                     //        6 byte
         //---------------
-        //    60798 byte
+        //    73086 byte
 
         int[] tt;                                                                     //  3600000 byte
         byte[] ll8;                                                                   //   900000 byte
         //---------------
-        //  4560782 byte
+        //  4573070 byte
         //===============
 
         Data(int blockSize100k) {
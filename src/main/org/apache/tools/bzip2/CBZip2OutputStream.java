@@ -24,8 +24,18 @@
 
 package org.apache.tools.bzip2;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * An output stream that compresses into the BZip2 format (without the file
@@ -117,6 +127,13 @@ import java.io.OutputStream;
  * </p>
  *
  * <p>
+ * Blocks can be sorted and encoded on several threads, see {@link
+ * #CBZip2OutputStream(OutputStream, int, int)}.  The result is the
+ * same as the one of a single thread, but each thread needs the
+ * memory of a block of its own.
+ * </p>
+ *
+ * <p>
  * Instances of this class are not threadsafe.
  * </p>
  *
@@ -559,6 +576,26 @@ public class CBZip2OutputStream extends OutputStream
 
     private OutputStream out;
 
+    private static final AtomicInteger POOL_NUMBER = new AtomicInteger();
+    private static final long SHUTDOWN_WAIT_SECONDS = 60;
+
+    /**
+     * Number of threads used to sort and encode blocks.
+     */
+    private final int threads;
+    private ExecutorService executor;
+    private final Deque<Future<EncodedBlock>> pending = new ArrayDeque<>();
+    /**
+     * Encoders not in use, each of them owns the memory needed for a
+     * block.
+     */
+    private final Deque<CBZip2OutputStream> encoders = new ArrayDeque<>();
+    /**
+     * The encoder whose Data holds the current block if blocks are
+     * encoded by several threads, null otherwise.
+     */
+    private CBZip2OutputStream encoder;
+
     /**
      * Chooses a blocksize based on the given length of the data to compress.
      *
@@ -623,6 +660,43 @@ public class CBZip2OutputStream extends OutputStream
      */
     public CBZip2OutputStream(final OutputStream out, final int blockSize)
         throws IOException {
+        this(out, blockSize, 1);
+    }
+
+    /**
+     * Constructs a new <code>CBZip2OutputStream</code> with specified
+     * blocksize that sorts and encodes blocks on the given number of
+     * threads.
+     *
+     * <p>
+     * <b>Attention: </b>The caller is responsible to write the two BZip2 magic
+     * bytes <code>"BZ"</code> to the specified stream prior to calling this
+     * constructor.
+     * </p>
+     *
+     * <p>Each thread needs as much memory as a stream using a single
+     * thread and up to twice as many blocks as there are threads are
+     * held in memory.</p>
+     *
+     * @param out
+     *            the destination stream.
+     * @param blockSize
+     *            the blockSize as 100k units.
+     * @param threads
+     *            the number of threads, values less than one are
+     *            treated as one.
+     *
+     * @throws IOException
+     *             if an I/O error occurs in the specified stream.
+     * @throws IllegalArgumentException
+     *             if <code>(blockSize &lt; 1) || (blockSize &gt; 9)</code>.
+     * @throws NullPointerException
+     *             if <code>out == null</code>.
+     * @since Ant 1.10.9
+     */
+    public CBZip2OutputStream(final OutputStream out, final int blockSize,
+                              final int threads)
+        throws IOException {
         super();
 
         if (blockSize < 1) {
@@ -636,12 +710,25 @@ public class CBZip2OutputStream extends OutputStream
 
         this.blockSize100k = blockSize;
         this.out = out;
+        this.threads = Math.max(1, threads);
 
         /* 20 is just a paranoia constant */
         this.allowableBlockSize = (this.blockSize100k * BZip2Constants.baseBlockSize) - 20;
         init();
     }
 
+    /**
+     * Creates an encoder for blocks, it doesn't write anything
+     * before {@link #encodeBlock encodeBlock} is called.
+     */
+    private CBZip2OutputStream(final int blockSize) {
+        this.blockSize100k = blockSize;
+        this.threads = 1;
+        this.allowableBlockSize = (this.blockSize100k * BZip2Constants.baseBlockSize) - 20;
+        this.data = new Data(blockSize);
+        this.blockSorter = new BlockSort(this.data);
+    }
+
     /** {@inheritDoc} */
     @Override
     public void write(final int b) throws IOException {
@@ -730,11 +817,13 @@ public class CBZip2OutputStream extends OutputStream
                 }
                 this.currentChar = -1;
                 endBlock();
+                writeEncodedBlocks(true);
                 endCompression();
             } finally {
                 this.out = null;
                 this.data = null;
                 this.blockSorter = null;
+                shutdownExecutor();
             }
         }
     }
@@ -761,8 +850,19 @@ public class CBZip2OutputStream extends OutputStream
         // this.out.write('B');
         // this.out.write('Z');
 
-        this.data = new Data(this.blockSize100k);
-        this.blockSorter = new BlockSort(this.data);
+        if (this.threads > 1) {
+            final String prefix = "bzip2-encoder-" + POOL_NUMBER.incrementAndGet() + "-";
+            final AtomicInteger n = new AtomicInteger();
+            this.executor = Executors.newFixedThreadPool(this.threads, r -> {
+                Thread t = new Thread(r, prefix + n.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+            useEncoder(new CBZip2OutputStream(this.blockSize100k));
+        } else {
+            this.data = new Data(this.blockSize100k);
+            this.blockSorter = new BlockSort(this.data);
+        }
 
         /*
          * Write `magic' bytes h indicating file-format == huffmanised, followed
@@ -797,6 +897,17 @@ public class CBZip2OutputStream extends OutputStream
             return;
         }
 
+        if (this.encoder != null) {
+            submitBlock();
+        } else {
+            writeBlock();
+        }
+    }
+
+    /**
+     * Sorts and writes the current block.
+     */
+    private void writeBlock() throws IOException {
         /* sort the block and establish posn of original string */
         blockSort();
 
@@ -828,6 +939,113 @@ public class CBZip2OutputStream extends OutputStream
         moveToFrontCodeAndSend();
     }
 
+    /**
+     * Hands the current block to an encoder running on a different
+     * thread and continues with the Data of another encoder.
+     */
+    private void submitBlock() throws IOException {
+        final CBZip2OutputStream blockEncoder = this.encoder;
+        final int lastShadow = this.last;
+        final int blockCRCShadow = this.blockCRC;
+        this.pending.add(this.executor.submit(
+            () -> blockEncoder.encodeBlock(lastShadow, blockCRCShadow)));
+        writeEncodedBlocks(false);
+        while (this.pending.size() >= 2 * this.threads) {
+            writeEncodedBlock(this.pending.remove());
+        }
+        final CBZip2OutputStream next = this.encoders.poll();
+        useEncoder(next != null ? next : new CBZip2OutputStream(this.blockSize100k));
+    }
+
+    private void useEncoder(final CBZip2OutputStream blockEncoder) {
+        this.encoder = blockEncoder;
+        this.data = blockEncoder.data;
+        this.blockSorter = blockEncoder.blockSorter;
+    }
+
+    /**
+     * Sorts and encodes a block into a sequence of bits, runs on a
+     * thread of the executor.
+     */
+    private EncodedBlock encodeBlock(final int lastIndex, final int crcOfBlock)
+        throws IOException {
+        final ByteArrayOutputStream bytes =
+            new ByteArrayOutputStream(lastIndex / 2 + 1024);
+        this.out = bytes;
+        this.bsBuff = 0;
+        this.bsLive = 0;
+        this.last = lastIndex;
+        this.blockCRC = crcOfBlock;
+        try {
+            writeBlock();
+            final long bits = 8L * bytes.size() + this.bsLive;
+            bsFinishedWithStream();
+            return new EncodedBlock(this, bytes.toByteArray(), bits);
+        } finally {
+            this.out = null;
+        }
+    }
+
+    /**
+     * Writes the blocks that have been encoded in the order they have
+     * been submitted.
+     *
+     * @param all whether to wait for all blocks
+     */
+    private void writeEncodedBlocks(final boolean all) throws IOException {
+        while (!this.pending.isEmpty()
+               && (all || this.pending.peek().isDone())) {
+            writeEncodedBlock(this.pending.remove());
+        }
+    }
+
+    private void writeEncodedBlock(final Future<EncodedBlock> f)
+        throws IOException {
+        final EncodedBlock block;
+        try {
+            block = f.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted while compressing");
+        } catch (ExecutionException ex) {
+            final Throwable cause = ex.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause);
+        }
+        final byte[] bytes = block.bytes;
+        final int fullBytes = (int) (block.bits >> 3);
+        for (int i = 0; i < fullBytes; i++) {
+            bsW(8, bytes[i] & 0xff);
+        }
+        final int rest = (int) (block.bits & 7);
+        if (rest > 0) {
+            bsW(rest, (bytes[fullBytes] & 0xff) >> (8 - rest));
+        }
+        this.encoders.add(block.encoder);
+    }
+
+    private void shutdownExecutor() {
+        if (this.executor != null) {
+            this.pending.forEach(f -> f.cancel(false));
+            this.pending.clear();
+            this.executor.shutdown();
+            try {
+                this.executor.awaitTermination(SHUTDOWN_WAIT_SECONDS,
+                                               TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            this.executor = null;
+            this.encoders.clear();
+            this.encoder = null;
+        }
+    }
+
     private void endCompression() throws IOException {
         /*
          * Now another magic 48-bit number, 0x177245385090, to indicate the end
@@ -1512,6 +1730,23 @@ public class CBZip2OutputStream extends OutputStream
         this.nMTF = wr + 1;
     }
 
+    /**
+     * A block that has been sorted and encoded by an encoder.
+     */
+    private static final class EncodedBlock {
+        private final CBZip2OutputStream encoder;
+        private final byte[] bytes;
+        /** Number of bits, the last byte may be incomplete. */
+        private final long bits;
+
+        EncodedBlock(final CBZip2OutputStream encoder, final byte[] bytes,
+                     final long bits) {
+            this.encoder = encoder;
+            this.bytes = bytes;
+            this.bits = bits;
+        }
+    }
+
     static final class Data {
 
         // with blockSize 900k
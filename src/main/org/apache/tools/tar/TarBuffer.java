@@ -26,6 +26,10 @@ package org.apache.tools.tar;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.util.Arrays;
 
 /**
@@ -38,6 +42,10 @@ import java.util.Arrays;
  * <p>
  * You should never have a need to access this class directly.
  * TarBuffers are created by Tar IO Streams.
+ * <p>
+ * A TarBuffer created for a {@link FileChannel} skips records by
+ * positioning the channel and can transfer whole records between
+ * channels without copying them through the block buffer.
  *
  */
 
@@ -51,6 +59,8 @@ public class TarBuffer {
 
     private InputStream     inStream;
     private OutputStream    outStream;
+    private final FileChannel channel;
+    private final long      channelStart;
     private final int       blockSize;
     private final int       recordSize;
     private final int       recsPerBlock;
@@ -58,6 +68,11 @@ public class TarBuffer {
 
     private int             currBlkIdx;
     private int             currRecIdx;
+    /**
+     * Number of records at the start of the block buffer that have
+     * already been written by transferRecords.
+     */
+    private int             flushedRecs;
     private boolean         debug;
 
     /**
@@ -84,7 +99,7 @@ public class TarBuffer {
      * @param recordSize the record size to use
      */
     public TarBuffer(InputStream inStream, int blockSize, int recordSize) {
-        this(inStream, null, blockSize, recordSize);
+        this(inStream, null, null, 0, blockSize, recordSize);
     }
 
     /**
@@ -111,15 +126,36 @@ public class TarBuffer {
      * @param recordSize the record size to use
      */
     public TarBuffer(OutputStream outStream, int blockSize, int recordSize) {
-        this(null, outStream, blockSize, recordSize);
+        this(null, outStream, null, 0, blockSize, recordSize);
+    }
+
+    /**
+     * Constructor for a TarBuffer on a file channel, the archive
+     * starts at the channel's current position.
+     * @param channel the channel to use
+     * @param forOutput whether the archive is written rather than read
+     * @param blockSize the block size to use
+     * @param recordSize the record size to use
+     * @throws IOException if the channel's position cannot be determined
+     * @since Ant 1.10.9
+     */
+    public TarBuffer(FileChannel channel, boolean forOutput, int blockSize,
+                     int recordSize) throws IOException {
+        this(forOutput ? null : Channels.newInputStream(channel),
+             forOutput ? Channels.newOutputStream(channel) : null,
+             channel, channel.position(), blockSize, recordSize);
     }
 
     /**
      * Private constructor to perform common setup.
      */
-    private TarBuffer(InputStream inStream, OutputStream outStream, int blockSize, int recordSize) {
+    private TarBuffer(InputStream inStream, OutputStream outStream,
+                      FileChannel channel, long channelStart,
+                      int blockSize, int recordSize) {
         this.inStream = inStream;
         this.outStream = outStream;
+        this.channel = channel;
+        this.channelStart = channelStart;
         this.debug = false;
         this.blockSize = blockSize;
         this.recordSize = recordSize;
@@ -198,6 +234,126 @@ public class TarBuffer {
         currRecIdx++;
     }
 
+    /**
+     * Skip over a number of records on the input stream, positions
+     * the channel if there is one rather than reading the records.
+     * @param records the number of records to skip
+     * @throws IOException if the archive ends before the last record
+     * @since Ant 1.10.9
+     */
+    public void skipRecords(long records) throws IOException {
+        if (inStream == null) {
+            throw new IOException("reading (via skip) from an output buffer");
+        }
+        if (records <= 0) {
+            return;
+        }
+        if (channel == null) {
+            for (long i = 0; i < records; i++) {
+                if (currRecIdx >= recsPerBlock && !readBlock()) {
+                    throw new IOException("unexpected EOF with " + (records - i)
+                                          + " records to skip");
+                }
+                currRecIdx++;
+            }
+            return;
+        }
+        final long target = nextRecord() + records;
+        if (channelStart + (target - 1) * recordSize >= channel.size()) {
+            throw new IOException("unexpected EOF with " + records
+                                  + " records to skip");
+        }
+        seekRecord(target);
+    }
+
+    /**
+     * Transfer a number of records from the input stream to a
+     * channel, the records that are not in the block buffer are
+     * transferred by the file channel directly if there is one.
+     * @param records the number of records to transfer
+     * @param target the channel to write to
+     * @throws IOException if the archive ends before the last record
+     * @since Ant 1.10.9
+     */
+    public void transferRecords(long records, WritableByteChannel target)
+        throws IOException {
+        if (inStream == null) {
+            throw new IOException("reading from an output buffer");
+        }
+        if (channel == null) {
+            for (long i = 0; i < records; i++) {
+                byte[] record = readRecord();
+                if (record == null) {
+                    throw new IOException("unexpected EOF with " + (records - i)
+                                          + " records unread");
+                }
+                writeFully(target, ByteBuffer.wrap(record));
+            }
+            return;
+        }
+        long remaining = records;
+        if (currBlkIdx >= 0 && currRecIdx < recsPerBlock && remaining > 0) {
+            final int n = (int) Math.min(remaining, recsPerBlock - currRecIdx);
+            writeFully(target, ByteBuffer.wrap(blockBuffer, currRecIdx * recordSize,
+                                               n * recordSize));
+            currRecIdx += n;
+            remaining -= n;
+        }
+        if (remaining > 0) {
+            final long next = nextRecord();
+            long position = channelStart + next * recordSize;
+            long bytes = remaining * recordSize;
+            if (position + bytes > channel.size()) {
+                throw new IOException("unexpected EOF with " + remaining
+                                      + " records unread");
+            }
+            while (bytes > 0) {
+                final long n = channel.transferTo(position, bytes, target);
+                if (n <= 0) {
+                    throw new IOException("failed to transfer " + remaining
+                                          + " records");
+                }
+                position += n;
+                bytes -= n;
+            }
+            seekRecord(next + remaining);
+        }
+    }
+
+    /**
+     * The number of the next record to read, counted from the start
+     * of the archive.
+     */
+    private long nextRecord() {
+        return (long) currBlkIdx * recsPerBlock + currRecIdx;
+    }
+
+    /**
+     * Positions the input channel so the given record is read next,
+     * only moves forward.
+     */
+    private void seekRecord(long record) throws IOException {
+        final int block = (int) (record / recsPerBlock);
+        final int recIdx = (int) (record % recsPerBlock);
+        if (block == currBlkIdx) {
+            currRecIdx = recIdx;
+            return;
+        }
+        channel.position(channelStart + (long) block * blockSize);
+        currBlkIdx = block - 1;
+        currRecIdx = recsPerBlock;
+        if (recIdx > 0) {
+            currRecIdx = readBlock() ? recIdx : recsPerBlock;
+        }
+    }
+
+    private static void writeFully(WritableByteChannel target, ByteBuffer buf)
+        throws IOException {
+        while (buf.hasRemaining()) {
+            target.write(buf);
+        }
+    }
+
     /**
      * Read a record from the input stream and return the data.
      *
@@ -397,6 +553,79 @@ public class TarBuffer {
         currRecIdx++;
     }
 
+    /**
+     * Write a number of records read from a file channel to the
+     * archive, the records are transferred by the file channel
+     * directly if the archive is written to a channel as well.
+     *
+     * @param source the channel to read from
+     * @param position the position of the first record in source
+     * @param records the number of records to write
+     * @throws IOException if source ends before the last record
+     * @since Ant 1.10.9
+     */
+    public void transferRecords(FileChannel source, long position, long records)
+        throws IOException {
+        if (outStream == null) {
+            if (inStream == null) {
+                throw new IOException("Output buffer is closed");
+            }
+            throw new IOException("writing to an input buffer");
+        }
+        if (channel == null) {
+            // read a block at a time rather than a record at a time
+            final ByteBuffer block = ByteBuffer.allocate(blockSize);
+            while (records > 0) {
+                final int recs = (int) Math.min(recsPerBlock, records);
+                block.clear();
+                block.limit(recs * recordSize);
+                readFully(source, block, position);
+                for (int i = 0; i < recs; i++) {
+                    writeRecord(block.array(), i * recordSize);
+                }
+                position += (long) recs * recordSize;
+                records -= recs;
+            }
+            return;
+        }
+        if (records <= 0) {
+            return;
+        }
+        if (currRecIdx >= recsPerBlock) {
+            writeBlock();
+        }
+        // write what is pending in the current block
+        writeFully(channel, ByteBuffer.wrap(blockBuffer, flushedRecs * recordSize,
+                                            (currRecIdx - flushedRecs) * recordSize));
+        long bytes = records * recordSize;
+        while (bytes > 0) {
+            final long n = source.transferTo(position, bytes, channel);
+            if (n <= 0) {
+                throw new IOException("unexpected EOF with " + bytes
+                                      + " bytes to transfer");
+            }
+            position += n;
+            bytes -= n;
+        }
+        final long recs = currRecIdx + records;
+        currBlkIdx += (int) (recs / recsPerBlock);
+        currRecIdx = (int) (recs % recsPerBlock);
+        flushedRecs = currRecIdx;
+        Arrays.fill(blockBuffer, (byte) 0);
+    }
+
+    private static void readFully(FileChannel source, ByteBuffer buf, long position)
+        throws IOException {
+        while (buf.hasRemaining()) {
+            final int n = source.read(buf, position);
+            if (n < 0) {
+                throw new IOException("unexpected EOF with " + buf.remaining()
+                                      + " bytes unread");
+            }
+            position += n;
+        }
+    }
+
     /**
      * Write a TarBuffer block to the archive.
      */
@@ -409,10 +638,12 @@ public class TarBuffer {
             throw new IOException("writing to an input buffer");
         }
 
-        outStream.write(blockBuffer, 0, blockSize);
+        final int offset = flushedRecs * recordSize;
+        outStream.write(blockBuffer, offset, blockSize - offset);
         outStream.flush();
 
         currRecIdx = 0;
+        flushedRecs = 0;
         currBlkIdx++;
         Arrays.fill(blockBuffer, (byte) 0);
     }
@@ -28,6 +28,10 @@ import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Map;
@@ -126,8 +130,33 @@ public class TarInputStream extends FilterInputStream {
      */
     public TarInputStream(InputStream is, int blockSize, int recordSize,
                           String encoding) {
+        this(is, new TarBuffer(is, blockSize, recordSize), encoding);
+    }
+
+    /**
+     * Constructor for TarInputStream reading from a file channel.
+     *
+     * <p>Entries are skipped by positioning the channel and {@link
+     * #copyEntryContents(WritableByteChannel)} transfers the
+     * contents of entries without copying them.  The archive starts
+     * at the channel's current position.</p>
+     *
+     * @param channel the channel to read from
+     * @param blockSize the block size to use
+     * @param encoding name of the encoding to use for file names
+     * @throws IOException if the channel's position cannot be determined
+     * @since Ant 1.10.9
+     */
+    public TarInputStream(FileChannel channel, int blockSize, String encoding)
+        throws IOException {
+        this(Channels.newInputStream(channel),
+             new TarBuffer(channel, false, blockSize, TarBuffer.DEFAULT_RCDSIZE),
+             encoding);
+    }
+
+    private TarInputStream(InputStream is, TarBuffer buffer, String encoding) {
         super(is);
-        this.buffer = new TarBuffer(is, blockSize, recordSize);
+        this.buffer = buffer;
         this.readBuf = null;
         this.oneBuf = new byte[1];
         this.debug = false;
@@ -273,16 +302,15 @@ public class TarInputStream extends FilterInputStream {
                         + numToSkip + " bytes");
             }
 
-            while (numToSkip > 0) {
-                long skipped = skip(numToSkip);
-                if (skipped <= 0) {
-                    throw new IOException("failed to skip current tar"
-                                               + " entry");
-                }
-                numToSkip -= skipped;
+            // the rest of the current record has already been read
+            if (readBuf != null) {
+                numToSkip -= readBuf.length;
+                readBuf = null;
+            }
+            if (numToSkip > 0) {
+                int recordSize = buffer.getRecordSize();
+                buffer.skipRecords((numToSkip + recordSize - 1) / recordSize);
             }
-
-            readBuf = null;
         }
 
         byte[] headerBuf = getRecord();
@@ -661,6 +689,50 @@ public class TarInputStream extends FilterInputStream {
         }
     }
 
+    /**
+     * Copies the contents of the current tar archive entry directly into
+     * a channel.
+     *
+     * <p>If this stream reads from a file channel, all but the last
+     * record of the entry are transferred by {@link
+     * FileChannel#transferTo}.</p>
+     *
+     * @param out The channel into which to write the entry's data.
+     * @throws IOException on error
+     * @since Ant 1.10.9
+     */
+    public void copyEntryContents(WritableByteChannel out) throws IOException {
+        byte[] buf = new byte[LARGE_BUFFER_SIZE];
+        if (readBuf != null) {
+            int numRead = read(buf, 0, readBuf.length);
+            if (numRead > 0) {
+                writeFully(out, ByteBuffer.wrap(buf, 0, numRead));
+            }
+        }
+        if (entryOffset < entrySize && !isDirectory()) {
+            int recordSize = buffer.getRecordSize();
+            long records = (entrySize - entryOffset) / recordSize;
+            buffer.transferRecords(records, out);
+            entryOffset += records * recordSize;
+        }
+        while (true) {
+            int numRead = read(buf, 0, buf.length);
+
+            if (numRead == -1) {
+                break;
+            }
+
+            writeFully(out, ByteBuffer.wrap(buf, 0, numRead));
+        }
+    }
+
+    private static void writeFully(WritableByteChannel out, ByteBuffer buf)
+        throws IOException {
+        while (buf.hasRemaining()) {
+            out.write(buf);
+        }
+    }
+
     /**
      * Whether this class is able to read the given entry.
      *
@@ -28,6 +28,8 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.io.StringWriter;
 import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
 import java.util.Date;
 import java.util.HashMap;
@@ -154,10 +156,35 @@ public class TarOutputStream extends FilterOutputStream {
      */
     public TarOutputStream(OutputStream os, int blockSize, int recordSize,
                            String encoding) {
+        this(os, new TarBuffer(os, blockSize, recordSize), recordSize, encoding);
+    }
+
+    /**
+     * Constructor for TarOutputStream writing to a file channel.
+     *
+     * <p>{@link #transferFrom transferFrom} transfers the contents of
+     * entries without copying them.  The archive starts at the
+     * channel's current position.</p>
+     *
+     * @param channel the channel to write to
+     * @param blockSize the block size to use
+     * @param encoding name of the encoding to use for file names
+     * @throws IOException if the channel's position cannot be determined
+     * @since Ant 1.10.9
+     */
+    public TarOutputStream(FileChannel channel, int blockSize, String encoding)
+        throws IOException {
+        this(Channels.newOutputStream(channel),
+             new TarBuffer(channel, true, blockSize, TarBuffer.DEFAULT_RCDSIZE),
+             TarBuffer.DEFAULT_RCDSIZE, encoding);
+    }
+
+    private TarOutputStream(OutputStream os, TarBuffer buffer, int recordSize,
+                            String encoding) {
         super(os);
         this.encoding = ZipEncodingHelper.getZipEncoding(encoding);
 
-        this.buffer = new TarBuffer(os, blockSize, recordSize);
+        this.buffer = buffer;
         this.debug = false;
         this.assemLen = 0;
         this.assemBuf = new byte[recordSize];
@@ -474,6 +501,50 @@ public class TarOutputStream extends FilterOutputStream {
         }
     }
 
+    /**
+     * Writes bytes read from a file channel to the current tar
+     * archive entry.
+     *
+     * <p>If this stream writes to a file channel, all but the last
+     * record are transferred by {@link FileChannel#transferTo}.</p>
+     *
+     * @param source the channel to read from
+     * @param position the position in source to start reading at
+     * @param count the number of bytes to write
+     * @throws IOException on error
+     * @since Ant 1.10.9
+     */
+    public void transferFrom(FileChannel source, long position, long count)
+        throws IOException {
+        if ((currBytes + count) > currSize) {
+            throw new IOException("request to write '" + count
+                                  + "' bytes exceeds size in header of '"
+                                  + currSize + "' bytes for entry '"
+                                  + currName + "'");
+        }
+        if (assemLen == 0) {
+            long records = count / recordBuf.length;
+            buffer.transferRecords(source, position, records);
+            long transferred = records * recordBuf.length;
+            currBytes += transferred;
+            position += transferred;
+            count -= transferred;
+        }
+        ByteBuffer buf = ByteBuffer.allocate(recordBuf.length);
+        while (count > 0) {
+            buf.clear();
+            buf.limit((int) Math.min(buf.capacity(), count));
+            int n = source.read(buf, position);
+            if (n < 0) {
+                throw new IOException("unexpected EOF with " + count
+                                      + " bytes to write");
+            }
+            write(buf.array(), 0, n);
+            position += n;
+            count -= n;
+        }
+    }
+
     /**
      * Writes a PAX extended header with the given map as contents.
      */
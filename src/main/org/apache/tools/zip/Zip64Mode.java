@@ -43,5 +43,30 @@ public enum Zip64Mode {
      * Use Zip64 extensions for all entries where they are required,
      * don't use them for entries that clearly don't require them.
      */
-    AsNeeded
+    AsNeeded,
+    /**
+     * Like {@link #AsNeeded AsNeeded} but doesn't require the size of
+     * entries to be known in advance when writing to a non-seekable
+     * stream.
+     *
+     * <p>Entries of unknown size don't get a Zip64 extended
+     * information extra field in their local file header, their data
+     * descriptor holds eight byte sizes if they turn out to exceed
+     * 4GB and the central directory contains Zip64 extensions for
+     * all entries that require them.  This allows archives of any
+     * size to be written to pipes or sockets.</p>
+     *
+     * <p>Implementations that read the central directory - like
+     * {@link ZipFile} or InfoZIP - and those that determine the size
+     * of the data descriptor from the amount of data read - like
+     * {@link java.util.zip.ZipInputStream} - can read such archives.
+     * Streaming readers that rely on the local file header alone may
+     * not be able to read entries bigger than 4GB.  The archive is
+     * the same as with {@link #AsNeeded AsNeeded} if no entry
+     * requires Zip64 extensions or the archive is written to a
+     * file.</p>
+     *
+     * @since Ant 1.10.9
+     */
+    AsNeededStreaming
 }
@@ -30,6 +30,13 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
@@ -37,7 +44,9 @@ import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.stream.Collectors;
 import java.util.zip.Inflater;
 import java.util.zip.InflaterInputStream;
@@ -61,6 +70,12 @@ import java.util.zip.ZipException;
  * extensions and thus individual entries and archives larger than 4
  * GB or with more than 65536 entries.</p>
  *
+ * <p>Optionally the central directory can be memory mapped, in
+ * which case entries are only created when they are asked for.  Names are looked up using
+ * a hash table that only holds the names and their position inside
+ * the central directory.  This makes opening big archives a lot
+ * cheaper, in particular if only a few entries are needed.</p>
+ *
  * <p>The method signatures mimic the ones of
  * <code>java.util.zip.ZipFile</code>, with a couple of exceptions:
  *
@@ -82,6 +97,14 @@ public class ZipFile implements Closeable {
     private static final int POS_2 = 2;
     private static final int POS_3 = 3;
 
+    /**
+     * Mapped files can't be deleted on Windows while the mapping
+     * exists, so archives are never mapped there in case the mapping
+     * cannot be released on close.
+     */
+    private static final boolean CAN_MAP =
+        !System.getProperty("os.name").toLowerCase(Locale.ENGLISH).startsWith("windows");
+
     /**
      * List of entries in the order they appear inside the central
      * directory.
@@ -129,6 +152,12 @@ public class ZipFile implements Closeable {
      */
     private final boolean useUnicodeExtraFields;
 
+    /**
+     * Entries of a memory mapped archive, null if entries and nameMap
+     * are used.
+     */
+    private LazyDirectory directory;
+
     /**
      * Whether the file is closed.
      */
@@ -206,6 +235,43 @@ public class ZipFile implements Closeable {
      */
     public ZipFile(final File f, final String encoding, final boolean useUnicodeExtraFields)
         throws IOException {
+        this(f, encoding, useUnicodeExtraFields, false);
+    }
+
+    /**
+     * Opens the given file for reading, assuming the specified
+     * encoding for file names, optionally memory mapping it.
+     *
+     * <p>If memory mapping is used, only the central directory is
+     * mapped and entries are created lazily from the mapping, the
+     * data of the entries is read from the file.  The mapping is
+     * released when the archive is closed.  Entries whose names are not
+     * flagged as UTF-8 are created right away if Unicode extra fields
+     * are used, as their names may depend on the local file
+     * header.  As lazily created entries read their local file
+     * header when they are first accessed, a corrupt header is only
+     * detected then, the methods providing entries report it as an
+     * {@link UncheckedIOException} wrapping the IOException that is
+     * thrown by this constructor if the archive isn't mapped.</p>
+     *
+     * <p>Memory mapping is not used on Windows, where a mapped file
+     * cannot be deleted while it is mapped.  The archive must not be
+     * modified while it is open.</p>
+     *
+     * @param f the archive.
+     * @param encoding the encoding to use for file names, use null
+     * for the platform's default encoding
+     * @param useUnicodeExtraFields whether to use InfoZIP Unicode
+     * Extra Fields (if present) to set the file names.
+     * @param useMemoryMapping whether to memory map the central
+     * directory
+     *
+     * @throws IOException if an error occurs while reading the file.
+     * @since Ant 1.10.9
+     */
+    public ZipFile(final File f, final String encoding, final boolean useUnicodeExtraFields,
+                   final boolean useMemoryMapping)
+        throws IOException {
         this.archiveName = f.getAbsolutePath();
         this.encoding = encoding;
         this.zipEncoding = ZipEncodingHelper.getZipEncoding(encoding);
@@ -213,9 +279,11 @@ public class ZipFile implements Closeable {
         archive = new RandomAccessFile(f, "r");
         boolean success = false;
         try {
-            final Map<ZipEntry, NameAndComment> entriesWithoutUTF8Flag =
-                populateFromCentralDirectory();
-            resolveLocalFileHeaderData(entriesWithoutUTF8Flag);
+            if (!useMemoryMapping || !CAN_MAP || !readMappedCentralDirectory()) {
+                final Map<ZipEntry, NameAndComment> entriesWithoutUTF8Flag =
+                    populateFromCentralDirectory();
+                resolveLocalFileHeaderData(entriesWithoutUTF8Flag);
+            }
             success = true;
         } finally {
             closed = !success;
@@ -248,6 +316,9 @@ public class ZipFile implements Closeable {
         // can never be run in parallel.
         // no synchronization needed.
         closed = true;
+        if (directory != null) {
+            directory.release();
+        }
 
         archive.close();
     }
@@ -276,6 +347,9 @@ public class ZipFile implements Closeable {
      * @return all entries as {@link ZipEntry} instances
      */
     public Enumeration<ZipEntry> getEntries() {
+        if (directory != null) {
+            return directory.enumeration();
+        }
         return Collections.enumeration(entries);
     }
 
@@ -290,7 +364,9 @@ public class ZipFile implements Closeable {
      * @since Ant 1.9.0
      */
     public Enumeration<ZipEntry> getEntriesInPhysicalOrder() {
-        return entries.stream().sorted(OFFSET_COMPARATOR).collect(Collectors
+        final List<ZipEntry> all =
+            directory != null ? Collections.list(directory.enumeration()) : entries;
+        return all.stream().sorted(OFFSET_COMPARATOR).collect(Collectors
             .collectingAndThen(Collectors.toList(), Collections::enumeration));
     }
 
@@ -307,6 +383,10 @@ public class ZipFile implements Closeable {
      * {@code null} if not present.
      */
     public ZipEntry getEntry(final String name) {
+        if (directory != null) {
+            final List<ZipEntry> found = directory.lookup(name, true);
+            return found.isEmpty() ? null : found.get(0);
+        }
         final LinkedList<ZipEntry> entriesOfThatName = nameMap.get(name);
         return entriesOfThatName != null ? entriesOfThatName.getFirst() : null;
     }
@@ -321,6 +401,9 @@ public class ZipFile implements Closeable {
      * @since 1.9.2
      */
     public Iterable<ZipEntry> getEntries(final String name) {
+        if (directory != null) {
+            return directory.lookup(name, false);
+        }
         final List<ZipEntry> entriesOfThatName = nameMap.get(name);
         return entriesOfThatName != null ? entriesOfThatName
             : Collections.emptyList();
@@ -336,6 +419,11 @@ public class ZipFile implements Closeable {
      * @since 1.9.2
      */
     public Iterable<ZipEntry> getEntriesInPhysicalOrder(final String name) {
+        if (directory != null) {
+            final List<ZipEntry> found = directory.lookup(name, false);
+            found.sort(OFFSET_COMPARATOR);
+            return found;
+        }
         if (nameMap.containsKey(name)) {
             return nameMap.get(name).stream().sorted(OFFSET_COMPARATOR)
                 .collect(Collectors.toList());
@@ -396,6 +484,42 @@ public class ZipFile implements Closeable {
         }
     }
 
+    /**
+     * Returns an InputStream for reading the data of the given entry
+     * as it is stored inside the archive, i.e. without decompressing
+     * it.
+     *
+     * <p>Together with {@link ZipOutputStream#addRawEntry} this
+     * allows entries to be copied to a different archive without
+     * decompressing and compressing them again.</p>
+     *
+     * @param ze the entry to get the stream for.
+     * @return a stream to read the entry's raw data from or null if
+     * the entry doesn't belong to this archive.
+     * @since Ant 1.10.9
+     */
+    public InputStream getRawInputStream(final ZipEntry ze) {
+        if (!(ze instanceof Entry)) {
+            return null;
+        }
+        return new BoundedInputStream(getDataOffset(ze), ze.getCompressedSize());
+    }
+
+    /**
+     * The offset of the given entry's data inside the archive.
+     *
+     * <p>The data starts right after the local file header and has
+     * the entry's compressed size.</p>
+     *
+     * @param ze the entry
+     * @return the offset or -1 if the entry doesn't belong to this
+     * archive.
+     * @since Ant 1.10.9
+     */
+    public long getDataOffset(final ZipEntry ze) {
+        return ze instanceof Entry ? ((Entry) ze).getOffsetEntry().dataOffset : -1;
+    }
+
     public String getName() {
         return archiveName;
     }
@@ -443,6 +567,15 @@ public class ZipFile implements Closeable {
     private static final long CFH_SIG =
         ZipLong.getValue(ZipOutputStream.CFH_SIG);
 
+    /**
+     * Offsets of the length fields inside the fixed size part of a
+     * "central directory" entry structure (without signature).
+     */
+    private static final int CFH_GPB_OFFSET = 2 * SHORT;
+    private static final int CFH_FILENAME_LENGTH_OFFSET = 6 * SHORT + 3 * WORD;
+    private static final int CFH_EXTRA_LENGTH_OFFSET = CFH_FILENAME_LENGTH_OFFSET + SHORT;
+    private static final int CFH_COMMENT_LENGTH_OFFSET = CFH_EXTRA_LENGTH_OFFSET + SHORT;
+
     /**
      * Reads the central directory of the given archive and populates
      * the internal tables with ZipEntry instances.
@@ -489,17 +622,42 @@ public class ZipFile implements Closeable {
         readCentralDirectoryEntry(final Map<ZipEntry, NameAndComment> noUTF8Flag)
         throws IOException {
         archive.readFully(CFH_BUF);
+        final byte[] fileName = new byte[ZipShort.getValue(CFH_BUF, CFH_FILENAME_LENGTH_OFFSET)];
+        archive.readFully(fileName);
+        final byte[] cdExtraData = new byte[ZipShort.getValue(CFH_BUF, CFH_EXTRA_LENGTH_OFFSET)];
+        archive.readFully(cdExtraData);
+        final byte[] comment = new byte[ZipShort.getValue(CFH_BUF, CFH_COMMENT_LENGTH_OFFSET)];
+        archive.readFully(comment);
+
+        final Entry ze = createEntry(CFH_BUF, fileName, cdExtraData, comment);
+        entries.add(ze);
+        if (!ze.getGeneralPurposeBit().usesUTF8ForNames() && useUnicodeExtraFields) {
+            noUTF8Flag.put(ze, new NameAndComment(fileName, comment));
+        }
+    }
+
+    /**
+     * Creates a ZipEntry from the data of a central directory entry.
+     *
+     * @param cfh the fixed size part of the entry, without signature
+     * @param fileName the raw file name
+     * @param cdExtraData the extra fields
+     * @param comment the raw comment
+     */
+    private Entry createEntry(final byte[] cfh, final byte[] fileName,
+                              final byte[] cdExtraData, final byte[] comment)
+        throws IOException {
         int off = 0;
         final OffsetEntry offset = new OffsetEntry();
         final Entry ze = new Entry(offset);
 
-        final int versionMadeBy = ZipShort.getValue(CFH_BUF, off);
+        final int versionMadeBy = ZipShort.getValue(cfh, off);
         off += SHORT;
         ze.setPlatform((versionMadeBy >> BYTE_SHIFT) & NIBLET_MASK);
 
         off += SHORT; // skip version info
 
-        final GeneralPurposeBit gpFlag = GeneralPurposeBit.parse(CFH_BUF, off);
+        final GeneralPurposeBit gpFlag = GeneralPurposeBit.parse(cfh, off);
         final boolean hasUTF8Flag = gpFlag.usesUTF8ForNames();
         final ZipEncoding entryEncoding =
             hasUTF8Flag ? ZipEncodingHelper.UTF8_ZIP_ENCODING : zipEncoding;
@@ -507,62 +665,45 @@ public class ZipFile implements Closeable {
 
         off += SHORT;
 
-        ze.setMethod(ZipShort.getValue(CFH_BUF, off));
+        ze.setMethod(ZipShort.getValue(cfh, off));
         off += SHORT;
 
-        final long time = ZipUtil.dosToJavaTime(ZipLong.getValue(CFH_BUF, off));
+        final long time = ZipUtil.dosToJavaTime(ZipLong.getValue(cfh, off));
         ze.setTime(time);
         off += WORD;
 
-        ze.setCrc(ZipLong.getValue(CFH_BUF, off));
+        ze.setCrc(ZipLong.getValue(cfh, off));
         off += WORD;
 
-        ze.setCompressedSize(ZipLong.getValue(CFH_BUF, off));
+        ze.setCompressedSize(ZipLong.getValue(cfh, off));
         off += WORD;
 
-        ze.setSize(ZipLong.getValue(CFH_BUF, off));
+        ze.setSize(ZipLong.getValue(cfh, off));
         off += WORD;
 
-        final int fileNameLen = ZipShort.getValue(CFH_BUF, off);
-        off += SHORT;
-
-        final int extraLen = ZipShort.getValue(CFH_BUF, off);
-        off += SHORT;
-
-        final int commentLen = ZipShort.getValue(CFH_BUF, off);
-        off += SHORT;
+        off += 3 * SHORT; // skip lengths, the arrays are passed in
 
-        final int diskStart = ZipShort.getValue(CFH_BUF, off);
+        final int diskStart = ZipShort.getValue(cfh, off);
         off += SHORT;
 
-        ze.setInternalAttributes(ZipShort.getValue(CFH_BUF, off));
+        ze.setInternalAttributes(ZipShort.getValue(cfh, off));
         off += SHORT;
 
-        ze.setExternalAttributes(ZipLong.getValue(CFH_BUF, off));
+        ze.setExternalAttributes(ZipLong.getValue(cfh, off));
         off += WORD;
 
-        final byte[] fileName = new byte[fileNameLen];
-        archive.readFully(fileName);
         ze.setName(entryEncoding.decode(fileName), fileName);
 
         // LFH offset,
-        offset.headerOffset = ZipLong.getValue(CFH_BUF, off);
+        offset.headerOffset = ZipLong.getValue(cfh, off);
         // data offset will be filled later
-        entries.add(ze);
 
-        final byte[] cdExtraData = new byte[extraLen];
-        archive.readFully(cdExtraData);
         ze.setCentralDirectoryExtra(cdExtraData);
 
         setSizesAndOffsetFromZip64Extra(ze, offset, diskStart);
 
-        final byte[] comment = new byte[commentLen];
-        archive.readFully(comment);
         ze.setComment(entryEncoding.decode(comment));
-
-        if (!hasUTF8Flag && useUnicodeExtraFields) {
-            noUTF8Flag.put(ze, new NameAndComment(fileName, comment));
-        }
+        return ze;
     }
 
     /**
@@ -865,33 +1006,7 @@ public class ZipFile implements Closeable {
             // entries is filled in populateFromCentralDirectory and
             // never modified
             final Entry ze = (Entry) zipEntry;
-            final OffsetEntry offsetEntry = ze.getOffsetEntry();
-            final long offset = offsetEntry.headerOffset;
-            archive.seek(offset + LFH_OFFSET_FOR_FILENAME_LENGTH);
-            archive.readFully(SHORT_BUF);
-            final int fileNameLen = ZipShort.getValue(SHORT_BUF);
-            archive.readFully(SHORT_BUF);
-            final int extraFieldLen = ZipShort.getValue(SHORT_BUF);
-            int lenToSkip = fileNameLen;
-            while (lenToSkip > 0) {
-                final int skipped = archive.skipBytes(lenToSkip);
-                if (skipped <= 0) {
-                    throw new IOException(
-                        "failed to skip file name in local file header");
-                }
-                lenToSkip -= skipped;
-            }
-            final byte[] localExtraData = new byte[extraFieldLen];
-            archive.readFully(localExtraData);
-            ze.setExtra(localExtraData);
-            offsetEntry.dataOffset = offset + LFH_OFFSET_FOR_FILENAME_LENGTH
-                + SHORT + SHORT + fileNameLen + extraFieldLen;
-
-            if (entriesWithoutUTF8Flag.containsKey(ze)) {
-                final NameAndComment nc = entriesWithoutUTF8Flag.get(ze);
-                ZipUtil.setNameAndCommentFromExtraFields(ze, nc.name,
-                                                         nc.comment);
-            }
+            resolveLocalFileHeaderData(ze, entriesWithoutUTF8Flag.get(ze));
 
             final String name = ze.getName();
             LinkedList<ZipEntry> entriesOfThatName = nameMap.computeIfAbsent(name, k -> new LinkedList<>());
@@ -899,6 +1014,117 @@ public class ZipFile implements Closeable {
         }
     }
 
+    /**
+     * Adds the data available from the local file header to a single
+     * entry and records the offset of its data.
+     *
+     * @param ze the entry
+     * @param nc the raw name and comment if the entry's name may be
+     * replaced by a Unicode extra field, null otherwise
+     */
+    private void resolveLocalFileHeaderData(final Entry ze, final NameAndComment nc)
+        throws IOException {
+        final OffsetEntry offsetEntry = ze.getOffsetEntry();
+        final long offset = offsetEntry.headerOffset;
+        final byte[] lengths = new byte[2 * SHORT];
+        readFully(offset + LFH_OFFSET_FOR_FILENAME_LENGTH, lengths);
+        final int fileNameLen = ZipShort.getValue(lengths, 0);
+        final int extraFieldLen = ZipShort.getValue(lengths, SHORT);
+        final byte[] localExtraData = new byte[extraFieldLen];
+        readFully(offset + LFH_OFFSET_FOR_FILENAME_LENGTH + SHORT + SHORT
+                  + fileNameLen, localExtraData);
+        ze.setExtra(localExtraData);
+        offsetEntry.dataOffset = offset + LFH_OFFSET_FOR_FILENAME_LENGTH
+            + SHORT + SHORT + fileNameLen + extraFieldLen;
+
+        if (nc != null) {
+            ZipUtil.setNameAndCommentFromExtraFields(ze, nc.name,
+                                                     nc.comment);
+        }
+    }
+
+    /**
+     * Reads the given number of bytes starting at the given position
+     * of the archive.
+     */
+    private void readFully(final long pos, final byte[] b) throws IOException {
+        int off = 0;
+        while (off < b.length) {
+            final int n = read(pos + off, b, off, b.length - off);
+            if (n < 0) {
+                throw new EOFException();
+            }
+            off += n;
+        }
+    }
+
+    /**
+     * Reads up to len bytes starting at the given position of the
+     * archive.
+     *
+     * @return the number of bytes read or -1 at the end of the archive
+     */
+    private int read(final long pos, final byte[] b, final int off, final int len)
+        throws IOException {
+        synchronized (archive) {
+            archive.seek(pos);
+            return archive.read(b, off, len);
+        }
+    }
+
+    /**
+     * Memory maps the central directory and reads the names of all
+     * entries.
+     *
+     * @return false if the central directory is too big to be mapped
+     */
+    private boolean readMappedCentralDirectory() throws IOException {
+        final FileChannel channel = archive.getChannel();
+        final long length = channel.size();
+        positionAtCentralDirectory();
+        final long start = archive.getFilePointer();
+        if (length - start > Integer.MAX_VALUE) {
+            return false;
+        }
+        final ByteBuffer cd = channel.map(FileChannel.MapMode.READ_ONLY, start,
+                                          length - start);
+        try {
+            directory = new LazyDirectory(cd.order(ByteOrder.LITTLE_ENDIAN));
+        } catch (final IOException | RuntimeException e) {
+            unmap(cd);
+            throw e;
+        }
+        return true;
+    }
+
+    /**
+     * Releases a mapping right away rather than waiting for the
+     * garbage collector, there is no public API for this.
+     */
+    private static void unmap(final ByteBuffer buffer) {
+        try {
+            // Java 9+
+            final Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            final Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            unsafeClass.getMethod("invokeCleaner", ByteBuffer.class)
+                .invoke(theUnsafe.get(null), buffer);
+            return;
+        } catch (final ReflectiveOperationException | RuntimeException e) {
+            // try Java 8's way
+        }
+        try {
+            final Method cleaner = buffer.getClass().getMethod("cleaner");
+            cleaner.setAccessible(true);
+            final Object c = cleaner.invoke(buffer);
+            if (c != null) {
+                c.getClass().getMethod("clean").invoke(c);
+            }
+        } catch (final ReflectiveOperationException | RuntimeException e) {
+            // leave it to the garbage collector
+        }
+    }
+
     /**
      * Checks whether the archive starts with a LFH.  If it doesn't,
      * it may be an empty archive.
@@ -933,10 +1159,8 @@ public class ZipFile implements Closeable {
                 }
                 return -1;
             }
-            synchronized (archive) {
-                archive.seek(loc++);
-                return archive.read();
-            }
+            final byte[] one = new byte[1];
+            return ZipFile.this.read(loc++, one, 0, 1) > 0 ? one[0] & 0xff : -1;
         }
 
         @Override
@@ -957,11 +1181,7 @@ public class ZipFile implements Closeable {
             if (len > remaining) {
                 len = (int) remaining;
             }
-            int ret;
-            synchronized (archive) {
-                archive.seek(loc);
-                ret = archive.read(b, off, len);
-            }
+            final int ret = ZipFile.this.read(loc, b, off, len);
             if (ret > 0) {
                 loc += ret;
                 remaining -= ret;
@@ -978,6 +1198,173 @@ public class ZipFile implements Closeable {
         }
     }
 
+    /**
+     * The entries of a memory mapped archive.
+     *
+     * <p>Only the names of the entries and the position of their
+     * records inside the central directory are kept, entries are
+     * created when they are first asked for.  Names are looked up in
+     * an open addressing hash table with linear probing holding the
+     * indices of the entries, entries of the same name are found in
+     * central directory order.</p>
+     */
+    private final class LazyDirectory {
+        private final ByteBuffer cd;
+        private boolean released;
+        private int size;
+        private int[] positions = new int[HASH_SIZE];
+        private String[] names = new String[HASH_SIZE];
+        private Entry[] created = new Entry[HASH_SIZE];
+        /** Index + 1 of the entries, 0 marks an empty slot. */
+        private final int[] table;
+        private final int mask;
+
+        LazyDirectory(final ByteBuffer cd) throws IOException {
+            this.cd = cd;
+            int pos = 0;
+            while (pos <= cd.limit() - WORD - CFH_LEN
+                   && (cd.getInt(pos) & 0xffffffffL) == CFH_SIG) {
+                if (size == positions.length) {
+                    positions = Arrays.copyOf(positions, 2 * size);
+                    names = Arrays.copyOf(names, 2 * size);
+                    created = Arrays.copyOf(created, 2 * size);
+                }
+                positions[size] = pos;
+                final int cfh = pos + WORD;
+                final int nameLen = cd.getShort(cfh + CFH_FILENAME_LENGTH_OFFSET) & 0xffff;
+                final boolean utf8 = GeneralPurposeBit.parse(bytes(cfh, CFH_LEN),
+                    CFH_GPB_OFFSET).usesUTF8ForNames();
+                if (!utf8 && useUnicodeExtraFields) {
+                    // the name may be found inside the local file header
+                    names[size] = get(size).getName();
+                } else {
+                    names[size] = (utf8 ? ZipEncodingHelper.UTF8_ZIP_ENCODING : zipEncoding)
+                        .decode(bytes(cfh + CFH_LEN, nameLen));
+                }
+                size++;
+                pos = cfh + CFH_LEN + nameLen
+                    + (cd.getShort(cfh + CFH_EXTRA_LENGTH_OFFSET) & 0xffff)
+                    + (cd.getShort(cfh + CFH_COMMENT_LENGTH_OFFSET) & 0xffff);
+            }
+            if (size == 0 && startsWithLocalFileHeader()) {
+                throw new IOException(
+                    "central directory is empty, can't expand corrupt archive.");
+            }
+
+            int capacity = Integer.highestOneBit(Math.max(2 * size, 8) - 1) << 1;
+            table = new int[capacity];
+            mask = capacity - 1;
+            for (int i = 0; i < size; i++) {
+                int slot = hash(names[i]) & mask;
+                while (table[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                table[slot] = i + 1;
+            }
+        }
+
+        /**
+         * Finds the entries of the given name in central directory
+         * order.
+         */
+        List<ZipEntry> lookup(final String name, final boolean firstOnly) {
+            final List<ZipEntry> found = new ArrayList<>(1);
+            for (int slot = hash(name) & mask; table[slot] != 0; slot = (slot + 1) & mask) {
+                final int i = table[slot] - 1;
+                if (names[i].equals(name)) {
+                    found.add(getUnchecked(i));
+                    if (firstOnly) {
+                        break;
+                    }
+                }
+            }
+            return found;
+        }
+
+        Enumeration<ZipEntry> enumeration() {
+            return new Enumeration<ZipEntry>() {
+                private int next = 0;
+
+                @Override
+                public boolean hasMoreElements() {
+                    return next < size;
+                }
+
+                @Override
+                public ZipEntry nextElement() {
+                    if (next >= size) {
+                        throw new NoSuchElementException();
+                    }
+                    return getUnchecked(next++);
+                }
+            };
+        }
+
+        /**
+         * Provides the entry at the given index, creates it if it
+         * hasn't been created so far.
+         */
+        synchronized Entry get(final int i) throws IOException {
+            if (created[i] == null) {
+                if (released) {
+                    throw new IOException("archive " + archiveName + " has been closed");
+                }
+                final int cfhStart = positions[i] + WORD;
+                final byte[] cfh = bytes(cfhStart, CFH_LEN);
+                final byte[] fileName =
+                    bytes(cfhStart + CFH_LEN, ZipShort.getValue(cfh, CFH_FILENAME_LENGTH_OFFSET));
+                final byte[] cdExtraData =
+                    bytes(cfhStart + CFH_LEN + fileName.length,
+                          ZipShort.getValue(cfh, CFH_EXTRA_LENGTH_OFFSET));
+                final byte[] comment =
+                    bytes(cfhStart + CFH_LEN + fileName.length + cdExtraData.length,
+                          ZipShort.getValue(cfh, CFH_COMMENT_LENGTH_OFFSET));
+                final Entry ze = createEntry(cfh, fileName, cdExtraData, comment);
+                resolveLocalFileHeaderData(ze,
+                    !ze.getGeneralPurposeBit().usesUTF8ForNames() && useUnicodeExtraFields
+                    ? new NameAndComment(fileName, comment) : null);
+                created[i] = ze;
+            }
+            return created[i];
+        }
+
+        /**
+         * Unmaps the central directory, entries that haven't been
+         * created so far cannot be created after that.
+         */
+        synchronized void release() {
+            if (!released) {
+                released = true;
+                unmap(cd);
+            }
+        }
+
+        private ZipEntry getUnchecked(final int i) {
+            try {
+                return get(i);
+            } catch (final IOException e) {
+                throw new UncheckedIOException("failed to read entry " + names[i]
+                                               + " of " + archiveName, e);
+            }
+        }
+
+        private byte[] bytes(final int pos, final int len) throws IOException {
+            if (pos + len > cd.limit()) {
+                throw new EOFException("truncated central directory");
+            }
+            final ByteBuffer view = cd.duplicate();
+            view.position(pos);
+            final byte[] b = new byte[len];
+            view.get(b);
+            return b;
+        }
+
+        private int hash(final String name) {
+            final int h = name.hashCode();
+            return h ^ (h >>> 16);
+        }
+    }
+
     private static final class NameAndComment {
         private final byte[] name;
         private final byte[] comment;
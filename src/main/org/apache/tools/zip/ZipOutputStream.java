@@ -33,16 +33,32 @@ import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FilterOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.io.OutputStream;
 import java.io.RandomAccessFile;
 import java.nio.ByteBuffer;
 import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Date;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.zip.CRC32;
 import java.util.zip.Deflater;
 import java.util.zip.ZipException;
@@ -119,6 +135,15 @@ public class ZipOutputStream extends FilterOutputStream {
      */
     private static final int DEFLATER_BLOCK_SIZE = 8192;
 
+    /**
+     * Entries with more data than this are compressed by the calling
+     * thread even if {@link #setThreads threads} have been set.
+     */
+    private static final int MAX_DEFERRED_ENTRY_SIZE = 8 * 1024 * 1024;
+
+    private static final AtomicInteger POOL_NUMBER = new AtomicInteger();
+    private static final long SHUTDOWN_WAIT_SECONDS = 60;
+
     /**
      * Compression method for deflated entries.
      *
@@ -325,6 +350,39 @@ public class ZipOutputStream extends FilterOutputStream {
 
     private final Calendar calendarInstance = Calendar.getInstance();
 
+    /**
+     * Number of threads used to deflate entries.
+     */
+    private int threads = 1;
+
+    /**
+     * Compresses deferred entries, created lazily.
+     */
+    private ExecutorService executor;
+
+    /**
+     * Entry whose data is being collected to be compressed by the
+     * executor.
+     */
+    private DeferredEntry deferred;
+
+    /**
+     * Deferred entries in the order they have been added, waiting to
+     * be written.
+     */
+    private final Deque<Future<DeferredEntry>> pending = new ArrayDeque<>();
+
+    /**
+     * Uncompressed size of all pending entries.
+     */
+    private long pendingBytes = 0;
+
+    /**
+     * Deflaters not currently in use by the executor, by compression
+     * level.
+     */
+    private final Map<Integer, Queue<Deflater>> deflaters = new ConcurrentHashMap<>();
+
     /**
      * Creates a new ZIP OutputStream filtering the underlying stream.
      * @param out the outputstream to zip
@@ -467,6 +525,14 @@ public class ZipOutputStream extends FilterOutputStream {
      * and the uncompressed size is unknown when {@link
      * #putNextEntry} is called.</p>
      *
+     * <p>When setting the mode to {@link Zip64Mode#AsNeededStreaming
+     * AsNeededStreaming}, Zip64 extensions will be used for those
+     * entries that require them even if their size is unknown when
+     * calling {@link #putNextEntry} and the output stream is not
+     * seekable.  Such entries get a data descriptor with eight byte
+     * sizes and Zip64 extensions inside the central directory, but
+     * not inside the local file header.</p>
+     *
      * <p>If no entry inside the resulting archive requires Zip64
      * extensions then {@link Zip64Mode#Never Never} will create the
      * smallest archive.  {@link Zip64Mode#AsNeeded AsNeeded} will
@@ -489,6 +555,40 @@ public class ZipOutputStream extends FilterOutputStream {
         zip64Mode = mode;
     }
 
+    /**
+     * Sets the number of threads used to compress {@link #DEFLATED
+     * DEFLATED} entries.
+     *
+     * <p>With more than one thread the data of an entry is kept in
+     * memory until the entry is closed and then deflated in the
+     * background while the caller goes on with the next entry.
+     * Entries are still written in the order they have been added,
+     * the archive is the same as if a single thread had been used.
+     * Entries holding more than a few MB of data are compressed by
+     * the calling thread after all entries added before them have
+     * been written.</p>
+     *
+     * <p>As the headers of deferred entries are written later, the
+     * settings that affect them - like the encoding - must not be
+     * changed once the first entry has been added.</p>
+     *
+     * <p>Defaults to 1.</p>
+     *
+     * @param threads the number of threads, values less than one are
+     * treated as one
+     * @throws IllegalStateException if entries have already been
+     * added
+     * @since Ant 1.10.9
+     */
+    public void setThreads(int threads) {
+        if (entry != null || deferred != null || !entries.isEmpty()
+            || !pending.isEmpty()) {
+            throw new IllegalStateException("threads must be set before the"
+                                            + " first entry is added");
+        }
+        this.threads = Math.max(1, threads);
+    }
+
     /**
      * {@inheritDoc}
      * @throws Zip64RequiredException if the archive's size exceeds 4
@@ -500,8 +600,13 @@ public class ZipOutputStream extends FilterOutputStream {
             throw new IOException("This archive has already been finished");
         }
 
-        if (entry != null) {
-            closeEntry();
+        try {
+            if (entry != null || deferred != null) {
+                closeEntry();
+            }
+            writePending(true);
+        } finally {
+            shutdownExecutor();
         }
 
         cdOffset = written;
@@ -540,14 +645,28 @@ public class ZipOutputStream extends FilterOutputStream {
      * is {@link Zip64Mode#Never}.
      */
     public void closeEntry() throws IOException {
+        if (deferred != null) {
+            submitDeferred();
+            return;
+        }
         preClose();
 
         flushDeflater();
 
-        final Zip64Mode effectiveMode = getEffectiveZip64Mode(entry.entry);
-        long bytesWritten = written - entry.dataStart;
         long realCrc = crc.getValue();
         crc.reset();
+        completeEntry(realCrc);
+    }
+
+    /**
+     * Writes size and CRC information of the current entry once all
+     * of its data has been written.
+     *
+     * @param realCrc the CRC of the entry's uncompressed data
+     */
+    private void completeEntry(long realCrc) throws IOException {
+        final Zip64Mode effectiveMode = getEffectiveZip64Mode(entry.entry);
+        long bytesWritten = written - entry.dataStart;
 
         final boolean actuallyNeedsZip64 =
             handleSizesAndCrc(bytesWritten, realCrc, effectiveMode);
@@ -733,10 +852,24 @@ public class ZipOutputStream extends FilterOutputStream {
             throw new IOException("Stream has already been finished");
         }
 
-        if (entry != null) {
+        if (entry != null || deferred != null) {
             closeEntry();
         }
 
+        if (threads > 1) {
+            setDefaults(archiveEntry);
+            deferred = new DeferredEntry(archiveEntry, level);
+            return;
+        }
+        startEntry(archiveEntry);
+    }
+
+    /**
+     * Writes the local file header of a new current entry.
+     *
+     * @param archiveEntry ZipEntry
+     */
+    private void startEntry(ZipEntry archiveEntry) throws IOException {
         entry = new CurrentEntry(archiveEntry);
         entries.add(entry.entry);
 
@@ -771,6 +904,91 @@ public class ZipOutputStream extends FilterOutputStream {
         writeLocalFileHeader(entry.entry);
     }
 
+    /**
+     * Adds an entry whose data has already been compressed, copying
+     * the data verbatim.
+     *
+     * <p>This is useful to copy an entry from a different archive -
+     * see {@link ZipFile#getRawInputStream} - without decompressing
+     * and compressing it again.  The entry's method, CRC, size and
+     * compressed size must be set and match the data.  The entry is
+     * closed once its data has been written, the next entry can be
+     * added right away.</p>
+     *
+     * @param archiveEntry the entry
+     * @param rawData the entry's data as it is going to be stored
+     * inside the archive, will not be closed
+     * @throws IOException on error
+     * @throws ZipException if the entry lacks some information or the
+     * stream doesn't provide as many bytes as expected
+     * @throws Zip64RequiredException if the entry's uncompressed or
+     * compressed size exceeds 4 GByte and {@link #setUseZip64} is
+     * {@link Zip64Mode#Never}.
+     * @since Ant 1.10.9
+     */
+    public void addRawEntry(ZipEntry archiveEntry, InputStream rawData)
+        throws IOException {
+        if (finished) {
+            throw new IOException("Stream has already been finished");
+        }
+
+        if (entry != null || deferred != null) {
+            closeEntry();
+        }
+
+        if (archiveEntry.getMethod() == -1 || archiveEntry.getCrc() == -1
+            || archiveEntry.getSize() == -1
+            || archiveEntry.getCompressedSize() == -1) {
+            throw new ZipException("method, CRC and sizes are required for"
+                                   + " raw entry " + archiveEntry.getName());
+        }
+
+        if (!pending.isEmpty()
+            && archiveEntry.getCompressedSize() <= MAX_DEFERRED_ENTRY_SIZE) {
+            // keep the order without waiting for the entries pending
+            final DeferredEntry d = new DeferredEntry(archiveEntry, level);
+            d.size = archiveEntry.getSize();
+            d.crc = archiveEntry.getCrc();
+            d.compressed = new byte[(int) archiveEntry.getCompressedSize()];
+            while (d.compressedLength < d.compressed.length) {
+                int n = rawData.read(d.compressed, d.compressedLength,
+                                     d.compressed.length - d.compressedLength);
+                if (n < 0) {
+                    throw rawDataTooShort(archiveEntry, d.compressedLength);
+                }
+                d.compressedLength += n;
+            }
+            d.data = null;
+            pending.add(CompletableFuture.completedFuture(d));
+            pendingBytes += d.size;
+            writePending(false);
+            return;
+        }
+
+        writePending(true);
+        startEntry(archiveEntry);
+        ZipUtil.checkRequestedFeatures(entry.entry);
+        entry.hasWritten = true;
+        entry.bytesRead = archiveEntry.getSize();
+        final long expected = archiveEntry.getCompressedSize();
+        final byte[] buffer = new byte[DEFLATER_BLOCK_SIZE];
+        for (long remaining = expected; remaining > 0;) {
+            int n = rawData.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+            if (n < 0) {
+                throw rawDataTooShort(archiveEntry, expected - remaining);
+            }
+            writeCounted(buffer, 0, n);
+            remaining -= n;
+        }
+        completeEntry(archiveEntry.getCrc());
+    }
+
+    private static ZipException rawDataTooShort(ZipEntry ze, long read) {
+        return new ZipException("raw data of entry " + ze.getName()
+                                + " ended after " + read + " of "
+                                + ze.getCompressedSize() + " bytes");
+    }
+
     /**
      * Provides default values for compression method and last
      * modification time.
@@ -911,6 +1129,13 @@ public class ZipOutputStream extends FilterOutputStream {
      */
     @Override
     public void write(byte[] b, int offset, int length) throws IOException {
+        if (deferred != null) {
+            if (deferred.size + length <= MAX_DEFERRED_ENTRY_SIZE) {
+                deferred.add(b, offset, length);
+                return;
+            }
+            startDeferredEntry();
+        }
         if (entry == null) {
             throw new IllegalStateException("No current entry");
         }
@@ -1179,7 +1404,7 @@ public class ZipOutputStream extends FilterOutputStream {
         }
         writeCounted(DD_SIG);
         writeCounted(ZipLong.getBytes(ze.getCrc()));
-        if (!hasZip64Extra(ze)) {
+        if (!hasZip64Extra(ze) && !isTooLageForZip32(ze)) {
             writeCounted(ZipLong.getBytes(ze.getCompressedSize()));
             writeCounted(ZipLong.getBytes(ze.getSize()));
         } else {
@@ -1638,6 +1863,166 @@ public class ZipOutputStream extends FilterOutputStream {
         return Zip64Mode.Never;
     }
 
+    /**
+     * Hands the entry whose data has been collected to the executor
+     * and writes pending entries that are complete.
+     */
+    private void submitDeferred() throws IOException {
+        final DeferredEntry d = deferred;
+        deferred = null;
+        if (d.entry.getMethod() == DEFLATED) {
+            if (executor == null) {
+                String prefix = "zip-deflater-" + POOL_NUMBER.incrementAndGet() + "-";
+                AtomicInteger n = new AtomicInteger();
+                executor = Executors.newFixedThreadPool(threads, r -> {
+                    Thread t = new Thread(r, prefix + n.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+            }
+            pending.add(executor.submit(() -> deflate(d)));
+        } else {
+            pending.add(CompletableFuture.completedFuture(d));
+        }
+        pendingBytes += d.size;
+        writePending(false);
+        while (pending.size() > 2 * threads
+               || pendingBytes > (long) threads * MAX_DEFERRED_ENTRY_SIZE) {
+            writePending(pending.remove());
+        }
+    }
+
+    /**
+     * Turns the deferred entry into the current entry once it has
+     * become too big to be held in memory.
+     */
+    private void startDeferredEntry() throws IOException {
+        final DeferredEntry d = deferred;
+        deferred = null;
+        writePending(true);
+        startEntry(d.entry);
+        for (byte[] chunk : d.data) {
+            write(chunk, 0, chunk.length);
+        }
+    }
+
+    /**
+     * Writes pending entries in order.
+     *
+     * @param all whether to wait for entries that are still being
+     * compressed or to stop at the first one
+     */
+    private void writePending(boolean all) throws IOException {
+        while (!pending.isEmpty() && (all || pending.peek().isDone())) {
+            writePending(pending.remove());
+        }
+    }
+
+    private void writePending(Future<DeferredEntry> f) throws IOException {
+        DeferredEntry d;
+        try {
+            d = f.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted while compressing");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IOException(cause);
+        }
+        pendingBytes -= d.size;
+        startEntry(d.entry);
+        if (d.compressed == null) {
+            for (byte[] chunk : d.data) {
+                write(chunk, 0, chunk.length);
+            }
+            closeEntry();
+        } else {
+            ZipUtil.checkRequestedFeatures(entry.entry);
+            entry.hasWritten = true;
+            entry.bytesRead = d.size;
+            writeCounted(d.compressed, 0, d.compressedLength);
+            completeEntry(d.crc);
+        }
+    }
+
+    /**
+     * Compresses the data of a deferred entry exactly the way {@link
+     * #write write} would have done it, invoked by the executor.
+     *
+     * @param d the entry
+     * @return the entry
+     */
+    private DeferredEntry deflate(DeferredEntry d) {
+        final Queue<Deflater> idle =
+            deflaters.computeIfAbsent(d.level, l -> new ConcurrentLinkedQueue<>());
+        Deflater deflater = idle.poll();
+        if (deflater == null) {
+            deflater = new Deflater(d.level, true);
+        }
+        try {
+            final CRC32 checksum = new CRC32();
+            d.compressed = new byte[Math.max(2 * BUFFER_SIZE, (int) (d.size / 2))];
+            for (byte[] chunk : d.data) {
+                checksum.update(chunk, 0, chunk.length);
+                for (int off = 0; off < chunk.length; off += DEFLATER_BLOCK_SIZE) {
+                    deflater.setInput(chunk, off,
+                                      Math.min(DEFLATER_BLOCK_SIZE, chunk.length - off));
+                    while (!deflater.needsInput()) {
+                        deflateInto(deflater, d);
+                    }
+                }
+            }
+            deflater.finish();
+            while (!deflater.finished()) {
+                deflateInto(deflater, d);
+            }
+            d.crc = checksum.getValue();
+            d.data = null;
+            return d;
+        } finally {
+            deflater.reset();
+            idle.add(deflater);
+        }
+    }
+
+    private static void deflateInto(Deflater deflater, DeferredEntry d) {
+        if (d.compressed.length - d.compressedLength < BUFFER_SIZE) {
+            d.compressed = Arrays.copyOf(d.compressed, 2 * d.compressed.length);
+        }
+        d.compressedLength +=
+            deflater.deflate(d.compressed, d.compressedLength, BUFFER_SIZE);
+    }
+
+    private void shutdownExecutor() {
+        pending.forEach(f -> f.cancel(false));
+        pending.clear();
+        pendingBytes = 0;
+        deferred = null;
+        if (executor != null) {
+            executor.shutdown();
+            try {
+                executor.awaitTermination(SHUTDOWN_WAIT_SECONDS, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            executor = null;
+        }
+        for (Queue<Deflater> idle : deflaters.values()) {
+            for (Deflater d = idle.poll(); d != null; d = idle.poll()) {
+                d.end();
+            }
+        }
+    }
+
     private ZipEncoding getEntryEncoding(ZipEntry ze) {
         boolean encodable = zipEncoding.canEncode(ze.getName());
         return !encodable && fallbackToUTF8
@@ -1658,6 +2043,7 @@ public class ZipOutputStream extends FilterOutputStream {
      * @throws IOException if close() fails
      */
     void destroy() throws IOException {
+        shutdownExecutor();
         if (raf != null) {
             raf.close();
         }
@@ -1698,6 +2084,35 @@ public class ZipOutputStream extends FilterOutputStream {
         }
     }
 
+    /**
+     * An entry whose data is collected and compressed by the executor
+     * before it gets written.
+     */
+    private static final class DeferredEntry {
+        private final ZipEntry entry;
+        private final int level;
+        /**
+         * The uncompressed data as passed to write.
+         */
+        private List<byte[]> data = new ArrayList<>();
+        private long size;
+        private byte[] compressed;
+        private int compressedLength;
+        private long crc;
+
+        private DeferredEntry(ZipEntry entry, int level) {
+            this.entry = entry;
+            this.level = level;
+        }
+
+        private void add(byte[] b, int offset, int length) {
+            if (length > 0) {
+                data.add(Arrays.copyOfRange(b, offset, offset + length));
+                size += length;
+            }
+        }
+    }
+
     /**
      * Structure collecting information for the entry that is
      * currently being written.
@@ -29,7 +29,9 @@ import static org.junit.Assume.assumeTrue;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Set;
 import java.util.TreeSet;
@@ -90,6 +92,19 @@ public class DirectoryScannerTest {
                                    "alpha/beta/gamma"});
     }
 
+    @Test
+    public void testSkipsDirectoriesBeingDeleted() {
+        File output = new File(buildRule.getProject().getProperty("output"));
+        File trash = new File(output, "alpha/.gamma" + DirectoryScanner.DELETING_INFIX + "1");
+        assertTrue(new File(trash, "delta").mkdirs());
+        ds.setBasedir(output);
+        ds.scan();
+        compareFiles(ds, new String[] {"alpha/beta/beta.xml",
+                                       "alpha/beta/gamma/gamma.xml"},
+                     new String[] {"", "alpha", "alpha/beta",
+                                   "alpha/beta/gamma"});
+    }
+
     @Test
     public void testFullPathMatchesCaseSensitive() {
         ds.setBasedir(new File(buildRule.getProject().getProperty("output")));
@@ -520,4 +535,37 @@ public class DirectoryScannerTest {
         TokenizedPath p = new TokenizedPath(f.getAbsolutePath());
         assertTrue(ds.contentsExcluded(p));
     }
+
+    @Test
+    public void testStreamingScan() {
+        ds.setBasedir(new File(buildRule.getProject().getProperty("output")));
+        ds.setExcludes(new String[] {"**/gamma.xml"});
+        List<String> files = new ArrayList<>();
+        ds.scan(files::add);
+        assertEquals(Collections.singletonList("alpha/beta/beta.xml"
+                                               .replace('/', File.separatorChar)),
+                     files);
+        assertEquals(1, ds.getExcludedFiles().length);
+    }
+
+    @Test
+    public void testStreamingScanPassesFilesOnlyOnce() {
+        ds.setBasedir(new File(buildRule.getProject().getProperty("output")));
+        ds.setIncludes(new String[] {"alpha/beta/beta.xml", "alpha/**",
+                                     "alpha/beta/gamma/gamma.xml"});
+        List<String> files = new ArrayList<>();
+        ds.scan(files::add);
+        Collections.sort(files);
+        assertEquals(Arrays.asList("alpha/beta/beta.xml".replace('/', File.separatorChar),
+                                   "alpha/beta/gamma/gamma.xml"
+                                   .replace('/', File.separatorChar)),
+                     files);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testNoIncludedFilesAfterStreamingScan() {
+        ds.setBasedir(new File(buildRule.getProject().getProperty("output")));
+        ds.scan(name -> { });
+        ds.getIncludedFiles();
+    }
 }
@@ -0,0 +1,186 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.apache.tools.ant.filters;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import org.apache.tools.ant.Project;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Makes sure filters that read and write blocks of characters
+ * produce the expected result, regardless of the size of the blocks
+ * read.
+ */
+@RunWith(Parameterized.class)
+public class BulkReadTest {
+
+    private static final String INPUT;
+
+    static {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 2000; i++) {
+            sb.append(i % 7 == 0 ? "# comment " : "line ").append(i)
+                .append(i % 3 == 0 ? "\t@TOKEN@ @TOK@@LONGER_TOKEN@" : " ${bulk.prop} @")
+                .append(i % 5 == 0 ? "\r\n" : "\n");
+        }
+        sb.append("@TOKEN");
+        INPUT = sb.toString();
+    }
+
+    @Parameterized.Parameters(name = "{0}")
+    public static Collection<Object[]> filters() {
+        return Arrays.asList(new Object[][] {
+                {"replacetokens", (Supplier<ChainableReader>) () -> {
+                    ReplaceTokens f = new ReplaceTokens();
+                    f.addConfiguredToken(token("TOKEN", "value"));
+                    f.addConfiguredToken(token("LONGER_TOKEN", ""));
+                    f.addConfiguredToken(token("TOK", "@TOKEN@"));
+                    return f;
+                },
+                    (Function<String, String>) s -> s.replace("@TOKEN@", "value")
+                        .replace("@LONGER_TOKEN@", "").replace("@TOK@", "@TOKEN@")},
+                {"expandproperties", (Supplier<ChainableReader>) ExpandProperties::new,
+                    (Function<String, String>) s -> s.replace("${bulk.prop}", "expanded")},
+                {"linecontains", (Supplier<ChainableReader>) () -> {
+                    LineContains f = new LineContains();
+                    LineContains.Contains c = new LineContains.Contains();
+                    c.setValue("@TOKEN@");
+                    f.addConfiguredContains(c);
+                    return f;
+                },
+                    (Function<String, String>) s -> filterLines(s, l -> l.contains("@TOKEN@"))},
+                {"prefixlines", (Supplier<ChainableReader>) () -> {
+                    PrefixLines f = new PrefixLines();
+                    f.setPrefix("> ");
+                    return f;
+                },
+                    (Function<String, String>) s -> prefixLines(s, "> ")},
+                {"striplinecomments", (Supplier<ChainableReader>) () -> {
+                    StripLineComments f = new StripLineComments();
+                    StripLineComments.Comment c = new StripLineComments.Comment();
+                    c.setValue("#");
+                    f.addConfiguredComment(c);
+                    return f;
+                },
+                    (Function<String, String>) s -> filterLines(s, l -> !l.startsWith("#"))},
+                {"tabstospaces", (Supplier<ChainableReader>) TabsToSpaces::new,
+                    (Function<String, String>) s -> s.replace("\t", "        ")},
+                {"fixcrlf", (Supplier<ChainableReader>) () -> {
+                    FixCrLfFilter f = new FixCrLfFilter();
+                    FixCrLfFilter.CrLf eol = new FixCrLfFilter.CrLf();
+                    eol.setValue("crlf");
+                    f.setEol(eol);
+                    FixCrLfFilter.AddAsisRemove tab = new FixCrLfFilter.AddAsisRemove();
+                    tab.setValue("remove");
+                    f.setTab(tab);
+                    FixCrLfFilter.AddAsisRemove eof = new FixCrLfFilter.AddAsisRemove();
+                    eof.setValue("add");
+                    f.setEof(eof);
+                    return f;
+                }, null},
+            });
+    }
+
+    @Parameterized.Parameter
+    public String name;
+
+    @Parameterized.Parameter(1)
+    public Supplier<ChainableReader> filter;
+
+    @Parameterized.Parameter(2)
+    public Function<String, String> transformation;
+
+    @Test
+    public void bulkReadsMatchSingleCharacterReads() throws IOException {
+        String expected = transformation == null ? readSingle(chain())
+            : transformation.apply(INPUT);
+        assertEquals(expected, readSingle(chain()));
+        for (int size : new int[] {1, 2, 7, 100, 8192, 100000}) {
+            assertEquals("block size " + size, expected, readBlocks(chain(), size));
+        }
+    }
+
+    private Reader chain() {
+        Project p = new Project();
+        p.setProperty("bulk.prop", "expanded");
+        ChainableReader f = filter.get();
+        if (f instanceof BaseFilterReader) {
+            ((BaseFilterReader) f).setProject(p);
+        }
+        Reader r = f.chain(new StringReader(INPUT));
+        if (r instanceof BaseFilterReader) {
+            ((BaseFilterReader) r).setProject(p);
+        }
+        return r;
+    }
+
+    private static String readSingle(Reader r) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        for (int c = r.read(); c != -1; c = r.read()) {
+            sb.append((char) c);
+        }
+        return sb.toString();
+    }
+
+    private static String readBlocks(Reader r, int size) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        char[] buf = new char[size + 3];
+        for (int n = r.read(buf, 3, size); n != -1; n = r.read(buf, 3, size)) {
+            sb.append(buf, 3, n);
+        }
+        return sb.toString();
+    }
+
+    private static String filterLines(String s, Predicate<String> accept) {
+        StringBuilder sb = new StringBuilder();
+        for (String line : s.split("(?<=\n)")) {
+            if (accept.test(line)) {
+                sb.append(line);
+            }
+        }
+        return sb.toString();
+    }
+
+    private static String prefixLines(String s, String prefix) {
+        StringBuilder sb = new StringBuilder();
+        for (String line : s.split("(?<=\n)")) {
+            sb.append(prefix).append(line);
+        }
+        return sb.toString();
+    }
+
+    private static ReplaceTokens.Token token(String key, String value) {
+        ReplaceTokens.Token t = new ReplaceTokens.Token();
+        t.setKey(key);
+        t.setValue(value);
+        return t;
+    }
+}
@@ -19,6 +19,7 @@
 package org.apache.tools.ant.taskdefs;
 
 import org.apache.tools.ant.BuildFileRule;
+import org.apache.tools.ant.util.FileUtils;
 import org.apache.tools.bzip2.CBZip2InputStream;
 import org.junit.Before;
 import org.junit.Rule;
@@ -33,6 +34,7 @@ import java.nio.file.Files;
 import static org.hamcrest.Matchers.endsWith;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
 
 /**
  */
@@ -93,6 +95,14 @@ public class BZip2Test {
         actualIn.close();
     }
 
+    @Test
+    public void testThreadsCreateIdenticalFile() throws IOException {
+        buildRule.executeTarget("realTestWithThreads");
+        assertTrue("File content mismatch", FileUtils.getFileUtils()
+                   .contentEquals(new File(outputDir, "asf-logo-huge.tar.bz2"),
+                                  new File(outputDir, "asf-logo-huge-threads.tar.bz2")));
+    }
+
     @Test
     public void testResource() {
         buildRule.executeTarget("realTestWithResource");
@@ -0,0 +1,152 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.apache.tools.ant.taskdefs;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.attribute.PosixFilePermission;
+import java.util.Set;
+
+import org.apache.tools.ant.BuildException;
+import org.apache.tools.ant.Project;
+import org.apache.tools.ant.taskdefs.condition.Os;
+import org.apache.tools.ant.types.resources.FileResource;
+import org.apache.tools.ant.util.PermissionUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Makes sure the in-process implementation of chmod yields the same
+ * results as the chmod command.
+ */
+public class ChmodTest {
+
+    private static final String[] MODES = {
+        "644", "0750", "u+x", "u+x,go-w", "go=", "a=r,u+w", "g=u", "o=g",
+        "a+X", "a=rX", "+x", "-w", "=r", "u+rwx-w+w,g+x,o=x", "u=rwX,go=rX"
+    };
+
+    private static final int[] INITIAL_MODES = {0644, 0755, 0700, 0664, 0};
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Project project;
+
+    @Before
+    public void setUp() {
+        assumeTrue(Os.isFamily(Os.FAMILY_UNIX));
+        project = new Project();
+        project.init();
+    }
+
+    @Test
+    public void resultsMatchChmodCommand() throws Exception {
+        for (boolean directory : new boolean[] {false, true}) {
+            for (int initial : INITIAL_MODES) {
+                for (String mode : MODES) {
+                    File expected = create("expected", directory, initial);
+                    File actual = create("actual", directory, initial);
+                    // exit code is 1 if the umask has kept chmod from
+                    // removing permissions
+                    new ProcessBuilder("chmod", mode, expected.getPath())
+                        .redirectErrorStream(true).start().waitFor();
+                    chmod(actual, mode);
+                    assertEquals(mode + " applied to " + Integer.toOctalString(initial)
+                                 + (directory ? " directory" : " file"),
+                                 Integer.toOctalString(mode(expected)),
+                                 Integer.toOctalString(mode(actual)));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void unsupportedModesAreLeftToChmodCommand() throws IOException {
+        File f = create("file", false, 0644);
+        chmod(f, "u+s");
+        assertEquals(04644, ((Integer) Files.getAttribute(f.toPath(), "unix:mode")) & 07777);
+    }
+
+    @Test
+    public void specialBitsArePreserved() throws IOException {
+        File f = create("file", false, 0644);
+        chmod(f, "u+s");
+        chmod(f, "go-r");
+        assertEquals(04600, ((Integer) Files.getAttribute(f.toPath(), "unix:mode")) & 07777);
+    }
+
+    @Test
+    public void failuresAreReported() {
+        Chmod chmod = new Chmod();
+        chmod.setProject(project);
+        chmod.setPerm("u+x");
+        chmod.setFailonerror(true);
+        chmod.add(new FileResource(new File(folder.getRoot(), "missing")));
+        chmod.setIgnoremissing(false);
+        try {
+            chmod.execute();
+            fail("expected chmod of a missing file to fail");
+        } catch (BuildException expected) {
+            // expected
+        }
+    }
+
+    private void chmod(File file, String mode) {
+        Chmod chmod = new Chmod();
+        chmod.setProject(project);
+        chmod.setFile(file);
+        ExecuteOn.FileDirBoth type = new ExecuteOn.FileDirBoth();
+        type.setValue("both");
+        chmod.setType(type);
+        chmod.setPerm(mode);
+        chmod.setFailonerror(true);
+        chmod.execute();
+    }
+
+    private File create(String name, boolean directory, int mode) throws IOException {
+        File f = new File(folder.getRoot(), name);
+        if (f.isDirectory()) {
+            Files.setPosixFilePermissions(f.toPath(), PermissionUtils.permissionsFromMode(0700));
+            Files.delete(f.toPath());
+        } else if (f.exists()) {
+            Files.delete(f.toPath());
+        }
+        if (directory) {
+            Files.createDirectory(f.toPath());
+        } else {
+            Files.createFile(f.toPath());
+        }
+        Files.setPosixFilePermissions(f.toPath(), PermissionUtils.permissionsFromMode(mode));
+        return f;
+    }
+
+    private static int mode(File f) throws IOException {
+        Set<PosixFilePermission> permissions = Files.getPosixFilePermissions(f.toPath());
+        return PermissionUtils.modeFromPermissions(permissions,
+                                                   PermissionUtils.FileType.OTHER);
+    }
+}
@@ -33,12 +33,14 @@ import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
+import java.nio.file.Files;
 
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.endsWith;
 import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.startsWith;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
@@ -136,6 +138,32 @@ public class CopyTest {
         assertEquals(FileUtilities.getFileContents(tmp), FileUtilities.getFileContents(check));
     }
 
+    @Test
+    public void testLinkMode() throws IOException {
+        buildRule.executeTarget("testLinkMode");
+        File output = new File(buildRule.getProject().getProperty("output"));
+        assertTrue(Files.isSameFile(new File(output, "linksrc/plain.txt").toPath(),
+                                    new File(output, "linkdest/plain.txt").toPath()));
+        File filtered = new File(output, "linkdest/filtered.txt");
+        assertFalse(Files.isSameFile(new File(output, "linksrc/filtered.txt").toPath(),
+                                     filtered.toPath()));
+        assertEquals("Apache Ant Project", FileUtilities.getFileContents(filtered));
+    }
+
+    /**
+     * Writing to a hard link created by an earlier copy with the same
+     * link mode must not modify the source.
+     */
+    @Test
+    public void testCopyOverLink() throws IOException {
+        buildRule.executeTarget("testCopyOverLink");
+        File output = new File(buildRule.getProject().getProperty("output"));
+        assertEquals("@TITLE@",
+                     FileUtilities.getFileContents(new File(output, "linksrc/plain.txt")));
+        assertEquals("Apache Ant Project",
+                     FileUtilities.getFileContents(new File(output, "linkdest/plain.txt")));
+    }
+
     @Test
     public void testSingleFileFileset() {
         buildRule.executeTarget("test_single_file_fileset");
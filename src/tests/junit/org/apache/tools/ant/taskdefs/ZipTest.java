@@ -271,4 +271,24 @@ public class ZipTest {
         buildRule.executeTarget("testRegexpMapper2");
         assertEquals(l, testFile.lastModified());
     }
+
+    @Test
+    public void testMergeCopiesCompressedData() throws IOException {
+        buildRule.executeTarget("testMergeCopiesCompressedData");
+        File output = new File(buildRule.getProject().getProperty("output"));
+        try (ZipFile source = new ZipFile(new File(output, "level9.zip"));
+             ZipFile merged = new ZipFile(new File(output, "merged.zip"))) {
+            // the entries plus the prefix directory
+            assertEquals(2 * source.size() + 1, merged.size());
+            for (ZipEntry expected : java.util.Collections.list(source.entries())) {
+                for (String name : new String[] {expected.getName(),
+                                                 "src/" + expected.getName()}) {
+                    ZipEntry actual = merged.getEntry(name);
+                    assertEquals(name, expected.getCrc(), actual.getCrc());
+                    assertEquals(name, expected.getCompressedSize(),
+                                 actual.getCompressedSize());
+                }
+            }
+        }
+    }
 }
@@ -18,12 +18,27 @@
 
 package org.apache.tools.ant.types;
 
+import java.io.File;
+import java.io.IOException;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.apache.tools.ant.BuildException;
 import org.apache.tools.ant.BuildFileRule;
+import org.apache.tools.ant.DirectoryScanner;
+import org.apache.tools.ant.types.resources.First;
+import org.apache.tools.ant.types.resources.StreamingFileResourceIterator;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 /**
  * JUnit 4 testcases for org.apache.tools.ant.types.FileSet.
@@ -34,6 +49,9 @@ public class FileSetTest extends AbstractFileSetTest {
     @Rule
     public BuildFileRule buildRule = new BuildFileRule();
 
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
     @Before
     public void buildFileRuleSetUp() {
         buildRule.configureProject("src/etc/testcases/types/fileset.xml");
@@ -55,4 +73,78 @@ public class FileSetTest extends AbstractFileSetTest {
         assertEquals("/abc/fileset.xml", buildRule.getLog());
     }
 
+    @Test
+    public void testStreaming() throws IOException {
+        File dir = folder.newFolder("streaming");
+        Set<String> expected = new TreeSet<>();
+        for (int i = 0; i < 50; i++) {
+            File sub = new File(dir, "d" + i);
+            sub.mkdir();
+            for (int j = 0; j < 50; j++) {
+                new File(sub, "f" + j + ".txt").createNewFile();
+                new File(sub, "f" + j + ".bak").createNewFile();
+                expected.add("d" + i + File.separator + "f" + j + ".txt");
+            }
+        }
+        FileSet fs = new FileSet();
+        fs.setProject(buildRule.getProject());
+        fs.setDir(dir);
+        fs.setIncludes("**/*.txt");
+        fs.setStreaming(true);
+        Set<String> found = new TreeSet<>();
+        fs.forEach(r -> found.add(r.getName()));
+        assertEquals(expected, found);
+        // the streaming scan hasn't replaced the regular one
+        assertEquals(expected.size(), fs.size());
+    }
+
+    @Test
+    public void testClosingStreamingIteratorCancelsScan() throws InterruptedException {
+        CountDownLatch finished = new CountDownLatch(1);
+        DirectoryScanner endless = new DirectoryScanner() {
+            @Override
+            public void scan(Consumer<String> consumer) {
+                try {
+                    for (int i = 0; true; i++) {
+                        consumer.accept("f" + i);
+                    }
+                } finally {
+                    finished.countDown();
+                }
+            }
+        };
+        try (StreamingFileResourceIterator it = new StreamingFileResourceIterator(
+                 buildRule.getProject(), folder.getRoot(), endless, 1)) {
+            assertTrue(it.hasNext());
+            assertEquals("f0", it.next().getName());
+            it.close();
+            assertFalse(it.hasNext());
+            assertTrue(finished.await(5, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    public void testFirstOfStreamingFileSet() throws IOException {
+        for (int i = 0; i < 10; i++) {
+            folder.newFile("f" + i + ".txt");
+        }
+        FileSet fs = new FileSet();
+        fs.setProject(buildRule.getProject());
+        fs.setDir(folder.getRoot());
+        fs.setStreaming(true);
+        First first = new First();
+        first.setCount(3);
+        first.add(fs);
+        assertEquals(3, first.size());
+    }
+
+    @Test(expected = BuildException.class)
+    public void testStreamingMissingDir() {
+        FileSet fs = new FileSet();
+        fs.setProject(buildRule.getProject());
+        fs.setDir(new File(folder.getRoot(), "missing"));
+        fs.setStreaming(true);
+        fs.iterator();
+    }
+
 }
@@ -0,0 +1,127 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.tools.ant.types.resources;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import org.apache.tools.ant.Project;
+import org.apache.tools.ant.types.ZipFileSet;
+import org.apache.tools.tar.TarEntry;
+import org.apache.tools.tar.TarOutputStream;
+import org.apache.tools.zip.ZipEntry;
+import org.apache.tools.zip.ZipOutputStream;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class ArchiveIndexCacheTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testReusesIndexUntilArchiveChanges() throws IOException {
+        File zip = folder.newFile("test.zip");
+        writeZip(zip, "a", "b/");
+        ArchiveIndexCache cache = new ArchiveIndexCache(100);
+        ArchiveIndexCache.Index<ZipEntry> index = cache.getZipIndex(zip, null);
+        assertEquals(2, index.getEntries().size());
+        assertNotNull(index.getEntry("b/"));
+        assertSame(index, cache.getZipIndex(zip, null));
+        // a different encoding means a different index
+        assertNotSame(index, cache.getZipIndex(zip, "UTF-8"));
+
+        writeZip(zip, "a", "b/", "c");
+        zip.setLastModified(zip.lastModified() - 10000);
+        ArchiveIndexCache.Index<ZipEntry> changed = cache.getZipIndex(zip, null);
+        assertNotSame(index, changed);
+        assertNotNull(changed.getEntry("c"));
+        assertSame(changed, cache.getZipIndex(zip, null));
+    }
+
+    @Test
+    public void testDropsLeastRecentlyUsedIndex() throws IOException {
+        File a = writeTar("a.tar", "a1", "a2");
+        File b = writeTar("b.tar", "b1", "b2");
+        File c = writeTar("c.tar", "c1", "c2");
+        ArchiveIndexCache cache = new ArchiveIndexCache(5);
+        ArchiveIndexCache.Index<TarEntry> indexA = cache.getTarIndex(a, null);
+        ArchiveIndexCache.Index<TarEntry> indexB = cache.getTarIndex(b, null);
+        assertSame(indexA, cache.getTarIndex(a, null));
+        cache.getTarIndex(c, null);
+        assertEquals(4, cache.size());
+        assertSame(indexA, cache.getTarIndex(a, null));
+        assertNotSame(indexB, cache.getTarIndex(b, null));
+        assertEquals("b1", cache.getTarIndex(b, null).getEntry("b1").getName());
+        assertNull(cache.getTarIndex(b, null).getEntry("a1"));
+    }
+
+    @Test
+    public void testDoesNotCacheIndexesLargerThanTheCache() throws IOException {
+        File a = writeTar("a.tar", "a1", "a2");
+        ArchiveIndexCache cache = new ArchiveIndexCache(1);
+        assertNotSame(cache.getTarIndex(a, null), cache.getTarIndex(a, null));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testSharedByScannersAndSubprojects() throws IOException {
+        File zip = folder.newFile("test.zip");
+        writeZip(zip, "a", "b/");
+        Project p = new Project();
+        p.init();
+        ZipFileSet fs = new ZipFileSet();
+        fs.setProject(p);
+        fs.setSrc(zip);
+        assertEquals(1, fs.getDirectoryScanner(p).getIncludedFilesCount());
+        ArchiveIndexCache cache = ArchiveIndexCache.getInstance(p);
+        assertEquals(2, cache.size());
+
+        Project sub = p.createSubProject();
+        p.initSubProject(sub);
+        assertSame(cache, ArchiveIndexCache.getInstance(sub));
+    }
+
+    private static void writeZip(File f, String... names) throws IOException {
+        try (ZipOutputStream out = new ZipOutputStream(f)) {
+            for (String name : names) {
+                out.putNextEntry(new ZipEntry(name));
+                out.closeEntry();
+            }
+        }
+    }
+
+    private File writeTar(String archive, String... names) throws IOException {
+        File f = folder.newFile(archive);
+        try (TarOutputStream out = new TarOutputStream(Files.newOutputStream(f.toPath()))) {
+            for (String name : names) {
+                out.putNextEntry(new TarEntry(name));
+                out.closeEntry();
+            }
+        }
+        return f;
+    }
+}
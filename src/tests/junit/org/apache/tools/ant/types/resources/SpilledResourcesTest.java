@@ -0,0 +1,107 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.tools.ant.types.resources;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+import org.apache.tools.ant.MagicNames;
+import org.apache.tools.ant.Project;
+import org.apache.tools.ant.types.Resource;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test Java API of {@link SpilledResources}.
+ */
+public class SpilledResourcesTest {
+
+    private static final int RUNS = 300;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Project project;
+    private File tmpDir;
+
+    @Before
+    public void setUp() throws Exception {
+        project = new Project();
+        tmpDir = folder.newFolder("tmp");
+        project.setProperty(MagicNames.TMPDIR, tmpDir.getAbsolutePath());
+    }
+
+    @Test
+    public void testMergeIsStableAcrossLevels() {
+        SpilledResources spilled = new SpilledResources(project);
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < RUNS; i++) {
+            spilled.addRun(Collections.singletonList(entry(i % 7, i)));
+        }
+        for (int k = 0; k < 7; k++) {
+            for (int i = k; i < RUNS; i += 7) {
+                expected.add(String.valueOf(i));
+            }
+        }
+        assertTrue(runFiles() < RUNS);
+        List<String> actual = new ArrayList<>();
+        spilled.forEach(r -> actual.add(r.getName()));
+        assertEquals(expected, actual);
+        assertEquals(RUNS, spilled.size());
+    }
+
+    @Test
+    public void testRunsAreDeletedWhenBuildFinishes() {
+        SpilledResources spilled = new SpilledResources(project);
+        spilled.addRun(Collections.singletonList(entry(1, 1)));
+        spilled.addRun(Collections.singletonList(entry(0, 0)));
+        Iterator<Resource> abandoned = spilled.iterator();
+        assertEquals("0", abandoned.next().getName());
+        assertEquals(2, runFiles());
+        project.fireBuildFinished(null);
+        assertEquals(0, runFiles());
+        assertFalse(abandoned.hasNext());
+    }
+
+    @Test
+    public void testReadAllDeletesRuns() {
+        SpilledResources spilled = new SpilledResources(project);
+        spilled.addRun(Collections.singletonList(entry(1, 1)));
+        spilled.addRun(Collections.singletonList(entry(0, 0)));
+        assertEquals(2, spilled.readAll().size());
+        assertEquals(0, runFiles());
+    }
+
+    private SpilledResources.Entry entry(int key, int name) {
+        return new SpilledResources.Entry(key,
+            new FileResource(tmpDir, String.valueOf(name)));
+    }
+
+    private int runFiles() {
+        return tmpDir.list().length;
+    }
+}
@@ -18,8 +18,11 @@
 
 package org.apache.tools.ant.types.selectors;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 import org.apache.tools.ant.BuildException;
 import org.apache.tools.ant.types.Parameter;
 import org.junit.Before;
@@ -113,4 +116,54 @@ public class ContainsSelectorTest {
         assertEquals("TFFFTFFFFFFT", selectorRule.selectionString(s));
     }
 
+    @Test
+    public void testSelectionBehaviourEncoding() {
+        s.setText("Apache Ant");
+        s.setEncoding("ISO-8859-1");
+        assertEquals("TFFFTFFFFFFT", selectorRule.selectionString(s));
+    }
+
+    @Test
+    public void testSelectionBehaviourCombinedInOr() {
+        ContainsSelector other = new ContainsSelector();
+        other.setText("no such string in test files");
+        s.setText("Apache Ant");
+        OrSelector or = new OrSelector();
+        or.setProject(selectorRule.getProject());
+        or.appendSelector(other);
+        or.appendSelector(s);
+        assertEquals(1, ContainsSelector.combine(or.getSelectors(null)).length);
+        assertEquals("TFFFTFFFFFFT", selectorRule.selectionString(or));
+    }
+
+    @Test
+    public void testCombinedSelectorsDontPassBarriers() {
+        ContainsSelector other = new ContainsSelector();
+        other.setText("no such string in test files");
+        s.setText("Apache Ant");
+        AtomicInteger calls = new AtomicInteger();
+        FileSelector barrier = (basedir, filename, file) -> {
+            calls.incrementAndGet();
+            return false;
+        };
+        OrSelector or = new OrSelector();
+        or.setProject(selectorRule.getProject());
+        or.appendSelector(other);
+        or.appendSelector(barrier);
+        or.appendSelector(s);
+        assertEquals(3, ContainsSelector.combine(or.getSelectors(null)).length);
+        assertEquals("TFFFTFFFFFFT", selectorRule.selectionString(or));
+        // the barrier sees every file the first selector rejects
+        assertEquals(10, calls.get());
+    }
+
+    @Test
+    public void testSubclassesAreNotCombined() {
+        ContainsSelector other = new ContainsSelector() { };
+        other.setText("no such string in test files");
+        s.setText("Apache Ant");
+        FileSelector[] selectors = {other, s};
+        assertArrayEquals(selectors, ContainsSelector.combine(selectors));
+    }
+
 }
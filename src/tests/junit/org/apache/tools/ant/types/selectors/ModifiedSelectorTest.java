@@ -22,9 +22,14 @@ import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.text.RuleBasedCollator;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
 
 import org.apache.tools.ant.BuildException;
 import org.apache.tools.ant.BuildFileRule;
@@ -32,9 +37,11 @@ import org.apache.tools.ant.MagicNames;
 import org.apache.tools.ant.Project;
 import org.apache.tools.ant.Target;
 import org.apache.tools.ant.Task;
+import org.apache.tools.ant.types.FileSet;
 import org.apache.tools.ant.types.Parameter;
 import org.apache.tools.ant.types.Path;
 import org.apache.tools.ant.types.selectors.modifiedselector.Algorithm;
+import org.apache.tools.ant.types.selectors.modifiedselector.BinaryfileCache;
 import org.apache.tools.ant.types.selectors.modifiedselector.Cache;
 import org.apache.tools.ant.types.selectors.modifiedselector.ChecksumAlgorithm;
 import org.apache.tools.ant.types.selectors.modifiedselector.DigestAlgorithm;
@@ -55,6 +62,7 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 
@@ -361,6 +369,165 @@ public class ModifiedSelectorTest {
         assertTrue("Cache file is not created.", cachefile.exists());
     }
 
+    @Test
+    public void testBinaryfileCache() throws IOException {
+        BinaryfileCache cache = new BinaryfileCache();
+        assertFalse("BinaryfileCache does not check its configuration.", cache.isValid());
+        File cachefile = new File(testFolder.getRoot(), "cache.bin");
+        cache.setCachefile(cachefile);
+        doTest(cache);
+        assertFalse("Cache file not deleted.", cachefile.exists());
+    }
+
+    /** Checks that saved entries and their stamps can be read again. */
+    @Test
+    public void testBinaryfileCacheAppendsAndReloads() throws IOException {
+        File cachefile = new File(testFolder.getRoot(), "cache.bin");
+        BinaryfileCache cache = new BinaryfileCache(cachefile);
+        cache.put("key1", "value1", 10, 20);
+        cache.put("key2", "value2");
+        cache.save();
+        long length = cachefile.length();
+
+        cache = new BinaryfileCache(cachefile);
+        assertEquals("value1", cache.get("key1"));
+        assertEquals("value1", cache.get("key1", 10, 20));
+        assertNull(cache.get("key1", 10, 21));
+        assertEquals("value2", cache.get("key2"));
+        assertNull(cache.get("key2", -1, -1));
+
+        cache.put("key1", "value3", 10, 21);
+        cache.save();
+        assertTrue("Cache file has not been appended to.", cachefile.length() > length);
+
+        cache = new BinaryfileCache(cachefile);
+        assertEquals("value3", cache.get("key1", 10, 21));
+        assertEquals("value2", cache.get("key2"));
+    }
+
+    /** Unchanged files must not be passed to the algorithm again. */
+    @Test
+    public void testBinaryfileCacheSkipsAlgorithm() {
+        File cachefile = new File(testFolder.getRoot(), "cache.bin");
+        ModifiedSelector s = new ModifiedSelector();
+        s.setDelayUpdate(false);
+        s.setCacheClass(BinaryfileCache.class.getName());
+        s.addParam("cache.cachefile", cachefile);
+        s.setAlgorithmClass(MockAlgorithm.class.getName());
+
+        String first = selectorRule.selectionString(s);
+        assertEquals("TTTTTTTTTTTT", first);
+        assertTrue("Cache file is not created.", cachefile.exists());
+
+        // the hashvalue algorithm would compute values different from
+        // the MockAlgorithm's and select all files if it was consulted
+        ModifiedSelector s2 = new ModifiedSelector();
+        s2.setDelayUpdate(false);
+        s2.setCacheClass(BinaryfileCache.class.getName());
+        s2.addParam("cache.cachefile", cachefile);
+        ModifiedSelector.AlgorithmName algorithmName = new ModifiedSelector.AlgorithmName();
+        algorithmName.setValue("hashvalue");
+        s2.setAlgorithm(algorithmName);
+        assertEquals("TFFFFFFFFFFT", selectorRule.selectionString(s2));
+    }
+
+    /** Recording the stamp of an unchanged value is no modification. */
+    @Test
+    public void testRefreshedStampsAreSavedAtEndOfBuild() {
+        File stamped = new File(testFolder.getRoot(), "stamped.bin");
+        ModifiedSelector s = new ModifiedSelector();
+        s.setCacheClass(BinaryfileCache.class.getName());
+        s.addParam("cache.cachefile", stamped);
+        s.setAlgorithmClass(MockAlgorithm.class.getName());
+        assertEquals("TTTTTTTTTTTT", selectorRule.selectionString(s));
+        s.buildFinished(null);
+
+        // the same values, but without stamps
+        File unstamped = new File(testFolder.getRoot(), "unstamped.bin");
+        BinaryfileCache cache = new BinaryfileCache(unstamped);
+        List<String> keys = new ArrayList<>();
+        new BinaryfileCache(stamped).iterator().forEachRemaining(keys::add);
+        keys.forEach(k -> cache.put(k, "TEST"));
+        cache.save();
+        long length = unstamped.length();
+
+        ModifiedSelector s2 = new ModifiedSelector();
+        s2.setDelayUpdate(false);
+        s2.setCacheClass(BinaryfileCache.class.getName());
+        s2.addParam("cache.cachefile", unstamped);
+        s2.setAlgorithmClass(MockAlgorithm.class.getName());
+        assertEquals("TFFFFFFFFFFT", selectorRule.selectionString(s2));
+        assertEquals(0, s2.getModified());
+        assertEquals("Cache file has been written.", length, unstamped.length());
+
+        s2.buildFinished(null);
+        assertTrue("Stamps have not been saved.", unstamped.length() > length);
+        BinaryfileCache reloaded = new BinaryfileCache(unstamped);
+        File f = new File(keys.get(0));
+        assertEquals("TEST", reloaded.get(keys.get(0), f.length(), f.lastModified()));
+    }
+
+    @Test
+    public void testDigestAlgorithmWithThreads() {
+        File cachefile = new File(testFolder.getRoot(), "cache.bin");
+        ModifiedSelector s = new ModifiedSelector();
+        s.setDelayUpdate(false);
+        s.setThreads(4);
+        ModifiedSelector.CacheName cacheName = new ModifiedSelector.CacheName();
+        cacheName.setValue("binaryfile");
+        s.setCache(cacheName);
+        s.addParam("cache.cachefile", cachefile);
+        assertEquals("TTTTTTTTTTTT", selectorRule.selectionString(s));
+        assertEquals("TFFFFFFFFFFT", selectorRule.selectionString(s));
+    }
+
+    /**
+     * Files of the first directory are read in advance, files excluded
+     * by the fileset are not.
+     */
+    @Test
+    public void testThreadsOnlyReadFilesOfTheFileset() throws IOException {
+        File dir = testFolder.newFolder("scanned");
+        for (String name : new String[] {"a.txt", "b.bin", "c.txt", "d.bin", "e.txt"}) {
+            try (FileWriter w = new FileWriter(new File(dir, name))) {
+                w.write(name);
+            }
+        }
+        RecordingDigestAlgorithm.FILES.clear();
+        RecordingDigestAlgorithm.THREADS.clear();
+        ModifiedSelector s = new ModifiedSelector();
+        s.setProject(selectorRule.getProject());
+        s.setThreads(4);
+        s.setAlgorithmClass(RecordingDigestAlgorithm.class.getName());
+        s.addParam("cache.cachefile", new File(testFolder.getRoot(), "cache.properties"));
+
+        FileSet fs = new FileSet();
+        fs.setProject(selectorRule.getProject());
+        fs.setDir(dir);
+        fs.setExcludes("*.bin");
+        fs.addModified(s);
+        String[] included = fs.getDirectoryScanner().getIncludedFiles();
+        Arrays.sort(included);
+        assertEquals(Arrays.asList("a.txt", "c.txt", "e.txt"), Arrays.asList(included));
+        s.buildFinished(null);
+        assertEquals(new TreeSet<>(Arrays.asList("a.txt", "c.txt", "e.txt")),
+                     RecordingDigestAlgorithm.FILES);
+        assertTrue(RecordingDigestAlgorithm.THREADS.contains("modified-selector"));
+    }
+
+    /** Records the files it computes values for and the threads doing so. */
+    public static class RecordingDigestAlgorithm extends DigestAlgorithm {
+        static final Set<String> FILES = Collections.synchronizedSortedSet(new TreeSet<>());
+        static final Set<String> THREADS = Collections.synchronizedSortedSet(new TreeSet<>());
+
+        @Override
+        public String getValue(File file) {
+            FILES.add(file.getName());
+            THREADS.add(Thread.currentThread().getName());
+            return super.getValue(file);
+        }
+    }
+
     @Test
     @Ignore("same logic as on algorithm, no testcases created")
     public void testCustomCache() {
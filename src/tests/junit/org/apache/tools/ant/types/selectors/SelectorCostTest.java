@@ -0,0 +1,176 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.apache.tools.ant.types.selectors;
+
+import java.io.File;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.tools.ant.Project;
+import org.apache.tools.ant.types.selectors.modifiedselector.ModifiedSelector;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests cost based ordering of selectors.
+ */
+public class SelectorCostTest {
+
+    private Project project;
+
+    @Before
+    public void setUp() {
+        project = new Project();
+        project.init();
+    }
+
+    @Test
+    public void testCostOfBuiltinSelectors() {
+        assertEquals(SelectorCost.NAME, SelectorCost.of(new FilenameSelector()));
+        assertEquals(SelectorCost.NAME, SelectorCost.of(new DepthSelector()));
+        assertEquals(SelectorCost.ATTRIBUTES, SelectorCost.of(new DateSelector()));
+        assertEquals(SelectorCost.ATTRIBUTES, SelectorCost.of(new SizeSelector()));
+        assertEquals(SelectorCost.ATTRIBUTES, SelectorCost.of(new DependSelector()));
+        assertEquals(SelectorCost.CONTENT, SelectorCost.of(new ContainsSelector()));
+        assertEquals(SelectorCost.CONTENT, SelectorCost.of(new DifferentSelector()));
+        assertEquals(SelectorCost.CONTENT, SelectorCost.of(new CountingSelector(true)));
+    }
+
+    @Test
+    public void testContainerCostIsMaximumOfChildren() {
+        OrSelector or = new OrSelector();
+        or.setProject(project);
+        assertEquals(SelectorCost.NAME, SelectorCost.of(or));
+        or.appendSelector(new FilenameSelector());
+        or.appendSelector(new DateSelector());
+        assertEquals(SelectorCost.ATTRIBUTES, SelectorCost.of(or));
+    }
+
+    @Test
+    public void testOrderIsStable() {
+        FileSelector contains = new ContainsSelector();
+        FileSelector date = new DateSelector();
+        FileSelector size = new SizeSelector();
+        FileSelector name = new FilenameSelector();
+        FileSelector[] in = {contains, date, size, name};
+        assertArrayEquals(new FileSelector[] {name, date, size, contains},
+                          SelectorCost.order(in));
+        assertSame(contains, in[0]);
+    }
+
+    @Test
+    public void testNothingMovesAcrossBarriers() {
+        FileSelector contains = new ContainsSelector();
+        FileSelector custom = new CountingSelector(true);
+        FileSelector modified = new ModifiedSelector();
+        FileSelector date = new DateSelector();
+        FileSelector name = new FilenameSelector();
+        OrSelector or = new OrSelector();
+        or.setProject(project);
+        or.appendSelector(new CountingSelector(true));
+        assertTrue(SelectorCost.isBarrier(custom));
+        assertTrue(SelectorCost.isBarrier(modified));
+        assertTrue(SelectorCost.isBarrier(or));
+        assertFalse(SelectorCost.isBarrier(contains));
+
+        FileSelector[] in = {contains, date, custom, contains, name, modified, date, name, or, name};
+        assertArrayEquals(new FileSelector[] {date, contains, custom, name, contains, modified,
+                                              name, date, or, name},
+                          SelectorCost.order(in));
+    }
+
+    @Test
+    public void testSubclassesOfKnownSelectorsAreBarriers() {
+        FileSelector subclass = new CountingContainsSelector();
+        assertEquals(SelectorCost.CONTENT, SelectorCost.of(subclass));
+        assertTrue(SelectorCost.isBarrier(subclass));
+        AndSelector and = new AndSelector() { };
+        and.setProject(project);
+        and.appendSelector(new FilenameSelector());
+        assertEquals(SelectorCost.CONTENT, SelectorCost.of(and));
+        assertTrue(SelectorCost.isBarrier(and));
+
+        FileSelector name = new FilenameSelector();
+        FileSelector[] in = {subclass, name};
+        assertArrayEquals(in, SelectorCost.order(in));
+    }
+
+    @Test
+    public void testAndSkipsExpensiveSelectorIfCheapOneRejects() {
+        ContainsSelector expensive = new ContainsSelector();
+        expensive.setText("foo");
+        FilenameSelector name = new FilenameSelector();
+        name.setName("*.java");
+        AndSelector and = new AndSelector();
+        and.setProject(project);
+        and.appendSelector(expensive);
+        and.appendSelector(name);
+
+        // reading the missing file would fail the build
+        assertFalse(and.isSelected(null, "foo.txt", new File("no/such/dir/foo.txt")));
+    }
+
+    @Test
+    public void testAttributeContextIsShared() {
+        File f = new File("foo");
+        assertNotSame(FileAttributeContext.of(f), FileAttributeContext.of(f));
+        assertTrue(FileAttributeContext.evaluate(f, () -> {
+            FileAttributeContext outer = FileAttributeContext.of(f);
+            return outer == FileAttributeContext.of(new File("foo"))
+                && FileAttributeContext.evaluate(f,
+                    () -> outer == FileAttributeContext.of(f))
+                && outer != FileAttributeContext.of(new File("bar"));
+        }));
+    }
+
+    private static class CountingContainsSelector extends ContainsSelector {
+        private final AtomicInteger count = new AtomicInteger();
+
+        private CountingContainsSelector() {
+            setText("foo");
+        }
+
+        @Override
+        public boolean isSelected(File basedir, String filename, File file) {
+            count.incrementAndGet();
+            return true;
+        }
+    }
+
+    private static class CountingSelector implements FileSelector {
+        private final boolean result;
+        private final AtomicInteger count = new AtomicInteger();
+
+        private CountingSelector(boolean result) {
+            this.result = result;
+        }
+
+        @Override
+        public boolean isSelected(File basedir, String filename, File file) {
+            count.incrementAndGet();
+            return result;
+        }
+    }
+}
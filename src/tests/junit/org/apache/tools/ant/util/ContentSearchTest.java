@@ -0,0 +1,119 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.apache.tools.ant.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for ContentSearch
+ */
+public class ContentSearchTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testFindsFirstOfSeveralLiterals() throws IOException {
+        ContentSearch s = new ContentSearch(StandardCharsets.UTF_8, false,
+                                            "hers", "his", "she");
+        assertEquals(2, s.search(stream("ushers")));
+        assertEquals(1, s.search(stream("this")));
+        assertEquals(-1, s.search(stream("hes and he")));
+    }
+
+    @Test
+    public void testOverlappingLiterals() throws IOException {
+        ContentSearch s = new ContentSearch(StandardCharsets.UTF_8, false,
+                                            "abcd", "bc");
+        assertEquals(1, s.search(stream("xabcx")));
+        assertEquals(-1, s.search(stream("xabx")));
+    }
+
+    @Test
+    public void testIgnoreCase() throws IOException {
+        ContentSearch s = new ContentSearch(StandardCharsets.US_ASCII, true,
+                                            "generated");
+        assertEquals(0, s.search(stream("// GENERATED code")));
+        assertEquals(-1, new ContentSearch(StandardCharsets.US_ASCII, false,
+                                           "generated")
+                     .search(stream("// GENERATED code")));
+    }
+
+    @Test
+    public void testMultiByteLiteral() throws IOException {
+        ContentSearch s = new ContentSearch(StandardCharsets.UTF_8, false,
+                                            "gr\u00fc\u00dfe");
+        assertEquals(0, s.search(stream("viele Gr\u00fc\u00dfe und gr\u00fc\u00dfe")));
+        assertEquals(-1, s.search(stream("gr\u00fcsse")));
+    }
+
+    @Test
+    public void testMatchAcrossBufferBoundary() throws IOException {
+        byte[] content = new byte[200 * 1024];
+        Arrays.fill(content, (byte) 'x');
+        byte[] needle = "needle".getBytes(StandardCharsets.US_ASCII);
+        int at = 64 * 1024 - 3;
+        System.arraycopy(needle, 0, content, at, needle.length);
+        File f = folder.newFile("haystack");
+        Files.write(f.toPath(), content);
+
+        ContentSearch s = new ContentSearch(StandardCharsets.US_ASCII, false, "needle");
+        assertEquals(0, s.search(f));
+        assertEquals(0, s.search(new ByteArrayInputStream(content)));
+        assertEquals(-1, new ContentSearch(StandardCharsets.US_ASCII, false, "needles")
+                     .search(f));
+    }
+
+    @Test
+    public void testIsByteSearchable() {
+        assertTrue(ContentSearch.isByteSearchable(StandardCharsets.UTF_8, false,
+                                                  "gr\u00fc\u00dfe"));
+        assertTrue(ContentSearch.isByteSearchable(StandardCharsets.ISO_8859_1, false,
+                                                  "gr\u00fc\u00dfe"));
+        assertTrue(ContentSearch.isByteSearchable(StandardCharsets.ISO_8859_1, true,
+                                                  "text"));
+        assertFalse(ContentSearch.isByteSearchable(StandardCharsets.UTF_8, false, ""));
+        assertFalse(ContentSearch.isByteSearchable(StandardCharsets.UTF_8, false,
+                                                   "two\nlines"));
+        assertFalse(ContentSearch.isByteSearchable(StandardCharsets.UTF_16, false,
+                                                   "text"));
+        assertFalse(ContentSearch.isByteSearchable(StandardCharsets.US_ASCII, false,
+                                                   "gr\u00fc\u00dfe"));
+        assertFalse(ContentSearch.isByteSearchable(StandardCharsets.UTF_8, true,
+                                                   "text"));
+    }
+
+    private static InputStream stream(String s) {
+        return new ByteArrayInputStream(s.getBytes(StandardCharsets.UTF_8));
+    }
+}
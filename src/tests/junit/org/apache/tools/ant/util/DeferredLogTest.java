@@ -0,0 +1,92 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.tools.ant.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.tools.ant.BuildException;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for DeferredLog
+ */
+public class DeferredLogTest {
+
+    private final DeferredLog log = new DeferredLog();
+    private final List<String> messages = Collections.synchronizedList(new ArrayList<>());
+
+    @Test
+    public void testMessagesAreLoggedInSubmissionOrder() {
+        try (OrderedExecutor e = new OrderedExecutor(4)) {
+            for (int i = 0; i < 30; i++) {
+                final int n = i;
+                log.submit(e, () -> {
+                    log("start " + n);
+                    Thread.sleep((30 - n) % 5);
+                    log("end " + n);
+                    return () -> messages.add("action " + n);
+                });
+            }
+            e.finish();
+        }
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            expected.addAll(Arrays.asList("start " + i, "end " + i, "action " + i));
+        }
+        assertEquals(expected, messages);
+    }
+
+    @Test
+    public void testFailureIsThrownAfterMessages() {
+        try (OrderedExecutor e = new OrderedExecutor(2)) {
+            log.submit(e, () -> {
+                log("before");
+                throw new BuildException("failed");
+            });
+            e.finish();
+            fail("expected an exception");
+        } catch (BuildException ex) {
+            assertEquals("failed", ex.getMessage());
+        }
+        assertEquals(Collections.singletonList("before"), messages);
+    }
+
+    @Test
+    public void testMessagesAreNotDeferredOutsideOperations() {
+        assertFalse(log.defer(() -> messages.add("never")));
+        try (OrderedExecutor e = new OrderedExecutor(1)) {
+            log.submit(e, () -> {
+                assertFalse(log.defer(() -> messages.add("never")));
+                return null;
+            });
+        }
+    }
+
+    private void log(String msg) {
+        if (!log.defer(() -> messages.add(msg))) {
+            messages.add(msg);
+        }
+    }
+}
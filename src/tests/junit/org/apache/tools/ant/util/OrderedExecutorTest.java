@@ -0,0 +1,101 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.apache.tools.ant.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.apache.tools.ant.BuildException;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for OrderedExecutor
+ */
+public class OrderedExecutorTest {
+
+    @Test
+    public void testActionsRunInSubmissionOrder() {
+        List<Integer> done = new ArrayList<>();
+        try (OrderedExecutor e = new OrderedExecutor(4)) {
+            assertTrue(e.isParallel());
+            for (int i = 0; i < 50; i++) {
+                final int n = i;
+                e.submit(() -> {
+                    Thread.sleep((50 - n) % 7);
+                    return () -> done.add(n);
+                });
+                if (n % 10 == 0) {
+                    e.inOrder(() -> done.add(-n));
+                }
+            }
+            e.finish();
+        }
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            expected.add(i);
+            if (i % 10 == 0) {
+                expected.add(-i);
+            }
+        }
+        assertEquals(expected, done);
+    }
+
+    @Test
+    public void testFirstFailureWins() {
+        List<Integer> done = new ArrayList<>();
+        try (OrderedExecutor e = new OrderedExecutor(3)) {
+            for (int i = 0; i < 20; i++) {
+                final int n = i;
+                e.submit(() -> {
+                    if (n == 5 || n == 6) {
+                        throw new BuildException("failed " + n);
+                    }
+                    return () -> done.add(n);
+                });
+            }
+            e.finish();
+            fail("expected an exception");
+        } catch (BuildException ex) {
+            assertEquals("failed 5", ex.getMessage());
+        }
+        assertEquals(IntStream.range(0, 5).boxed().collect(Collectors.toList()), done);
+    }
+
+    @Test
+    public void testSingleThreadRunsInline() {
+        Thread caller = Thread.currentThread();
+        List<Thread> threads = new ArrayList<>();
+        try (OrderedExecutor e = new OrderedExecutor(1)) {
+            assertFalse(e.isParallel());
+            e.submit(() -> {
+                threads.add(Thread.currentThread());
+                return null;
+            });
+            assertEquals(1, threads.size());
+        }
+        assertEquals(caller, threads.get(0));
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.apache.tools.ant.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for ParallelGZIPOutputStream
+ */
+public class ParallelGZIPOutputStreamTest {
+
+    private static final int BLOCK_SIZE = 128 * 1024;
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        int[] sizes = {0, 1, 1000, BLOCK_SIZE - 1, BLOCK_SIZE, BLOCK_SIZE + 1,
+                       3 * BLOCK_SIZE, 5 * BLOCK_SIZE + 4711};
+        for (int threads = 1; threads <= 3; threads++) {
+            for (int size : sizes) {
+                byte[] data = createData(size);
+                assertArrayEquals("threads " + threads + ", size " + size,
+                                  data, gunzip(gzip(data, threads, 1000)));
+            }
+        }
+    }
+
+    @Test
+    public void testSingleBytes() throws IOException {
+        byte[] data = createData(BLOCK_SIZE + 100);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ParallelGZIPOutputStream gz = new ParallelGZIPOutputStream(out, 2)) {
+            for (byte b : data) {
+                gz.write(b);
+            }
+        }
+        assertArrayEquals(data, gunzip(out.toByteArray()));
+    }
+
+    @Test
+    public void testCompressesAsWellAsGZIPOutputStream() throws IOException {
+        byte[] data = createData(8 * BLOCK_SIZE);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gz = new GZIPOutputStream(out)) {
+            gz.write(data);
+        }
+        int parallel = gzip(data, 4, data.length).length;
+        // the dictionary keeps the loss caused by the blocks small
+        assertTrue(parallel + " vs. " + out.size(), parallel < out.size() * 1.01);
+    }
+
+    private static byte[] createData(int size) {
+        Random r = new Random(size);
+        String[] words = {"ant ", "build ", "target ", "task ", "property ",
+                          "\n", "<", ">", "=\"", "\" "};
+        ByteArrayOutputStream out = new ByteArrayOutputStream(size);
+        while (out.size() < size) {
+            out.write(r.nextInt(256));
+            byte[] w = words[r.nextInt(words.length)].getBytes();
+            out.write(w, 0, Math.min(w.length, size - out.size()));
+        }
+        byte[] data = out.toByteArray();
+        return data.length == size ? data : Arrays.copyOf(data, size);
+    }
+
+    private static byte[] gzip(byte[] data, int threads, int chunk) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ParallelGZIPOutputStream gz = new ParallelGZIPOutputStream(out, threads)) {
+            for (int off = 0; off < data.length; off += chunk) {
+                gz.write(data, off, Math.min(chunk, data.length - off));
+            }
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] gunzip(byte[] compressed) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            byte[] buffer = new byte[8192];
+            for (int n = in.read(buffer); n >= 0; n = in.read(buffer)) {
+                out.write(buffer, 0, n);
+            }
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.apache.tools.ant.util;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for PosixMode
+ */
+public class PosixModeTest {
+
+    @Test
+    public void octalModeReplacesPermissions() {
+        assertEquals(0755, apply("755", 0640, false, 022));
+        assertEquals(0600, apply("0600", 0777, true, 022));
+        assertFalse(PosixMode.parse("644").dependsOnUmask());
+    }
+
+    @Test
+    public void symbolicModes() {
+        assertEquals(0744, apply("u+x,go-w", 0664, false, 0));
+        assertEquals(0644, apply("a=r,u+w", 0777, false, 0));
+        assertEquals(0700, apply("go=", 0755, false, 0));
+        assertEquals(0664, apply("g=u", 0604, false, 0));
+        assertEquals(0640, apply("u=rw,g=r,o-rwx", 0777, false, 0));
+        assertEquals(0751, apply("u+rwx-w+w,g+x,o=x", 0640, false, 0));
+    }
+
+    @Test
+    public void conditionalExecute() {
+        assertEquals(0644, apply("a+X", 0644, false, 0));
+        assertEquals(0755, apply("a+X", 0744, false, 0));
+        assertEquals(0755, apply("a+X", 0644, true, 0));
+        assertEquals(0555, apply("a=rX", 0700, false, 0));
+    }
+
+    @Test
+    public void umaskIsHonoredWithoutWho() {
+        PosixMode mode = PosixMode.parse("+x");
+        assertTrue(mode.dependsOnUmask());
+        assertEquals(0755, apply("+x", 0644, false, 022));
+        assertEquals(0744, apply("+x", 0644, false, 077));
+        assertEquals(0446, apply("-w", 0666, false, 002));
+        assertEquals(0444, apply("=r", 0777, false, 022));
+        assertEquals(0400, apply("=r", 0777, false, 077));
+    }
+
+    @Test
+    public void invalidModesAreRejected() {
+        for (String mode : new String[] {"", "u", "u+x,", "u+q", "a+s", "+t",
+                                         "4755", "99", "u+x g+x"}) {
+            try {
+                PosixMode.parse(mode);
+                throw new AssertionError("expected " + mode + " to be rejected");
+            } catch (IllegalArgumentException expected) {
+                // expected
+            }
+        }
+    }
+
+    private static int apply(String mode, int current, boolean isDirectory,
+                             int umask) {
+        return PermissionUtils.modeFromPermissions(
+            PosixMode.parse(mode).apply(PermissionUtils.permissionsFromMode(current),
+                                        isDirectory, umask),
+            PermissionUtils.FileType.OTHER);
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.apache.tools.ant.util;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Random;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests for ReplacingWriter
+ */
+public class ReplacingWriterTest {
+
+    @Test
+    public void testSingleToken() throws IOException {
+        assertEquals("xAx@xAA", replace("x@@x@x@@@@", new String[] {"@@"},
+                                       new String[] {"A"}, 3));
+        assertEquals("ab", replace("aaab", new String[] {"aa"}, new String[] {""}, 1));
+    }
+
+    @Test
+    public void testLeftmostOccurrenceWins() throws IOException {
+        String[] tokens = {"bcd", "abc", "ab", "cdef"};
+        String[] values = {"1", "2", "3", "4"};
+        assertEquals("2def", replace("abcdef", tokens, values, 1));
+        assertEquals("x1ef", replace("xbcdef", tokens, values, 2));
+        assertEquals("x4", replace("xcdef", tokens, values, 100));
+        assertEquals("3x", replace("abx", tokens, values, 1));
+    }
+
+    @Test
+    public void testFirstTokenWinsAtSamePosition() throws IOException {
+        assertEquals("1c", replace("abc", new String[] {"ab", "abc"},
+                                   new String[] {"1", "2"}, 1));
+        assertEquals("2", replace("abc", new String[] {"abc", "ab"},
+                                  new String[] {"2", "1"}, 1));
+    }
+
+    @Test
+    public void testValuesAreNotSearched() throws IOException {
+        assertEquals("@b@-@a@", replace("@a@-@b@", new String[] {"@a@", "@b@"},
+                                        new String[] {"@b@", "@a@"}, 2));
+    }
+
+    @Test
+    public void testMatchesRepeatedReplacementOfSingleToken() throws IOException {
+        Random r = new Random(42);
+        String[] tokens = {"aab", "@x@", "aa", "b@x"};
+        for (int round = 0; round < 200; round++) {
+            StringBuilder sb = new StringBuilder();
+            for (int i = r.nextInt(200); i > 0; i--) {
+                sb.append("ab@x".charAt(r.nextInt(4)));
+            }
+            String text = sb.toString();
+            String expected = text;
+            for (String token : tokens) {
+                expected = expected.replace(token, "<" + token + ">");
+            }
+            String actual = text;
+            for (String token : tokens) {
+                actual = replace(actual, new String[] {token},
+                                 new String[] {"<" + token + ">"}, 1 + r.nextInt(5));
+            }
+            assertEquals(text, expected, actual);
+        }
+    }
+
+    private static String replace(String text, String[] tokens, String[] values,
+                                  int blockSize) throws IOException {
+        StringWriter out = new StringWriter();
+        try (ReplacingWriter w = new ReplacingWriter(out, tokens, values)) {
+            for (int i = 0; i < text.length(); i += blockSize) {
+                w.write(text, i, Math.min(blockSize, text.length() - i));
+            }
+        }
+        return out.toString();
+    }
+}
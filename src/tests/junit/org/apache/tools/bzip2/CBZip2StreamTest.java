@@ -20,9 +20,15 @@ package org.apache.tools.bzip2;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
 
 import org.junit.Test;
 
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
 public class CBZip2StreamTest {
 
     @SuppressWarnings("resource")
@@ -37,4 +43,105 @@ public class CBZip2StreamTest {
         cb.close();
         // expected no exception
     }
+
+    @Test
+    public void testThreadsCreateIdenticalStreams() throws IOException {
+        Random r = new Random(42);
+        for (int size : new int[] {0, 1, 99999, 100000, 777777}) {
+            byte[] data = new byte[size];
+            for (int i = 0; i < size; i++) {
+                // runs and a small alphabet exercise the run length encoding
+                data[i] = (byte) (r.nextInt(8) == 0 ? r.nextInt(256) : 'a' + i / 7 % 5);
+            }
+            byte[] expected = compress(data, 1);
+            for (int threads = 2; threads <= 4; threads++) {
+                assertArrayEquals("size " + size + ", threads " + threads,
+                                  expected, compress(data, threads));
+            }
+            assertArrayEquals(data, decompress(expected));
+        }
+    }
+
+    @Test
+    public void testBulkReadsMatchSingleByteReads() throws IOException {
+        Random r = new Random(7);
+        byte[] data = new byte[345678];
+        for (int i = 0; i < data.length; i++) {
+            // rare symbols get codes longer than the lookup table
+            data[i] = (byte) (r.nextInt(50) == 0 ? r.nextInt(256) : 'a' + r.nextInt(3));
+        }
+        byte[] compressed = compress(data, 1);
+        ByteArrayOutputStream single = new ByteArrayOutputStream();
+        try (InputStream in = new CBZip2InputStream(new ByteArrayInputStream(compressed))) {
+            for (int b = in.read(); b >= 0; b = in.read()) {
+                single.write(b);
+            }
+        }
+        assertArrayEquals(data, single.toByteArray());
+        for (int bufferSize : new int[] {1, 3, 4096, 100000}) {
+            ByteArrayOutputStream bulk = new ByteArrayOutputStream();
+            try (InputStream in = new CBZip2InputStream(new ByteArrayInputStream(compressed))) {
+                byte[] buffer = new byte[bufferSize];
+                for (int n = in.read(buffer); n >= 0; n = in.read(buffer)) {
+                    bulk.write(buffer, 0, n);
+                }
+            }
+            assertArrayEquals("buffer size " + bufferSize, data, bulk.toByteArray());
+        }
+    }
+
+    @Test
+    public void testStopsAtEndOfStreamUnlessConcatenated() throws IOException {
+        byte[] first = "first stream".getBytes(StandardCharsets.US_ASCII);
+        byte[] second = "second stream".getBytes(StandardCharsets.US_ASCII);
+        ByteArrayOutputStream both = new ByteArrayOutputStream();
+        both.write(compress(first, 1));
+        // like BZip2 the streams don't write the magic themselves
+        both.write('B');
+        both.write('Z');
+        both.write(compress(second, 1));
+        byte[] concatenated = both.toByteArray();
+
+        InputStream raw = new ByteArrayInputStream(concatenated);
+        assertArrayEquals(first, readFully(new CBZip2InputStream(raw)));
+        // the next stream starts right after the first one
+        assertEquals('B', raw.read());
+        assertEquals('Z', raw.read());
+
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        expected.write(first);
+        expected.write(second);
+        assertArrayEquals(expected.toByteArray(), readFully(
+            new CBZip2InputStream(new ByteArrayInputStream(concatenated), true)));
+    }
+
+    private static byte[] readFully(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[4096];
+        for (int n = in.read(buffer); n >= 0; n = in.read(buffer)) {
+            out.write(buffer, 0, n);
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] compress(byte[] data, int threads) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (CBZip2OutputStream cb = new CBZip2OutputStream(out, 1, threads)) {
+            for (int off = 0; off < data.length; off += 4096) {
+                cb.write(data, off, Math.min(4096, data.length - off));
+            }
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] decompress(byte[] compressed) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (InputStream in = new CBZip2InputStream(new ByteArrayInputStream(compressed))) {
+            byte[] buffer = new byte[4096];
+            for (int n = in.read(buffer); n >= 0; n = in.read(buffer)) {
+                out.write(buffer, 0, n);
+            }
+        }
+        return out.toByteArray();
+    }
 }
@@ -22,7 +22,15 @@ import org.junit.Test;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Random;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
@@ -49,6 +57,115 @@ public class TarRoundTripTest {
         testLongRoundTripping(TarOutputStream.LONGFILE_POSIX);
     }
 
+    /**
+     * archives written to and read from file channels
+     */
+    @Test
+    public void testChannelRoundTripping() throws IOException {
+        int[] sizes = {0, 1, 511, 512, 513, 10247, 100000, 3};
+        Random r = new Random(42);
+        byte[][] contents = new byte[sizes.length][];
+        for (int i = 0; i < sizes.length; i++) {
+            contents[i] = new byte[sizes[i]];
+            r.nextBytes(contents[i]);
+        }
+        Path source = Files.createTempFile("tarsource", ".bin");
+        Path archive = Files.createTempFile("tarchannel", ".tar");
+        try {
+            for (int blockSize : new int[] {TarBuffer.DEFAULT_BLKSIZE, 65536}) {
+                ByteArrayOutputStream expected = new ByteArrayOutputStream();
+                try (TarOutputStream tos = new TarOutputStream(expected, blockSize)) {
+                    for (int i = 0; i < sizes.length; i++) {
+                        tos.putNextEntry(entry(i, sizes[i]));
+                        tos.write(contents[i]);
+                        tos.closeEntry();
+                    }
+                }
+
+                try (FileChannel out = FileChannel.open(archive,
+                         StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+                     TarOutputStream tos = new TarOutputStream(out, blockSize, null)) {
+                    for (int i = 0; i < sizes.length; i++) {
+                        Files.write(source, contents[i]);
+                        tos.putNextEntry(entry(i, sizes[i]));
+                        try (FileChannel in = FileChannel.open(source)) {
+                            // entries with an odd index start with a partial record
+                            int head = i % 2 == 1 ? Math.min(5, sizes[i]) : 0;
+                            tos.write(contents[i], 0, head);
+                            tos.transferFrom(in, head, sizes[i] - head);
+                        }
+                        tos.closeEntry();
+                    }
+                }
+                assertArrayEquals("block size " + blockSize,
+                                  expected.toByteArray(), Files.readAllBytes(archive));
+
+                try (FileChannel in = FileChannel.open(archive);
+                     TarInputStream tis = new TarInputStream(in, blockSize, null)) {
+                    for (int i = 0; i < sizes.length; i++) {
+                        TarEntry te = tis.getNextEntry();
+                        assertEquals("e" + i, te.getName());
+                        if (i % 3 == 2) {
+                            // read a bit and skip the rest
+                            byte[] head = new byte[Math.min(7, sizes[i])];
+                            assertEquals(head.length, tis.read(head));
+                            assertArrayEquals(Arrays.copyOf(contents[i], head.length), head);
+                            continue;
+                        }
+                        ByteArrayOutputStream actual = new ByteArrayOutputStream();
+                        if (i % 3 == 1) {
+                            byte[] head = new byte[Math.min(3, sizes[i])];
+                            assertEquals(head.length, tis.read(head));
+                            actual.write(head);
+                        }
+                        tis.copyEntryContents(Channels.newChannel(actual));
+                        assertArrayEquals("e" + i, contents[i], actual.toByteArray());
+                    }
+                    assertNull("no more entries", tis.getNextEntry());
+                }
+            }
+        } finally {
+            Files.deleteIfExists(source);
+            Files.deleteIfExists(archive);
+        }
+    }
+
+    /**
+     * file channels transferred to archives written to streams
+     */
+    @Test
+    public void testTransferToStream() throws IOException {
+        byte[] content = new byte[100000];
+        new Random(42).nextBytes(content);
+        Path source = Files.createTempFile("tarsource", ".bin");
+        try {
+            Files.write(source, content);
+            ByteArrayOutputStream expected = new ByteArrayOutputStream();
+            try (TarOutputStream tos = new TarOutputStream(expected)) {
+                tos.putNextEntry(entry(0, content.length));
+                tos.write(content);
+                tos.closeEntry();
+            }
+            ByteArrayOutputStream actual = new ByteArrayOutputStream();
+            try (TarOutputStream tos = new TarOutputStream(actual);
+                 FileChannel in = FileChannel.open(source)) {
+                tos.putNextEntry(entry(0, content.length));
+                tos.transferFrom(in, 0, content.length);
+                tos.closeEntry();
+            }
+            assertArrayEquals(expected.toByteArray(), actual.toByteArray());
+        } finally {
+            Files.deleteIfExists(source);
+        }
+    }
+
+    private static TarEntry entry(int i, long size) {
+        TarEntry te = new TarEntry("e" + i);
+        te.setModTime(0);
+        te.setSize(size);
+        return te;
+    }
+
     private void testLongRoundTripping(int mode) throws IOException {
         TarEntry original = new TarEntry(LONG_NAME);
         assertTrue("over 100 chars", LONG_NAME.length() > 100);
@@ -0,0 +1,224 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.apache.tools.zip;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ZipFileTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testMappedArchiveProvidesSameEntries() throws IOException {
+        assertSameEntries(createArchive(), "UTF-8");
+    }
+
+    @Test
+    public void testMappedArchiveUsesUnicodeExtraFields() throws IOException {
+        File archive = folder.newFile("test.zip");
+        try (ZipOutputStream zOut = new ZipOutputStream(archive)) {
+            zOut.setEncoding("US-ASCII");
+            zOut.setUseLanguageEncodingFlag(false);
+            zOut.setCreateUnicodeExtraFields(
+                ZipOutputStream.UnicodeExtraFieldPolicy.ALWAYS);
+            addEntry(zOut, "ascii.txt", "ascii");
+            addEntry(zOut, "\u00e4\u00f6\u00fc.txt", "umlauts");
+        }
+        assertSameEntries(archive, "US-ASCII");
+        try (ZipFile mapped = new ZipFile(archive, "US-ASCII", true, true)) {
+            assertEquals("umlauts", new String(read(mapped, mapped.getEntry("\u00e4\u00f6\u00fc.txt")),
+                                               StandardCharsets.UTF_8));
+        }
+    }
+
+    private static void assertSameEntries(File archive, String encoding) throws IOException {
+        try (ZipFile eager = new ZipFile(archive, encoding, true, false);
+             ZipFile mapped = new ZipFile(archive, encoding, true, true)) {
+            List<ZipEntry> expected = Collections.list(eager.getEntries());
+            List<ZipEntry> actual = Collections.list(mapped.getEntries());
+            assertEquals(expected.size(), actual.size());
+            for (int i = 0; i < expected.size(); i++) {
+                ZipEntry e = expected.get(i);
+                ZipEntry a = actual.get(i);
+                assertEquals(e.getName(), a.getName());
+                assertEquals(e.getCrc(), a.getCrc());
+                assertEquals(e.getSize(), a.getSize());
+                assertEquals(e.getCompressedSize(), a.getCompressedSize());
+                assertEquals(e.getComment(), a.getComment());
+                assertArrayEquals(e.getExtra(), a.getExtra());
+                assertEquals(eager.getDataOffset(e), mapped.getDataOffset(a));
+                assertArrayEquals(read(eager, e), read(mapped, a));
+            }
+            assertEquals(names(eager.getEntriesInPhysicalOrder()),
+                         names(mapped.getEntriesInPhysicalOrder()));
+        }
+    }
+
+    @Test
+    public void testMappedArchiveLooksUpNames() throws IOException {
+        File archive = createArchive();
+        try (ZipFile eager = new ZipFile(archive, "UTF-8", true, false);
+             ZipFile mapped = new ZipFile(archive, "UTF-8", true, true)) {
+            for (int i = 0; i < 300; i++) {
+                String name = "dir" + (i % 7) + "/entry" + i + ".txt";
+                assertEquals(name, mapped.getEntry(name).getName());
+                assertArrayEquals(read(eager, eager.getEntry(name)),
+                                  read(mapped, mapped.getEntry(name)));
+            }
+            assertNull(mapped.getEntry("no/such/entry"));
+            assertTrue(names(mapped.getEntries("no/such/entry")).isEmpty());
+
+            List<ZipEntry> duplicates = new ArrayList<>();
+            mapped.getEntries("dup.txt").forEach(duplicates::add);
+            assertEquals(2, duplicates.size());
+            assertEquals("first", new String(read(mapped, duplicates.get(0)),
+                                             StandardCharsets.UTF_8));
+            assertEquals("second", new String(read(mapped, duplicates.get(1)),
+                                              StandardCharsets.UTF_8));
+            assertEquals("first", new String(read(mapped, mapped.getEntry("dup.txt")),
+                                             StandardCharsets.UTF_8));
+            assertEquals(names(eager.getEntriesInPhysicalOrder("dup.txt")),
+                         names(mapped.getEntriesInPhysicalOrder("dup.txt")));
+        }
+    }
+
+    @Test
+    public void testMappedArchiveReportsCorruptLocalHeaderAsIOException()
+        throws IOException {
+        File archive = folder.newFile("test.zip");
+        try (ZipOutputStream zOut = new ZipOutputStream(archive)) {
+            addEntry(zOut, "a.txt", "a");
+        }
+        // make the extra field of the local file header extend
+        // beyond the end of the archive
+        try (RandomAccessFile raf = new RandomAccessFile(archive, "rw")) {
+            raf.seek(28);
+            raf.write(new byte[] {(byte) 0xff, (byte) 0xff});
+        }
+        try {
+            new ZipFile(archive, "UTF-8", true, false).close();
+            fail("expected an IOException");
+        } catch (IOException expected) {
+            // eager mode reads all local file headers right away
+        }
+        try (ZipFile mapped = new ZipFile(archive, "UTF-8", true, true)) {
+            mapped.getEntry("a.txt");
+            fail("expected an UncheckedIOException");
+        } catch (UncheckedIOException e) {
+            assertTrue(e.getCause() instanceof EOFException);
+        }
+    }
+
+    @Test
+    public void testMappedArchiveCanBeReplacedAfterClose() throws IOException {
+        File archive = createArchive();
+        ZipFile mapped = new ZipFile(archive, "UTF-8", true, true);
+        ZipEntry created = mapped.getEntry("dup.txt");
+        Enumeration<ZipEntry> pending = mapped.getEntries();
+        mapped.close();
+        assertEquals("dup.txt", created.getName());
+        try {
+            pending.nextElement();
+            pending.nextElement();
+            fail("expected an UncheckedIOException");
+        } catch (UncheckedIOException expected) {
+            // the central directory is no longer mapped
+        }
+        // deleting and rewriting the archive doesn't hurt the closed file
+        assertTrue(archive.delete());
+        try (ZipOutputStream zOut = new ZipOutputStream(archive)) {
+            addEntry(zOut, "new.txt", "new");
+        }
+        try (ZipFile reopened = new ZipFile(archive, "UTF-8", true, true)) {
+            assertEquals("new", new String(read(reopened, reopened.getEntry("new.txt")),
+                                           StandardCharsets.UTF_8));
+        }
+    }
+
+    private File createArchive() throws IOException {
+        File archive = folder.newFile("test.zip");
+        try (ZipOutputStream zOut = new ZipOutputStream(archive)) {
+            zOut.setEncoding("UTF-8");
+            addEntry(zOut, "dup.txt", "first");
+            for (int i = 0; i < 300; i++) {
+                ZipEntry ze = new ZipEntry("dir" + (i % 7) + "/entry" + i + ".txt");
+                ze.setMethod(i % 3 == 0 ? ZipEntry.STORED : ZipEntry.DEFLATED);
+                ze.setComment("comment " + i);
+                zOut.putNextEntry(ze);
+                for (int j = 0; j <= i; j++) {
+                    zOut.write(("line " + j + "\n").getBytes(StandardCharsets.UTF_8));
+                }
+                zOut.closeEntry();
+            }
+            addEntry(zOut, "\u00e4\u00f6\u00fc.txt", "umlauts");
+            addEntry(zOut, "dup.txt", "second");
+        }
+        return archive;
+    }
+
+    private static void addEntry(ZipOutputStream zOut, String name, String content)
+        throws IOException {
+        zOut.putNextEntry(new ZipEntry(name));
+        zOut.write(content.getBytes(StandardCharsets.UTF_8));
+        zOut.closeEntry();
+    }
+
+    private static byte[] read(ZipFile zf, ZipEntry ze) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (InputStream in = zf.getInputStream(ze)) {
+            byte[] buffer = new byte[4096];
+            for (int n = in.read(buffer); n >= 0; n = in.read(buffer)) {
+                out.write(buffer, 0, n);
+            }
+        }
+        return out.toByteArray();
+    }
+
+    private static List<String> names(Iterable<ZipEntry> entries) {
+        List<String> names = new ArrayList<>();
+        entries.forEach(e -> names.add(e.getName()));
+        return names;
+    }
+
+    private static List<String> names(Enumeration<ZipEntry> entries) {
+        return names(Collections.list(entries));
+    }
+}
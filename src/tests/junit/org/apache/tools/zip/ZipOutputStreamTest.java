@@ -19,15 +19,31 @@
 package org.apache.tools.zip;
 
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
 import java.util.Calendar;
+import java.util.Collections;
 import java.util.Date;
+import java.util.Random;
+import java.util.zip.CRC32;
+import java.util.zip.ZipException;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 
 public class ZipOutputStreamTest {
 
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
     private Date time;
     private ZipLong zl;
 
@@ -70,4 +86,127 @@ public class ZipOutputStreamTest {
                      ZipUtil.adjustToLong(2 * Integer.MAX_VALUE));
     }
 
+    @Test
+    public void testThreadsCreateIdenticalStreams() throws IOException {
+        assertArrayEquals(createArchive(1), createArchive(3));
+    }
+
+    @Test
+    public void testStreamingZip64ModeOnlyDiffersForBigEntries() throws IOException {
+        assertArrayEquals(createArchive(1, Zip64Mode.AsNeeded),
+                          createArchive(1, Zip64Mode.AsNeededStreaming));
+        assertArrayEquals(createArchive(3, Zip64Mode.AsNeeded),
+                          createArchive(3, Zip64Mode.AsNeededStreaming));
+    }
+
+    @Test
+    public void testThreadsCreateIdenticalFiles() throws IOException {
+        File single = folder.newFile("single.zip");
+        File parallel = folder.newFile("parallel.zip");
+        try (ZipOutputStream zOut = new ZipOutputStream(single)) {
+            addEntries(zOut, 1);
+        }
+        try (ZipOutputStream zOut = new ZipOutputStream(parallel)) {
+            addEntries(zOut, 3);
+        }
+        assertArrayEquals(Files.readAllBytes(single.toPath()),
+                          Files.readAllBytes(parallel.toPath()));
+    }
+
+    @Test
+    public void testAddRawEntry() throws IOException {
+        File source = folder.newFile("source.zip");
+        try (ZipOutputStream zOut = new ZipOutputStream(source)) {
+            addEntries(zOut, 1);
+        }
+        for (int threads = 1; threads <= 3; threads += 2) {
+            ByteArrayOutputStream copy = new ByteArrayOutputStream();
+            try (ZipFile zf = new ZipFile(source);
+                 ZipOutputStream zOut = new ZipOutputStream(copy)) {
+                zOut.setThreads(threads);
+                for (ZipEntry ze : Collections.list(zf.getEntries())) {
+                    ZipEntry target = new ZipEntry(ze);
+                    target.setName("copy/" + ze.getName());
+                    try (InputStream raw = zf.getRawInputStream(ze)) {
+                        zOut.addRawEntry(target, raw);
+                    }
+                }
+            }
+            File target = folder.newFile("copy" + threads + ".zip");
+            Files.write(target.toPath(), copy.toByteArray());
+            try (ZipFile zf = new ZipFile(source);
+                 java.util.zip.ZipFile copied = new java.util.zip.ZipFile(target)) {
+                for (ZipEntry ze : Collections.list(zf.getEntries())) {
+                    java.util.zip.ZipEntry c = copied.getEntry("copy/" + ze.getName());
+                    assertEquals(ze.getCompressedSize(), c.getCompressedSize());
+                    try (InputStream expected = zf.getInputStream(ze);
+                         InputStream actual = copied.getInputStream(c)) {
+                        assertArrayEquals(readAll(expected), readAll(actual));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test(expected = ZipException.class)
+    public void testAddRawEntryRequiresSizes() throws IOException {
+        try (ZipOutputStream zOut = new ZipOutputStream(new ByteArrayOutputStream())) {
+            zOut.addRawEntry(new ZipEntry("foo"), new ByteArrayInputStream(new byte[0]));
+        }
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        for (int n = in.read(buffer); n >= 0; n = in.read(buffer)) {
+            bos.write(buffer, 0, n);
+        }
+        return bos.toByteArray();
+    }
+
+    private static byte[] createArchive(int threads) throws IOException {
+        return createArchive(threads, Zip64Mode.AsNeeded);
+    }
+
+    private static byte[] createArchive(int threads, Zip64Mode mode)
+        throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        try (ZipOutputStream zOut = new ZipOutputStream(bos)) {
+            zOut.setUseZip64(mode);
+            addEntries(zOut, threads);
+        }
+        return bos.toByteArray();
+    }
+
+    private static void addEntries(ZipOutputStream zOut, int threads)
+        throws IOException {
+        zOut.setThreads(threads);
+        Random r = new Random(42);
+        for (int i = 0; i < 50; i++) {
+            byte[] data = new byte[i == 7 ? 9 * 1024 * 1024 : r.nextInt(100000)];
+            for (int j = 0; j < data.length; j++) {
+                // the big entry is compressed by the calling thread
+                data[j] = i == 7 ? (byte) (j % 61 + j / 4096)
+                    : (byte) ('a' + r.nextInt(1 + i % 20));
+            }
+            ZipEntry ze = new ZipEntry("entry" + i + (i % 10 == 0 ? "/" : ""));
+            ze.setTime(1000000000000L + i);
+            if (i % 5 == 0) {
+                CRC32 crc = new CRC32();
+                crc.update(data);
+                ze.setMethod(ZipEntry.STORED);
+                ze.setSize(data.length);
+                ze.setCrc(crc.getValue());
+            }
+            zOut.setLevel(i % 3 == 0 ? 1 : ZipOutputStream.DEFAULT_COMPRESSION);
+            zOut.putNextEntry(ze);
+            for (int off = 0; off < data.length; off += 8192) {
+                zOut.write(data, off, Math.min(8192 - i, data.length - off));
+                off -= i;
+            }
+            if (i % 2 == 0) {
+                zOut.closeEntry();
+            }
+        }
+    }
 }